@@ -0,0 +1,182 @@
+package com.medcare.benchmarks;
+
+import com.medcare.config.DatabaseConfig;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+// Seeded synthetic patients and appointments for the database-backed benchmarks. Each size is a
+// file-mode H2 store under medcare.bench.dataDir (default target/bench-data), generated once with
+// batched inserts and reopened by later forks, so a 1M-row trial pays for seeding only on its
+// first run. The same size always produces the same rows.
+final class BenchmarkDataset {
+    static final long SEED = 42;
+    static final int DOCTORS = 50;
+    static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+    static final int DAYS = 730;
+
+    static final String[] FIRST_NAMES = {
+        "James", "Mary", "Robert", "Patricia", "John", "Jennifer", "Michael", "Linda", "David", "Elizabeth",
+        "William", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah", "Charles", "Karen",
+        "Priya", "Ravi", "Ana", "Mateo", "Wei", "Mei", "Omar", "Fatima", "Kenji", "Yuki",
+        "Olga", "Ivan", "Chloé", "Lucas", "Amara", "Kwame", "Sofia", "Diego", "Aisha", "Noah"
+    };
+    static final String[] LAST_NAMES = {
+        "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez",
+        "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore", "Jackson", "Martin",
+        "Lee", "Perez", "Thompson", "White", "Harris", "Sanchez", "Clark", "Ramirez", "Lewis", "Robinson",
+        "Walker", "Young", "Allen", "King", "Wright", "Scott", "Torres", "Nguyen", "Hill", "Flores",
+        "Patel", "Kumar", "Chen", "Wang", "Kim", "Tanaka", "Müller", "Schmidt", "Rossi", "Dubois",
+        "O'Brien", "Murphy", "Kowalski", "Novak", "Ivanov", "Okafor", "Mensah", "Haddad", "Cohen", "Silva"
+    };
+    private static final String[] BLOOD_TYPES = { "O+", "O-", "A+", "A-", "B+", "B-", "AB+", "AB-" };
+    private static final String[] ALLERGIES = { "", "", "", "Penicillin", "Peanuts", "Latex", "Penicillin,Sulfa" };
+    private static final String[] MEDICATIONS = { "", "", "Lisinopril 10mg", "Metformin 500mg", "Atorvastatin 20mg,Aspirin 81mg" };
+    private static final String[] TYPES = { "consultation", "consultation", "follow_up", "follow_up", "emergency", "surgery" };
+    private static final String[] STATUSES = { "scheduled", "scheduled", "checked_in", "completed", "completed", "cancelled", "no_show" };
+    private static final int BATCH_SIZE = 5000;
+
+    private BenchmarkDataset() {}
+
+    // Points DatabaseConfig at the store for this size and opens it, generating the rows first if
+    // the store is missing or was left incomplete. Must run before anything else touches DatabaseConfig.
+    static void open(int rows) {
+        Path dir = Paths.get(System.getProperty("medcare.bench.dataDir", "target/bench-data"), "rows-" + rows);
+        Path complete = dir.resolve("complete");
+        try {
+            if (!Files.exists(complete)) {
+                deleteRecursively(dir);
+            }
+            System.setProperty("medcare.db.mode", "file");
+            System.setProperty("medcare.db.path", dir.resolve("hospital_db").toString());
+            DatabaseConfig.initializeDatabase();
+            if (!Files.exists(complete)) {
+                long start = System.nanoTime();
+                seed(rows);
+                System.out.println("Seeded " + rows + " patients and appointments in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+                Files.createFile(complete);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not seed the benchmark database", e);
+        }
+    }
+
+    // Lowest and highest patient id, for drawing random lookups
+    static long[] patientIdRange() {
+        try (Connection conn = DatabaseConfig.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT MIN(id), MAX(id) FROM patients")) {
+            rs.next();
+            return new long[] { rs.getLong(1), rs.getLong(2) };
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // "Mary Sm" style prefixes as typed into a search box, each matching roughly 1 in 2000 patients
+    static String[] searchTerms(int count) {
+        Random random = new Random(SEED + 1);
+        String[] terms = new String[count];
+        for (int i = 0; i < count; i++) {
+            String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            terms[i] = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + last.substring(0, 2);
+        }
+        return terms;
+    }
+
+    private static void seed(int rows) throws SQLException {
+        Random random = new Random(SEED);
+        String[] names = new String[rows];
+        long[] ids = new long[rows];
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement("""
+                    INSERT INTO patients (name, email, phone, date_of_birth, gender, address, emergency_contact,
+                                          blood_type, allergies, medications)
+                    VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                    """, Statement.RETURN_GENERATED_KEYS)) {
+                int batched = 0;
+                for (int i = 0; i < rows; i++) {
+                    names[i] = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                        + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+                    stmt.setString(1, names[i]);
+                    stmt.setString(2, "patient" + i + "@bench.example.com");
+                    stmt.setString(3, "+1-555-" + (1000 + random.nextInt(9000)));
+                    stmt.setDate(4, Date.valueOf(LocalDate.of(1930, 1, 1).plusDays(random.nextInt(33_000))));
+                    stmt.setString(5, random.nextInt(100) < 49 ? "male" : random.nextInt(50) == 0 ? "other" : "female");
+                    stmt.setString(6, (1 + random.nextInt(9999)) + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)]
+                        + " Street, Springfield, IL " + (60000 + random.nextInt(3000)));
+                    stmt.setString(7, "+1-555-" + (1000 + random.nextInt(9000)));
+                    stmt.setString(8, BLOOD_TYPES[random.nextInt(BLOOD_TYPES.length)]);
+                    stmt.setString(9, ALLERGIES[random.nextInt(ALLERGIES.length)]);
+                    stmt.setString(10, MEDICATIONS[random.nextInt(MEDICATIONS.length)]);
+                    stmt.addBatch();
+                    if (++batched == BATCH_SIZE || i == rows - 1) {
+                        stmt.executeBatch();
+                        try (ResultSet keys = stmt.getGeneratedKeys()) {
+                            for (int k = i - batched + 1; keys.next(); k++) {
+                                ids[k] = keys.getLong(1);
+                            }
+                        }
+                        conn.commit();
+                        batched = 0;
+                    }
+                }
+            }
+
+            try (PreparedStatement stmt = conn.prepareStatement("""
+                    INSERT INTO appointments (patient_id, patient_name, doctor_id, doctor_name, appointment_date,
+                                              appointment_time, duration, type, status, notes)
+                    VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                    """)) {
+                for (int i = 0; i < rows; i++) {
+                    int patient = random.nextInt(rows);
+                    int doctor = random.nextInt(DOCTORS);
+                    stmt.setLong(1, ids[patient]);
+                    stmt.setString(2, names[patient]);
+                    stmt.setLong(3, 1000 + doctor);
+                    stmt.setString(4, "Dr. " + LAST_NAMES[doctor % LAST_NAMES.length]);
+                    stmt.setDate(5, Date.valueOf(FIRST_DAY.plusDays(random.nextInt(DAYS))));
+                    stmt.setTime(6, Time.valueOf(LocalTime.of(8 + random.nextInt(10), random.nextInt(4) * 15)));
+                    stmt.setInt(7, 15 * (1 + random.nextInt(4)));
+                    stmt.setString(8, TYPES[random.nextInt(TYPES.length)]);
+                    stmt.setString(9, STATUSES[random.nextInt(STATUSES.length)]);
+                    stmt.setString(10, random.nextInt(4) == 0 ? "Patient requested a morning slot" : null);
+                    stmt.addBatch();
+                    if ((i + 1) % BATCH_SIZE == 0 || i == rows - 1) {
+                        stmt.executeBatch();
+                        conn.commit();
+                    }
+                }
+            }
+        }
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.medcare.benchmarks;
+
+import com.medcare.config.DatabaseConfig;
+import com.medcare.dao.AppointmentDAO;
+import com.medcare.dao.PatientDAO;
+import com.medcare.model.Appointment;
+import com.medcare.model.Patient;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// DAO reads against seeded stores of 10k, 100k and 1M patients with as many appointments.
+// findById draws random ids, so the 10k set is served from the entity cache (10k entries by
+// default) while the larger ones mostly reach H2. Appointments spread over two years, so
+// findByDate returns rows / 730 appointments.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class DaoBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    private PatientDAO patientDAO;
+    private AppointmentDAO appointmentDAO;
+    private long firstId;
+    private long idSpan;
+    private String[] searchTerms;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkDataset.open(rows);
+        patientDAO = new PatientDAO();
+        appointmentDAO = new AppointmentDAO();
+        long[] range = BenchmarkDataset.patientIdRange();
+        firstId = range[0];
+        idSpan = range[1] - range[0] + 1;
+        searchTerms = BenchmarkDataset.searchTerms(64);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        DatabaseConfig.shutdown();
+    }
+
+    @Benchmark
+    public Patient patientFindById() {
+        return patientDAO.findById(firstId + ThreadLocalRandom.current().nextLong(idSpan));
+    }
+
+    @Benchmark
+    public List<Patient> patientSearchByName() {
+        return patientDAO.searchByName(searchTerms[ThreadLocalRandom.current().nextInt(searchTerms.length)]);
+    }
+
+    @Benchmark
+    public List<Appointment> appointmentFindByDate() {
+        return appointmentDAO.findByDate(
+            BenchmarkDataset.FIRST_DAY.plusDays(ThreadLocalRandom.current().nextInt(BenchmarkDataset.DAYS)));
+    }
+
+    // Materialises every patient; at 1M rows one call takes seconds, so fewer and longer iterations
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2, time = 5)
+    @Measurement(iterations = 3, time = 5)
+    public List<Patient> patientFindAll() {
+        return patientDAO.findAll();
+    }
+}
@@ -0,0 +1,101 @@
+package com.medcare.benchmarks;
+
+import com.medcare.config.DatabaseConfig;
+import com.medcare.server.HttpServer;
+import com.medcare.service.PatientService;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Full request round trips through an in-process HttpServer on an ephemeral port: routing,
+// service, DAO or index, JSON and the socket, over one keep-alive HTTP/1.1 connection.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class HttpRoundTripBenchmark {
+
+    @Param({"100000"})
+    public int rows;
+
+    private HttpServer server;
+    private HttpClient client;
+    private String base;
+    private long firstId;
+    private long idSpan;
+    private String[] searchQueries;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        BenchmarkDataset.open(rows);
+        new PatientService().buildSearchIndex();
+        server = new HttpServer(0);
+        server.start();
+        base = "http://localhost:" + server.getPort();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        long[] range = BenchmarkDataset.patientIdRange();
+        firstId = range[0];
+        idSpan = range[1] - range[0] + 1;
+        String[] terms = BenchmarkDataset.searchTerms(64);
+        searchQueries = new String[terms.length];
+        for (int i = 0; i < terms.length; i++) {
+            searchQueries[i] = URLEncoder.encode(terms[i], StandardCharsets.UTF_8);
+        }
+        // Fail the trial up front rather than timing error responses
+        get("/api/patients/" + firstId);
+        get("/api/patients/search?q=" + searchQueries[0]);
+        get("/api/appointments?limit=50");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.stop();
+        DatabaseConfig.shutdown();
+    }
+
+    @Benchmark
+    public byte[] getPatient() throws Exception {
+        return get("/api/patients/" + (firstId + ThreadLocalRandom.current().nextLong(idSpan)));
+    }
+
+    @Benchmark
+    public byte[] searchPatients() throws Exception {
+        return get("/api/patients/search?q=" + searchQueries[ThreadLocalRandom.current().nextInt(searchQueries.length)]);
+    }
+
+    @Benchmark
+    public byte[] appointmentsFirstPage() throws Exception {
+        return get("/api/appointments?limit=50");
+    }
+
+    private byte[] get(String path) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(
+            HttpRequest.newBuilder(URI.create(base + path)).GET().build(), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(path + " answered " + response.statusCode());
+        }
+        return response.body();
+    }
+}
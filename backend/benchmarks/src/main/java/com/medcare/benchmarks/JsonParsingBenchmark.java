@@ -0,0 +1,71 @@
+package com.medcare.benchmarks;
+
+import com.medcare.model.Appointment;
+import com.medcare.model.Patient;
+import com.medcare.util.JsonUtil;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Regex-splitting legacy parser vs JsonReader, both into a Map and bound straight into models.
+// The legacy parser only ever handled flat objects, so the payloads are kept flat.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonParsingBenchmark {
+    
+    private String patientJson;
+    private byte[] patientBytes;
+    private String appointmentJson;
+    
+    @Setup
+    public void setUp() {
+        patientJson = "{\"name\":\"John Smith\",\"email\":\"john.smith@email.com\",\"phone\":\"+1-555-0123\","
+            + "\"dateOfBirth\":\"1985-06-15\",\"gender\":\"male\",\"address\":\"123 Main St, City, State 12345\","
+            + "\"emergencyContact\":\"+1-555-0124\",\"bloodType\":\"O+\",\"allergies\":\"Penicillin,Peanuts\","
+            + "\"medications\":\"Lisinopril 10mg\"}";
+        patientBytes = patientJson.getBytes(StandardCharsets.UTF_8);
+        appointmentJson = "{\"patientId\":1,\"patientName\":\"John Smith\",\"doctorId\":2,"
+            + "\"doctorName\":\"Dr. Michael Chen\",\"date\":\"2024-01-25\",\"time\":\"10:00\",\"duration\":30,"
+            + "\"type\":\"consultation\",\"notes\":\"Regular checkup, bring previous reports\"}";
+    }
+    
+    @Benchmark
+    public Map<String, Object> patientLegacy() {
+        return LegacyJsonParser.parseJsonObject(patientJson);
+    }
+    
+    @Benchmark
+    public Map<?, ?> patientToMap() {
+        return JsonUtil.fromJson(patientJson, Map.class);
+    }
+    
+    @Benchmark
+    public Patient patientBound() {
+        return JsonUtil.fromJson(new ByteArrayInputStream(patientBytes), Patient.class);
+    }
+    
+    @Benchmark
+    public Map<String, Object> appointmentLegacy() {
+        return LegacyJsonParser.parseJsonObject(appointmentJson);
+    }
+    
+    @Benchmark
+    public Appointment appointmentBound() {
+        return JsonUtil.fromJson(appointmentJson, Appointment.class);
+    }
+}
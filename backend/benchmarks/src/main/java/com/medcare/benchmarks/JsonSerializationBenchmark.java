@@ -0,0 +1,66 @@
+package com.medcare.benchmarks;
+
+import com.medcare.model.Appointment;
+import com.medcare.model.Patient;
+import com.medcare.util.JsonUtil;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Reflection-based legacy serializer vs the precompiled JsonSerializer plans.
+// Run with "-prof gc" to compare allocation per operation (gc.alloc.rate.norm).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+    
+    @Param({"1", "1000"})
+    public int size;
+    
+    private List<Patient> patients;
+    private List<Appointment> appointments;
+    
+    @Setup
+    public void setUp() {
+        patients = SampleData.patients(size, 42);
+        appointments = SampleData.appointments(size, 42);
+    }
+    
+    @Benchmark
+    public String patientsLegacy() {
+        return LegacyJsonSerializer.toJson(patients);
+    }
+    
+    @Benchmark
+    public String patientsToJson() {
+        return JsonUtil.toJson(patients);
+    }
+    
+    @Benchmark
+    public byte[] patientsToJsonBytes() {
+        return JsonUtil.toJsonBytes(patients);
+    }
+    
+    @Benchmark
+    public String appointmentsLegacy() {
+        return LegacyJsonSerializer.toJson(appointments);
+    }
+    
+    @Benchmark
+    public byte[] appointmentsToJsonBytes() {
+        return JsonUtil.toJsonBytes(appointments);
+    }
+}
@@ -0,0 +1,40 @@
+package com.medcare.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Frozen copy of the original regex-splitting JsonUtil.fromJson, kept only as a benchmark baseline
+final class LegacyJsonParser {
+    
+    private LegacyJsonParser() {}
+    
+    static Map<String, Object> parseJsonObject(String json) {
+        Map<String, Object> result = new HashMap<>();
+        
+        // Remove outer braces
+        json = json.trim();
+        if (json.startsWith("{") && json.endsWith("}")) {
+            json = json.substring(1, json.length() - 1);
+        }
+        
+        // Simple parsing - split by commas (this is very basic)
+        String[] pairs = json.split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)");
+        
+        for (String pair : pairs) {
+            String[] keyValue = pair.split(":", 2);
+            if (keyValue.length == 2) {
+                String key = keyValue[0].trim().replaceAll("\"", "");
+                String value = keyValue[1].trim();
+                
+                // Remove quotes from string values
+                if (value.startsWith("\"") && value.endsWith("\"")) {
+                    value = value.substring(1, value.length() - 1);
+                }
+                
+                result.put(key, value);
+            }
+        }
+        
+        return result;
+    }
+}
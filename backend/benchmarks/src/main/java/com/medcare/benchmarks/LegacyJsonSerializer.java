@@ -0,0 +1,88 @@
+package com.medcare.benchmarks;
+
+import java.lang.reflect.Field;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+// Frozen copy of the original reflection-based JsonUtil.toJson, kept only as a benchmark baseline
+final class LegacyJsonSerializer {
+    
+    private LegacyJsonSerializer() {}
+    
+    static String toJson(Object obj) {
+        if (obj == null) return "null";
+        
+        if (obj instanceof String) {
+            return "\"" + escapeString((String) obj) + "\"";
+        }
+        
+        if (obj instanceof Number || obj instanceof Boolean) {
+            return obj.toString();
+        }
+        
+        if (obj instanceof LocalDate) {
+            return "\"" + ((LocalDate) obj).format(DateTimeFormatter.ISO_LOCAL_DATE) + "\"";
+        }
+        
+        if (obj instanceof LocalTime) {
+            return "\"" + ((LocalTime) obj).format(DateTimeFormatter.ISO_LOCAL_TIME) + "\"";
+        }
+        
+        if (obj instanceof LocalDateTime) {
+            return "\"" + ((LocalDateTime) obj).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) + "\"";
+        }
+        
+        if (obj instanceof Enum) {
+            return "\"" + ((Enum<?>) obj).name().toLowerCase() + "\"";
+        }
+        
+        if (obj instanceof List) {
+            List<?> list = (List<?>) obj;
+            StringBuilder sb = new StringBuilder("[");
+            for (int i = 0; i < list.size(); i++) {
+                if (i > 0) sb.append(",");
+                sb.append(toJson(list.get(i)));
+            }
+            sb.append("]");
+            return sb.toString();
+        }
+        
+        return objectToJson(obj);
+    }
+    
+    private static String objectToJson(Object obj) {
+        StringBuilder sb = new StringBuilder("{");
+        Class<?> clazz = obj.getClass();
+        Field[] fields = clazz.getDeclaredFields();
+        boolean first = true;
+        
+        for (Field field : fields) {
+            field.setAccessible(true);
+            try {
+                Object value = field.get(obj);
+                if (value != null) {
+                    if (!first) sb.append(",");
+                    sb.append("\"").append(field.getName()).append("\":");
+                    sb.append(toJson(value));
+                    first = false;
+                }
+            } catch (IllegalAccessException e) {
+                // Skip this field
+            }
+        }
+        
+        sb.append("}");
+        return sb.toString();
+    }
+    
+    private static String escapeString(String str) {
+        return str.replace("\\", "\\\\")
+                  .replace("\"", "\\\"")
+                  .replace("\n", "\\n")
+                  .replace("\r", "\\r")
+                  .replace("\t", "\\t");
+    }
+}
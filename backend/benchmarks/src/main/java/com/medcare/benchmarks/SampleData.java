@@ -0,0 +1,51 @@
+package com.medcare.benchmarks;
+
+import com.medcare.model.Appointment;
+import com.medcare.model.Patient;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+// Realistic in-memory payloads shared by the benchmarks
+final class SampleData {
+    private static final String[] FIRST_NAMES = { "John", "Emily", "Michael", "Sarah", "David", "Priya", "Ravi", "Ana" };
+    private static final String[] LAST_NAMES = { "Smith", "Johnson", "Chen", "Garcia", "Patel", "Kumar", "Müller", "O'Brien" };
+    
+    private SampleData() {}
+    
+    static List<Patient> patients(int count, long seed) {
+        Random random = new Random(seed);
+        List<Patient> patients = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            Patient patient = new Patient(name, "patient" + i + "@example.com", "+1-555-" + (1000 + random.nextInt(9000)),
+                LocalDate.of(1940 + random.nextInt(80), 1 + random.nextInt(12), 1 + random.nextInt(28)),
+                Patient.Gender.values()[random.nextInt(3)], (100 + i) + " Main St, City, State 12345", "+1-555-0100");
+            patient.setId((long) i + 1);
+            patient.setBloodType("O+");
+            patient.setAllergies(Arrays.asList("Penicillin", "Peanuts"));
+            patient.setMedications(Arrays.asList("Lisinopril 10mg"));
+            patient.setCreatedAt(LocalDateTime.of(2024, 1, 1, 8, 0).plusSeconds(random.nextInt(30_000_000)));
+            patients.add(patient);
+        }
+        return patients;
+    }
+    
+    static List<Appointment> appointments(int count, long seed) {
+        Random random = new Random(seed);
+        List<Appointment> appointments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Appointment appointment = new Appointment((long) random.nextInt(10_000) + 1, "Patient " + i,
+                (long) random.nextInt(50) + 1, "Dr. " + LAST_NAMES[random.nextInt(LAST_NAMES.length)],
+                LocalDate.of(2024, 1, 1).plusDays(random.nextInt(365)), LocalTime.of(8 + random.nextInt(9), random.nextInt(4) * 15),
+                15 * (1 + random.nextInt(4)), Appointment.AppointmentType.values()[random.nextInt(4)], "Regular checkup");
+            appointment.setId((long) i + 1);
+            appointments.add(appointment);
+        }
+        return appointments;
+    }
+}
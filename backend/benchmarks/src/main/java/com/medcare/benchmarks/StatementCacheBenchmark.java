@@ -0,0 +1,57 @@
+package com.medcare.benchmarks;
+
+import com.medcare.config.DatabaseConfig;
+import com.medcare.dao.PatientDAO;
+import com.medcare.model.Patient;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Compares PatientDAO.findById throughput with the per-connection statement cache
+// disabled (0) and enabled. Each parameter value runs in its own fork, so the
+// pool picks up the system property when DatabaseConfig initializes. The entity cache is
+// sized to zero so every lookup reaches the statement.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dmedcare.cache.entityMaxSize=0")
+public class StatementCacheBenchmark {
+
+    @Param({"0", "64"})
+    public int statementCacheSize;
+
+    private PatientDAO patientDAO;
+    private long maxId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        System.setProperty("medcare.db.pool.statementCacheSize", Integer.toString(statementCacheSize));
+        DatabaseConfig.initializeDatabase();
+        patientDAO = new PatientDAO();
+        maxId = patientDAO.findAll().stream().mapToLong(Patient::getId).max().orElse(1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        DatabaseConfig.shutdown();
+    }
+
+    @Benchmark
+    public Patient findById() {
+        return patientDAO.findById(1 + ThreadLocalRandom.current().nextLong(maxId));
+    }
+}
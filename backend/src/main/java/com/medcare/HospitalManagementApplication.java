@@ -2,6 +2,12 @@ package com.medcare;
 
 import com.medcare.config.DatabaseConfig;
 import com.medcare.server.HttpServer;
+import com.medcare.service.AppointmentService;
+import com.medcare.service.ExpirySweeper;
+import com.medcare.service.InventoryService;
+import com.medcare.service.PatientService;
+import com.medcare.service.StockCounters;
+import java.lang.management.ManagementFactory;
 
 public class HospitalManagementApplication {
     public static void main(String[] args) {
@@ -9,16 +15,36 @@ public class HospitalManagementApplication {
             // Initialize database
             DatabaseConfig.initializeDatabase();
             
+            long indexStart = System.nanoTime();
+            int indexed = new PatientService().buildSearchIndex();
+            System.out.println("Patient search index built: " + indexed + " patients in "
+                + (System.nanoTime() - indexStart) / 1_000_000 + " ms");
+            
+            long scheduleStart = System.nanoTime();
+            int scheduled = new AppointmentService().buildScheduleIndex();
+            System.out.println("Doctor schedule index built: " + scheduled + " appointments in "
+                + (System.nanoTime() - scheduleStart) / 1_000_000 + " ms");
+            
+            long expiryStart = System.nanoTime();
+            int dated = new InventoryService().buildExpiryIndex();
+            System.out.println("Inventory expiry index built: " + dated + " lots in "
+                + (System.nanoTime() - expiryStart) / 1_000_000 + " ms");
+            ExpirySweeper.getInstance().start();
+            
             // Start HTTP server
             HttpServer server = new HttpServer(8080);
             server.start();
             
-            System.out.println("Hospital Management System started on port 8080");
+            long uptimeMs = ManagementFactory.getRuntimeMXBean().getUptime();
+            System.out.println("Hospital Management System started on port 8080 in " + uptimeMs + " ms");
             
             // Keep the application running
             Runtime.getRuntime().addShutdownHook(new Thread(() -> {
                 System.out.println("Shutting down Hospital Management System...");
                 server.stop();
+                ExpirySweeper.getInstance().close();
+                StockCounters.getInstance().close();
+                DatabaseConfig.shutdown();
             }));
             
         } catch (Exception e) {
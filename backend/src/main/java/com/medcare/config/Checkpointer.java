@@ -0,0 +1,69 @@
+package com.medcare.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Periodically flushes the file-backed store with CHECKPOINT, so a crash loses at most
+// one interval of writes and the next start has little transaction log to replay.
+class Checkpointer {
+    private final ConnectionPool pool;
+    private final ScheduledExecutorService scheduler;
+    private volatile long lastCheckpointAt;
+    private volatile long lastDurationMs;
+    private volatile long checkpoints;
+    private volatile String lastError;
+
+    Checkpointer(ConnectionPool pool, long intervalSeconds) {
+        this.pool = pool;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "h2-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::checkpointQuietly, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    void checkpoint() throws SQLException {
+        long start = System.nanoTime();
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CHECKPOINT SYNC");
+        }
+        lastDurationMs = (System.nanoTime() - start) / 1_000_000;
+        lastCheckpointAt = System.currentTimeMillis();
+        checkpoints++;
+    }
+
+    private void checkpointQuietly() {
+        try {
+            checkpoint();
+            lastError = null;
+        } catch (SQLException e) {
+            lastError = e.getMessage();
+            System.err.println("Checkpoint failed: " + e.getMessage());
+        }
+    }
+
+    // Stops the schedule and writes a final checkpoint before the pool closes the store
+    void close() {
+        scheduler.shutdownNow();
+        checkpointQuietly();
+    }
+
+    Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("checkpoints", checkpoints);
+        stats.put("lastCheckpointAt", lastCheckpointAt == 0 ? null : lastCheckpointAt);
+        stats.put("lastDurationMs", lastDurationMs);
+        if (lastError != null) {
+            stats.put("lastError", lastError);
+        }
+        return stats;
+    }
+}
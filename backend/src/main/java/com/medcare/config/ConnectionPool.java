@@ -0,0 +1,353 @@
+package com.medcare.config;
+
+import com.medcare.metrics.LatencyHistogram;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Bounded JDBC connection pool. Connections handed out are proxies whose close()
+// returns the physical connection to the pool instead of closing it.
+public class ConnectionPool {
+    // Recently used connections skip the validation round trip on borrow
+    private static final long VALIDATION_BYPASS_MS = 500;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long acquireTimeoutMs;
+    private final long idleTimeoutMs;
+    private final long leakThresholdMs;
+    private final int statementCacheSize;
+
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Map<PooledConnection, Boolean> borrowed = new ConcurrentHashMap<>();
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+
+    private final LatencyHistogram waitTimes = new LatencyHistogram();
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+    private final AtomicLong evictedCount = new AtomicLong();
+    private final LongAdder statementCacheHits = new LongAdder();
+    private final LongAdder statementCacheMisses = new LongAdder();
+    private volatile boolean closed;
+
+    public ConnectionPool(String url, String user, String password, int minSize, int maxSize,
+                          long acquireTimeoutMs, long idleTimeoutMs, long leakThresholdMs,
+                          int statementCacheSize) {
+        if (minSize < 0 || maxSize <= 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.leakThresholdMs = leakThresholdMs;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1_000, Math.min(idleTimeoutMs, 30_000) / 2);
+        housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+
+        fillToMinimum();
+    }
+
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                timeoutCount.incrementAndGet();
+                throw new SQLException("Timed out after " + acquireTimeoutMs + "ms waiting for a database connection "
+                    + "(active=" + borrowed.size() + ", max=" + maxSize + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+
+        try {
+            PooledConnection pooled = takeIdleOrCreate();
+            waitTimes.record(System.nanoTime() - start);
+            borrowCount.incrementAndGet();
+
+            pooled.borrowedAt = System.currentTimeMillis();
+            pooled.borrowStack = leakThresholdMs > 0 ? new Throwable("Connection borrowed here") : null;
+            pooled.leakReported = false;
+            borrowed.put(pooled, Boolean.TRUE);
+            return pooled.newHandle();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private PooledConnection takeIdleOrCreate() throws SQLException {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            if (isUsable(pooled)) {
+                return pooled;
+            }
+            discard(pooled);
+        }
+        return createConnection();
+    }
+
+    private boolean isUsable(PooledConnection pooled) {
+        if (System.currentTimeMillis() - pooled.lastReturnedAt < VALIDATION_BYPASS_MS) {
+            return true;
+        }
+        try {
+            return pooled.physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection createConnection() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, user, password);
+        totalConnections.incrementAndGet();
+        return new PooledConnection(physical);
+    }
+
+    private void release(PooledConnection pooled) {
+        borrowed.remove(pooled);
+        if (pooled.leakReported) {
+            System.err.println("Previously reported leaked connection returned after "
+                + (System.currentTimeMillis() - pooled.borrowedAt) + "ms");
+        }
+        pooled.borrowStack = null;
+
+        try {
+            if (closed || pooled.physical.isClosed()) {
+                discard(pooled);
+            } else {
+                if (!pooled.physical.getAutoCommit()) {
+                    pooled.physical.rollback();
+                    pooled.physical.setAutoCommit(true);
+                }
+                pooled.lastReturnedAt = System.currentTimeMillis();
+                idle.offerFirst(pooled);
+            }
+        } catch (SQLException e) {
+            discard(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void discard(PooledConnection pooled) {
+        totalConnections.decrementAndGet();
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            // Already broken, nothing else to do
+        }
+    }
+
+    private void housekeep() {
+        try {
+            evictIdle();
+            detectLeaks();
+            fillToMinimum();
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void evictIdle() {
+        long now = System.currentTimeMillis();
+        // Oldest idle connections sit at the tail since returns go to the head
+        PooledConnection candidate;
+        while (totalConnections.get() > minSize && (candidate = idle.peekLast()) != null
+                && now - candidate.lastReturnedAt > idleTimeoutMs) {
+            if (idle.removeLastOccurrence(candidate)) {
+                discard(candidate);
+                evictedCount.incrementAndGet();
+            }
+        }
+    }
+
+    private void detectLeaks() {
+        if (leakThresholdMs <= 0) return;
+
+        long now = System.currentTimeMillis();
+        for (PooledConnection pooled : borrowed.keySet()) {
+            Throwable stack = pooled.borrowStack;
+            if (!pooled.leakReported && stack != null && now - pooled.borrowedAt > leakThresholdMs) {
+                pooled.leakReported = true;
+                leakCount.incrementAndGet();
+                System.err.println("Possible connection leak: connection held for "
+                    + (now - pooled.borrowedAt) + "ms");
+                stack.printStackTrace();
+            }
+        }
+    }
+
+    private void fillToMinimum() {
+        while (!closed && totalConnections.get() < minSize) {
+            try {
+                PooledConnection pooled = createConnection();
+                pooled.lastReturnedAt = System.currentTimeMillis();
+                idle.offerLast(pooled);
+            } catch (SQLException e) {
+                System.err.println("Failed to pre-fill connection pool: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            discard(pooled);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("minSize", minSize);
+        stats.put("maxSize", maxSize);
+        stats.put("total", totalConnections.get());
+        stats.put("active", borrowed.size());
+        stats.put("idle", idle.size());
+        stats.put("waitingThreads", permits.getQueueLength());
+        stats.put("borrowCount", borrowCount.get());
+        stats.put("acquireTimeouts", timeoutCount.get());
+        stats.put("leaksDetected", leakCount.get());
+        stats.put("idleEvictions", evictedCount.get());
+        stats.put("waitTime", waitTimes.toMap());
+        stats.put("statementCache", getStatementCacheStats());
+        return stats;
+    }
+
+    public LatencyHistogram getWaitTimes() {
+        return waitTimes;
+    }
+
+    private Map<String, Object> getStatementCacheStats() {
+        long hits = statementCacheHits.sum();
+        long misses = statementCacheMisses.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("maxSizePerConnection", statementCacheSize);
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("hitRatio", hits + misses == 0 ? 0.0 : hits / (double) (hits + misses));
+        return stats;
+    }
+
+    private final class PooledConnection {
+        private final Connection physical;
+        private final StatementCache statementCache;
+        private volatile long borrowedAt;
+        private volatile long lastReturnedAt;
+        private volatile Throwable borrowStack;
+        private volatile boolean leakReported;
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.statementCache = statementCacheSize > 0
+                ? new StatementCache(physical, statementCacheSize, statementCacheHits, statementCacheMisses)
+                : null;
+        }
+
+        Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(
+                ConnectionPool.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                new Handle(this)
+            );
+        }
+    }
+
+    // One handle per borrow, so a stale reference cannot touch a connection
+    // that has since been handed to another caller
+    private final class Handle implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean closed;
+
+        Handle(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.physical + "]";
+                default:
+                    break;
+            }
+
+            if (closed) {
+                throw new SQLException("Connection has been returned to the pool");
+            }
+            if (pooled.statementCache != null && "prepareStatement".equals(method.getName())) {
+                if (args.length == 1) {
+                    return pooled.statementCache.prepare((String) args[0], Statement.NO_GENERATED_KEYS);
+                }
+                if (args.length == 2 && args[1] instanceof Integer) {
+                    return pooled.statementCache.prepare((String) args[0], (Integer) args[1]);
+                }
+            }
+            Object result;
+            try {
+                result = method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof Statement) {
+                // createStatement has no SQL yet; prepareStatement and prepareCall take it first
+                String sql = method.getName().startsWith("prepare") ? (String) args[0] : null;
+                return MeteredStatement.wrap((Statement) result, sql);
+            }
+            return result;
+        }
+    }
+}
@@ -1,140 +1,146 @@
 package com.medcare.config;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 public class DatabaseConfig {
-    private static final String DB_URL = "jdbc:h2:mem:hospital_db;DB_CLOSE_DELAY=-1";
+    // Storage, selected with -Dmedcare.db.mode: "memory" (default, lost on restart) or "file"
+    private static final boolean FILE_MODE = "file".equalsIgnoreCase(System.getProperty("medcare.db.mode", "memory"));
+    private static final String DEFAULT_DB_PATH = "data/hospital_db";
+    private static final Path DB_PATH = Paths.get(System.getProperty("medcare.db.path", DEFAULT_DB_PATH)).toAbsolutePath();
+    private static final int DB_CACHE_SIZE_KB = Integer.getInteger("medcare.db.cacheSizeKb", 65_536);
+    private static final long CHECKPOINT_INTERVAL_SEC = Long.getLong("medcare.db.checkpointIntervalSec", 60);
+    private static final String DB_URL = FILE_MODE
+        ? "jdbc:h2:file:" + DB_PATH + ";CACHE_SIZE=" + DB_CACHE_SIZE_KB
+        : "jdbc:h2:mem:hospital_db;DB_CLOSE_DELAY=-1";
     private static final String DB_USER = "sa";
     private static final String DB_PASSWORD = "";
     
+    // Pool settings, overridable with -Dmedcare.db.pool.* system properties
+    private static final int POOL_MIN_SIZE = Integer.getInteger("medcare.db.pool.minSize", 2);
+    private static final int POOL_MAX_SIZE = Integer.getInteger("medcare.db.pool.maxSize", 20);
+    private static final long POOL_ACQUIRE_TIMEOUT_MS = Long.getLong("medcare.db.pool.acquireTimeoutMs", 5_000);
+    private static final long POOL_IDLE_TIMEOUT_MS = Long.getLong("medcare.db.pool.idleTimeoutMs", 300_000);
+    // Off by default: detection captures a stack trace on every borrow
+    private static final long POOL_LEAK_THRESHOLD_MS = Long.getLong("medcare.db.pool.leakThresholdMs", 0);
+    private static final int STATEMENT_CACHE_SIZE = Integer.getInteger("medcare.db.pool.statementCacheSize", 64);
+    
+    private static volatile ConnectionPool pool;
+    private static Checkpointer checkpointer;
+    private static final Map<String, Object> startupInfo = new LinkedHashMap<>();
+    
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
+        return getPool().getConnection();
+    }
+    
+    public static ConnectionPool getPool() {
+        ConnectionPool current = pool;
+        if (current == null) {
+            synchronized (DatabaseConfig.class) {
+                current = pool;
+                if (current == null) {
+                    current = new ConnectionPool(DB_URL, DB_USER, DB_PASSWORD,
+                        POOL_MIN_SIZE, POOL_MAX_SIZE, POOL_ACQUIRE_TIMEOUT_MS,
+                        POOL_IDLE_TIMEOUT_MS, POOL_LEAK_THRESHOLD_MS, STATEMENT_CACHE_SIZE);
+                    pool = current;
+                }
+            }
+        }
+        return current;
+    }
+    
+    // True when running on the file store the application uses by default, as opposed to memory
+    // or a store given its own -Dmedcare.db.path
+    public static boolean isDefaultFileStore() {
+        return FILE_MODE && DB_PATH.normalize().equals(Paths.get(DEFAULT_DB_PATH).toAbsolutePath().normalize());
+    }
+    
+    public static int getPoolMaxSize() {
+        return POOL_MAX_SIZE;
+    }
+    
+    public static Map<String, Object> getPoolStats() {
+        return getPool().getStats();
+    }
+    
+    public static List<Map<String, Object>> getSchemaHistory() throws SQLException {
+        try (Connection conn = getConnection()) {
+            return SchemaMigrator.history(conn);
+        }
+    }
+    
+    public static Map<String, Object> getStorageStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("mode", FILE_MODE ? "file" : "memory");
+        if (FILE_MODE) {
+            Path store = storeFile();
+            stats.put("path", store.toString());
+            stats.put("sizeBytes", store.toFile().length());
+            stats.put("cacheSizeKb", DB_CACHE_SIZE_KB);
+            stats.put("checkpointIntervalSec", CHECKPOINT_INTERVAL_SEC);
+        }
+        synchronized (DatabaseConfig.class) {
+            stats.put("startup", new LinkedHashMap<>(startupInfo));
+            if (checkpointer != null) {
+                stats.put("checkpoint", checkpointer.getStats());
+            }
+        }
+        return stats;
+    }
+    
+    private static Path storeFile() {
+        return Paths.get(DB_PATH + ".mv.db");
+    }
+    
+    public static void shutdown() {
+        synchronized (DatabaseConfig.class) {
+            if (checkpointer != null) {
+                checkpointer.close();
+                checkpointer = null;
+            }
+            if (pool != null) {
+                pool.close();
+                pool = null;
+            }
+        }
     }
     
     public static void initializeDatabase() {
+        long start = System.nanoTime();
+        boolean storeExisted = FILE_MODE && Files.exists(storeFile());
+        
         try (Connection conn = getConnection();
              Statement stmt = conn.createStatement()) {
             
-            // Create Users table
-            stmt.execute("""
-                CREATE TABLE IF NOT EXISTS users (
-                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
-                    name VARCHAR(255) NOT NULL,
-                    email VARCHAR(255) UNIQUE NOT NULL,
-                    password VARCHAR(255) NOT NULL,
-                    role VARCHAR(50) NOT NULL,
-                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-                )
-            """);
-            
-            // Create Patients table
-            stmt.execute("""
-                CREATE TABLE IF NOT EXISTS patients (
-                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
-                    name VARCHAR(255) NOT NULL,
-                    email VARCHAR(255) UNIQUE NOT NULL,
-                    phone VARCHAR(20) NOT NULL,
-                    date_of_birth DATE NOT NULL,
-                    gender VARCHAR(10) NOT NULL,
-                    address TEXT NOT NULL,
-                    emergency_contact VARCHAR(20) NOT NULL,
-                    blood_type VARCHAR(5),
-                    allergies TEXT,
-                    medications TEXT,
-                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-                )
-            """);
-            
-            // Create Appointments table
-            stmt.execute("""
-                CREATE TABLE IF NOT EXISTS appointments (
-                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
-                    patient_id BIGINT NOT NULL,
-                    patient_name VARCHAR(255) NOT NULL,
-                    doctor_id BIGINT NOT NULL,
-                    doctor_name VARCHAR(255) NOT NULL,
-                    appointment_date DATE NOT NULL,
-                    appointment_time TIME NOT NULL,
-                    duration INT NOT NULL,
-                    type VARCHAR(50) NOT NULL,
-                    status VARCHAR(50) NOT NULL,
-                    notes TEXT,
-                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                    FOREIGN KEY (patient_id) REFERENCES patients(id)
-                )
-            """);
-            
-            // Create EHR Records table
-            stmt.execute("""
-                CREATE TABLE IF NOT EXISTS ehr_records (
-                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
-                    patient_id BIGINT NOT NULL,
-                    record_date DATE NOT NULL,
-                    type VARCHAR(50) NOT NULL,
-                    title VARCHAR(255) NOT NULL,
-                    description TEXT NOT NULL,
-                    doctor_id BIGINT NOT NULL,
-                    doctor_name VARCHAR(255) NOT NULL,
-                    attachments TEXT,
-                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                    FOREIGN KEY (patient_id) REFERENCES patients(id)
-                )
-            """);
-            
-            // Create Inventory table
-            stmt.execute("""
-                CREATE TABLE IF NOT EXISTS inventory (
-                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
-                    name VARCHAR(255) NOT NULL,
-                    category VARCHAR(50) NOT NULL,
-                    quantity INT NOT NULL,
-                    min_stock INT NOT NULL,
-                    unit VARCHAR(50) NOT NULL,
-                    supplier VARCHAR(255) NOT NULL,
-                    expiry_date DATE,
-                    cost DECIMAL(10,2) NOT NULL,
-                    location VARCHAR(255) NOT NULL,
-                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-                )
-            """);
-            
-            // Create Bills table
-            stmt.execute("""
-                CREATE TABLE IF NOT EXISTS bills (
-                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
-                    patient_id BIGINT NOT NULL,
-                    patient_name VARCHAR(255) NOT NULL,
-                    bill_date DATE NOT NULL,
-                    subtotal DECIMAL(10,2) NOT NULL,
-                    tax DECIMAL(10,2) NOT NULL,
-                    total DECIMAL(10,2) NOT NULL,
-                    status VARCHAR(50) NOT NULL,
-                    due_date DATE NOT NULL,
-                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                    FOREIGN KEY (patient_id) REFERENCES patients(id)
-                )
-            """);
+            // A warm start finds the schema already at some version and only applies newer migrations
+            boolean fresh = SchemaMigrator.isEmpty(conn);
+            int applied = SchemaMigrator.migrate(conn);
             
-            // Create Bill Items table
-            stmt.execute("""
-                CREATE TABLE IF NOT EXISTS bill_items (
-                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
-                    bill_id BIGINT NOT NULL,
-                    description VARCHAR(255) NOT NULL,
-                    quantity INT NOT NULL,
-                    unit_price DECIMAL(10,2) NOT NULL,
-                    total DECIMAL(10,2) NOT NULL,
-                    FOREIGN KEY (bill_id) REFERENCES bills(id)
-                )
-            """);
+            if (fresh) {
+                insertSampleData(stmt);
+            }
             
-            // Insert sample data
-            insertSampleData(stmt);
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            synchronized (DatabaseConfig.class) {
+                startupInfo.put("warm", !fresh);
+                startupInfo.put("storeExisted", storeExisted);
+                startupInfo.put("migrationsApplied", applied);
+                startupInfo.put("initMs", elapsedMs);
+                if (FILE_MODE && checkpointer == null) {
+                    checkpointer = new Checkpointer(getPool(), CHECKPOINT_INTERVAL_SEC);
+                }
+            }
             
-            System.out.println("Database initialized successfully");
+            System.out.println("Database initialized successfully (" + (FILE_MODE ? "file " + storeFile() : "in-memory")
+                + ", " + (fresh ? "cold start with sample data" : "warm start")
+                + ", " + applied + " migrations applied, " + elapsedMs + " ms)");
             
         } catch (SQLException e) {
             System.err.println("Failed to initialize database: " + e.getMessage());
@@ -0,0 +1,81 @@
+package com.medcare.config;
+
+import com.medcare.metrics.SqlMetrics;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+// Times execute calls on statements that bypass the statement cache: plain Statements, prepared
+// statements when caching is off or the cached one is already in use, and callable statements.
+// A prepared statement's series is resolved once; a plain Statement's per call, from its SQL.
+final class MeteredStatement implements InvocationHandler {
+    private static final String BATCH = "(statement batch)";
+    
+    private final Statement statement;
+    private final SqlMetrics prepared;
+    
+    private MeteredStatement(Statement statement, SqlMetrics prepared) {
+        this.statement = statement;
+        this.prepared = prepared;
+    }
+    
+    // sql is the text the statement was prepared with, or null for a plain Statement
+    static Statement wrap(Statement statement, String sql) {
+        Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+            : statement instanceof PreparedStatement ? PreparedStatement.class
+            : Statement.class;
+        return (Statement) Proxy.newProxyInstance(
+            MeteredStatement.class.getClassLoader(),
+            new Class<?>[] { type },
+            new MeteredStatement(statement, sql == null ? null : SqlMetrics.forSql(sql))
+        );
+    }
+    
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        switch (name) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                break;
+        }
+        if (!name.startsWith("execute")) {
+            return call(method, args);
+        }
+        SqlMetrics metrics = prepared;
+        if (metrics == null) {
+            metrics = SqlMetrics.forSql(args != null && args.length > 0 ? (String) args[0] : BATCH);
+        }
+        return time(metrics, statement, method, args);
+    }
+    
+    private Object call(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(statement, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+    
+    // Shared with the statement cache's handles so both record the same way
+    static Object time(SqlMetrics metrics, Statement target, Method method, Object[] args) throws Throwable {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Object result = method.invoke(target, args);
+            failed = false;
+            return result;
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        } finally {
+            metrics.record(System.nanoTime() - start, failed);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.medcare.config;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// One versioned schema change. Statements run in order; once they all succeed the
+// version is recorded in schema_version and the migration is never run again.
+public final class Migration {
+    private final int version;
+    private final String description;
+    private final List<String> statements;
+
+    private Migration(int version, String description, List<String> statements) {
+        this.version = version;
+        this.description = description;
+        this.statements = statements;
+    }
+
+    public static Migration of(int version, String description, String... statements) {
+        return new Migration(version, description, Collections.unmodifiableList(Arrays.asList(statements)));
+    }
+
+    public int getVersion() { return version; }
+    public String getDescription() { return description; }
+    public List<String> getStatements() { return statements; }
+}
@@ -0,0 +1,179 @@
+package com.medcare.config;
+
+import java.util.List;
+
+// The schema history, oldest first. Append new migrations; never edit one that has shipped.
+final class Migrations {
+    private Migrations() {}
+
+    static List<Migration> all() {
+        return List.of(
+            // IF NOT EXISTS lets databases created before migrations existed adopt the baseline
+            Migration.of(1, "baseline schema",
+                """
+                CREATE TABLE IF NOT EXISTS users (
+                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                    name VARCHAR(255) NOT NULL,
+                    email VARCHAR(255) UNIQUE NOT NULL,
+                    password VARCHAR(255) NOT NULL,
+                    role VARCHAR(50) NOT NULL,
+                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                )
+                """,
+                """
+                CREATE TABLE IF NOT EXISTS patients (
+                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                    name VARCHAR(255) NOT NULL,
+                    email VARCHAR(255) UNIQUE NOT NULL,
+                    phone VARCHAR(20) NOT NULL,
+                    date_of_birth DATE NOT NULL,
+                    gender VARCHAR(10) NOT NULL,
+                    address TEXT NOT NULL,
+                    emergency_contact VARCHAR(20) NOT NULL,
+                    blood_type VARCHAR(5),
+                    allergies TEXT,
+                    medications TEXT,
+                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                )
+                """,
+                """
+                CREATE TABLE IF NOT EXISTS appointments (
+                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                    patient_id BIGINT NOT NULL,
+                    patient_name VARCHAR(255) NOT NULL,
+                    doctor_id BIGINT NOT NULL,
+                    doctor_name VARCHAR(255) NOT NULL,
+                    appointment_date DATE NOT NULL,
+                    appointment_time TIME NOT NULL,
+                    duration INT NOT NULL,
+                    type VARCHAR(50) NOT NULL,
+                    status VARCHAR(50) NOT NULL,
+                    notes TEXT,
+                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                    FOREIGN KEY (patient_id) REFERENCES patients(id)
+                )
+                """,
+                """
+                CREATE TABLE IF NOT EXISTS ehr_records (
+                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                    patient_id BIGINT NOT NULL,
+                    record_date DATE NOT NULL,
+                    type VARCHAR(50) NOT NULL,
+                    title VARCHAR(255) NOT NULL,
+                    description TEXT NOT NULL,
+                    doctor_id BIGINT NOT NULL,
+                    doctor_name VARCHAR(255) NOT NULL,
+                    attachments TEXT,
+                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                    FOREIGN KEY (patient_id) REFERENCES patients(id)
+                )
+                """,
+                """
+                CREATE TABLE IF NOT EXISTS inventory (
+                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                    name VARCHAR(255) NOT NULL,
+                    category VARCHAR(50) NOT NULL,
+                    quantity INT NOT NULL,
+                    min_stock INT NOT NULL,
+                    unit VARCHAR(50) NOT NULL,
+                    supplier VARCHAR(255) NOT NULL,
+                    expiry_date DATE,
+                    cost DECIMAL(10,2) NOT NULL,
+                    location VARCHAR(255) NOT NULL,
+                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                )
+                """,
+                """
+                CREATE TABLE IF NOT EXISTS bills (
+                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                    patient_id BIGINT NOT NULL,
+                    patient_name VARCHAR(255) NOT NULL,
+                    bill_date DATE NOT NULL,
+                    subtotal DECIMAL(10,2) NOT NULL,
+                    tax DECIMAL(10,2) NOT NULL,
+                    total DECIMAL(10,2) NOT NULL,
+                    status VARCHAR(50) NOT NULL,
+                    due_date DATE NOT NULL,
+                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                    FOREIGN KEY (patient_id) REFERENCES patients(id)
+                )
+                """,
+                """
+                CREATE TABLE IF NOT EXISTS bill_items (
+                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                    bill_id BIGINT NOT NULL,
+                    description VARCHAR(255) NOT NULL,
+                    quantity INT NOT NULL,
+                    unit_price DECIMAL(10,2) NOT NULL,
+                    total DECIMAL(10,2) NOT NULL,
+                    FOREIGN KEY (bill_id) REFERENCES bills(id)
+                )
+                """),
+
+            Migration.of(2, "keyset pagination indexes",
+                "CREATE INDEX IF NOT EXISTS idx_users_created ON users(created_at DESC, id DESC)",
+                "CREATE INDEX IF NOT EXISTS idx_patients_created ON patients(created_at DESC, id DESC)",
+                "CREATE INDEX IF NOT EXISTS idx_appointments_schedule "
+                    + "ON appointments(appointment_date DESC, appointment_time DESC, id DESC)"),
+
+            Migration.of(3, "lookup indexes for appointments, EHR records and bills",
+                "CREATE INDEX idx_appointments_date ON appointments(appointment_date, appointment_time)",
+                "CREATE INDEX idx_appointments_doctor_date ON appointments(doctor_id, appointment_date, appointment_time)",
+                "CREATE INDEX idx_appointments_patient_date ON appointments(patient_id, appointment_date DESC)",
+                "CREATE INDEX idx_ehr_patient_date ON ehr_records(patient_id, record_date DESC)",
+                "CREATE INDEX idx_bills_patient ON bills(patient_id, bill_date DESC)"),
+
+            // H2 has no expression indexes, so LOWER(name) is materialised as a generated column
+            Migration.of(4, "indexed lower-case patient name",
+                "ALTER TABLE patients ADD COLUMN name_lower VARCHAR(255) GENERATED ALWAYS AS (LOWER(name))",
+                "CREATE INDEX idx_patients_name_lower ON patients(name_lower)"),
+
+            // Optimistic concurrency for the narrow status update path
+            Migration.of(5, "appointment row version",
+                "ALTER TABLE appointments ADD COLUMN version INT DEFAULT 0 NOT NULL"),
+
+            // The timeline pages on (record_date, id); the id column makes the keyset an index seek.
+            // Attachment bodies live in the file store, keyed by their SHA-256
+            Migration.of(6, "EHR timeline index and attachment metadata",
+                "CREATE INDEX idx_ehr_patient_timeline ON ehr_records(patient_id, record_date DESC, id DESC)",
+                "DROP INDEX IF EXISTS idx_ehr_patient_date",
+                """
+                CREATE TABLE IF NOT EXISTS attachments (
+                    hash CHAR(64) PRIMARY KEY,
+                    size BIGINT NOT NULL,
+                    content_type VARCHAR(255) NOT NULL,
+                    file_name VARCHAR(255),
+                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                )
+                """),
+
+            // Lots are flagged once their expiry date passes; leading the index with the flag lets the sweeper
+            // seek straight to unflagged lots past their date
+            Migration.of(7, "inventory expiry flag",
+                "ALTER TABLE inventory ADD COLUMN expired BOOLEAN DEFAULT FALSE NOT NULL",
+                "UPDATE inventory SET expired = TRUE WHERE expiry_date < CURRENT_DATE",
+                "CREATE INDEX idx_inventory_unexpired ON inventory(expired, expiry_date)"),
+
+            // V3's idx_appointments_date on (appointment_date, appointment_time) is a prefix of
+            // V2's idx_appointments_schedule
+            Migration.of(8, "drop duplicate appointment date index",
+                "DROP INDEX IF EXISTS idx_appointments_date"),
+
+            // Logouts and role changes, so they still hold for tokens presented after a restart
+            Migration.of(9, "session revocations",
+                """
+                CREATE TABLE IF NOT EXISTS revoked_sessions (
+                    session_id VARCHAR(32) PRIMARY KEY,
+                    expires_at BIGINT NOT NULL
+                )
+                """,
+                "CREATE INDEX IF NOT EXISTS idx_revoked_sessions_expiry ON revoked_sessions(expires_at)",
+                """
+                CREATE TABLE IF NOT EXISTS user_session_cutoffs (
+                    user_id BIGINT PRIMARY KEY,
+                    not_before BIGINT NOT NULL
+                )
+                """)
+        );
+    }
+}
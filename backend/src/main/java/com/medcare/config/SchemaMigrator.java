@@ -0,0 +1,116 @@
+package com.medcare.config;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Brings the schema up to the latest version in Migrations, recording each applied
+// version in schema_version so a restart against an existing database only runs new ones.
+// A version is recorded only after its last statement, so a migration that failed partway is
+// run again in full; objects its earlier statements already created are skipped, not errors.
+public final class SchemaMigrator {
+    // H2's SQL states for a table, index or column that already exists
+    private static final Set<String> ALREADY_EXISTS = Set.of("42S01", "42S11", "42S21");
+
+    private SchemaMigrator() {}
+
+    // Returns the number of migrations applied by this call
+    public static int migrate(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS schema_version (
+                    version INT PRIMARY KEY,
+                    description VARCHAR(255) NOT NULL,
+                    applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                    execution_ms BIGINT NOT NULL
+                )
+            """);
+        }
+
+        int current = currentVersion(conn);
+        int applied = 0;
+        for (Migration migration : Migrations.all()) {
+            if (migration.getVersion() <= current) {
+                continue;
+            }
+            long start = System.nanoTime();
+            try (Statement stmt = conn.createStatement()) {
+                for (String sql : migration.getStatements()) {
+                    execute(stmt, migration, sql);
+                }
+            } catch (SQLException e) {
+                throw new SQLException("Migration V" + migration.getVersion() + " ("
+                    + migration.getDescription() + ") failed: " + e.getMessage(), e);
+            }
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO schema_version (version, description, execution_ms) VALUES (?, ?, ?)")) {
+                stmt.setInt(1, migration.getVersion());
+                stmt.setString(2, migration.getDescription());
+                stmt.setLong(3, elapsedMs);
+                stmt.executeUpdate();
+            }
+            System.out.println("Applied migration V" + migration.getVersion() + ": "
+                + migration.getDescription() + " (" + elapsedMs + " ms)");
+            applied++;
+        }
+        return applied;
+    }
+
+    private static void execute(Statement stmt, Migration migration, String sql) throws SQLException {
+        try {
+            stmt.execute(sql);
+        } catch (SQLException e) {
+            if (!ALREADY_EXISTS.contains(e.getSQLState())) {
+                throw e;
+            }
+            String message = e.getMessage();
+            int end = message.indexOf("; SQL statement");
+            System.out.println("Migration V" + migration.getVersion() + ": skipped, left over from an earlier attempt: "
+                + (end < 0 ? message : message.substring(0, end)));
+        }
+    }
+
+    // True before the baseline has been applied, i.e. on a brand new database
+    public static boolean isEmpty(Connection conn) throws SQLException {
+        try (ResultSet rs = conn.getMetaData().getTables(null, "PUBLIC", "SCHEMA_VERSION", null)) {
+            if (!rs.next()) {
+                return true;
+            }
+        }
+        return currentVersion(conn) == 0;
+    }
+
+    public static int currentVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    public static List<Map<String, Object>> history(Connection conn) throws SQLException {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(
+                 "SELECT version, description, applied_at, execution_ms FROM schema_version ORDER BY version")) {
+            while (rs.next()) {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("version", rs.getInt("version"));
+                row.put("description", rs.getString("description"));
+                row.put("appliedAt", rs.getTimestamp("applied_at").toLocalDateTime());
+                row.put("executionMs", rs.getLong("execution_ms"));
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,173 @@
+package com.medcare.config;
+
+import com.medcare.metrics.SqlMetrics;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// LRU cache of prepared statements for a single physical connection, keyed by SQL text.
+// A pooled connection is only ever used by one thread at a time, so no locking is needed here.
+class StatementCache {
+    private final Connection physical;
+    private final LinkedHashMap<String, CachedStatement> statements;
+    private final LongAdder hits;
+    private final LongAdder misses;
+
+    StatementCache(Connection physical, int maxSize, LongAdder hits, LongAdder misses) {
+        this.physical = physical;
+        this.hits = hits;
+        this.misses = misses;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                if (size() > maxSize) {
+                    eldest.getValue().evict();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+        String key = autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS ? "K:" + sql : sql;
+        CachedStatement cached = statements.get(key);
+
+        if (cached != null && !cached.inUse) {
+            hits.increment();
+        } else if (cached != null) {
+            // Same SQL already open on this connection (nested use), fall back to an uncached statement
+            misses.increment();
+            return (PreparedStatement) MeteredStatement.wrap(physical.prepareStatement(sql, autoGeneratedKeys), sql);
+        } else {
+            misses.increment();
+            cached = new CachedStatement(physical.prepareStatement(sql, autoGeneratedKeys), SqlMetrics.forSql(sql));
+            statements.put(key, cached);
+        }
+
+        cached.inUse = true;
+        return cached.newHandle();
+    }
+
+    int size() {
+        return statements.size();
+    }
+
+    private static final class CachedStatement {
+        private final PreparedStatement statement;
+        private final SqlMetrics metrics;
+        private boolean inUse;
+        private boolean evicted;
+
+        CachedStatement(PreparedStatement statement, SqlMetrics metrics) {
+            this.statement = statement;
+            this.metrics = metrics;
+        }
+
+        PreparedStatement newHandle() {
+            return (PreparedStatement) Proxy.newProxyInstance(
+                StatementCache.class.getClassLoader(),
+                new Class<?>[] { PreparedStatement.class },
+                new Handle(this)
+            );
+        }
+
+        void evict() {
+            evicted = true;
+            if (!inUse) {
+                closeQuietly();
+            }
+        }
+
+        void checkIn() {
+            inUse = false;
+            if (evicted) {
+                closeQuietly();
+                return;
+            }
+            try {
+                statement.clearParameters();
+                // A batch abandoned by an exception must not leak into the next borrower's executeBatch
+                statement.clearBatch();
+                // Per-statement settings stick to the cached statement; streamQuery sets a fetch size
+                statement.setFetchSize(0);
+                statement.setMaxRows(0);
+            } catch (SQLException e) {
+                evicted = true;
+                closeQuietly();
+            }
+        }
+
+        private void closeQuietly() {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                // Connection already gone
+            }
+        }
+    }
+
+    // Logical view of a cached statement handed to a DAO; close() returns it to the cache
+    private static final class Handle implements InvocationHandler {
+        private final CachedStatement cached;
+        private final List<ResultSet> openResults = new ArrayList<>(2);
+        private boolean closed;
+
+        Handle(CachedStatement cached) {
+            this.cached = cached;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        for (ResultSet rs : openResults) {
+                            rs.close();
+                        }
+                        openResults.clear();
+                        cached.checkIn();
+                    }
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+
+            if (closed) {
+                throw new SQLException("Statement is closed");
+            }
+            Object result;
+            if (method.getName().startsWith("execute")) {
+                result = MeteredStatement.time(cached.metrics, cached.statement, method, args);
+            } else {
+                try {
+                    result = method.invoke(cached.statement, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+            if (result instanceof ResultSet) {
+                openResults.add((ResultSet) result);
+            }
+            return result;
+        }
+    }
+}
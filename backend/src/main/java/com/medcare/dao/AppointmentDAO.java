@@ -1,15 +1,64 @@
 package com.medcare.dao;
 
+import com.medcare.index.DoctorScheduleIndex;
 import com.medcare.model.Appointment;
+import java.io.IOException;
 import java.sql.*;
 import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
 
 public class AppointmentDAO extends BaseDAO {
+    private static final EntityCache<Appointment> CACHE = EntityCache.create("appointments", Appointment::new);
+    private static final String FIND_BY_ID = QueryCatalog.register("AppointmentDAO.findById",
+        "SELECT * FROM appointments WHERE id = ?", 1L);
+    private static final String FIND_ALL = QueryCatalog.register("AppointmentDAO.findAll",
+        "SELECT * FROM appointments ORDER BY appointment_date DESC, appointment_time DESC, id DESC");
+    private static final String PAGE_FIRST = QueryCatalog.register("AppointmentDAO.findPage.first",
+        "SELECT * FROM appointments ORDER BY appointment_date DESC, appointment_time DESC, id DESC LIMIT ?", 50);
+    private static final String PAGE_AFTER = QueryCatalog.register("AppointmentDAO.findPage.after",
+        "SELECT * FROM appointments WHERE (appointment_date, appointment_time, id) < (?, ?, ?) "
+            + "ORDER BY appointment_date DESC, appointment_time DESC, id DESC LIMIT ?",
+        LocalDate.of(2024, 1, 1), LocalTime.of(9, 0), 1000L, 50);
+    private static final String FIND_BY_PATIENT = QueryCatalog.register("AppointmentDAO.findByPatientId",
+        "SELECT * FROM appointments WHERE patient_id = ? ORDER BY appointment_date DESC", 1L);
+    private static final String FIND_BY_DATE = QueryCatalog.register("AppointmentDAO.findByDate",
+        "SELECT * FROM appointments WHERE appointment_date = ? ORDER BY appointment_time", LocalDate.of(2024, 1, 1));
+    private static final String DELETE = QueryCatalog.register("AppointmentDAO.delete",
+        "DELETE FROM appointments WHERE id = ?", 1L);
+    private static final String UPDATE_STATUS = QueryCatalog.register("AppointmentDAO.updateStatus",
+        "UPDATE appointments SET status = ?, version = version + 1 WHERE id = ? AND version = ?",
+        "completed", 1L, 0);
+    // Batch transitions return the rows they changed through FINAL TABLE, so caches can be refreshed
+    // without reading them back. The catalog holds the bare UPDATE: EXPLAIN does not look inside
+    // a data change delta table
+    private static final String UPDATE_STATUSES_BY_ID = returningRows(QueryCatalog.register("AppointmentDAO.updateStatuses.byId",
+        "UPDATE appointments SET status = ?, version = version + 1 WHERE id = ANY(?) AND status = ANY(?)",
+        "completed", new Long[] {1L, 2L}, new String[] {"scheduled"}));
+    private static final String UPDATE_STATUSES_BY_DATE = returningRows(QueryCatalog.register("AppointmentDAO.updateStatuses.byDate",
+        "UPDATE appointments SET status = ?, version = version + 1 WHERE appointment_date = ? AND status = ANY(?)",
+        "no_show", LocalDate.of(2024, 1, 1), new String[] {"scheduled"}));
+    private static final String UPDATE_STATUSES_BY_DOCTOR_DATE = returningRows(QueryCatalog.register(
+        "AppointmentDAO.updateStatuses.byDoctorDate",
+        "UPDATE appointments SET status = ?, version = version + 1 "
+            + "WHERE doctor_id = ? AND appointment_date = ? AND status = ANY(?)",
+        "no_show", 1L, LocalDate.of(2024, 1, 1), new String[] {"scheduled"}));
+    
     
     public Appointment findById(Long id) {
-        String sql = "SELECT * FROM appointments WHERE id = ?";
+        return CACHE.get(id, this::loadById);
+    }
+    
+    // Bypasses a cached copy that may be behind the database
+    public Appointment reload(Long id) {
+        CACHE.invalidate(id);
+        return findById(id);
+    }
+    
+    private Appointment loadById(Long id) {
+        String sql = FIND_BY_ID;
         try (Connection conn = getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
@@ -27,7 +76,7 @@ public class AppointmentDAO extends BaseDAO {
     
     public List<Appointment> findAll() {
         List<Appointment> appointments = new ArrayList<>();
-        String sql = "SELECT * FROM appointments ORDER BY appointment_date DESC, appointment_time DESC";
+        String sql = FIND_ALL;
         
         try (Connection conn = getConnection();
              Statement stmt = conn.createStatement();
@@ -42,9 +91,43 @@ public class AppointmentDAO extends BaseDAO {
         return appointments;
     }
     
+    // Bumped by every insert, update and delete made through this DAO
+    public long writeCount() {
+        return CACHE.writeCount();
+    }
+    
+    public void streamAll(RowHandler<Appointment> handler) throws SQLException, IOException {
+        streamQuery(FIND_ALL, this::mapResultSetToAppointment, handler);
+    }
+    
+    // Keyset pagination on (appointment_date, appointment_time, id), served by idx_appointments_schedule
+    public Page<Appointment> findPage(String cursor, int limit) throws SQLException {
+        if (cursor == null || cursor.isEmpty()) {
+            return queryPage(PAGE_FIRST,
+                this::mapResultSetToAppointment, AppointmentDAO::cursorOf, limit);
+        }
+        String[] keys = PageCursor.decode(cursor, 3);
+        LocalDate date;
+        LocalTime time;
+        long id;
+        try {
+            date = LocalDate.parse(keys[0]);
+            time = LocalTime.parse(keys[1]);
+            id = Long.parseLong(keys[2]);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return queryPage(PAGE_AFTER,
+            this::mapResultSetToAppointment, AppointmentDAO::cursorOf, limit, date, time, id);
+    }
+    
+    private static String cursorOf(Appointment appointment) {
+        return PageCursor.encode(appointment.getAppointmentDate(), appointment.getAppointmentTime(), appointment.getId());
+    }
+    
     public List<Appointment> findByPatientId(Long patientId) {
         List<Appointment> appointments = new ArrayList<>();
-        String sql = "SELECT * FROM appointments WHERE patient_id = ? ORDER BY appointment_date DESC";
+        String sql = FIND_BY_PATIENT;
         
         try (Connection conn = getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -63,7 +146,7 @@ public class AppointmentDAO extends BaseDAO {
     
     public List<Appointment> findByDate(LocalDate date) {
         List<Appointment> appointments = new ArrayList<>();
-        String sql = "SELECT * FROM appointments WHERE appointment_date = ? ORDER BY appointment_time";
+        String sql = FIND_BY_DATE;
         
         try (Connection conn = getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -83,9 +166,13 @@ public class AppointmentDAO extends BaseDAO {
     public Appointment save(Appointment appointment) {
         if (appointment.getId() == null) {
             return insert(appointment);
-        } else {
-            return update(appointment);
         }
+        try {
+            update(appointment, appointment.getVersion());
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return appointment;
     }
     
     private Appointment insert(Appointment appointment) {
@@ -114,6 +201,9 @@ public class AppointmentDAO extends BaseDAO {
                 ResultSet generatedKeys = stmt.getGeneratedKeys();
                 if (generatedKeys.next()) {
                     appointment.setId(generatedKeys.getLong(1));
+                    appointment.setVersion(0);
+                    DoctorScheduleIndex.getInstance().put(appointment);
+                    CACHE.inserted();
                 }
             }
         } catch (SQLException e) {
@@ -122,12 +212,14 @@ public class AppointmentDAO extends BaseDAO {
         return appointment;
     }
     
-    private Appointment update(Appointment appointment) {
+    // Rewrites the row only while it is still at expectedVersion, like updateStatus, so a full
+    // update cannot silently undo a status change made since the caller read the row
+    public boolean update(Appointment appointment, int expectedVersion) throws SQLException {
         String sql = """
             UPDATE appointments SET patient_id = ?, patient_name = ?, doctor_id = ?, doctor_name = ?, 
                                   appointment_date = ?, appointment_time = ?, duration = ?, type = ?, 
-                                  status = ?, notes = ? 
-            WHERE id = ?
+                                  status = ?, notes = ?, version = version + 1 
+            WHERE id = ? AND version = ?
         """;
         
         try (Connection conn = getConnection();
@@ -144,27 +236,114 @@ public class AppointmentDAO extends BaseDAO {
             stmt.setString(9, appointment.getStatus().name().toLowerCase());
             stmt.setString(10, appointment.getNotes());
             stmt.setLong(11, appointment.getId());
-            
-            stmt.executeUpdate();
-        } catch (SQLException e) {
-            e.printStackTrace();
+            stmt.setInt(12, expectedVersion);
+            if (stmt.executeUpdate() == 0) {
+                return false;
+            }
         }
-        return appointment;
+        appointment.setVersion(expectedVersion + 1);
+        DoctorScheduleIndex.getInstance().put(appointment);
+        cacheUpdated(appointment.getId(), appointment);
+        return true;
+    }
+    
+    // Writes only status and version, and only while the row is still at expectedVersion.
+    // On success the appointment passed in is brought in line with the new row.
+    public boolean updateStatus(Appointment appointment, Appointment.AppointmentStatus status, int expectedVersion)
+            throws SQLException {
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement(UPDATE_STATUS)) {
+            stmt.setString(1, status.name().toLowerCase());
+            stmt.setLong(2, appointment.getId());
+            stmt.setInt(3, expectedVersion);
+            if (stmt.executeUpdate() == 0) {
+                return false;
+            }
+        }
+        appointment.setStatus(status);
+        appointment.setVersion(expectedVersion + 1);
+        DoctorScheduleIndex.getInstance().put(appointment);
+        cacheUpdated(appointment.getId(), appointment);
+        return true;
+    }
+    
+    // Moves the given appointments that are currently in one of the from statuses to the target
+    // status in one statement; returns the rows that changed
+    public List<Appointment> updateStatuses(List<Long> ids, List<Appointment.AppointmentStatus> from,
+                                            Appointment.AppointmentStatus to) throws SQLException {
+        return updateStatuses(UPDATE_STATUSES_BY_ID, to, ids.toArray(new Long[0]), statusNames(from));
+    }
+    
+    // End-of-day form: every appointment on the date, optionally for one doctor, in one of the from statuses
+    public List<Appointment> updateStatusesOnDate(LocalDate date, Long doctorId, List<Appointment.AppointmentStatus> from,
+                                                  Appointment.AppointmentStatus to) throws SQLException {
+        if (doctorId == null) {
+            return updateStatuses(UPDATE_STATUSES_BY_DATE, to, Date.valueOf(date), statusNames(from));
+        }
+        return updateStatuses(UPDATE_STATUSES_BY_DOCTOR_DATE, to, doctorId, Date.valueOf(date), statusNames(from));
+    }
+    
+    private List<Appointment> updateStatuses(String sql, Appointment.AppointmentStatus to, Object... params)
+            throws SQLException {
+        List<Appointment> changed = new ArrayList<>();
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, to.name().toLowerCase());
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 2, params[i]);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    changed.add(mapResultSetToAppointment(rs));
+                }
+            }
+        }
+        DoctorScheduleIndex index = DoctorScheduleIndex.getInstance();
+        for (Appointment appointment : changed) {
+            index.put(appointment);
+            CACHE.put(appointment.getId(), appointment);
+        }
+        return changed;
+    }
+    
+    private static String returningRows(String update) {
+        return "SELECT * FROM FINAL TABLE (" + update + ")";
+    }
+    
+    private static String[] statusNames(List<Appointment.AppointmentStatus> statuses) {
+        String[] names = new String[statuses.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = statuses.get(i).name().toLowerCase();
+        }
+        return names;
     }
     
     public boolean delete(Long id) {
-        String sql = "DELETE FROM appointments WHERE id = ?";
+        String sql = DELETE;
         try (Connection conn = getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setLong(1, id);
-            return stmt.executeUpdate() > 0;
+            if (stmt.executeUpdate() > 0) {
+                DoctorScheduleIndex.getInstance().remove(id);
+                CACHE.invalidate(id);
+                return true;
+            }
         } catch (SQLException e) {
             e.printStackTrace();
         }
         return false;
     }
     
+    // Without created_at the copy would be incomplete
+    private static void cacheUpdated(Long id, Appointment appointment) {
+        if (appointment.getCreatedAt() != null) {
+            CACHE.put(id, appointment);
+        } else {
+            CACHE.invalidate(id);
+        }
+    }
+    
     private Appointment mapResultSetToAppointment(ResultSet rs) throws SQLException {
         Appointment appointment = new Appointment();
         appointment.setId(rs.getLong("id"));
@@ -175,9 +354,11 @@ public class AppointmentDAO extends BaseDAO {
         appointment.setAppointmentDate(rs.getDate("appointment_date").toLocalDate());
         appointment.setAppointmentTime(rs.getTime("appointment_time").toLocalTime());
         appointment.setDuration(rs.getInt("duration"));
-        appointment.setType(Appointment.AppointmentType.valueOf(rs.getString("type").toUpperCase()));
-        appointment.setStatus(Appointment.AppointmentStatus.valueOf(rs.getString("status").toUpperCase()));
+        // Sample data stores hyphenated values such as 'follow-up'
+        appointment.setType(Appointment.AppointmentType.valueOf(rs.getString("type").toUpperCase().replace('-', '_')));
+        appointment.setStatus(Appointment.AppointmentStatus.valueOf(rs.getString("status").toUpperCase().replace('-', '_')));
         appointment.setNotes(rs.getString("notes"));
+        appointment.setVersion(rs.getInt("version"));
         appointment.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
         return appointment;
     }
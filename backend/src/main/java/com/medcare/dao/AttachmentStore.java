@@ -0,0 +1,210 @@
+package com.medcare.dao;
+
+import com.medcare.model.Attachment;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+// Content-addressed file store for EHR attachments. Each body is written once under the hex
+// SHA-256 of its bytes, so identical uploads share one file and a stored file never changes;
+// the database only keeps the hash and metadata. Reads memory-map the file, and because
+// files are immutable the mappings are kept in an LRU bounded by total mapped bytes.
+public class AttachmentStore extends BaseDAO {
+    private static final Path ROOT = Paths.get(System.getProperty("medcare.attachments.path", "data/attachments")).toAbsolutePath();
+    public static final long MAX_SIZE_BYTES = Long.getLong("medcare.attachments.maxSizeMb", 64L) * 1024 * 1024;
+    private static final long MAPPED_CACHE_BYTES = Long.getLong("medcare.attachments.mappedCacheMb", 256L) * 1024 * 1024;
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+    // content_type and file_name are VARCHAR(255)
+    private static final int MAX_METADATA_LENGTH = 255;
+
+    private static final String FIND_BY_HASH = QueryCatalog.register("AttachmentStore.findByHash",
+        "SELECT * FROM attachments WHERE hash = ?", "0".repeat(64));
+    private static final String FIND_EXISTING = QueryCatalog.register("AttachmentStore.findExisting",
+        "SELECT hash FROM attachments WHERE hash = ANY(?)", (Object) new String[] {"0".repeat(64)});
+    private static final String INSERT = """
+        INSERT INTO attachments (hash, size, content_type, file_name) VALUES (?, ?, ?, ?)
+        """;
+
+    private static final Map<String, MappedByteBuffer> MAPPED = new LinkedHashMap<>(16, 0.75f, true);
+    private static long mappedBytes;
+
+    public static boolean isHash(String value) {
+        return value != null && HASH.matcher(value).matches();
+    }
+
+    // Streams the body to a temporary file while hashing it, forces it to disk and renames it
+    // to its content address. Storing content that is already present returns the existing entry.
+    public Attachment store(InputStream body, String contentType, String fileName) throws IOException, SQLException {
+        // Checked before anything is written, so a rejected upload cannot leave a file without its metadata row
+        if (contentType.length() > MAX_METADATA_LENGTH) {
+            throw new IllegalArgumentException("Content-Type exceeds " + MAX_METADATA_LENGTH + " characters");
+        }
+        if (fileName != null && fileName.length() > MAX_METADATA_LENGTH) {
+            throw new IllegalArgumentException("fileName exceeds " + MAX_METADATA_LENGTH + " characters");
+        }
+        Path tmpDir = ROOT.resolve("tmp");
+        Files.createDirectories(tmpDir);
+        Path tmp = Files.createTempFile(tmpDir, "upload-", ".part");
+        try {
+            MessageDigest digest = sha256();
+            long size = 0;
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                byte[] buffer = new byte[64 * 1024];
+                int n;
+                while ((n = body.read(buffer)) > 0) {
+                    size += n;
+                    if (size > MAX_SIZE_BYTES) {
+                        throw new IllegalArgumentException("Attachment exceeds " + MAX_SIZE_BYTES + " bytes");
+                    }
+                    digest.update(buffer, 0, n);
+                    ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, n);
+                    while (chunk.hasRemaining()) {
+                        out.write(chunk);
+                    }
+                }
+                out.force(true);
+            }
+            if (size == 0) {
+                throw new IllegalArgumentException("Attachment body is empty");
+            }
+
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path target = pathOf(hash);
+            if (!Files.exists(target)) {
+                Files.createDirectories(target.getParent());
+                // A concurrent upload of the same bytes may win the rename; the result is identical
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+            insertMetadata(new Attachment(hash, size, contentType, fileName));
+            return findByHash(hash);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    public Attachment findByHash(String hash) {
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement(FIND_BY_HASH)) {
+
+            stmt.setString(1, hash);
+            ResultSet rs = stmt.executeQuery();
+
+            if (rs.next()) {
+                Attachment attachment = new Attachment();
+                attachment.setHash(rs.getString("hash"));
+                attachment.setSize(rs.getLong("size"));
+                attachment.setContentType(rs.getString("content_type"));
+                attachment.setFileName(rs.getString("file_name"));
+                attachment.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+                return attachment;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    // The given hashes that have no stored attachment
+    public List<String> findMissing(List<String> hashes) throws SQLException {
+        List<String> missing = new ArrayList<>(hashes);
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement(FIND_EXISTING)) {
+            stmt.setObject(1, hashes.toArray(new String[0]));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    missing.remove(rs.getString(1));
+                }
+            }
+        }
+        return missing;
+    }
+
+    // Read-only view of the attachment's bytes, or null when no file is stored under the hash
+    public ByteBuffer open(String hash) throws IOException {
+        if (!isHash(hash)) {
+            return null;
+        }
+        synchronized (MAPPED) {
+            MappedByteBuffer cached = MAPPED.get(hash);
+            if (cached != null) {
+                return cached.asReadOnlyBuffer();
+            }
+        }
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(pathOf(hash), StandardOpenOption.READ)) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        synchronized (MAPPED) {
+            if (mapped.capacity() <= MAPPED_CACHE_BYTES && MAPPED.putIfAbsent(hash, mapped) == null) {
+                mappedBytes += mapped.capacity();
+                // Dropped mappings are unmapped when the collector reclaims them
+                Iterator<MappedByteBuffer> eldest = MAPPED.values().iterator();
+                while (mappedBytes > MAPPED_CACHE_BYTES) {
+                    mappedBytes -= eldest.next().capacity();
+                    eldest.remove();
+                }
+            }
+        }
+        return mapped.asReadOnlyBuffer();
+    }
+
+    public static Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("path", ROOT.toString());
+        synchronized (MAPPED) {
+            stats.put("mappedFiles", MAPPED.size());
+            stats.put("mappedBytes", mappedBytes);
+        }
+        stats.put("mappedCacheBytes", MAPPED_CACHE_BYTES);
+        return stats;
+    }
+
+    private void insertMetadata(Attachment attachment) throws SQLException {
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement(INSERT)) {
+            stmt.setString(1, attachment.getHash());
+            stmt.setLong(2, attachment.getSize());
+            stmt.setString(3, attachment.getContentType());
+            stmt.setString(4, attachment.getFileName());
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            // Same content stored before: the first upload's metadata stands
+            if (!"23505".equals(e.getSQLState())) {
+                throw e;
+            }
+        }
+    }
+
+    // Two-character fan-out keeps directories small: ab/abcdef...
+    private static Path pathOf(String hash) {
+        return ROOT.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
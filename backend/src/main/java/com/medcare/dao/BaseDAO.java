@@ -1,11 +1,80 @@
 package com.medcare.dao;
 
 import com.medcare.config.DatabaseConfig;
+import java.io.IOException;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
 
 public abstract class BaseDAO {
+    private static final int STREAM_FETCH_SIZE = 256;
+    
     protected Connection getConnection() throws SQLException {
         return DatabaseConfig.getConnection();
     }
-}
\ No newline at end of file
+    
+    // Runs a query and hands each mapped row to the handler as it is read, instead of
+    // collecting a List. Lazy execution lets H2 produce rows incrementally where the plan allows.
+    protected <T> void streamQuery(String sql, RowMapper<T> mapper, RowHandler<T> handler, Object... params)
+            throws SQLException, IOException {
+        try (Connection conn = getConnection()) {
+            try (Statement session = conn.createStatement()) {
+                session.execute("SET LAZY_QUERY_EXECUTION TRUE");
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < params.length; i++) {
+                    stmt.setObject(i + 1, params[i]);
+                }
+                stmt.setFetchSize(STREAM_FETCH_SIZE);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        handler.handle(mapper.map(rs));
+                    }
+                }
+            } finally {
+                try (Statement session = conn.createStatement()) {
+                    session.execute("SET LAZY_QUERY_EXECUTION FALSE");
+                }
+            }
+        }
+    }
+    
+    // Runs a keyset query whose last parameter is the LIMIT. One extra row is fetched to
+    // learn whether another page exists; the cursor then points at the last returned row.
+    protected <T> Page<T> queryPage(String sql, RowMapper<T> mapper, Function<T, String> cursorOf,
+                                    int limit, Object... params) throws SQLException {
+        List<T> items = new ArrayList<>(Math.min(limit + 1, 256));
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            stmt.setInt(params.length + 1, limit + 1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    items.add(mapper.map(rs));
+                }
+            }
+        }
+        if (items.size() <= limit) {
+            return new Page<>(items, null);
+        }
+        items.remove(limit);
+        return new Page<>(items, cursorOf.apply(items.get(limit - 1)));
+    }
+    
+    // Escapes LIKE wildcards in user input; H2's default escape character is the backslash
+    protected static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+    
+    @FunctionalInterface
+    protected interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+}
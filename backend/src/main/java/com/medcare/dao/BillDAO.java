@@ -0,0 +1,156 @@
+package com.medcare.dao;
+
+import com.medcare.model.Bill;
+import com.medcare.model.BillItem;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BillDAO extends BaseDAO {
+    // A bill and its items come back from one LEFT JOIN, one row per item, ordered so that each
+    // bill's rows are adjacent; a bill without items yields a single row with null item columns
+    private static final String BILL_WITH_ITEMS = """
+        SELECT b.*, i.id AS item_id, i.description AS item_description, i.quantity AS item_quantity,
+               i.unit_price AS item_unit_price, i.total AS item_total
+        FROM bills b LEFT JOIN bill_items i ON i.bill_id = b.id
+        """;
+    private static final String FIND_BY_ID = QueryCatalog.register("BillDAO.findById",
+        BILL_WITH_ITEMS + "WHERE b.id = ? ORDER BY i.id", 1L);
+    private static final String FIND_BY_PATIENT = QueryCatalog.register("BillDAO.findByPatientId",
+        BILL_WITH_ITEMS + "WHERE b.patient_id = ? ORDER BY b.bill_date DESC, b.id DESC, i.id", 1L);
+    private static final String UPDATE_STATUS = QueryCatalog.register("BillDAO.updateStatus",
+        "UPDATE bills SET status = ? WHERE id = ?", "paid", 1L);
+    private static final String INSERT_BILL = """
+        INSERT INTO bills (patient_id, patient_name, bill_date, subtotal, tax, total, status, due_date)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+    private static final String INSERT_ITEM = """
+        INSERT INTO bill_items (bill_id, description, quantity, unit_price, total) VALUES (?, ?, ?, ?, ?)
+        """;
+
+    public Bill findById(Long id) {
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement(FIND_BY_ID)) {
+
+            stmt.setLong(1, id);
+            List<Bill> bills = mapBills(stmt.executeQuery());
+            return bills.isEmpty() ? null : bills.get(0);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    public List<Bill> findByPatientId(Long patientId) {
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement(FIND_BY_PATIENT)) {
+
+            stmt.setLong(1, patientId);
+            return mapBills(stmt.executeQuery());
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return new ArrayList<>();
+    }
+
+    // Writes the bill and all of its items in one transaction, the items as a single batch;
+    // either everything is stored or nothing is
+    public Bill insert(Bill bill) throws SQLException {
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(INSERT_BILL, Statement.RETURN_GENERATED_KEYS)) {
+                stmt.setLong(1, bill.getPatientId());
+                stmt.setString(2, bill.getPatientName());
+                stmt.setDate(3, Date.valueOf(bill.getBillDate()));
+                stmt.setBigDecimal(4, bill.getSubtotal());
+                stmt.setBigDecimal(5, bill.getTax());
+                stmt.setBigDecimal(6, bill.getTotal());
+                stmt.setString(7, bill.getStatus().name().toLowerCase());
+                stmt.setDate(8, Date.valueOf(bill.getDueDate()));
+                stmt.executeUpdate();
+                try (ResultSet keys = stmt.getGeneratedKeys()) {
+                    if (!keys.next()) {
+                        throw new SQLException("No key generated for bill");
+                    }
+                    bill.setId(keys.getLong(1));
+                }
+            }
+
+            List<BillItem> items = bill.getItems();
+            try (PreparedStatement stmt = conn.prepareStatement(INSERT_ITEM, Statement.RETURN_GENERATED_KEYS)) {
+                for (BillItem item : items) {
+                    stmt.setLong(1, bill.getId());
+                    stmt.setString(2, item.getDescription());
+                    stmt.setInt(3, item.getQuantity());
+                    stmt.setBigDecimal(4, item.getUnitPrice());
+                    stmt.setBigDecimal(5, item.getTotal());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                try (ResultSet keys = stmt.getGeneratedKeys()) {
+                    for (BillItem item : items) {
+                        if (keys.next()) {
+                            item.setId(keys.getLong(1));
+                        }
+                        item.setBillId(bill.getId());
+                    }
+                }
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            // Nothing was committed; the pool rolls the connection back on release
+            bill.setId(null);
+            throw e;
+        }
+        return bill;
+    }
+
+    public boolean updateStatus(Long id, Bill.BillStatus status) throws SQLException {
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement(UPDATE_STATUS)) {
+            stmt.setString(1, status.name().toLowerCase());
+            stmt.setLong(2, id);
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    private List<Bill> mapBills(ResultSet rs) throws SQLException {
+        List<Bill> bills = new ArrayList<>();
+        Bill current = null;
+        while (rs.next()) {
+            long billId = rs.getLong("id");
+            if (current == null || current.getId() != billId) {
+                current = mapResultSetToBill(rs);
+                bills.add(current);
+            }
+            long itemId = rs.getLong("item_id");
+            if (!rs.wasNull()) {
+                BillItem item = new BillItem();
+                item.setId(itemId);
+                item.setBillId(billId);
+                item.setDescription(rs.getString("item_description"));
+                item.setQuantity(rs.getInt("item_quantity"));
+                item.setUnitPrice(rs.getBigDecimal("item_unit_price"));
+                item.setTotal(rs.getBigDecimal("item_total"));
+                current.getItems().add(item);
+            }
+        }
+        return bills;
+    }
+
+    private Bill mapResultSetToBill(ResultSet rs) throws SQLException {
+        Bill bill = new Bill();
+        bill.setId(rs.getLong("id"));
+        bill.setPatientId(rs.getLong("patient_id"));
+        bill.setPatientName(rs.getString("patient_name"));
+        bill.setBillDate(rs.getDate("bill_date").toLocalDate());
+        bill.setItems(new ArrayList<>());
+        bill.setSubtotal(rs.getBigDecimal("subtotal"));
+        bill.setTax(rs.getBigDecimal("tax"));
+        bill.setTotal(rs.getBigDecimal("total"));
+        bill.setStatus(Bill.BillStatus.valueOf(rs.getString("status").toUpperCase()));
+        bill.setDueDate(rs.getDate("due_date").toLocalDate());
+        bill.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+        return bill;
+    }
+}
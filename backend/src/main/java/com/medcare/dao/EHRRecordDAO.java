@@ -0,0 +1,114 @@
+package com.medcare.dao;
+
+import com.medcare.model.EHRRecord;
+import java.io.IOException;
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+
+// EHR records are append-only: a correction is a new record, so there is no update or delete
+public class EHRRecordDAO extends BaseDAO {
+    private static final String FIND_BY_ID = QueryCatalog.register("EHRRecordDAO.findById",
+        "SELECT * FROM ehr_records WHERE id = ?", 1L);
+    // patient_id leads the ORDER BY although it is fixed: H2 only reads idx_ehr_patient_timeline
+    // in order, stopping after LIMIT rows, when the sort names the index's leading column too.
+    // Without a range on record_date the planner ties it with the foreign key index and picks
+    // that one, sorting the patient's whole history, hence the hint
+    private static final String TIMELINE = QueryCatalog.register("EHRRecordDAO.streamTimeline",
+        "SELECT * FROM ehr_records USE INDEX (idx_ehr_patient_timeline) WHERE patient_id = ? ORDER BY patient_id, record_date DESC, id DESC", 1L);
+    private static final String PAGE_FIRST = QueryCatalog.register("EHRRecordDAO.findTimelinePage.first",
+        "SELECT * FROM ehr_records USE INDEX (idx_ehr_patient_timeline) WHERE patient_id = ? ORDER BY patient_id, record_date DESC, id DESC LIMIT ?", 1L, 50);
+    private static final String PAGE_AFTER = QueryCatalog.register("EHRRecordDAO.findTimelinePage.after",
+        "SELECT * FROM ehr_records WHERE patient_id = ? AND (record_date, id) < (?, ?) "
+            + "ORDER BY patient_id, record_date DESC, id DESC LIMIT ?",
+        1L, LocalDate.of(2024, 1, 1), 1000L, 50);
+    private static final String INSERT = """
+        INSERT INTO ehr_records (patient_id, record_date, type, title, description, doctor_id, doctor_name, attachments)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    public EHRRecord findById(Long id) {
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement(FIND_BY_ID)) {
+
+            stmt.setLong(1, id);
+            ResultSet rs = stmt.executeQuery();
+
+            if (rs.next()) {
+                return mapResultSetToRecord(rs);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    // A patient's whole history, newest first, served by idx_ehr_patient_timeline
+    public void streamTimeline(Long patientId, RowHandler<EHRRecord> handler) throws SQLException, IOException {
+        streamQuery(TIMELINE, this::mapResultSetToRecord, handler, patientId);
+    }
+
+    // Keyset pagination on (record_date, id) within one patient
+    public Page<EHRRecord> findTimelinePage(Long patientId, String cursor, int limit) throws SQLException {
+        if (cursor == null || cursor.isEmpty()) {
+            return queryPage(PAGE_FIRST, this::mapResultSetToRecord, EHRRecordDAO::cursorOf, limit, patientId);
+        }
+        String[] keys = PageCursor.decode(cursor, 2);
+        LocalDate date;
+        long id;
+        try {
+            date = LocalDate.parse(keys[0]);
+            id = Long.parseLong(keys[1]);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return queryPage(PAGE_AFTER, this::mapResultSetToRecord, EHRRecordDAO::cursorOf, limit, patientId, date, id);
+    }
+
+    private static String cursorOf(EHRRecord record) {
+        return PageCursor.encode(record.getRecordDate(), record.getId());
+    }
+
+    public EHRRecord insert(EHRRecord record) throws SQLException {
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS)) {
+
+            stmt.setLong(1, record.getPatientId());
+            stmt.setDate(2, Date.valueOf(record.getRecordDate()));
+            stmt.setString(3, record.getType().name().toLowerCase());
+            stmt.setString(4, record.getTitle());
+            stmt.setString(5, record.getDescription());
+            stmt.setLong(6, record.getDoctorId());
+            stmt.setString(7, record.getDoctorName());
+            stmt.setString(8, record.getAttachments() != null ? String.join(",", record.getAttachments()) : "");
+
+            stmt.executeUpdate();
+            ResultSet generatedKeys = stmt.getGeneratedKeys();
+            if (generatedKeys.next()) {
+                record.setId(generatedKeys.getLong(1));
+            }
+        }
+        return record;
+    }
+
+    private EHRRecord mapResultSetToRecord(ResultSet rs) throws SQLException {
+        EHRRecord record = new EHRRecord();
+        record.setId(rs.getLong("id"));
+        record.setPatientId(rs.getLong("patient_id"));
+        record.setRecordDate(rs.getDate("record_date").toLocalDate());
+        record.setType(EHRRecord.RecordType.valueOf(rs.getString("type").toUpperCase().replace('-', '_')));
+        record.setTitle(rs.getString("title"));
+        record.setDescription(rs.getString("description"));
+        record.setDoctorId(rs.getLong("doctor_id"));
+        record.setDoctorName(rs.getString("doctor_name"));
+
+        String attachments = rs.getString("attachments");
+        if (attachments != null && !attachments.trim().isEmpty()) {
+            record.setAttachments(Arrays.asList(attachments.split(",")));
+        }
+
+        record.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+        return record;
+    }
+}
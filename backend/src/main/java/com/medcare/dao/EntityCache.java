@@ -0,0 +1,105 @@
+package com.medcare.dao;
+
+import com.medcare.util.TtlCache;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+// Read-through cache of entities by id in front of a DAO's findById, bounded by size and TTL.
+// Entities are mutable, so values are copied on the way in and out: a caller changing what it
+// got back (e.g. blanking a password) never changes the cached copy.
+public final class EntityCache<T> {
+    private static final int MAX_SIZE = Integer.getInteger("medcare.cache.entityMaxSize", 10_000);
+    private static final long TTL_MS = Long.getLong("medcare.cache.entityTtlSeconds", 300L) * 1000L;
+    private static final Map<String, EntityCache<?>> CACHES = new ConcurrentHashMap<>();
+
+    private final TtlCache<Long, T> entries = new TtlCache<>(MAX_SIZE, TTL_MS);
+    private final UnaryOperator<T> copier;
+    // Bumped by every write; a load that raced with a write is returned but not cached,
+    // so a slow reader cannot put back the row a concurrent update just replaced.
+    // Inserts count too, which makes it the validator for full listings of the table
+    private final AtomicLong writes = new AtomicLong();
+    // Held across the counter check and the put of a load, and across every write's bump and
+    // change, so a write cannot land between a load's check and its put
+    private final Object writeLock = new Object();
+
+    private EntityCache(UnaryOperator<T> copier) {
+        this.copier = copier;
+    }
+
+    public static <T> EntityCache<T> create(String name, UnaryOperator<T> copier) {
+        EntityCache<T> cache = new EntityCache<>(copier);
+        if (CACHES.putIfAbsent(name, cache) != null) {
+            throw new IllegalStateException("Duplicate entity cache " + name);
+        }
+        return cache;
+    }
+
+    @FunctionalInterface
+    public interface Loader<T> {
+        T load(Long id);
+    }
+
+    public T get(Long id, Loader<T> loader) {
+        T cached = entries.get(id);
+        if (cached != null) {
+            return copier.apply(cached);
+        }
+        long before = writes.get();
+        T loaded = loader.load(id);
+        if (loaded != null) {
+            T copy = copier.apply(loaded);
+            synchronized (writeLock) {
+                if (writes.get() == before) {
+                    entries.put(id, copy);
+                }
+            }
+        }
+        return loaded;
+    }
+
+    // Write-through after a successful update
+    public void put(Long id, T entity) {
+        T copy = copier.apply(entity);
+        synchronized (writeLock) {
+            writes.incrementAndGet();
+            entries.put(id, copy);
+        }
+    }
+
+    public void invalidate(Long id) {
+        synchronized (writeLock) {
+            writes.incrementAndGet();
+            entries.remove(id);
+        }
+    }
+
+    // Nothing cached changes on an insert, but listings of the table do
+    public void inserted() {
+        writes.incrementAndGet();
+    }
+
+    // Changes only once a write has committed, so a listing read after it reflects at least that many
+    public long writeCount() {
+        return writes.get();
+    }
+
+    public void invalidateAll() {
+        synchronized (writeLock) {
+            writes.incrementAndGet();
+            entries.clear();
+        }
+    }
+
+    public static void invalidateAllCaches() {
+        CACHES.values().forEach(EntityCache::invalidateAll);
+    }
+
+    public static Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        CACHES.keySet().stream().sorted().forEach(name -> stats.put(name, CACHES.get(name).entries.getStats()));
+        return stats;
+    }
+}
@@ -0,0 +1,75 @@
+package com.medcare.dao;
+
+import com.medcare.config.DatabaseConfig;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Runs EXPLAIN for every query in the QueryCatalog and reports which index H2 picked,
+// flagging plans that fall back to a full table scan.
+public final class IndexAdvisor {
+    // H2 annotates each table access in the plan as /* SCHEMA.INDEX: condition */ or /* SCHEMA.TABLE.tableScan */
+    private static final Pattern ACCESS = Pattern.compile("/\\*\\s*([\\w.\"]+?)(\\.tableScan)?(?::|\\s*\\*/)");
+
+    private IndexAdvisor() {}
+
+    public static Map<String, Object> explainAll() throws SQLException {
+        List<Map<String, Object>> results = new ArrayList<>();
+        int scans = 0;
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            for (QueryCatalog.Entry entry : QueryCatalog.entries()) {
+                Map<String, Object> result = explain(conn, entry);
+                if (Boolean.TRUE.equals(result.get("tableScan"))) {
+                    scans++;
+                }
+                results.add(result);
+            }
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("queries", results.size());
+        report.put("tableScans", scans);
+        report.put("results", results);
+        return report;
+    }
+
+    private static Map<String, Object> explain(Connection conn, QueryCatalog.Entry entry) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("name", entry.getName());
+        result.put("sql", entry.getSql().replaceAll("\\s+", " ").trim());
+        // The three-argument form bypasses the pool's statement cache; EXPLAIN text is one-off
+        try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN " + entry.getSql(),
+                 ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            Object[] params = entry.getSampleParams();
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                String plan = rs.getString(1);
+                List<String> indexes = new ArrayList<>();
+                boolean tableScan = false;
+                Matcher m = ACCESS.matcher(plan);
+                while (m.find()) {
+                    if (m.group(2) != null) {
+                        tableScan = true;
+                    } else {
+                        indexes.add(m.group(1));
+                    }
+                }
+                result.put("tableScan", tableScan);
+                result.put("indexes", indexes);
+                result.put("plan", plan);
+            }
+        } catch (SQLException e) {
+            result.put("error", e.getMessage());
+        }
+        return result;
+    }
+}
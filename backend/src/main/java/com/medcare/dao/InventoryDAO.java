@@ -0,0 +1,217 @@
+package com.medcare.dao;
+
+import com.medcare.index.ExpiryIndex;
+import com.medcare.model.InventoryItem;
+import java.io.IOException;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class InventoryDAO extends BaseDAO {
+    private static final String FIND_BY_ID = QueryCatalog.register("InventoryDAO.findById",
+        "SELECT * FROM inventory WHERE id = ?", 1L);
+    private static final String FIND_ALL = QueryCatalog.register("InventoryDAO.findAll",
+        "SELECT * FROM inventory ORDER BY name, id");
+    private static final String FIND_BY_IDS = QueryCatalog.register("InventoryDAO.findByIds",
+        "SELECT * FROM inventory WHERE id = ANY(?)", (Object) new Long[] {1L});
+    private static final String STREAM_EXPIRIES = QueryCatalog.register("InventoryDAO.streamExpiries",
+        "SELECT id, expiry_date FROM inventory WHERE expiry_date IS NOT NULL");
+    // Seeks idx_inventory_unexpired to the not-yet-marked lots, so already expired stock is not rescanned
+    private static final String MARK_EXPIRED = QueryCatalog.register("InventoryDAO.markExpired",
+        "UPDATE inventory SET expired = TRUE WHERE expired = FALSE AND expiry_date < ?", LocalDate.now());
+    private static final String UPDATE_QUANTITY = QueryCatalog.register("InventoryDAO.updateQuantities",
+        "UPDATE inventory SET quantity = ? WHERE id = ?", 10, 1L);
+    private static final String DELETE = QueryCatalog.register("InventoryDAO.delete",
+        "DELETE FROM inventory WHERE id = ?", 1L);
+    private static final String INSERT = """
+        INSERT INTO inventory (name, category, quantity, min_stock, unit, supplier, expiry_date, cost, location,
+                               expired)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+    private static final String UPDATE = """
+        UPDATE inventory SET name = ?, category = ?, quantity = ?, min_stock = ?, unit = ?, supplier = ?,
+                             expiry_date = ?, cost = ?, location = ?, expired = ?
+        WHERE id = ?
+        """;
+
+    public InventoryItem findById(Long id) {
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement(FIND_BY_ID)) {
+
+            stmt.setLong(1, id);
+            ResultSet rs = stmt.executeQuery();
+
+            if (rs.next()) {
+                return mapResultSetToItem(rs);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    public List<InventoryItem> findAll() {
+        List<InventoryItem> items = new ArrayList<>();
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(FIND_ALL)) {
+
+            while (rs.next()) {
+                items.add(mapResultSetToItem(rs));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return items;
+    }
+
+    // Rows for the given ids in the order the ids are listed; ids with no row are skipped
+    public List<InventoryItem> findByIds(List<Long> ids) throws SQLException {
+        Map<Long, InventoryItem> byId = new HashMap<>(ids.size() * 2);
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement(FIND_BY_IDS)) {
+            stmt.setObject(1, ids.toArray(new Long[0]));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    InventoryItem item = mapResultSetToItem(rs);
+                    byId.put(item.getId(), item);
+                }
+            }
+        }
+        List<InventoryItem> items = new ArrayList<>(byId.size());
+        for (Long id : ids) {
+            InventoryItem item = byId.get(id);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    // Every dated lot as an item carrying only its id and expiry date
+    public void streamExpiries(RowHandler<InventoryItem> handler) throws SQLException, IOException {
+        streamQuery(STREAM_EXPIRIES, rs -> {
+            InventoryItem item = new InventoryItem();
+            item.setId(rs.getLong(1));
+            item.setExpiryDate(rs.getDate(2).toLocalDate());
+            return item;
+        }, handler);
+    }
+
+    // Flags lots that expired before the given day; returns the number newly flagged
+    public int markExpiredBefore(LocalDate day) throws SQLException {
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement(MARK_EXPIRED)) {
+            stmt.setDate(1, Date.valueOf(day));
+            return stmt.executeUpdate();
+        }
+    }
+
+    public InventoryItem save(InventoryItem item) {
+        if (item.getId() == null) {
+            return insert(item);
+        } else {
+            return update(item);
+        }
+    }
+
+    private InventoryItem insert(InventoryItem item) {
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS)) {
+
+            bindColumns(stmt, item);
+            if (stmt.executeUpdate() > 0) {
+                ResultSet generatedKeys = stmt.getGeneratedKeys();
+                if (generatedKeys.next()) {
+                    item.setId(generatedKeys.getLong(1));
+                    ExpiryIndex.getInstance().put(item.getId(), item.getExpiryDate());
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return item;
+    }
+
+    private InventoryItem update(InventoryItem item) {
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement(UPDATE)) {
+
+            bindColumns(stmt, item);
+            stmt.setLong(11, item.getId());
+            if (stmt.executeUpdate() > 0) {
+                ExpiryIndex.getInstance().put(item.getId(), item.getExpiryDate());
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return item;
+    }
+
+    // Writes absolute quantities for many items as one batch in one transaction
+    public void updateQuantities(long[] ids, int[] quantities, int count) throws SQLException {
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(UPDATE_QUANTITY)) {
+                for (int i = 0; i < count; i++) {
+                    stmt.setInt(1, quantities[i]);
+                    stmt.setLong(2, ids[i]);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+            conn.commit();
+        }
+    }
+
+    public boolean delete(Long id) {
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement(DELETE)) {
+
+            stmt.setLong(1, id);
+            if (stmt.executeUpdate() > 0) {
+                ExpiryIndex.getInstance().remove(id);
+                return true;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    private static void bindColumns(PreparedStatement stmt, InventoryItem item) throws SQLException {
+        stmt.setString(1, item.getName());
+        stmt.setString(2, item.getCategory().name().toLowerCase());
+        stmt.setInt(3, item.getQuantity());
+        stmt.setInt(4, item.getMinStock());
+        stmt.setString(5, item.getUnit());
+        stmt.setString(6, item.getSupplier());
+        stmt.setDate(7, item.getExpiryDate() != null ? Date.valueOf(item.getExpiryDate()) : null);
+        stmt.setBigDecimal(8, item.getCost());
+        stmt.setString(9, item.getLocation());
+        // Written with the row so a lot entered already past its date needs no sweep to be flagged
+        item.setExpired(item.getExpiryDate() != null && item.getExpiryDate().isBefore(LocalDate.now()));
+        stmt.setBoolean(10, item.isExpired());
+    }
+
+    private InventoryItem mapResultSetToItem(ResultSet rs) throws SQLException {
+        InventoryItem item = new InventoryItem();
+        item.setId(rs.getLong("id"));
+        item.setName(rs.getString("name"));
+        item.setCategory(InventoryItem.Category.valueOf(rs.getString("category").toUpperCase()));
+        item.setQuantity(rs.getInt("quantity"));
+        item.setMinStock(rs.getInt("min_stock"));
+        item.setUnit(rs.getString("unit"));
+        item.setSupplier(rs.getString("supplier"));
+        Date expiry = rs.getDate("expiry_date");
+        item.setExpiryDate(expiry != null ? expiry.toLocalDate() : null);
+        item.setCost(rs.getBigDecimal("cost"));
+        item.setLocation(rs.getString("location"));
+        item.setExpired(rs.getBoolean("expired"));
+        item.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+        return item;
+    }
+}
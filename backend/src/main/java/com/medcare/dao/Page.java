@@ -0,0 +1,34 @@
+package com.medcare.dao;
+
+import java.util.List;
+
+// One page of a keyset-paginated listing; nextCursor is absent on the last page
+public class Page<T> {
+    public static final int DEFAULT_SIZE = Integer.getInteger("medcare.api.defaultPageSize", 50);
+    public static final int MAX_SIZE = Integer.getInteger("medcare.api.maxPageSize", 200);
+
+    private final List<T> items;
+    private final String nextCursor;
+
+    public Page(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() { return items; }
+    public String getNextCursor() { return nextCursor; }
+
+    // Parses a ?limit= value, clamping it to [1, MAX_SIZE]
+    public static int resolveLimit(String requested) {
+        if (requested == null || requested.isEmpty()) {
+            return Math.min(DEFAULT_SIZE, MAX_SIZE);
+        }
+        int limit;
+        try {
+            limit = Integer.parseInt(requested.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid limit");
+        }
+        return Math.max(1, Math.min(limit, MAX_SIZE));
+    }
+}
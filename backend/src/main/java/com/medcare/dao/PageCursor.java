@@ -0,0 +1,36 @@
+package com.medcare.dao;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Opaque cursor carrying the sort key and id of the last row of a page, base64url encoded.
+// Clients pass it back unchanged; its layout is private to the DAO that produced it.
+public final class PageCursor {
+    private static final char SEPARATOR = '|';
+
+    private PageCursor() {}
+
+    public static String encode(Object... keys) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0) sb.append(SEPARATOR);
+            sb.append(keys[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Throws IllegalArgumentException for anything this class did not produce
+    public static String[] decode(String cursor, int expectedKeys) {
+        String text;
+        try {
+            text = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        String[] keys = text.split("\\|", -1);
+        if (keys.length != expectedKeys) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return keys;
+    }
+}
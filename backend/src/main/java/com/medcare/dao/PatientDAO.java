@@ -1,15 +1,44 @@
 package com.medcare.dao;
 
+import com.medcare.index.PatientSearchIndex;
 import com.medcare.model.Patient;
+import java.io.IOException;
 import java.sql.*;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
 public class PatientDAO extends BaseDAO {
+    private static final EntityCache<Patient> CACHE = EntityCache.create("patients", Patient::new);
+    private static final String FIND_BY_ID = QueryCatalog.register("PatientDAO.findById",
+        "SELECT * FROM patients WHERE id = ?", 1L);
+    private static final String FIND_ALL = QueryCatalog.register("PatientDAO.findAll",
+        "SELECT * FROM patients ORDER BY created_at DESC, id DESC");
+    private static final String PAGE_FIRST = QueryCatalog.register("PatientDAO.findPage.first",
+        "SELECT * FROM patients ORDER BY created_at DESC, id DESC LIMIT ?", 50);
+    private static final String PAGE_AFTER = QueryCatalog.register("PatientDAO.findPage.after",
+        "SELECT * FROM patients WHERE (created_at, id) < (?, ?) ORDER BY created_at DESC, id DESC LIMIT ?",
+        LocalDateTime.of(2024, 1, 1, 0, 0), 1000L, 50);
+    private static final String SEARCH_BY_NAME = QueryCatalog.register("PatientDAO.searchByName",
+        "SELECT * FROM patients WHERE name_lower LIKE ? ORDER BY name", "jo%");
+    private static final String DELETE = QueryCatalog.register("PatientDAO.delete",
+        "DELETE FROM patients WHERE id = ?", 1L);
+    private static final String INSERT = """
+            INSERT INTO patients (name, email, phone, date_of_birth, gender, address, 
+                                emergency_contact, blood_type, allergies, medications) 
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+    
     
+    // Served from the entity cache when possible; writes below keep it current
     public Patient findById(Long id) {
-        String sql = "SELECT * FROM patients WHERE id = ?";
+        return CACHE.get(id, this::loadById);
+    }
+    
+    private Patient loadById(Long id) {
+        String sql = FIND_BY_ID;
         try (Connection conn = getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
@@ -27,7 +56,7 @@ public class PatientDAO extends BaseDAO {
     
     public List<Patient> findAll() {
         List<Patient> patients = new ArrayList<>();
-        String sql = "SELECT * FROM patients ORDER BY created_at DESC";
+        String sql = FIND_ALL;
         
         try (Connection conn = getConnection();
              Statement stmt = conn.createStatement();
@@ -42,14 +71,47 @@ public class PatientDAO extends BaseDAO {
         return patients;
     }
     
+    // Bumped by every insert, update and delete made through this DAO
+    public long writeCount() {
+        return CACHE.writeCount();
+    }
+    
+    public void streamAll(RowHandler<Patient> handler) throws SQLException, IOException {
+        streamQuery(FIND_ALL, this::mapResultSetToPatient, handler);
+    }
+    
+    // Keyset pagination on (created_at, id), served by idx_patients_created
+    public Page<Patient> findPage(String cursor, int limit) throws SQLException {
+        if (cursor == null || cursor.isEmpty()) {
+            return queryPage(PAGE_FIRST,
+                this::mapResultSetToPatient, PatientDAO::cursorOf, limit);
+        }
+        String[] keys = PageCursor.decode(cursor, 2);
+        LocalDateTime createdAt;
+        long id;
+        try {
+            createdAt = LocalDateTime.parse(keys[0]);
+            id = Long.parseLong(keys[1]);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return queryPage(PAGE_AFTER,
+            this::mapResultSetToPatient, PatientDAO::cursorOf, limit, createdAt, id);
+    }
+    
+    private static String cursorOf(Patient patient) {
+        return PageCursor.encode(patient.getCreatedAt(), patient.getId());
+    }
+    
     public List<Patient> searchByName(String name) {
         List<Patient> patients = new ArrayList<>();
-        String sql = "SELECT * FROM patients WHERE LOWER(name) LIKE ? ORDER BY name";
+        String sql = SEARCH_BY_NAME;
         
         try (Connection conn = getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            stmt.setString(1, "%" + name.toLowerCase() + "%");
+            // Prefix match, so the lookup can seek idx_patients_name_lower
+            stmt.setString(1, escapeLike(name.toLowerCase()) + "%");
             ResultSet rs = stmt.executeQuery();
             
             while (rs.next()) {
@@ -70,31 +132,20 @@ public class PatientDAO extends BaseDAO {
     }
     
     private Patient insert(Patient patient) {
-        String sql = """
-            INSERT INTO patients (name, email, phone, date_of_birth, gender, address, 
-                                emergency_contact, blood_type, allergies, medications) 
-            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
-        """;
+        String sql = INSERT;
         
         try (Connection conn = getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             
-            stmt.setString(1, patient.getName());
-            stmt.setString(2, patient.getEmail());
-            stmt.setString(3, patient.getPhone());
-            stmt.setDate(4, Date.valueOf(patient.getDateOfBirth()));
-            stmt.setString(5, patient.getGender().name().toLowerCase());
-            stmt.setString(6, patient.getAddress());
-            stmt.setString(7, patient.getEmergencyContact());
-            stmt.setString(8, patient.getBloodType());
-            stmt.setString(9, patient.getAllergies() != null ? String.join(",", patient.getAllergies()) : "");
-            stmt.setString(10, patient.getMedications() != null ? String.join(",", patient.getMedications()) : "");
+            bindColumns(stmt, patient);
             
             int affectedRows = stmt.executeUpdate();
             if (affectedRows > 0) {
                 ResultSet generatedKeys = stmt.getGeneratedKeys();
                 if (generatedKeys.next()) {
                     patient.setId(generatedKeys.getLong(1));
+                    PatientSearchIndex.getInstance().put(patient);
+                    CACHE.inserted();
                 }
             }
         } catch (SQLException e) {
@@ -103,6 +154,64 @@ public class PatientDAO extends BaseDAO {
         return patient;
     }
     
+    // Inserts the patients with one executeBatch in a single transaction. Rows rejected by the
+    // database do not abort the others; the returned array holds, per input row, the error
+    // message or null if it was inserted, in which case the patient's id has been set.
+    public String[] insertBatch(List<Patient> patients) throws SQLException {
+        String[] errors = new String[patients.size()];
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS)) {
+                for (Patient patient : patients) {
+                    bindColumns(stmt, patient);
+                    stmt.addBatch();
+                }
+                int[] counts;
+                try {
+                    counts = stmt.executeBatch();
+                } catch (BatchUpdateException e) {
+                    // H2 carries on past failed rows and chains one exception per failure, in row order
+                    counts = e.getUpdateCounts();
+                    SQLException failure = e.getNextException();
+                    for (int i = 0; i < counts.length; i++) {
+                        if (counts[i] == Statement.EXECUTE_FAILED) {
+                            errors[i] = failure != null ? describe(failure) : "Insert failed";
+                            failure = failure != null ? failure.getNextException() : null;
+                        }
+                    }
+                }
+                // Keys come back for the inserted rows only, in the same order
+                try (ResultSet keys = stmt.getGeneratedKeys()) {
+                    for (int i = 0; i < patients.size(); i++) {
+                        if (errors[i] == null && keys.next()) {
+                            patients.get(i).setId(keys.getLong(1));
+                        }
+                    }
+                }
+            }
+            conn.commit();
+        }
+        CACHE.inserted();
+        
+        PatientSearchIndex index = PatientSearchIndex.getInstance();
+        for (int i = 0; i < patients.size(); i++) {
+            if (errors[i] == null) {
+                index.put(patients.get(i));
+            }
+        }
+        return errors;
+    }
+    
+    private static String describe(SQLException e) {
+        if ("23505".equals(e.getSQLState())) {
+            return "A patient with this email already exists";
+        }
+        // H2 appends the statement text after the first line
+        String message = String.valueOf(e.getMessage());
+        int end = message.indexOf("; SQL statement:");
+        return end < 0 ? message : message.substring(0, end);
+    }
+    
     private Patient update(Patient patient) {
         String sql = """
             UPDATE patients SET name = ?, email = ?, phone = ?, date_of_birth = ?, 
@@ -114,19 +223,13 @@ public class PatientDAO extends BaseDAO {
         try (Connection conn = getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            stmt.setString(1, patient.getName());
-            stmt.setString(2, patient.getEmail());
-            stmt.setString(3, patient.getPhone());
-            stmt.setDate(4, Date.valueOf(patient.getDateOfBirth()));
-            stmt.setString(5, patient.getGender().name().toLowerCase());
-            stmt.setString(6, patient.getAddress());
-            stmt.setString(7, patient.getEmergencyContact());
-            stmt.setString(8, patient.getBloodType());
-            stmt.setString(9, patient.getAllergies() != null ? String.join(",", patient.getAllergies()) : "");
-            stmt.setString(10, patient.getMedications() != null ? String.join(",", patient.getMedications()) : "");
+            bindColumns(stmt, patient);
             stmt.setLong(11, patient.getId());
             
-            stmt.executeUpdate();
+            if (stmt.executeUpdate() > 0) {
+                PatientSearchIndex.getInstance().put(patient);
+                cacheUpdated(patient.getId(), patient);
+            }
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -134,18 +237,44 @@ public class PatientDAO extends BaseDAO {
     }
     
     public boolean delete(Long id) {
-        String sql = "DELETE FROM patients WHERE id = ?";
+        String sql = DELETE;
         try (Connection conn = getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setLong(1, id);
-            return stmt.executeUpdate() > 0;
+            if (stmt.executeUpdate() > 0) {
+                PatientSearchIndex.getInstance().remove(id);
+                CACHE.invalidate(id);
+                return true;
+            }
         } catch (SQLException e) {
             e.printStackTrace();
         }
         return false;
     }
     
+    private static void bindColumns(PreparedStatement stmt, Patient patient) throws SQLException {
+        stmt.setString(1, patient.getName());
+        stmt.setString(2, patient.getEmail());
+        stmt.setString(3, patient.getPhone());
+        stmt.setDate(4, Date.valueOf(patient.getDateOfBirth()));
+        stmt.setString(5, patient.getGender().name().toLowerCase());
+        stmt.setString(6, patient.getAddress());
+        stmt.setString(7, patient.getEmergencyContact());
+        stmt.setString(8, patient.getBloodType());
+        stmt.setString(9, patient.getAllergies() != null ? String.join(",", patient.getAllergies()) : "");
+        stmt.setString(10, patient.getMedications() != null ? String.join(",", patient.getMedications()) : "");
+    }
+    
+    // An update built from a request body lacks created_at; such a copy would be incomplete, so drop it instead
+    private static void cacheUpdated(Long id, Patient patient) {
+        if (patient.getCreatedAt() != null) {
+            CACHE.put(id, patient);
+        } else {
+            CACHE.invalidate(id);
+        }
+    }
+    
     private Patient mapResultSetToPatient(ResultSet rs) throws SQLException {
         Patient patient = new Patient();
         patient.setId(rs.getLong("id"));
@@ -0,0 +1,46 @@
+package com.medcare.dao;
+
+import com.medcare.metrics.SqlMetrics;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Registry of the SQL each DAO runs, with representative parameter values, so the index
+// advisor can EXPLAIN every query. DAOs register their statements as static constants.
+public final class QueryCatalog {
+    private static final Map<String, Entry> QUERIES = new LinkedHashMap<>();
+
+    private QueryCatalog() {}
+
+    // Returns sql unchanged so it can initialise the DAO's constant
+    public static String register(String name, String sql, Object... sampleParams) {
+        synchronized (QUERIES) {
+            QUERIES.put(name, new Entry(name, sql, sampleParams));
+        }
+        SqlMetrics.name(sql, name);
+        return sql;
+    }
+
+    public static List<Entry> entries() {
+        synchronized (QUERIES) {
+            return new ArrayList<>(QUERIES.values());
+        }
+    }
+
+    public static final class Entry {
+        private final String name;
+        private final String sql;
+        private final Object[] sampleParams;
+
+        Entry(String name, String sql, Object[] sampleParams) {
+            this.name = name;
+            this.sql = sql;
+            this.sampleParams = sampleParams;
+        }
+
+        public String getName() { return name; }
+        public String getSql() { return sql; }
+        Object[] getSampleParams() { return sampleParams; }
+    }
+}
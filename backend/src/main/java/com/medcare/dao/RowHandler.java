@@ -0,0 +1,9 @@
+package com.medcare.dao;
+
+import java.io.IOException;
+
+// Receives rows one at a time from streaming DAO queries
+@FunctionalInterface
+public interface RowHandler<T> {
+    void handle(T row) throws IOException;
+}
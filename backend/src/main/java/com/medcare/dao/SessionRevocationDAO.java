@@ -0,0 +1,76 @@
+package com.medcare.dao;
+
+import java.sql.*;
+import java.util.HashMap;
+import java.util.Map;
+
+// Durable copy of SessionManager's revocations, so logouts and role changes survive a restart
+// when tokens do (file mode with a configured signing key). Times are epoch milliseconds.
+public class SessionRevocationDAO extends BaseDAO {
+    private static final String FIND_SESSIONS = QueryCatalog.register("SessionRevocationDAO.findSessions",
+        "SELECT session_id, expires_at FROM revoked_sessions WHERE expires_at > ?", 0L);
+    private static final String FIND_USER_CUTOFFS = QueryCatalog.register("SessionRevocationDAO.findUserCutoffs",
+        "SELECT user_id, not_before FROM user_session_cutoffs");
+    private static final String REVOKE_SESSION = QueryCatalog.register("SessionRevocationDAO.revokeSession",
+        "MERGE INTO revoked_sessions (session_id, expires_at) KEY (session_id) VALUES (?, ?)", "session", 0L);
+    private static final String REVOKE_USER = QueryCatalog.register("SessionRevocationDAO.revokeUser",
+        "MERGE INTO user_session_cutoffs (user_id, not_before) KEY (user_id) VALUES (?, ?)", 1L, 0L);
+    private static final String PURGE_SESSIONS = QueryCatalog.register("SessionRevocationDAO.purgeSessions",
+        "DELETE FROM revoked_sessions WHERE expires_at <= ?", 0L);
+
+    // Session id -> expiry, for revoked tokens that have not expired yet
+    public Map<String, Long> findRevokedSessions(long now) {
+        Map<String, Long> sessions = new HashMap<>();
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement(FIND_SESSIONS)) {
+            stmt.setLong(1, now);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    sessions.put(rs.getString("session_id"), rs.getLong("expires_at"));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return sessions;
+    }
+
+    // User id -> tokens issued at or before this instant are refused
+    public Map<Long, Long> findUserCutoffs() {
+        Map<Long, Long> cutoffs = new HashMap<>();
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement(FIND_USER_CUTOFFS);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                cutoffs.put(rs.getLong("user_id"), rs.getLong("not_before"));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return cutoffs;
+    }
+
+    public void revokeSession(String sessionId, long expiresAt) {
+        update(REVOKE_SESSION, sessionId, expiresAt);
+    }
+
+    public void revokeUser(Long userId, long notBefore) {
+        update(REVOKE_USER, userId, notBefore);
+    }
+
+    public void purgeExpiredSessions(long now) {
+        update(PURGE_SESSIONS, now);
+    }
+
+    private void update(String sql, Object... params) {
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -2,13 +2,30 @@ package com.medcare.dao;
 
 import com.medcare.model.User;
 import java.sql.*;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
 
 public class UserDAO extends BaseDAO {
+    private static final EntityCache<User> CACHE = EntityCache.create("users", User::new);
+    private static final String FIND_BY_EMAIL = QueryCatalog.register("UserDAO.findByEmail",
+        "SELECT * FROM users WHERE email = ?", "someone@example.com");
+    private static final String FIND_BY_ID = QueryCatalog.register("UserDAO.findById",
+        "SELECT * FROM users WHERE id = ?", 1L);
+    private static final String FIND_ALL = QueryCatalog.register("UserDAO.findAll",
+        "SELECT * FROM users ORDER BY created_at DESC, id DESC");
+    private static final String PAGE_FIRST = QueryCatalog.register("UserDAO.findPage.first",
+        "SELECT * FROM users ORDER BY created_at DESC, id DESC LIMIT ?", 50);
+    private static final String PAGE_AFTER = QueryCatalog.register("UserDAO.findPage.after",
+        "SELECT * FROM users WHERE (created_at, id) < (?, ?) ORDER BY created_at DESC, id DESC LIMIT ?",
+        LocalDateTime.of(2024, 1, 1, 0, 0), 1000L, 50);
+    private static final String DELETE = QueryCatalog.register("UserDAO.delete",
+        "DELETE FROM users WHERE id = ?", 1L);
+    
     
     public User findByEmail(String email) {
-        String sql = "SELECT * FROM users WHERE email = ?";
+        String sql = FIND_BY_EMAIL;
         try (Connection conn = getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
@@ -25,7 +42,11 @@ public class UserDAO extends BaseDAO {
     }
     
     public User findById(Long id) {
-        String sql = "SELECT * FROM users WHERE id = ?";
+        return CACHE.get(id, this::loadById);
+    }
+    
+    private User loadById(Long id) {
+        String sql = FIND_BY_ID;
         try (Connection conn = getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
@@ -43,7 +64,7 @@ public class UserDAO extends BaseDAO {
     
     public List<User> findAll() {
         List<User> users = new ArrayList<>();
-        String sql = "SELECT * FROM users ORDER BY created_at DESC";
+        String sql = FIND_ALL;
         
         try (Connection conn = getConnection();
              Statement stmt = conn.createStatement();
@@ -58,6 +79,29 @@ public class UserDAO extends BaseDAO {
         return users;
     }
     
+    // Keyset pagination on (created_at, id), served by idx_users_created
+    public Page<User> findPage(String cursor, int limit) throws SQLException {
+        if (cursor == null || cursor.isEmpty()) {
+            return queryPage(PAGE_FIRST,
+                this::mapResultSetToUser, UserDAO::cursorOf, limit);
+        }
+        String[] keys = PageCursor.decode(cursor, 2);
+        LocalDateTime createdAt;
+        long id;
+        try {
+            createdAt = LocalDateTime.parse(keys[0]);
+            id = Long.parseLong(keys[1]);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return queryPage(PAGE_AFTER,
+            this::mapResultSetToUser, UserDAO::cursorOf, limit, createdAt, id);
+    }
+    
+    private static String cursorOf(User user) {
+        return PageCursor.encode(user.getCreatedAt(), user.getId());
+    }
+    
     public User save(User user) {
         if (user.getId() == null) {
             return insert(user);
@@ -100,7 +144,9 @@ public class UserDAO extends BaseDAO {
             stmt.setString(4, user.getRole().name());
             stmt.setLong(5, user.getId());
             
-            stmt.executeUpdate();
+            if (stmt.executeUpdate() > 0) {
+                cacheUpdated(user.getId(), user);
+            }
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -108,18 +154,29 @@ public class UserDAO extends BaseDAO {
     }
     
     public boolean delete(Long id) {
-        String sql = "DELETE FROM users WHERE id = ?";
+        String sql = DELETE;
         try (Connection conn = getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setLong(1, id);
-            return stmt.executeUpdate() > 0;
+            if (stmt.executeUpdate() > 0) {
+                CACHE.invalidate(id);
+                return true;
+            }
         } catch (SQLException e) {
             e.printStackTrace();
         }
         return false;
     }
     
+    private static void cacheUpdated(Long id, User user) {
+        if (user.getCreatedAt() != null) {
+            CACHE.put(id, user);
+        } else {
+            CACHE.invalidate(id);
+        }
+    }
+    
     private User mapResultSetToUser(ResultSet rs) throws SQLException {
         User user = new User();
         user.setId(rs.getLong("id"));
@@ -0,0 +1,224 @@
+package com.medcare.index;
+
+import com.medcare.model.Appointment;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Booked intervals per doctor and day, ordered by start minute, for conflict checks and free-slot
+// queries without going back to the appointments table. Cancelled and no-show appointments do
+// not occupy their slot. Each day also tracks its longest booking, so an overlap check only has
+// to look at bookings starting within that distance before the candidate's end: O(log n + k).
+public final class DoctorScheduleIndex {
+    private static final DoctorScheduleIndex INSTANCE = new DoctorScheduleIndex();
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final Comparator<Booking> BY_START =
+        Comparator.comparingInt((Booking b) -> b.start).thenComparingLong(b -> b.appointmentId);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Map<LocalDate, Day>> doctors = new HashMap<>();
+    private final Map<Long, Booking> bookingsById = new HashMap<>();
+
+    public static DoctorScheduleIndex getInstance() {
+        return INSTANCE;
+    }
+
+    public void rebuild(Iterable<Appointment> appointments) {
+        lock.writeLock().lock();
+        try {
+            doctors.clear();
+            bookingsById.clear();
+            for (Appointment appointment : appointments) {
+                addLocked(appointment);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Inserts or replaces the appointment's booking, or drops it if the slot is no longer occupied
+    public void put(Appointment appointment) {
+        if (appointment.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeLocked(appointment.getId());
+            addLocked(appointment);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long appointmentId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(appointmentId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return bookingsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // First booking of the doctor that overlaps [time, time + duration), ignoring the given
+    // appointment so that an update does not conflict with itself; null when the slot is free
+    public Booking findConflict(Long doctorId, LocalDate date, LocalTime time, int duration, Long ignoreId) {
+        int start = time.toSecondOfDay() / 60;
+        int end = start + duration;
+        lock.readLock().lock();
+        try {
+            Day day = dayLocked(doctorId, date);
+            if (day == null) {
+                return null;
+            }
+            for (Booking booking : day.bookings.subSet(
+                    probe(start - day.maxDuration, Long.MAX_VALUE), false, probe(end, Long.MIN_VALUE), false)) {
+                if (booking.end > start && !booking.appointmentId.equals(ignoreId)) {
+                    return booking;
+                }
+            }
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Gaps of at least minDuration minutes between the doctor's bookings within [from, to)
+    public List<Slot> freeSlots(Long doctorId, LocalDate date, LocalTime from, LocalTime to, int minDuration) {
+        int windowStart = from.toSecondOfDay() / 60;
+        int windowEnd = to.toSecondOfDay() / 60;
+        List<Slot> slots = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Day day = dayLocked(doctorId, date);
+            int cursor = windowStart;
+            if (day != null) {
+                for (Booking booking : day.bookings) {
+                    if (booking.start >= windowEnd) {
+                        break;
+                    }
+                    if (booking.start - cursor >= minDuration) {
+                        slots.add(new Slot(cursor, booking.start));
+                    }
+                    cursor = Math.max(cursor, booking.end);
+                }
+            }
+            if (windowEnd - cursor >= minDuration) {
+                slots.add(new Slot(cursor, windowEnd));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return slots;
+    }
+
+    public static boolean occupiesSlot(Appointment appointment) {
+        return occupiesSlot(appointment.getStatus());
+    }
+
+    public static boolean occupiesSlot(Appointment.AppointmentStatus status) {
+        return status != Appointment.AppointmentStatus.CANCELLED && status != Appointment.AppointmentStatus.NO_SHOW;
+    }
+
+    private Day dayLocked(Long doctorId, LocalDate date) {
+        Map<LocalDate, Day> days = doctors.get(doctorId);
+        return days == null ? null : days.get(date);
+    }
+
+    private void addLocked(Appointment appointment) {
+        if (!occupiesSlot(appointment) || appointment.getDoctorId() == null
+                || appointment.getAppointmentDate() == null || appointment.getAppointmentTime() == null) {
+            return;
+        }
+        int start = appointment.getAppointmentTime().toSecondOfDay() / 60;
+        Booking booking = new Booking(appointment.getId(), appointment.getDoctorId(),
+            appointment.getAppointmentDate(), start, start + Math.max(appointment.getDuration(), 0));
+        Day day = doctors.computeIfAbsent(booking.doctorId, id -> new HashMap<>())
+            .computeIfAbsent(booking.date, date -> new Day());
+        day.bookings.add(booking);
+        day.maxDuration = Math.max(day.maxDuration, booking.end - booking.start);
+        bookingsById.put(booking.appointmentId, booking);
+    }
+
+    private void removeLocked(Long appointmentId) {
+        Booking booking = bookingsById.remove(appointmentId);
+        if (booking == null) {
+            return;
+        }
+        Map<LocalDate, Day> days = doctors.get(booking.doctorId);
+        Day day = days.get(booking.date);
+        day.bookings.remove(booking);
+        if (day.bookings.isEmpty()) {
+            days.remove(booking.date);
+            if (days.isEmpty()) {
+                doctors.remove(booking.doctorId);
+            }
+        }
+    }
+
+    private static Booking probe(int start, long appointmentId) {
+        return new Booking(appointmentId, null, null, start, start);
+    }
+
+    private static LocalTime toTime(int minute) {
+        return minute >= MINUTES_PER_DAY ? LocalTime.MAX : LocalTime.ofSecondOfDay(minute * 60L);
+    }
+
+    private static final class Day {
+        private final TreeSet<Booking> bookings = new TreeSet<>(BY_START);
+        // Longest booking ever held on this day; never shrinks, so it stays a safe search bound
+        private int maxDuration;
+    }
+
+    public static final class Booking {
+        private final Long appointmentId;
+        private final Long doctorId;
+        private final LocalDate date;
+        // Minutes since midnight; the end may run past midnight
+        private final int start;
+        private final int end;
+
+        Booking(Long appointmentId, Long doctorId, LocalDate date, int start, int end) {
+            this.appointmentId = appointmentId;
+            this.doctorId = doctorId;
+            this.date = date;
+            this.start = start;
+            this.end = end;
+        }
+
+        public Long getAppointmentId() { return appointmentId; }
+        public LocalTime getStart() { return toTime(start); }
+        public LocalTime getEnd() { return toTime(end); }
+    }
+
+    public static final class Slot {
+        private final LocalTime start;
+        private final LocalTime end;
+        private final int minutes;
+
+        Slot(int start, int end) {
+            this.start = toTime(start);
+            this.end = toTime(end);
+            this.minutes = end - start;
+        }
+
+        public LocalTime getStart() { return start; }
+        public LocalTime getEnd() { return end; }
+        public int getMinutes() { return minutes; }
+    }
+}
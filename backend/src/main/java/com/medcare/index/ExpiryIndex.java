@@ -0,0 +1,233 @@
+package com.medcare.index;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Inventory lots ordered by expiry date, for "expiring within N days" without scanning the table.
+// Expiry is a date, so lots are bucketed per day in a sorted map and each bucket holds bare ids
+// in a growable long[]; a range query is a seek to the first day plus a walk over the ids it
+// returns, O(log days + k). A primitive map from lot id to its day and slot makes moving or
+// removing a lot O(1), and keeps the whole index near 50 bytes a lot, so millions of lots fit.
+// Lots without an expiry date are not indexed.
+public final class ExpiryIndex {
+    private static final ExpiryIndex INSTANCE = new ExpiryIndex();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<Long, Bucket> days = new TreeMap<>();
+    // Lot id -> epoch day (high 32 bits) and slot within that day's bucket (low 32 bits)
+    private final LongLongMap slots = new LongLongMap();
+
+    public static ExpiryIndex getInstance() {
+        return INSTANCE;
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            days.clear();
+            slots.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Files the lot under its expiry date, moving it if the date changed; a null date removes it
+    public void put(Long lotId, LocalDate expiryDate) {
+        lock.writeLock().lock();
+        try {
+            long previous = slots.get(lotId);
+            if (previous != LongLongMap.ABSENT) {
+                if (expiryDate != null && dayOf(previous) == expiryDate.toEpochDay()) {
+                    return;
+                }
+                removeFromBucket(lotId, previous);
+            }
+            if (expiryDate != null) {
+                long day = expiryDate.toEpochDay();
+                Bucket bucket = days.computeIfAbsent(day, d -> new Bucket());
+                slots.put(lotId, (day << 32) | bucket.add(lotId));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long lotId) {
+        put(lotId, null);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slots.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Ids of lots expiring from 'from' through 'to' inclusive, soonest first, at most limit;
+    // a null 'from' starts at the earliest date held
+    public List<Long> expiringBetween(LocalDate from, LocalDate to, int limit) {
+        List<Long> ids = new ArrayList<>(Math.min(limit, 1024));
+        lock.readLock().lock();
+        try {
+            Map<Long, Bucket> range = from == null
+                ? days.headMap(to.toEpochDay(), true)
+                : days.subMap(from.toEpochDay(), true, to.toEpochDay(), true);
+            for (Bucket bucket : range.values()) {
+                for (int i = 0; i < bucket.size; i++) {
+                    if (ids.size() == limit) {
+                        return ids;
+                    }
+                    ids.add(bucket.ids[i]);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return ids;
+    }
+
+    // Number of lots expiring from 'from' through 'to' inclusive; a null 'from' counts from the earliest
+    public int countBetween(LocalDate from, LocalDate to) {
+        lock.readLock().lock();
+        try {
+            Map<Long, Bucket> range = from == null
+                ? days.headMap(to.toEpochDay(), true)
+                : days.subMap(from.toEpochDay(), true, to.toEpochDay(), true);
+            int count = 0;
+            for (Bucket bucket : range.values()) {
+                count += bucket.size;
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Swaps the bucket's last id into the freed slot; order within one day carries no meaning
+    private void removeFromBucket(long lotId, long slot) {
+        slots.remove(lotId);
+        long day = dayOf(slot);
+        Bucket bucket = days.get(day);
+        int index = (int) slot;
+        long moved = bucket.ids[--bucket.size];
+        if (index != bucket.size) {
+            bucket.ids[index] = moved;
+            slots.put(moved, (day << 32) | index);
+        }
+        if (bucket.size == 0) {
+            days.remove(day);
+        }
+    }
+
+    private static long dayOf(long slot) {
+        return slot >> 32;
+    }
+
+    private static final class Bucket {
+        private long[] ids = new long[4];
+        private int size;
+
+        int add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size] = id;
+            return size++;
+        }
+    }
+
+    // Open-addressed long -> long map with linear probing; ids are positive, so 0 marks an empty cell
+    private static final class LongLongMap {
+        static final long ABSENT = Long.MIN_VALUE;
+
+        private long[] keys = new long[1024];
+        private long[] values = new long[1024];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        void clear() {
+            keys = new long[1024];
+            values = new long[1024];
+            size = 0;
+        }
+
+        long get(long key) {
+            int mask = keys.length - 1;
+            for (int i = hash(key) & mask; keys[i] != 0; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+            }
+            return ABSENT;
+        }
+
+        void put(long key, long value) {
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+            while (keys[i] != 0 && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (keys[i] == 0) {
+                keys[i] = key;
+                if (++size * 2 > keys.length) {
+                    values[i] = value;
+                    resize();
+                    return;
+                }
+            }
+            values[i] = value;
+        }
+
+        // Backward-shift deletion keeps probe chains intact without tombstones
+        void remove(long key) {
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+            while (keys[i] != key) {
+                if (keys[i] == 0) {
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            size--;
+            for (int next = (i + 1) & mask; keys[next] != 0; next = (next + 1) & mask) {
+                int home = hash(keys[next]) & mask;
+                // Move the entry back into the gap unless its home lies cyclically in (i, next]
+                if (i <= next ? (home <= i || home > next) : (home <= i && home > next)) {
+                    keys[i] = keys[next];
+                    values[i] = values[next];
+                    i = next;
+                }
+            }
+            keys[i] = 0;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            long[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new long[oldKeys.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
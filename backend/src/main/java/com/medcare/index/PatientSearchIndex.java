@@ -0,0 +1,450 @@
+package com.medcare.index;
+
+import com.medcare.model.Patient;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory inverted index over patient name, email, phone and address.
+// Every word contributes its trigrams plus its one- and two-character prefixes ("^a", "^ab"),
+// so a query term of any length maps to posting lists whose intersection holds every match.
+// Candidates are verified against the normalised fields and ranked by where the terms occur.
+// Posting lists hold document ordinals in ascending order, so updates append a new ordinal and
+// tombstone the old one; the index compacts itself once half of the ordinals are dead.
+public final class PatientSearchIndex {
+    private static final PatientSearchIndex INSTANCE = new PatientSearchIndex();
+    // Name, email, phone, address
+    private static final int[] FIELD_WEIGHTS = {10, 5, 5, 2};
+    private static final int ALL_FIELDS = (1 << FIELD_WEIGHTS.length) - 1;
+    private static final int WORD_MASK_SLOTS = 1 << 20;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> grams = new HashMap<>();
+    private final Map<Long, Integer> ordinalById = new HashMap<>();
+    // Field bits per hashed whole word or word prefix. Collisions only loosen the score bound,
+    // and bits are never cleared before a rebuild, so the bound stays safe after deletes
+    private final byte[] wordMasks = new byte[WORD_MASK_SLOTS];
+    private Doc[] docs = new Doc[1024];
+    private int nextOrdinal;
+    private int liveDocs;
+
+    public static PatientSearchIndex getInstance() {
+        return INSTANCE;
+    }
+
+    public void rebuild(Iterable<Patient> patients) {
+        lock.writeLock().lock();
+        try {
+            clearLocked();
+            for (Patient patient : patients) {
+                addLocked(patient);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Inserts or replaces the patient's entry
+    public void put(Patient patient) {
+        if (patient.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeLocked(patient.getId());
+            addLocked(patient);
+            if (nextOrdinal > 1024 && liveDocs < nextOrdinal / 2) {
+                compactLocked();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveDocs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Hit> search(String query, int limit) {
+        List<String> terms = words(normalize(query));
+        if (terms.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Postings> lists = new ArrayList<>();
+            int bound = 0;
+            for (String term : terms) {
+                int fields = ALL_FIELDS;
+                for (String gram : queryGrams(term)) {
+                    Postings postings = grams.get(gram);
+                    if (postings == null) {
+                        return Collections.emptyList();
+                    }
+                    lists.add(postings);
+                    fields &= postings.fields;
+                }
+                bound += maxTermScore(term, fields);
+            }
+            lists.sort((a, b) -> Integer.compare(a.size, b.size));
+
+            // Walk the shortest list newest-first, probing the others backwards. Ties rank the newest
+            // patient first, so once the heap is full at the best achievable score nothing left can enter.
+            Postings driver = lists.get(0);
+            int[] cursors = new int[lists.size()];
+            for (int k = 1; k < cursors.length; k++) {
+                cursors[k] = lists.get(k).size - 1;
+            }
+            PriorityQueue<Scored> top = new PriorityQueue<>(limit + 1);
+            candidates:
+            for (int i = driver.size - 1; i >= 0; i--) {
+                int ordinal = driver.ordinals[i];
+                for (int k = 1; k < cursors.length; k++) {
+                    Postings other = lists.get(k);
+                    int at = retreat(other.ordinals, cursors[k], ordinal);
+                    if (at < 0) {
+                        break candidates;
+                    }
+                    cursors[k] = at;
+                    if (other.ordinals[at] != ordinal) {
+                        continue candidates;
+                    }
+                }
+                Doc doc = docs[ordinal];
+                if (doc == null) {
+                    continue;
+                }
+                int score = score(doc, terms);
+                if (score > 0) {
+                    top.add(new Scored(doc, score, ordinal));
+                    if (top.size() > limit) {
+                        top.poll();
+                    }
+                    if (top.size() == limit && top.peek().score >= bound) {
+                        break;
+                    }
+                }
+            }
+
+            List<Scored> ranked = new ArrayList<>(top);
+            ranked.sort(Collections.reverseOrder());
+            List<Hit> hits = new ArrayList<>(ranked.size());
+            for (Scored scored : ranked) {
+                hits.add(new Hit(scored.doc, scored.score));
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Upper bound for one term. The word masks say which fields ever held the term as a whole word
+    // ("=word") or a word starting like it ("^abc"); other fields can only hold an infix match.
+    private int maxTermScore(String term, int fields) {
+        int whole = fields & maskOf("=" + term);
+        int prefix = fields & maskOf("^" + (term.length() > 3 ? term.substring(0, 3) : term));
+        int best = 0;
+        for (int f = 0; f < FIELD_WEIGHTS.length; f++) {
+            int bit = 1 << f;
+            if ((whole & bit) != 0) {
+                best = Math.max(best, FIELD_WEIGHTS[f] * 3);
+            } else if ((prefix & bit) != 0) {
+                best = Math.max(best, FIELD_WEIGHTS[f] * 2);
+            } else if ((fields & bit) != 0 && term.length() >= 3) {
+                best = Math.max(best, FIELD_WEIGHTS[f]);
+            }
+        }
+        return best;
+    }
+
+    private int maskOf(String key) {
+        return wordMasks[maskSlot(key)];
+    }
+
+    // Field-weighted score; 0 when some term does not actually occur (a trigram false positive)
+    private static int score(Doc doc, List<String> terms) {
+        int total = 0;
+        for (String term : terms) {
+            int best = 0;
+            for (int f = 0; f < FIELD_WEIGHTS.length; f++) {
+                best = Math.max(best, fieldScore(doc.keys[f], term, FIELD_WEIGHTS[f]));
+            }
+            if (best == 0) {
+                return 0;
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    // Whole word > word prefix > infix (terms of three or more characters), scaled by the field weight
+    private static int fieldScore(String field, String term, int weight) {
+        int at = field.indexOf(" " + term);
+        if (at >= 0) {
+            int end = at + 1 + term.length();
+            boolean wholeWord = end == field.length() || field.charAt(end) == ' ';
+            return weight * (wholeWord ? 3 : 2);
+        }
+        if (term.length() >= 3 && field.contains(term)) {
+            return weight;
+        }
+        return 0;
+    }
+
+    // Galloping search downwards: the largest index <= from whose value is <= target, or -1
+    private static int retreat(int[] values, int from, int target) {
+        if (from < 0 || values[from] <= target) {
+            return from;
+        }
+        int step = 1;
+        int hi = from;
+        int lo = from - 1;
+        while (lo >= 0 && values[lo] > target) {
+            hi = lo;
+            lo = from - (step <<= 1);
+        }
+        int index = Arrays.binarySearch(values, Math.max(lo, 0), hi, target);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    private void addLocked(Patient patient) {
+        appendLocked(new Doc(patient));
+    }
+
+    private void appendLocked(Doc doc) {
+        int ordinal = nextOrdinal++;
+        if (ordinal == docs.length) {
+            docs = Arrays.copyOf(docs, docs.length * 2);
+        }
+        docs[ordinal] = doc;
+        ordinalById.put(doc.id, ordinal);
+        liveDocs++;
+
+        markWords(doc);
+        for (Map.Entry<String, Integer> gram : indexGrams(doc).entrySet()) {
+            Postings postings = grams.computeIfAbsent(gram.getKey(), g -> new Postings());
+            postings.add(ordinal);
+            postings.fields |= gram.getValue();
+        }
+    }
+
+    private void removeLocked(Long id) {
+        Integer ordinal = ordinalById.remove(id);
+        if (ordinal != null) {
+            // Posting entries stay behind as tombstones and are skipped at query time
+            docs[ordinal] = null;
+            liveDocs--;
+        }
+    }
+
+    private void compactLocked() {
+        List<Doc> live = new ArrayList<>(liveDocs);
+        for (int i = 0; i < nextOrdinal; i++) {
+            if (docs[i] != null) {
+                live.add(docs[i]);
+            }
+        }
+        clearLocked();
+        for (Doc doc : live) {
+            appendLocked(doc);
+        }
+    }
+
+    private void clearLocked() {
+        grams.clear();
+        Arrays.fill(wordMasks, (byte) 0);
+        ordinalById.clear();
+        docs = new Doc[1024];
+        nextOrdinal = 0;
+        liveDocs = 0;
+    }
+
+    // Records which fields hold each whole word and each three-character word prefix
+    private void markWords(Doc doc) {
+        for (int f = 0; f < doc.keys.length; f++) {
+            byte bit = (byte) (1 << f);
+            for (String word : words(doc.keys[f])) {
+                wordMasks[maskSlot("=" + word)] |= bit;
+                wordMasks[maskSlot("^" + (word.length() > 3 ? word.substring(0, 3) : word))] |= bit;
+            }
+        }
+    }
+
+    private static int maskSlot(String key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (WORD_MASK_SLOTS - 1);
+    }
+
+    // Each distinct gram of the document with a bit mask of the fields it occurs in
+    private static Map<String, Integer> indexGrams(Doc doc) {
+        Map<String, Integer> unique = new HashMap<>();
+        for (int f = 0; f < doc.keys.length; f++) {
+            int bit = 1 << f;
+            for (String word : words(doc.keys[f])) {
+                unique.merge("^" + word.substring(0, 1), bit, (a, b) -> a | b);
+                if (word.length() >= 2) {
+                    unique.merge("^" + word.substring(0, 2), bit, (a, b) -> a | b);
+                }
+                for (int i = 0; i + 3 <= word.length(); i++) {
+                    unique.merge(word.substring(i, i + 3), bit, (a, b) -> a | b);
+                }
+            }
+        }
+        return unique;
+    }
+
+    private static List<String> queryGrams(String term) {
+        if (term.length() < 3) {
+            return Collections.singletonList("^" + term);
+        }
+        List<String> result = new ArrayList<>(term.length() - 2);
+        for (int i = 0; i + 3 <= term.length(); i++) {
+            result.add(term.substring(i, i + 3));
+        }
+        return result;
+    }
+
+    // Lower-cases and turns every non letter/digit into a single space, with a leading space
+    // so " " + term finds word starts
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(value.length() + 1).append(' ');
+        String lower = value.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(c);
+            } else if (sb.charAt(sb.length() - 1) != ' ') {
+                sb.append(' ');
+            }
+        }
+        return sb.toString();
+    }
+
+    private static List<String> words(String normalized) {
+        List<String> words = new ArrayList<>();
+        for (String word : normalized.split(" ")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private static String digitsOnly(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static final class Postings {
+        private int[] ordinals = new int[4];
+        private int size;
+        // Fields the gram has ever been indexed from; only grows, so it stays a safe upper bound
+        private int fields;
+
+        void add(int ordinal) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size + (size >> 1) + 1);
+            }
+            ordinals[size++] = ordinal;
+        }
+    }
+
+    private static final class Doc {
+        private final Long id;
+        private final String name;
+        private final String email;
+        private final String phone;
+        // Normalised name, email, phone and address, in FIELD_WEIGHTS order. The phone is
+        // searchable both as typed ("555 0123") and as one run of digits
+        private final String[] keys;
+
+        Doc(Patient patient) {
+            this.id = patient.getId();
+            this.name = patient.getName();
+            this.email = patient.getEmail();
+            this.phone = patient.getPhone();
+            String digits = digitsOnly(phone);
+            this.keys = new String[] {
+                normalize(name),
+                normalize(email),
+                normalize(phone) + (digits.isEmpty() ? "" : " " + digits),
+                normalize(patient.getAddress())
+            };
+        }
+    }
+
+    private static final class Scored implements Comparable<Scored> {
+        private final Doc doc;
+        private final int score;
+        private final int ordinal;
+
+        Scored(Doc doc, int score, int ordinal) {
+            this.doc = doc;
+            this.score = score;
+            this.ordinal = ordinal;
+        }
+
+        // Higher score first, then the most recently indexed
+        @Override
+        public int compareTo(Scored other) {
+            int byScore = Integer.compare(score, other.score);
+            return byScore != 0 ? byScore : Integer.compare(ordinal, other.ordinal);
+        }
+    }
+
+    public static final class Hit {
+        private final Long id;
+        private final String name;
+        private final String email;
+        private final String phone;
+        private final int score;
+
+        Hit(Doc doc, int score) {
+            this.id = doc.id;
+            this.name = doc.name;
+            this.email = doc.email;
+            this.phone = doc.phone;
+            this.score = score;
+        }
+
+        public Long getId() { return id; }
+        public String getName() { return name; }
+        public String getEmail() { return email; }
+        public String getPhone() { return phone; }
+        public int getScore() { return score; }
+    }
+}
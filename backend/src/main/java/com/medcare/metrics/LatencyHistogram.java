@@ -0,0 +1,104 @@
+package com.medcare.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Lock-free latency histogram with fixed, roughly exponential bucket bounds.
+// Recording is a couple of atomic increments so it can sit on hot paths.
+public class LatencyHistogram {
+    // Upper bounds in microseconds; the last bucket collects everything above
+    private static final long[] BOUNDS_MICROS = {
+        10, 25, 50, 100, 250, 500, 1_000, 2_500, 5_000, 10_000, 25_000, 50_000,
+        100_000, 250_000, 500_000, 1_000_000, 2_500_000, 5_000_000
+    };
+    
+    private final AtomicLongArray counts = new AtomicLongArray(BOUNDS_MICROS.length + 1);
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder count = new LongAdder();
+    
+    public void record(long nanos) {
+        long micros = nanos / 1_000;
+        int bucket = BOUNDS_MICROS.length;
+        for (int i = 0; i < BOUNDS_MICROS.length; i++) {
+            if (micros <= BOUNDS_MICROS[i]) {
+                bucket = i;
+                break;
+            }
+        }
+        counts.incrementAndGet(bucket);
+        totalNanos.add(nanos);
+        count.increment();
+    }
+    
+    public long getCount() {
+        return count.sum();
+    }
+    
+    public double getMeanMillis() {
+        long n = count.sum();
+        return n == 0 ? 0.0 : totalNanos.sum() / (double) n / 1_000_000.0;
+    }
+    
+    // Upper bound (in milliseconds) of the bucket containing the given percentile
+    public double getPercentileMillis(double percentile) {
+        long n = 0;
+        long[] snapshot = new long[counts.length()];
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+            n += snapshot[i];
+        }
+        if (n == 0) return 0.0;
+        
+        long threshold = (long) Math.ceil(n * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= threshold) {
+                long bound = i < BOUNDS_MICROS.length ? BOUNDS_MICROS[i] : BOUNDS_MICROS[BOUNDS_MICROS.length - 1];
+                return bound / 1_000.0;
+            }
+        }
+        return BOUNDS_MICROS[BOUNDS_MICROS.length - 1] / 1_000.0;
+    }
+    
+    // Bucket upper bounds in microseconds; the overflow bucket after them is implicit
+    static long[] boundsMicros() {
+        return BOUNDS_MICROS.clone();
+    }
+    
+    // Per-bucket counts, overflow last. Buckets are read one by one, so a value recorded meanwhile
+    // may appear in the buckets without being in a separately read count or sum
+    long[] bucketCounts() {
+        long[] snapshot = new long[counts.length()];
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+        }
+        return snapshot;
+    }
+    
+    long getTotalNanos() {
+        return totalNanos.sum();
+    }
+    
+    public Map<String, Object> toMap() {
+        Map<String, Object> buckets = new LinkedHashMap<>();
+        for (int i = 0; i < BOUNDS_MICROS.length; i++) {
+            buckets.put("le_" + formatMillis(BOUNDS_MICROS[i]) + "ms", counts.get(i));
+        }
+        buckets.put("le_inf", counts.get(BOUNDS_MICROS.length));
+        
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("count", getCount());
+        result.put("meanMs", getMeanMillis());
+        result.put("p50Ms", getPercentileMillis(50));
+        result.put("p99Ms", getPercentileMillis(99));
+        result.put("buckets", buckets);
+        return result;
+    }
+    
+    private static String formatMillis(long micros) {
+        return micros % 1_000 == 0 ? Long.toString(micros / 1_000) : Double.toString(micros / 1_000.0);
+    }
+}
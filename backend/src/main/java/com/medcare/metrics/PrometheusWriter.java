@@ -0,0 +1,86 @@
+package com.medcare.metrics;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+// Builds a scrape in the Prometheus text exposition format, version 0.0.4. Callers announce each
+// family once with family() and then write its samples; label sets come preformatted from labels().
+public final class PrometheusWriter {
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    
+    // LatencyHistogram bounds as "le" values in seconds, computed once
+    private static final String[] LE = leLabels();
+    
+    private final StringBuilder out = new StringBuilder(16 * 1024);
+    
+    public PrometheusWriter family(String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        return this;
+    }
+    
+    public PrometheusWriter sample(String name, String labels, long value) {
+        out.append(name).append(labels).append(' ').append(value).append('\n');
+        return this;
+    }
+    
+    public PrometheusWriter sample(String name, String labels, double value) {
+        out.append(name).append(labels).append(' ').append(value).append('\n');
+        return this;
+    }
+    
+    // Cumulative buckets, then _sum in seconds and _count. The count is taken from the buckets
+    // themselves so the +Inf bucket and _count always agree within one scrape
+    public PrometheusWriter histogram(String name, String labels, LatencyHistogram histogram) {
+        long[] counts = histogram.bucketCounts();
+        String prefix = labels.isEmpty() ? "{" : labels.substring(0, labels.length() - 1) + ",";
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            out.append(name).append("_bucket").append(prefix).append("le=\"").append(LE[i]).append("\"} ")
+                .append(cumulative).append('\n');
+        }
+        sample(name + "_sum", labels, histogram.getTotalNanos() / 1e9);
+        sample(name + "_count", labels, cumulative);
+        return this;
+    }
+    
+    public byte[] toBytes() {
+        return out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+    
+    // {k1="v1",k2="v2"} from alternating names and values; empty for no pairs
+    public static String labels(String... pairs) {
+        if (pairs.length == 0) return "";
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < pairs.length; i += 2) {
+            if (i > 0) sb.append(',');
+            sb.append(pairs[i]).append("=\"");
+            escape(sb, pairs[i + 1]);
+            sb.append('"');
+        }
+        return sb.append('}').toString();
+    }
+    
+    private static void escape(StringBuilder sb, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> sb.append("\\\\");
+                case '"' -> sb.append("\\\"");
+                case '\n' -> sb.append("\\n");
+                default -> sb.append(c);
+            }
+        }
+    }
+    
+    private static String[] leLabels() {
+        long[] bounds = LatencyHistogram.boundsMicros();
+        String[] le = new String[bounds.length + 1];
+        for (int i = 0; i < bounds.length; i++) {
+            le[i] = BigDecimal.valueOf(bounds[i], 6).stripTrailingZeros().toPlainString();
+        }
+        le[bounds.length] = "+Inf";
+        return le;
+    }
+}
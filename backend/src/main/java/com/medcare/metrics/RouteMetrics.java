@@ -0,0 +1,98 @@
+package com.medcare.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Latency, status classes, failures and response bytes for one route. Series are keyed by method
+// and route pattern, never the concrete path, so ids in URLs cannot multiply them. Router resolves
+// the instance once when the route is registered; recording only touches adders and the histogram.
+public final class RouteMetrics {
+    private static final Map<String, RouteMetrics> ROUTES = new ConcurrentHashMap<>();
+    private static final LongAdder IN_FLIGHT = new LongAdder();
+    private static final LongAdder UNMATCHED = new LongAdder();
+    private static final String[] STATUS_CLASSES = { "1xx", "2xx", "3xx", "4xx", "5xx" };
+    
+    private final String method;
+    private final String route;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder[] statuses = new LongAdder[STATUS_CLASSES.length];
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+    
+    private RouteMetrics(String method, String route) {
+        this.method = method;
+        this.route = route;
+        for (int i = 0; i < statuses.length; i++) {
+            statuses[i] = new LongAdder();
+        }
+    }
+    
+    public static RouteMetrics forRoute(String method, String route) {
+        return ROUTES.computeIfAbsent(method + " " + route, key -> new RouteMetrics(method, route));
+    }
+    
+    public static void started() {
+        IN_FLIGHT.increment();
+    }
+    
+    // failed marks a handler that threw; it counts as an error even if its status had already gone out
+    public void finished(long nanos, int status, long bytes, boolean failed) {
+        IN_FLIGHT.decrement();
+        latency.record(nanos);
+        int statusClass = status < 100 || status > 599 ? 5 : status / 100;
+        statuses[statusClass - 1].increment();
+        if (statusClass == 5 || failed) {
+            errors.increment();
+        }
+        bytesOut.add(bytes);
+    }
+    
+    public static void unmatched() {
+        UNMATCHED.increment();
+    }
+    
+    public static void writeTo(PrometheusWriter out) {
+        out.family("medcare_http_requests_in_flight", "gauge", "Requests currently inside a route handler");
+        out.sample("medcare_http_requests_in_flight", "", IN_FLIGHT.sum());
+        
+        out.family("medcare_http_unmatched_requests_total", "counter", "Requests that matched no route");
+        out.sample("medcare_http_unmatched_requests_total", "", UNMATCHED.sum());
+        
+        out.family("medcare_http_request_duration_seconds", "histogram", "Time spent in the route handler");
+        for (RouteMetrics metrics : ROUTES.values()) {
+            if (metrics.latency.getCount() > 0) {
+                out.histogram("medcare_http_request_duration_seconds", metrics.labels(), metrics.latency);
+            }
+        }
+        
+        out.family("medcare_http_requests_total", "counter", "Completed requests by status class");
+        for (RouteMetrics metrics : ROUTES.values()) {
+            for (int i = 0; i < STATUS_CLASSES.length; i++) {
+                long count = metrics.statuses[i].sum();
+                if (count > 0) {
+                    out.sample("medcare_http_requests_total", PrometheusWriter.labels(
+                        "method", metrics.method, "route", metrics.route, "status", STATUS_CLASSES[i]), count);
+                }
+            }
+        }
+        
+        out.family("medcare_http_request_errors_total", "counter", "Requests answered with a 5xx or failed by an exception");
+        for (RouteMetrics metrics : ROUTES.values()) {
+            if (metrics.latency.getCount() > 0) {
+                out.sample("medcare_http_request_errors_total", metrics.labels(), metrics.errors.sum());
+            }
+        }
+        
+        out.family("medcare_http_response_bytes_total", "counter", "Response body bytes written");
+        for (RouteMetrics metrics : ROUTES.values()) {
+            if (metrics.latency.getCount() > 0) {
+                out.sample("medcare_http_response_bytes_total", metrics.labels(), metrics.bytesOut.sum());
+            }
+        }
+    }
+    
+    private String labels() {
+        return PrometheusWriter.labels("method", method, "route", route);
+    }
+}
@@ -0,0 +1,84 @@
+package com.medcare.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Execution time and failures per SQL statement, recorded by the pool's statement proxies around
+// each execute call. A statement is labelled with its QueryCatalog name when the DAO registered
+// one, otherwise with its whitespace-collapsed text. Past MAX_STATEMENTS distinct labels the rest
+// share an "other" series, so ad-hoc SQL cannot grow the registry without bound.
+public final class SqlMetrics {
+    private static final int MAX_STATEMENTS = Integer.getInteger("medcare.metrics.sqlMaxStatements", 200);
+    private static final int MAX_SQL_TEXTS = 4 * MAX_STATEMENTS;
+    private static final int MAX_LABEL_LENGTH = 120;
+    
+    private static final Map<String, String> NAMES = new ConcurrentHashMap<>();
+    private static final Map<String, SqlMetrics> BY_LABEL = new ConcurrentHashMap<>();
+    // Exact SQL text to its series, so steady-state lookups skip collapsing the text
+    private static final Map<String, SqlMetrics> BY_SQL = new ConcurrentHashMap<>();
+    
+    private final String statement;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    
+    private SqlMetrics(String statement) {
+        this.statement = statement;
+    }
+    
+    public static void name(String sql, String name) {
+        NAMES.put(sql, name);
+    }
+    
+    public static SqlMetrics forSql(String sql) {
+        SqlMetrics metrics = BY_SQL.get(sql);
+        if (metrics != null) return metrics;
+        
+        String label = NAMES.get(sql);
+        if (label == null) label = collapse(sql);
+        if (BY_LABEL.size() >= MAX_STATEMENTS && !BY_LABEL.containsKey(label)) {
+            label = "other";
+        }
+        metrics = BY_LABEL.computeIfAbsent(label, SqlMetrics::new);
+        if (BY_SQL.size() < MAX_SQL_TEXTS) {
+            BY_SQL.putIfAbsent(sql, metrics);
+        }
+        return metrics;
+    }
+    
+    public void record(long nanos, boolean failed) {
+        latency.record(nanos);
+        if (failed) {
+            errors.increment();
+        }
+    }
+    
+    public static void writeTo(PrometheusWriter out) {
+        out.family("medcare_sql_statement_duration_seconds", "histogram", "Time spent executing a statement");
+        for (SqlMetrics metrics : BY_LABEL.values()) {
+            out.histogram("medcare_sql_statement_duration_seconds",
+                PrometheusWriter.labels("statement", metrics.statement), metrics.latency);
+        }
+        out.family("medcare_sql_statement_errors_total", "counter", "Statement executions that threw");
+        for (SqlMetrics metrics : BY_LABEL.values()) {
+            out.sample("medcare_sql_statement_errors_total",
+                PrometheusWriter.labels("statement", metrics.statement), metrics.errors.sum());
+        }
+    }
+    
+    private static String collapse(String sql) {
+        StringBuilder sb = new StringBuilder(Math.min(sql.length(), MAX_LABEL_LENGTH));
+        boolean space = false;
+        for (int i = 0; i < sql.length() && sb.length() < MAX_LABEL_LENGTH; i++) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = sb.length() > 0;
+            } else {
+                if (space) sb.append(' ');
+                sb.append(c);
+                space = false;
+            }
+        }
+        return sb.toString();
+    }
+}
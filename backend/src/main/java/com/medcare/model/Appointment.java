@@ -1,5 +1,6 @@
 package com.medcare.model;
 
+import com.medcare.util.JsonAlias;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -10,12 +11,16 @@ public class Appointment {
     private String patientName;
     private Long doctorId;
     private String doctorName;
+    @JsonAlias("date")
     private LocalDate appointmentDate;
+    @JsonAlias("time")
     private LocalTime appointmentTime;
     private int duration;
     private AppointmentType type;
     private AppointmentStatus status;
     private String notes;
+    // Incremented by every update; status changes can require the version they were based on
+    private int version;
     private LocalDateTime createdAt;
     
     public enum AppointmentType {
@@ -23,7 +28,7 @@ public class Appointment {
     }
     
     public enum AppointmentStatus {
-        SCHEDULED, COMPLETED, CANCELLED, NO_SHOW
+        SCHEDULED, CHECKED_IN, COMPLETED, CANCELLED, NO_SHOW
     }
     
     // Constructors
@@ -45,6 +50,22 @@ public class Appointment {
         this.createdAt = LocalDateTime.now();
     }
     
+    public Appointment(Appointment other) {
+        this.id = other.id;
+        this.patientId = other.patientId;
+        this.patientName = other.patientName;
+        this.doctorId = other.doctorId;
+        this.doctorName = other.doctorName;
+        this.appointmentDate = other.appointmentDate;
+        this.appointmentTime = other.appointmentTime;
+        this.duration = other.duration;
+        this.type = other.type;
+        this.status = other.status;
+        this.notes = other.notes;
+        this.version = other.version;
+        this.createdAt = other.createdAt;
+    }
+    
     // Getters and Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -79,6 +100,9 @@ public class Appointment {
     public String getNotes() { return notes; }
     public void setNotes(String notes) { this.notes = notes; }
     
+    public int getVersion() { return version; }
+    public void setVersion(int version) { this.version = version; }
+    
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 }
\ No newline at end of file
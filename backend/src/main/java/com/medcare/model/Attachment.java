@@ -0,0 +1,38 @@
+package com.medcare.model;
+
+import java.time.LocalDateTime;
+
+public class Attachment {
+    private String hash;
+    private long size;
+    private String contentType;
+    private String fileName;
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public Attachment() {}
+
+    public Attachment(String hash, long size, String contentType, String fileName) {
+        this.hash = hash;
+        this.size = size;
+        this.contentType = contentType;
+        this.fileName = fileName;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getHash() { return hash; }
+    public void setHash(String hash) { this.hash = hash; }
+
+    public long getSize() { return size; }
+    public void setSize(long size) { this.size = size; }
+
+    public String getContentType() { return contentType; }
+    public void setContentType(String contentType) { this.contentType = contentType; }
+
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -15,6 +15,7 @@ public class InventoryItem {
     private LocalDate expiryDate;
     private BigDecimal cost;
     private String location;
+    private boolean expired;
     private LocalDateTime createdAt;
     
     public enum Category {
@@ -68,6 +69,10 @@ public class InventoryItem {
     public String getLocation() { return location; }
     public void setLocation(String location) { this.location = location; }
     
+    // Set from expiryDate on every write and by the expiry sweeper as dates pass; not client-settable
+    public boolean isExpired() { return expired; }
+    public void setExpired(boolean expired) { this.expired = expired; }
+    
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.medcare.model;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 public class Patient {
@@ -37,6 +38,21 @@ public class Patient {
         this.createdAt = LocalDateTime.now();
     }
     
+    public Patient(Patient other) {
+        this.id = other.id;
+        this.name = other.name;
+        this.email = other.email;
+        this.phone = other.phone;
+        this.dateOfBirth = other.dateOfBirth;
+        this.gender = other.gender;
+        this.address = other.address;
+        this.emergencyContact = other.emergencyContact;
+        this.bloodType = other.bloodType;
+        this.allergies = other.allergies != null ? new ArrayList<>(other.allergies) : null;
+        this.medications = other.medications != null ? new ArrayList<>(other.medications) : null;
+        this.createdAt = other.createdAt;
+    }
+    
     // Getters and Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
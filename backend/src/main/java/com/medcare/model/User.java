@@ -25,6 +25,15 @@ public class User {
         this.createdAt = LocalDateTime.now();
     }
     
+    public User(User other) {
+        this.id = other.id;
+        this.name = other.name;
+        this.email = other.email;
+        this.password = other.password;
+        this.role = other.role;
+        this.createdAt = other.createdAt;
+    }
+    
     // Getters and Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -0,0 +1,501 @@
+package com.medcare.perf;
+
+import com.medcare.config.DatabaseConfig;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.security.SecureRandom;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+// Seeded synthetic hospital: users (about one in ten a doctor), patients, appointments that never
+// overlap for a doctor, EHR records, inventory lots, and bills with their line items. Rows go in
+// through batched inserts committed per batch. The same seed and volumes always produce the same
+// rows. Generated user emails follow a fixed pattern and passwords are "<passwordKey>-<N>", with a
+// random key per dataset unless one is given, so a load driver can log in but nobody else can guess them.
+// No generated user is an ADMIN, and a file store must be given its own path: generation never
+// writes into the application's default store.
+//
+// Usage: java -Dmedcare.db.mode=file -Dmedcare.db.path=data/generated_db -cp "build:lib/*" \
+//            com.medcare.perf.DatasetGenerator seed=42 users=1000 patients=100000 appointments=300000 ehrRecords=200000 \
+//            inventory=5000 bills=50000 itemsPerBill=4
+public class DatasetGenerator {
+    static final String EMAIL_DOMAIN = "@generated.medcare.test";
+    static final String[] FIRST_NAMES = {
+        "James", "Mary", "Robert", "Patricia", "John", "Jennifer", "Michael", "Linda", "David", "Elizabeth",
+        "William", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah", "Charles", "Karen",
+        "Priya", "Ravi", "Ana", "Mateo", "Wei", "Mei", "Omar", "Fatima", "Kenji", "Yuki",
+        "Olga", "Ivan", "Chlo\u00e9", "Lucas", "Amara", "Kwame", "Sofia", "Diego", "Aisha", "Noah"
+    };
+    static final String[] LAST_NAMES = {
+        "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez",
+        "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore", "Jackson", "Martin",
+        "Lee", "Perez", "Thompson", "White", "Harris", "Sanchez", "Clark", "Ramirez", "Lewis", "Robinson",
+        "Walker", "Young", "Allen", "King", "Wright", "Scott", "Torres", "Nguyen", "Hill", "Flores",
+        "Patel", "Kumar", "Chen", "Wang", "Kim", "Tanaka", "M\u00fcller", "Schmidt", "Rossi", "Dubois",
+        "O'Brien", "Murphy", "Kowalski", "Novak", "Ivanov", "Okafor", "Mensah", "Haddad", "Cohen", "Silva"
+    };
+    // Appointments sit on a 30-minute grid inside the 08:00-18:00 working day
+    static final LocalTime DAY_START = LocalTime.of(8, 0);
+    static final int SLOTS_PER_DAY = 20;
+    static final int SLOT_MINUTES = 30;
+
+    private static final String[] ROLES = { "NURSE", "NURSE", "NURSE", "RECEPTIONIST", "RECEPTIONIST" };
+    private static final String[] BLOOD_TYPES = { "O+", "O-", "A+", "A-", "B+", "B-", "AB+", "AB-" };
+    private static final String[] ALLERGIES = { "", "", "", "Penicillin", "Peanuts", "Latex", "Penicillin,Sulfa" };
+    private static final String[] MEDICATIONS = { "", "", "Lisinopril 10mg", "Metformin 500mg", "Atorvastatin 20mg,Aspirin 81mg" };
+    private static final String[] APPOINTMENT_TYPES = { "consultation", "consultation", "follow_up", "follow_up", "emergency", "surgery" };
+    private static final String[] APPOINTMENT_STATUSES = { "scheduled", "scheduled", "checked_in", "completed", "completed", "cancelled", "no_show" };
+    private static final String[][] RECORDS = {
+        { "diagnosis", "Hypertension", "Blood pressure consistently above 140/90 across three visits." },
+        { "diagnosis", "Type 2 diabetes", "HbA1c of 7.2%. Diet and exercise counselling given." },
+        { "treatment", "Wound dressing", "Laceration cleaned and dressed. Review in one week." },
+        { "treatment", "Physiotherapy", "Six sessions of lower back physiotherapy prescribed." },
+        { "test_result", "Complete blood count", "All values within reference ranges." },
+        { "test_result", "Lipid panel", "LDL 3.9 mmol/L, above target. Repeat in three months." },
+        { "prescription", "Lisinopril", "Lisinopril 10mg once daily." },
+        { "prescription", "Amoxicillin", "Amoxicillin 500mg three times daily for seven days." }
+    };
+    private static final String[][] STOCK = {
+        { "medication", "Paracetamol 500mg", "tablets" }, { "medication", "Ibuprofen 400mg", "tablets" },
+        { "medication", "Amoxicillin 500mg", "capsules" }, { "medication", "Insulin glargine", "pens" },
+        { "medication", "Saline 0.9% 500ml", "bags" }, { "equipment", "Digital thermometer", "pieces" },
+        { "equipment", "Pulse oximeter", "pieces" }, { "equipment", "Blood pressure cuff", "pieces" },
+        { "supplies", "Disposable gloves", "boxes" }, { "supplies", "Gauze swabs", "packs" },
+        { "supplies", "Syringes 5ml", "boxes" }, { "supplies", "Surgical masks", "boxes" }
+    };
+    private static final String[] SUPPLIERS = { "PharmaCorp", "MedEquip Ltd", "SafeSupply Co", "HealthSource", "CarePlus Wholesale" };
+    private static final String[][] CHARGES = {
+        { "Consultation Fee", "150.00" }, { "Follow-up Visit", "80.00" }, { "Blood Test", "45.00" },
+        { "X-Ray", "120.00" }, { "ECG", "60.00" }, { "Prescription", "30.00" }, { "Dressing", "25.00" },
+        { "Physiotherapy Session", "70.00" }, { "Ultrasound", "180.00" }, { "Vaccination", "35.00" }
+    };
+    private static final String[] BILL_STATUSES = { "paid", "paid", "paid", "pending", "pending", "overdue" };
+    private static final BigDecimal TAX_RATE = new BigDecimal(System.getProperty("medcare.billing.taxRate", "0.10"));
+    private static final int BATCH_SIZE = 1000;
+
+    private final long seed;
+    private final LocalDate startDate;
+    private final int days;
+    private final String passwordKey;
+
+    public DatasetGenerator(long seed, LocalDate startDate, int days, String passwordKey) {
+        if (days <= 0) {
+            throw new IllegalArgumentException("days must be positive");
+        }
+        if (passwordKey == null || passwordKey.isEmpty()) {
+            throw new IllegalArgumentException("passwordKey must not be empty");
+        }
+        this.seed = seed;
+        this.startDate = startDate;
+        this.days = days;
+        this.passwordKey = passwordKey;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = ExecutorLoadTest.parseOptions(args);
+        requireSeparateStore();
+        disableLeakWarnings();
+        DatabaseConfig.initializeDatabase();
+        try {
+            DatasetGenerator generator = fromOptions(options);
+            Map<String, Integer> counts = generator.generate(Volumes.fromOptions(options));
+            System.out.println("Generated " + counts);
+            System.out.println("Generated users log in with password " + generator.passwordKey + "-<N>; pass passwordKey="
+                + generator.passwordKey + " to LoadDriver to reuse this store");
+        } finally {
+            DatabaseConfig.shutdown();
+        }
+    }
+
+    static DatasetGenerator fromOptions(Map<String, String> options) {
+        return new DatasetGenerator(
+            Long.parseLong(options.getOrDefault("seed", "42")),
+            LocalDate.parse(options.getOrDefault("startDate", "2025-01-01")),
+            Integer.parseInt(options.getOrDefault("days", "365")),
+            options.getOrDefault("passwordKey", randomPasswordKey()));
+    }
+
+    private static String randomPasswordKey() {
+        byte[] key = new byte[12];
+        new SecureRandom().nextBytes(key);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key);
+    }
+
+    // Generation holds one connection for as long as it runs, which the pool would otherwise
+    // report as a leak; must run before DatabaseConfig is first touched
+    static void disableLeakWarnings() {
+        if (System.getProperty("medcare.db.pool.leakThresholdMs") == null) {
+            System.setProperty("medcare.db.pool.leakThresholdMs", "0");
+        }
+    }
+
+    // Checked before DatabaseConfig opens the store as well, so the default store is not even migrated
+    static void requireSeparateStore() {
+        if (DatabaseConfig.isDefaultFileStore()) {
+            throw new IllegalStateException("Refusing to generate into the application's default store; "
+                + "set -Dmedcare.db.path to a store of its own");
+        }
+    }
+
+    public static String email(int user) {
+        return "user" + user + EMAIL_DOMAIN;
+    }
+
+    public String password(int user) {
+        return passwordKey + "-" + user;
+    }
+
+    LocalDate getStartDate() {
+        return startDate;
+    }
+
+    int getDays() {
+        return days;
+    }
+
+    // Row counts per table, in insertion order, with the time taken under "millis"
+    public Map<String, Integer> generate(Volumes volumes) throws SQLException {
+        requireSeparateStore();
+        int doctors = (volumes.users + 9) / 10;
+        if (doctors == 0 && (volumes.appointments > 0 || volumes.ehrRecords > 0)) {
+            throw new IllegalArgumentException("appointments and EHR records need users to act as doctors");
+        }
+        if (volumes.appointments > 0.8 * doctors * days * SLOTS_PER_DAY) {
+            throw new IllegalArgumentException(volumes.appointments + " appointments do not fit " + doctors
+                + " doctors over " + days + " days; add users or days");
+        }
+        if (volumes.patients == 0 && (volumes.appointments > 0 || volumes.ehrRecords > 0 || volumes.bills > 0)) {
+            throw new IllegalArgumentException("appointments, EHR records and bills need patients");
+        }
+
+        long start = System.nanoTime();
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        try (Connection conn = DatabaseConfig.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                // One stream per table, so changing one volume leaves the other tables' rows unchanged
+                long[] doctorIds = new long[doctors];
+                String[] doctorNames = new String[doctors];
+                counts.put("users", insertUsers(conn, new Random(seed), volumes.users, doctorIds, doctorNames));
+
+                long[] patientIds = new long[volumes.patients];
+                String[] patientNames = new String[volumes.patients];
+                counts.put("patients", insertPatients(conn, new Random(seed + 1), patientIds, patientNames));
+                counts.put("appointments", insertAppointments(conn, new Random(seed + 2), volumes.appointments,
+                    patientIds, patientNames, doctorIds, doctorNames));
+                counts.put("ehr_records", insertRecords(conn, new Random(seed + 3), volumes.ehrRecords,
+                    patientIds, doctorIds, doctorNames));
+                counts.put("inventory", insertInventory(conn, new Random(seed + 4), volumes.inventory));
+                int[] items = new int[1];
+                counts.put("bills", insertBills(conn, new Random(seed + 5), volumes.bills, volumes.itemsPerBill,
+                    patientIds, patientNames, items));
+                counts.put("bill_items", items[0]);
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        counts.put("millis", (int) ((System.nanoTime() - start) / 1_000_000));
+        return counts;
+    }
+
+    private int insertUsers(Connection conn, Random random, int count, long[] doctorIds, String[] doctorNames)
+            throws SQLException {
+        long[] ids = new long[count];
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO users (name, email, password, role) VALUES (?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS)) {
+            Batch batch = new Batch(conn, stmt);
+            for (int i = 0; i < count; i++) {
+                // Every tenth user is a doctor, so any number of users includes some
+                boolean doctor = i % 10 == 0;
+                String name = doctor ? "Dr. " + randomName(random) : randomName(random);
+                stmt.setString(1, name);
+                stmt.setString(2, email(i));
+                stmt.setString(3, password(i));
+                stmt.setString(4, doctor ? "DOCTOR" : pick(random, ROLES));
+                if (doctor) {
+                    doctorNames[i / 10] = name;
+                }
+                stmt.addBatch();
+                batch.added(i == count - 1, ids);
+            }
+        }
+        for (int d = 0; d < doctorIds.length; d++) {
+            doctorIds[d] = ids[d * 10];
+        }
+        return count;
+    }
+
+    private int insertPatients(Connection conn, Random random, long[] ids, String[] names) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("""
+                INSERT INTO patients (name, email, phone, date_of_birth, gender, address, emergency_contact,
+                                      blood_type, allergies, medications)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                """, Statement.RETURN_GENERATED_KEYS)) {
+            Batch batch = new Batch(conn, stmt);
+            for (int i = 0; i < ids.length; i++) {
+                names[i] = randomName(random);
+                stmt.setString(1, names[i]);
+                stmt.setString(2, "patient" + i + EMAIL_DOMAIN);
+                stmt.setString(3, "+1-555-" + (1000 + random.nextInt(9000)));
+                stmt.setDate(4, Date.valueOf(LocalDate.of(1930, 1, 1).plusDays(random.nextInt(33_000))));
+                stmt.setString(5, random.nextInt(100) < 49 ? "male" : random.nextInt(50) == 0 ? "other" : "female");
+                stmt.setString(6, (1 + random.nextInt(9999)) + " " + pick(random, LAST_NAMES)
+                    + " Street, Springfield, IL " + (60000 + random.nextInt(3000)));
+                stmt.setString(7, "+1-555-" + (1000 + random.nextInt(9000)));
+                stmt.setString(8, pick(random, BLOOD_TYPES));
+                stmt.setString(9, pick(random, ALLERGIES));
+                stmt.setString(10, pick(random, MEDICATIONS));
+                stmt.addBatch();
+                batch.added(i == ids.length - 1, ids);
+            }
+        }
+        return ids.length;
+    }
+
+    private int insertAppointments(Connection conn, Random random, int count, long[] patientIds, String[] patientNames,
+                                   long[] doctorIds, String[] doctorNames) throws SQLException {
+        // One bit per (doctor, day, slot); a taken slot is redrawn, so no doctor is ever double-booked
+        BitSet taken = new BitSet(doctorIds.length * days * SLOTS_PER_DAY);
+        try (PreparedStatement stmt = conn.prepareStatement("""
+                INSERT INTO appointments (patient_id, patient_name, doctor_id, doctor_name, appointment_date,
+                                          appointment_time, duration, type, status, notes)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                """)) {
+            Batch batch = new Batch(conn, stmt);
+            for (int i = 0; i < count; i++) {
+                int cell;
+                do {
+                    cell = random.nextInt(doctorIds.length * days * SLOTS_PER_DAY);
+                } while (taken.get(cell));
+                taken.set(cell);
+                int doctor = cell / (days * SLOTS_PER_DAY);
+                int day = cell / SLOTS_PER_DAY % days;
+                int slot = cell % SLOTS_PER_DAY;
+                int patient = random.nextInt(patientIds.length);
+                stmt.setLong(1, patientIds[patient]);
+                stmt.setString(2, patientNames[patient]);
+                stmt.setLong(3, doctorIds[doctor]);
+                stmt.setString(4, doctorNames[doctor]);
+                stmt.setDate(5, Date.valueOf(startDate.plusDays(day)));
+                stmt.setTime(6, Time.valueOf(DAY_START.plusMinutes((long) slot * SLOT_MINUTES)));
+                stmt.setInt(7, random.nextBoolean() ? SLOT_MINUTES : SLOT_MINUTES / 2);
+                stmt.setString(8, pick(random, APPOINTMENT_TYPES));
+                stmt.setString(9, pick(random, APPOINTMENT_STATUSES));
+                stmt.setString(10, random.nextInt(4) == 0 ? "Patient requested a morning slot" : null);
+                stmt.addBatch();
+                batch.added(i == count - 1, null);
+            }
+        }
+        return count;
+    }
+
+    private int insertRecords(Connection conn, Random random, int count, long[] patientIds, long[] doctorIds,
+                              String[] doctorNames) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("""
+                INSERT INTO ehr_records (patient_id, record_date, type, title, description, doctor_id, doctor_name,
+                                         attachments)
+                VALUES (?, ?, ?, ?, ?, ?, ?, '')
+                """)) {
+            Batch batch = new Batch(conn, stmt);
+            for (int i = 0; i < count; i++) {
+                String[] record = pick(random, RECORDS);
+                int doctor = random.nextInt(doctorIds.length);
+                stmt.setLong(1, patientIds[random.nextInt(patientIds.length)]);
+                stmt.setDate(2, Date.valueOf(startDate.plusDays(random.nextInt(days))));
+                stmt.setString(3, record[0]);
+                stmt.setString(4, record[1]);
+                stmt.setString(5, record[2]);
+                stmt.setLong(6, doctorIds[doctor]);
+                stmt.setString(7, doctorNames[doctor]);
+                stmt.addBatch();
+                batch.added(i == count - 1, null);
+            }
+        }
+        return count;
+    }
+
+    private int insertInventory(Connection conn, Random random, int count) throws SQLException {
+        LocalDate today = LocalDate.now();
+        try (PreparedStatement stmt = conn.prepareStatement("""
+                INSERT INTO inventory (name, category, quantity, min_stock, unit, supplier, expiry_date, cost, location,
+                                       expired)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                """)) {
+            Batch batch = new Batch(conn, stmt);
+            for (int i = 0; i < count; i++) {
+                String[] stock = pick(random, STOCK);
+                boolean dated = !"equipment".equals(stock[0]);
+                LocalDate expiry = dated ? startDate.plusDays(random.nextInt(days + 730)) : null;
+                stmt.setString(1, stock[1]);
+                stmt.setString(2, stock[0]);
+                stmt.setInt(3, random.nextInt(1000));
+                stmt.setInt(4, 10 * (1 + random.nextInt(20)));
+                stmt.setString(5, stock[2]);
+                stmt.setString(6, pick(random, SUPPLIERS));
+                stmt.setDate(7, expiry == null ? null : Date.valueOf(expiry));
+                stmt.setBigDecimal(8, BigDecimal.valueOf(5 + random.nextInt(20_000), 2));
+                stmt.setString(9, (char) ('A' + random.nextInt(6)) + "-" + (1 + random.nextInt(40)));
+                // Matches what InventoryDAO writes; the one column that depends on the day it runs
+                stmt.setBoolean(10, expiry != null && expiry.isBefore(today));
+                stmt.addBatch();
+                batch.added(i == count - 1, null);
+            }
+        }
+        return count;
+    }
+
+    private int insertBills(Connection conn, Random random, int count, int itemsPerBill, long[] patientIds,
+                            String[] patientNames, int[] itemCount) throws SQLException {
+        long[] billIds = new long[Math.min(count, BATCH_SIZE)];
+        int[][] charges = new int[billIds.length][];
+        int[][] quantities = new int[billIds.length][];
+        try (PreparedStatement bills = conn.prepareStatement("""
+                INSERT INTO bills (patient_id, patient_name, bill_date, subtotal, tax, total, status, due_date)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+                """, Statement.RETURN_GENERATED_KEYS);
+             PreparedStatement items = conn.prepareStatement(
+                "INSERT INTO bill_items (bill_id, description, quantity, unit_price, total) VALUES (?, ?, ?, ?, ?)")) {
+            for (int done = 0; done < count; ) {
+                // Bills first so their keys are known, then their items, all in one transaction per batch
+                int size = Math.min(billIds.length, count - done);
+                for (int b = 0; b < size; b++) {
+                    int lines = 1 + random.nextInt(Math.max(1, 2 * itemsPerBill - 1));
+                    charges[b] = new int[lines];
+                    quantities[b] = new int[lines];
+                    long subtotal = 0;
+                    for (int l = 0; l < lines; l++) {
+                        charges[b][l] = random.nextInt(CHARGES.length);
+                        quantities[b][l] = 1 + (random.nextInt(5) == 0 ? random.nextInt(3) : 0);
+                        subtotal += cents(CHARGES[charges[b][l]][1]) * quantities[b][l];
+                    }
+                    BigDecimal sub = BigDecimal.valueOf(subtotal, 2);
+                    BigDecimal tax = sub.multiply(TAX_RATE).setScale(2, RoundingMode.HALF_UP);
+                    LocalDate billDate = startDate.plusDays(random.nextInt(days));
+                    int patient = random.nextInt(patientIds.length);
+                    bills.setLong(1, patientIds[patient]);
+                    bills.setString(2, patientNames[patient]);
+                    bills.setDate(3, Date.valueOf(billDate));
+                    bills.setBigDecimal(4, sub);
+                    bills.setBigDecimal(5, tax);
+                    bills.setBigDecimal(6, sub.add(tax));
+                    bills.setString(7, pick(random, BILL_STATUSES));
+                    bills.setDate(8, Date.valueOf(billDate.plusDays(30)));
+                    bills.addBatch();
+                }
+                bills.executeBatch();
+                try (ResultSet keys = bills.getGeneratedKeys()) {
+                    for (int b = 0; keys.next(); b++) {
+                        billIds[b] = keys.getLong(1);
+                    }
+                }
+                for (int b = 0; b < size; b++) {
+                    for (int l = 0; l < charges[b].length; l++) {
+                        String[] charge = CHARGES[charges[b][l]];
+                        items.setLong(1, billIds[b]);
+                        items.setString(2, charge[0]);
+                        items.setInt(3, quantities[b][l]);
+                        items.setBigDecimal(4, new BigDecimal(charge[1]));
+                        items.setBigDecimal(5, BigDecimal.valueOf(cents(charge[1]) * quantities[b][l], 2));
+                        items.addBatch();
+                        itemCount[0]++;
+                    }
+                }
+                items.executeBatch();
+                conn.commit();
+                done += size;
+            }
+        }
+        return count;
+    }
+
+    private static long cents(String amount) {
+        return new BigDecimal(amount).movePointRight(2).longValueExact();
+    }
+
+    private static String randomName(Random random) {
+        return pick(random, FIRST_NAMES) + " " + pick(random, LAST_NAMES);
+    }
+
+    private static <T> T pick(Random random, T[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    // Executes and commits every BATCH_SIZE rows, optionally collecting generated keys in row order
+    private static final class Batch {
+        private final Connection conn;
+        private final PreparedStatement stmt;
+        private int pending;
+        private int written;
+
+        Batch(Connection conn, PreparedStatement stmt) {
+            this.conn = conn;
+            this.stmt = stmt;
+        }
+
+        void added(boolean last, long[] keys) throws SQLException {
+            if (++pending < BATCH_SIZE && !last) {
+                return;
+            }
+            stmt.executeBatch();
+            if (keys != null) {
+                try (ResultSet rs = stmt.getGeneratedKeys()) {
+                    for (int k = written; rs.next(); k++) {
+                        keys[k] = rs.getLong(1);
+                    }
+                }
+            }
+            conn.commit();
+            written += pending;
+            pending = 0;
+        }
+    }
+
+    // How many rows to generate per table; bills carry itemsPerBill line items on average
+    public static final class Volumes {
+        final int users;
+        final int patients;
+        final int appointments;
+        final int ehrRecords;
+        final int inventory;
+        final int bills;
+        final int itemsPerBill;
+
+        public Volumes(int users, int patients, int appointments, int ehrRecords, int inventory, int bills,
+                       int itemsPerBill) {
+            if (users < 0 || patients < 0 || appointments < 0 || ehrRecords < 0 || inventory < 0 || bills < 0
+                    || itemsPerBill < 1) {
+                throw new IllegalArgumentException("Volumes must be zero or more and itemsPerBill at least 1");
+            }
+            this.users = users;
+            this.patients = patients;
+            this.appointments = appointments;
+            this.ehrRecords = ehrRecords;
+            this.inventory = inventory;
+            this.bills = bills;
+            this.itemsPerBill = itemsPerBill;
+        }
+
+        static Volumes fromOptions(Map<String, String> options) {
+            return new Volumes(
+                Integer.parseInt(options.getOrDefault("users", "200")),
+                Integer.parseInt(options.getOrDefault("patients", "10000")),
+                Integer.parseInt(options.getOrDefault("appointments", "30000")),
+                Integer.parseInt(options.getOrDefault("ehrRecords", "20000")),
+                Integer.parseInt(options.getOrDefault("inventory", "1000")),
+                Integer.parseInt(options.getOrDefault("bills", "5000")),
+                Integer.parseInt(options.getOrDefault("itemsPerBill", "4")));
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.medcare.perf;
+
+import com.medcare.config.DatabaseConfig;
+import com.medcare.dao.PatientDAO;
+import com.medcare.model.Patient;
+import com.medcare.server.ExecutorMode;
+import com.medcare.server.HttpServer;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+// Closed-loop load test comparing executor modes. Each mode gets its own in-process
+// server on an ephemeral port; workers loop over the configured endpoints and report
+// p50/p99 latency and throughput per endpoint.
+//
+// Usage: java -cp "build:lib/*" com.medcare.perf.ExecutorLoadTest \
+//            modes=fixed,bounded,virtual concurrency=64 warmupSeconds=3 durationSeconds=10 \
+//            paths=/api/patients,/api/appointments seedPatients=500
+public class ExecutorLoadTest {
+    
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        String[] modes = options.getOrDefault("modes", "fixed,bounded,virtual").split(",");
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "64"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmupSeconds", "3"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("durationSeconds", "10"));
+        String[] paths = options.getOrDefault("paths", "/api/patients,/api/appointments").split(",");
+        int seedPatients = Integer.parseInt(options.getOrDefault("seedPatients", "500"));
+        
+        DatabaseConfig.initializeDatabase();
+        seedPatients(seedPatients);
+        
+        for (String modeName : modes) {
+            ExecutorMode mode = ExecutorMode.valueOf(modeName.trim().toUpperCase());
+            HttpServer server = new HttpServer(0, mode);
+            server.start();
+            try {
+                String baseUrl = "http://localhost:" + server.getPort();
+                run(baseUrl, paths, concurrency, warmupSeconds);
+                Map<String, LatencyRecorder> results = run(baseUrl, paths, concurrency, durationSeconds);
+                
+                System.out.println();
+                System.out.println("== " + mode.name().toLowerCase() + " executor, " + concurrency + " concurrent clients ==");
+                LatencyRecorder total = new LatencyRecorder();
+                for (String path : paths) {
+                    System.out.println(results.get(path).summary(path, durationSeconds));
+                    total.merge(results.get(path));
+                }
+                System.out.println(total.summary("total", durationSeconds));
+            } finally {
+                server.stop();
+            }
+        }
+        DatabaseConfig.shutdown();
+    }
+    
+    static Map<String, LatencyRecorder> run(String baseUrl, String[] paths, int concurrency, int seconds)
+            throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+        List<HttpRequest> requests = new ArrayList<>();
+        for (String path : paths) {
+            requests.add(HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30)).GET().build());
+        }
+        
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Map<String, LatencyRecorder>> perWorker = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(concurrency);
+        
+        for (int w = 0; w < concurrency; w++) {
+            Map<String, LatencyRecorder> recorders = new HashMap<>();
+            for (String path : paths) {
+                recorders.put(path, new LatencyRecorder());
+            }
+            perWorker.add(recorders);
+            int offset = w;
+            Thread worker = new Thread(() -> {
+                try {
+                    int i = offset;
+                    while (System.nanoTime() < deadline) {
+                        int index = i++ % paths.length;
+                        LatencyRecorder recorder = recorders.get(paths[index]);
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<byte[]> response = client.send(requests.get(index), HttpResponse.BodyHandlers.ofByteArray());
+                            if (response.statusCode() >= 400) {
+                                recorder.recordError();
+                            } else {
+                                recorder.record(System.nanoTime() - start);
+                            }
+                        } catch (Exception e) {
+                            recorder.recordError();
+                        }
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }, "load-worker-" + w);
+            worker.start();
+        }
+        done.await();
+        
+        Map<String, LatencyRecorder> merged = new HashMap<>();
+        for (String path : paths) {
+            LatencyRecorder recorder = new LatencyRecorder();
+            for (Map<String, LatencyRecorder> recorders : perWorker) {
+                recorder.merge(recorders.get(path));
+            }
+            merged.put(path, recorder);
+        }
+        return merged;
+    }
+    
+    private static void seedPatients(int count) {
+        PatientDAO patientDAO = new PatientDAO();
+        for (int i = 0; i < count; i++) {
+            Patient patient = new Patient("Load Test Patient " + i, "loadtest" + i + "@example.com", "+1-555-0100",
+                LocalDate.of(1980, 1, 1).plusDays(i), Patient.Gender.values()[i % 3], i + " Test Street", "+1-555-0199");
+            patientDAO.save(patient);
+        }
+    }
+    
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) {
+                options.put(arg.substring(0, eq), arg.substring(eq + 1));
+            }
+        }
+        return options;
+    }
+}
@@ -0,0 +1,51 @@
+package com.medcare.perf;
+
+import java.util.Arrays;
+
+// Exact latency samples for one endpoint. Each load worker owns its own recorder,
+// so recording is unsynchronized; recorders are merged once the run is over.
+public class LatencyRecorder {
+    private long[] samples = new long[4096];
+    private int count;
+    private long errors;
+    
+    public void record(long nanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+    }
+    
+    public void recordError() {
+        errors++;
+    }
+    
+    public void merge(LatencyRecorder other) {
+        for (int i = 0; i < other.count; i++) {
+            record(other.samples[i]);
+        }
+        errors += other.errors;
+    }
+    
+    public int getCount() {
+        return count;
+    }
+    
+    public long getErrors() {
+        return errors;
+    }
+    
+    public double percentileMillis(double percentile) {
+        if (count == 0) return 0.0;
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+        return sorted[Math.max(0, Math.min(index, count - 1))] / 1_000_000.0;
+    }
+    
+    public String summary(String label, double seconds) {
+        return String.format("%-28s %9d req %9.1f req/s  p50 %8.2f ms  p90 %8.2f ms  p99 %8.2f ms  p99.9 %8.2f ms  errors %d",
+            label, count, count / seconds, percentileMillis(50), percentileMillis(90), percentileMillis(99),
+            percentileMillis(99.9), errors);
+    }
+}
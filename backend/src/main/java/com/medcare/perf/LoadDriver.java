@@ -0,0 +1,299 @@
+package com.medcare.perf;
+
+import com.medcare.config.DatabaseConfig;
+import com.medcare.server.HttpServer;
+import com.medcare.service.AppointmentService;
+import com.medcare.service.InventoryService;
+import com.medcare.service.PatientService;
+import com.medcare.util.JsonUtil;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+// Closed-loop load against an in-process server over a generated dataset. Each worker repeatedly
+// draws an operation from the mix and waits for it to finish before the next:
+//   login  - POST /api/auth/login as a generated user, then GET /api/auth/session with the token
+//   lookup - GET /api/patients/{id} for a random patient
+//   search - GET /api/patients/search with a "First La" style prefix
+//   book   - GET /api/appointments/free-slots for a random doctor and day, then POST into one slot;
+//            a 409 from a racing booking or a full day counts as a conflict, not an error
+// Workers are seeded from the run's seed, so the same options replay the same request sequence.
+//
+// Usage: java -cp "build:lib/*" com.medcare.perf.LoadDriver \
+//            concurrency=16 warmupSeconds=5 durationSeconds=30 mix=login:5,lookup:50,search:30,book:15 \
+//            seed=42 users=200 patients=10000 appointments=30000 [generate=false passwordKey=... to reuse a file store]
+public class LoadDriver {
+    enum Operation { LOGIN, LOOKUP, SEARCH, BOOK }
+
+    private final String baseUrl;
+    private final HttpClient client;
+    private final long seed;
+    private final Operation[] mix;
+    private final int users;
+    private final long firstPatient;
+    private final long patientSpan;
+    private final long[] doctorIds;
+    private final String[] doctorNames;
+    private final LocalDate startDate;
+    private final int days;
+    private final DatasetGenerator generator;
+    // Bookings that found the slot or day taken during the latest run
+    private final LongAdder conflicts = new LongAdder();
+
+    LoadDriver(String baseUrl, long seed, Operation[] mix, DatasetGenerator generator) throws SQLException {
+        this.baseUrl = baseUrl;
+        this.seed = seed;
+        this.mix = mix;
+        this.startDate = generator.getStartDate();
+        this.days = generator.getDays();
+        this.generator = generator;
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+        // The dataset's shape is read back from the database so a reused store needs no other input
+        try (Connection conn = DatabaseConfig.getConnection();
+             Statement stmt = conn.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery("SELECT MIN(id), MAX(id) FROM patients")) {
+                rs.next();
+                firstPatient = rs.getLong(1);
+                patientSpan = rs.getLong(2) - firstPatient + 1;
+            }
+            try (PreparedStatement count = conn.prepareStatement("SELECT COUNT(*) FROM users WHERE email LIKE ?")) {
+                count.setString(1, "%" + DatasetGenerator.EMAIL_DOMAIN);
+                try (ResultSet rs = count.executeQuery()) {
+                    rs.next();
+                    users = rs.getInt(1);
+                }
+            }
+            List<Long> ids = new ArrayList<>();
+            List<String> names = new ArrayList<>();
+            try (ResultSet rs = stmt.executeQuery("SELECT id, name FROM users WHERE role = 'DOCTOR' ORDER BY id")) {
+                while (rs.next()) {
+                    ids.add(rs.getLong(1));
+                    names.add(rs.getString(2));
+                }
+            }
+            doctorIds = ids.stream().mapToLong(Long::longValue).toArray();
+            doctorNames = names.toArray(new String[0]);
+        }
+        for (Operation operation : mix) {
+            if (operation == Operation.LOGIN && users == 0 || operation == Operation.BOOK && doctorIds.length == 0) {
+                throw new IllegalArgumentException("The dataset has no generated users or doctors for " + operation);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = ExecutorLoadTest.parseOptions(args);
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "16"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmupSeconds", "5"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("durationSeconds", "30"));
+        Operation[] mix = parseMix(options.getOrDefault("mix", "login:5,lookup:50,search:30,book:15"));
+        DatasetGenerator generator = DatasetGenerator.fromOptions(options);
+        boolean generate = Boolean.parseBoolean(options.getOrDefault("generate", "true"));
+        // Passwords of a reused store come from the key printed when it was generated
+        if (!generate && !options.containsKey("passwordKey") && Arrays.asList(mix).contains(Operation.LOGIN)) {
+            throw new IllegalArgumentException("generate=false with logins in the mix needs the store's passwordKey");
+        }
+        if (generate) {
+            DatasetGenerator.requireSeparateStore();
+        }
+
+        DatasetGenerator.disableLeakWarnings();
+        DatabaseConfig.initializeDatabase();
+        if (generate) {
+            System.out.println("Generated " + generator.generate(DatasetGenerator.Volumes.fromOptions(options)));
+        }
+        // The generator writes through JDBC, so the in-memory indexes are built from the tables afterwards
+        new PatientService().buildSearchIndex();
+        new AppointmentService().buildScheduleIndex();
+        new InventoryService().buildExpiryIndex();
+
+        HttpServer server = new HttpServer(0);
+        server.start();
+        try {
+            LoadDriver driver = new LoadDriver("http://localhost:" + server.getPort(),
+                Long.parseLong(options.getOrDefault("seed", "42")), mix, generator);
+            driver.run(concurrency, warmupSeconds, 0);
+            Map<Operation, LatencyRecorder> results = driver.run(concurrency, durationSeconds, 1);
+
+            System.out.println();
+            System.out.println("== " + concurrency + " concurrent clients, " + durationSeconds + " s ==");
+            LatencyRecorder total = new LatencyRecorder();
+            for (Operation operation : Operation.values()) {
+                LatencyRecorder recorder = results.get(operation);
+                if (recorder.getCount() > 0 || recorder.getErrors() > 0) {
+                    System.out.println(recorder.summary(operation.name().toLowerCase(), durationSeconds));
+                    total.merge(recorder);
+                }
+            }
+            System.out.println(total.summary("total", durationSeconds));
+            System.out.println("booking conflicts: " + driver.conflicts.sum());
+        } finally {
+            server.stop();
+            DatabaseConfig.shutdown();
+        }
+    }
+
+    // "login:5,lookup:50" as a 55-entry table, so drawing an operation is one array index
+    static Operation[] parseMix(String spec) {
+        List<Operation> table = new ArrayList<>();
+        for (String part : spec.split(",")) {
+            String[] pair = part.split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Expected operation:weight in mix, got " + part);
+            }
+            Operation operation = Operation.valueOf(pair[0].trim().toUpperCase());
+            for (int i = Integer.parseInt(pair[1].trim()); i > 0; i--) {
+                table.add(operation);
+            }
+        }
+        if (table.isEmpty()) {
+            throw new IllegalArgumentException("The mix has no weight");
+        }
+        return table.toArray(new Operation[0]);
+    }
+
+    // Phase separates the warmup's random streams from the measured run's
+    Map<Operation, LatencyRecorder> run(int concurrency, int seconds, int phase) throws InterruptedException {
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Map<Operation, LatencyRecorder>> perWorker = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(concurrency);
+        conflicts.reset();
+
+        for (int w = 0; w < concurrency; w++) {
+            Map<Operation, LatencyRecorder> recorders = new EnumMap<>(Operation.class);
+            for (Operation operation : Operation.values()) {
+                recorders.put(operation, new LatencyRecorder());
+            }
+            perWorker.add(recorders);
+            Random random = new Random(seed * 1_000_003L + phase * 10_007L + w);
+            Thread worker = new Thread(() -> {
+                try {
+                    while (System.nanoTime() < deadline) {
+                        Operation operation = mix[random.nextInt(mix.length)];
+                        LatencyRecorder recorder = recorders.get(operation);
+                        long start = System.nanoTime();
+                        try {
+                            if (perform(operation, random)) {
+                                recorder.record(System.nanoTime() - start);
+                            } else {
+                                recorder.recordError();
+                            }
+                        } catch (Exception e) {
+                            recorder.recordError();
+                        }
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }, "load-driver-" + w);
+            worker.start();
+        }
+        done.await();
+
+        Map<Operation, LatencyRecorder> merged = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            LatencyRecorder recorder = new LatencyRecorder();
+            for (Map<Operation, LatencyRecorder> recorders : perWorker) {
+                recorder.merge(recorders.get(operation));
+            }
+            merged.put(operation, recorder);
+        }
+        return merged;
+    }
+
+    // True when the operation completed as a client would expect
+    private boolean perform(Operation operation, Random random) throws Exception {
+        switch (operation) {
+            case LOGIN: {
+                int user = random.nextInt(users);
+                HttpResponse<String> login = send(HttpRequest.newBuilder(uri("/api/auth/login"))
+                    .POST(HttpRequest.BodyPublishers.ofString(JsonUtil.toJson(Map.of(
+                        "email", DatasetGenerator.email(user), "password", generator.password(user))))));
+                if (login.statusCode() != 200) {
+                    return false;
+                }
+                Object token = JsonUtil.fromJson(login.body(), Map.class).get("token");
+                return send(HttpRequest.newBuilder(uri("/api/auth/session"))
+                    .header("Authorization", "Bearer " + token).GET()).statusCode() == 200;
+            }
+            case LOOKUP:
+                return send(HttpRequest.newBuilder(uri("/api/patients/" + (firstPatient + (long) (random.nextDouble() * patientSpan))))
+                    .GET()).statusCode() == 200;
+            case SEARCH: {
+                String last = DatasetGenerator.LAST_NAMES[random.nextInt(DatasetGenerator.LAST_NAMES.length)];
+                String q = DatasetGenerator.FIRST_NAMES[random.nextInt(DatasetGenerator.FIRST_NAMES.length)]
+                    + " " + last.substring(0, 2);
+                return send(HttpRequest.newBuilder(uri("/api/patients/search?q=" + URLEncoder.encode(q, StandardCharsets.UTF_8)))
+                    .GET()).statusCode() == 200;
+            }
+            case BOOK:
+                return book(random);
+            default:
+                throw new IllegalStateException(operation.name());
+        }
+    }
+
+    private boolean book(Random random) throws Exception {
+        int doctor = random.nextInt(doctorIds.length);
+        LocalDate date = startDate.plusDays(random.nextInt(days));
+        HttpResponse<String> free = send(HttpRequest.newBuilder(uri("/api/appointments/free-slots?doctorId="
+            + doctorIds[doctor] + "&date=" + date + "&duration=" + DatasetGenerator.SLOT_MINUTES)).GET());
+        if (free.statusCode() != 200) {
+            return false;
+        }
+        List<?> slots = (List<?>) JsonUtil.fromJson(free.body(), Map.class).get("slots");
+        if (slots.isEmpty()) {
+            conflicts.increment();
+            return true;
+        }
+        Map<?, ?> slot = (Map<?, ?>) slots.get(random.nextInt(slots.size()));
+        long patient = firstPatient + (long) (random.nextDouble() * patientSpan);
+        Map<String, Object> appointment = Map.of(
+            "patientId", patient,
+            "patientName", "Patient " + patient,
+            "doctorId", doctorIds[doctor],
+            "doctorName", doctorNames[doctor],
+            "appointmentDate", date.toString(),
+            "appointmentTime", slot.get("start"),
+            "duration", DatasetGenerator.SLOT_MINUTES,
+            "type", "consultation");
+        int status = send(HttpRequest.newBuilder(uri("/api/appointments"))
+            .POST(HttpRequest.BodyPublishers.ofString(JsonUtil.toJson(appointment)))).statusCode();
+        if (status == 409) {
+            conflicts.increment();
+            return true;
+        }
+        return status == 201;
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+        return client.send(request.timeout(Duration.ofSeconds(30)).build(),
+            HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+}
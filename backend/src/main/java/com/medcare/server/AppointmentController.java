@@ -1,143 +1,361 @@
 package com.medcare.server;
 
+import com.medcare.dao.Page;
+import com.medcare.index.DoctorScheduleIndex;
 import com.medcare.model.Appointment;
+import com.medcare.service.AppointmentChangeBus;
 import com.medcare.service.AppointmentService;
+import com.medcare.service.ScheduleConflictException;
+import com.medcare.service.VersionConflictException;
 import com.medcare.util.JsonUtil;
 import com.sun.net.httpserver.HttpExchange;
-import com.sun.net.httpserver.HttpHandler;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
-public class AppointmentController implements HttpHandler {
+public class AppointmentController extends BaseController {
+    // Working hours searched for free slots unless the request passes from / to
+    private static final LocalTime DAY_START = LocalTime.parse(System.getProperty("medcare.schedule.dayStart", "08:00"));
+    private static final LocalTime DAY_END = LocalTime.parse(System.getProperty("medcare.schedule.dayEnd", "18:00"));
+    private static final int DEFAULT_SLOT_MINUTES = 30;
+    // Idle streams send a comment this often, so proxies keep them open and dead clients are noticed
+    private static final long STREAM_HEARTBEAT_SECONDS = Long.getLong("medcare.appointments.streamHeartbeatSeconds", 15L);
+    private static final AtomicInteger STREAM_THREADS = new AtomicInteger();
+    
     private final AppointmentService appointmentService;
     
     public AppointmentController() {
         this.appointmentService = new AppointmentService();
+
+        router.get("/api/appointments", (exchange, params) -> handleGetAllAppointments(exchange))
+            .post("/api/appointments", (exchange, params) -> handleCreateAppointment(exchange))
+            .get("/api/appointments/free-slots", (exchange, params) -> handleFreeSlots(exchange))
+            .get("/api/appointments/stream", (exchange, params) -> handleStream(exchange))
+            .patch("/api/appointments/status", (exchange, params) -> handleBatchStatus(exchange))
+            .patch("/api/appointments/{id}/status", (exchange, params) -> handleUpdateStatus(exchange, params.getLong("id")))
+            .get("/api/appointments/{id}", (exchange, params) -> handleGetAppointment(exchange, params.getLong("id")))
+            .put("/api/appointments/{id}", (exchange, params) -> handleUpdateAppointment(exchange, params.getLong("id")))
+            .delete("/api/appointments/{id}", (exchange, params) -> handleDeleteAppointment(exchange, params.getLong("id")));
     }
     
-    @Override
-    public void handle(HttpExchange exchange) throws IOException {
-        // Add CORS headers
-        exchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
-        exchange.getResponseHeaders().add("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
-        exchange.getResponseHeaders().add("Access-Control-Allow-Headers", "Content-Type, Authorization");
-        
-        if ("OPTIONS".equals(exchange.getRequestMethod())) {
-            exchange.sendResponseHeaders(200, -1);
+    private void handleGetAllAppointments(HttpExchange exchange) throws IOException, SQLException {
+        Map<String, String> query = queryParams(exchange);
+        if (query.containsKey("limit") || query.containsKey("cursor")) {
+            // Paginated form; without these parameters the full list is streamed as before
+            Page<Appointment> page;
+            try {
+                page = appointmentService.getAppointmentsPage(query.get("cursor"), Page.resolveLimit(query.get("limit")));
+            } catch (IllegalArgumentException e) {
+                sendError(exchange, 400, e.getMessage());
+                return;
+            }
+            String etag = pageTag(page);
+            if (!notModified(exchange, etag)) {
+                sendJson(exchange, 200, page, etag);
+            }
             return;
         }
-        
-        String path = exchange.getRequestURI().getPath();
-        String method = exchange.getRequestMethod();
-        
-        try {
-            if (path.equals("/api/appointments") && "GET".equals(method)) {
-                handleGetAllAppointments(exchange);
-            } else if (path.equals("/api/appointments") && "POST".equals(method)) {
-                handleCreateAppointment(exchange);
-            } else if (path.matches("/api/appointments/\\d+") && "GET".equals(method)) {
-                Long id = extractIdFromPath(path);
-                handleGetAppointment(exchange, id);
-            } else if (path.matches("/api/appointments/\\d+") && "PUT".equals(method)) {
-                Long id = extractIdFromPath(path);
-                handleUpdateAppointment(exchange, id);
-            } else if (path.matches("/api/appointments/\\d+") && "DELETE".equals(method)) {
-                Long id = extractIdFromPath(path);
-                handleDeleteAppointment(exchange, id);
-            } else {
-                sendResponse(exchange, 404, "{\"error\":\"Not Found\"}");
-            }
-        } catch (Exception e) {
-            sendResponse(exchange, 500, "{\"error\":\"" + e.getMessage() + "\"}");
+        String etag = ResponsePipeline.listingTag("appointments", appointmentService.getAppointmentWriteCount());
+        if (!notModified(exchange, etag)) {
+            streamJsonArray(exchange, etag, streamer -> appointmentService.streamAllAppointments(streamer::write));
         }
     }
     
-    private void handleGetAllAppointments(HttpExchange exchange) throws IOException {
-        List<Appointment> appointments = appointmentService.getAllAppointments();
-        String response = JsonUtil.toJson(appointments);
-        sendResponse(exchange, 200, response);
-    }
-    
     private void handleGetAppointment(HttpExchange exchange, Long id) throws IOException {
         Appointment appointment = appointmentService.getAppointmentById(id);
         if (appointment != null) {
-            String response = JsonUtil.toJson(appointment);
-            sendResponse(exchange, 200, response);
+            String etag = ResponsePipeline.etag("appointment:" + id + ":" + appointment.getVersion());
+            if (!notModified(exchange, etag)) {
+                sendJson(exchange, 200, appointment, etag);
+            }
         } else {
             sendResponse(exchange, 404, "{\"error\":\"Appointment not found\"}");
         }
     }
     
     private void handleCreateAppointment(HttpExchange exchange) throws IOException {
-        String requestBody = readRequestBody(exchange);
-        Map<String, Object> appointmentData = JsonUtil.fromJson(requestBody, Map.class);
+        Appointment appointment = JsonUtil.fromJson(exchange.getRequestBody(), Appointment.class);
+        appointment.setId(null);
+        if (appointment.getStatus() == null) {
+            appointment.setStatus(Appointment.AppointmentStatus.SCHEDULED);
+        }
+        Appointment createdAppointment;
+        try {
+            createdAppointment = appointmentService.createAppointment(appointment);
+        } catch (ScheduleConflictException e) {
+            sendConflict(exchange, e);
+            return;
+        }
         
-        Appointment appointment = mapToAppointment(appointmentData);
-        Appointment createdAppointment = appointmentService.createAppointment(appointment);
+        sendJson(exchange, 201, createdAppointment);
+    }
+    
+    private void handleUpdateAppointment(HttpExchange exchange, Long id) throws IOException, SQLException {
+        Appointment appointment = JsonUtil.fromJson(exchange.getRequestBody(), Appointment.class);
+        Appointment updatedAppointment;
+        try {
+            updatedAppointment = appointmentService.updateAppointment(id, appointment);
+        } catch (VersionConflictException e) {
+            sendVersionConflict(exchange, e);
+            return;
+        } catch (ScheduleConflictException e) {
+            sendConflict(exchange, e);
+            return;
+        }
         
-        String response = JsonUtil.toJson(createdAppointment);
-        sendResponse(exchange, 201, response);
+        sendJson(exchange, 200, updatedAppointment);
     }
     
-    private void handleUpdateAppointment(HttpExchange exchange, Long id) throws IOException {
-        String requestBody = readRequestBody(exchange);
-        Map<String, Object> appointmentData = JsonUtil.fromJson(requestBody, Map.class);
+    // PATCH /api/appointments/{id}/status {"status": "checked_in", "version": 3}; version is optional
+    private void handleUpdateStatus(HttpExchange exchange, Long id) throws IOException, SQLException {
+        Map<String, Object> body = JsonUtil.fromJson(readRequestBody(exchange), Map.class);
+        Appointment.AppointmentStatus status;
+        Integer version;
+        try {
+            status = parseStatus(body.get("status"));
+            version = body.get("version") == null ? null : ((Number) body.get("version")).intValue();
+        } catch (IllegalArgumentException | ClassCastException e) {
+            sendError(exchange, 400, "A valid status and a numeric version are expected");
+            return;
+        }
         
-        Appointment appointment = mapToAppointment(appointmentData);
-        Appointment updatedAppointment = appointmentService.updateAppointment(id, appointment);
+        Appointment appointment;
+        try {
+            appointment = appointmentService.updateAppointmentStatus(id, status, version);
+        } catch (VersionConflictException e) {
+            sendVersionConflict(exchange, e);
+            return;
+        } catch (ScheduleConflictException e) {
+            sendConflict(exchange, e);
+            return;
+        }
+        if (appointment == null) {
+            sendResponse(exchange, 404, "{\"error\":\"Appointment not found\"}");
+            return;
+        }
+        sendJson(exchange, 200, appointment);
+    }
+    
+    // PATCH /api/appointments/status {"status": "completed", "from": ["checked_in"], "ids": [1, 2]}
+    // or, to close a day, {"status": "no_show", "from": ["scheduled"], "date": "2024-01-25", "doctorId": 2}
+    private void handleBatchStatus(HttpExchange exchange) throws IOException, SQLException {
+        Map<String, Object> body = JsonUtil.fromJson(readRequestBody(exchange), Map.class);
+        List<Appointment> changed;
+        try {
+            Appointment.AppointmentStatus to = parseStatus(body.get("status"));
+            List<Appointment.AppointmentStatus> from = new ArrayList<>();
+            for (Object value : listOf(body.get("from"))) {
+                from.add(parseStatus(value));
+            }
+            List<Long> ids = null;
+            if (body.get("ids") != null) {
+                ids = new ArrayList<>();
+                for (Object value : listOf(body.get("ids"))) {
+                    ids.add(((Number) value).longValue());
+                }
+            }
+            LocalDate date = body.get("date") == null ? null : LocalDate.parse(String.valueOf(body.get("date")));
+            Long doctorId = body.get("doctorId") == null ? null : ((Number) body.get("doctorId")).longValue();
+            changed = appointmentService.updateStatuses(ids, date, doctorId, from, to);
+        } catch (IllegalArgumentException | ClassCastException | DateTimeParseException e) {
+            sendError(exchange, 400, e instanceof IllegalArgumentException && e.getMessage() != null
+                ? e.getMessage() : "Invalid status change request");
+            return;
+        }
         
-        String response = JsonUtil.toJson(updatedAppointment);
-        sendResponse(exchange, 200, response);
+        List<Long> changedIds = new ArrayList<>(changed.size());
+        for (Appointment appointment : changed) {
+            changedIds.add(appointment.getId());
+        }
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("updated", changedIds.size());
+        response.put("ids", changedIds);
+        sendJson(exchange, 200, response);
     }
     
-    private void handleDeleteAppointment(HttpExchange exchange, Long id) throws IOException {
-        boolean deleted = appointmentService.deleteAppointment(id);
-        if (deleted) {
-            sendResponse(exchange, 200, "{\"message\":\"Appointment deleted successfully\"}");
-        } else {
-            sendResponse(exchange, 404, "{\"error\":\"Appointment not found\"}");
+    private static Appointment.AppointmentStatus parseStatus(Object value) {
+        if (!(value instanceof String)) {
+            throw new IllegalArgumentException("status is required");
+        }
+        try {
+            return Appointment.AppointmentStatus.valueOf(((String) value).toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown status: " + value);
+        }
+    }
+    
+    private static List<?> listOf(Object value) {
+        if (value instanceof List) {
+            return (List<?>) value;
         }
+        return value == null ? List.of() : List.of(value);
     }
     
-    private Appointment mapToAppointment(Map<String, Object> data) {
-        Appointment appointment = new Appointment();
-        appointment.setPatientId(Long.valueOf(data.get("patientId").toString()));
-        appointment.setPatientName((String) data.get("patientName"));
-        appointment.setDoctorId(Long.valueOf(data.get("doctorId").toString()));
-        appointment.setDoctorName((String) data.get("doctorName"));
-        appointment.setAppointmentDate(LocalDate.parse((String) data.get("date")));
-        appointment.setAppointmentTime(LocalTime.parse((String) data.get("time")));
-        appointment.setDuration(Integer.valueOf(data.get("duration").toString()));
-        appointment.setType(Appointment.AppointmentType.valueOf(((String) data.get("type")).toUpperCase()));
-        appointment.setNotes((String) data.get("notes"));
+    // GET /api/appointments/free-slots?doctorId=&date=&duration=&from=&to=
+    private void handleFreeSlots(HttpExchange exchange) throws IOException {
+        Map<String, String> query = queryParams(exchange);
+        if (query.get("doctorId") == null || query.get("date") == null) {
+            sendError(exchange, 400, "doctorId and date are required");
+            return;
+        }
+        Long doctorId;
+        LocalDate date;
+        LocalTime from;
+        LocalTime to;
+        int duration;
+        try {
+            doctorId = Long.parseLong(query.get("doctorId"));
+            date = LocalDate.parse(query.get("date"));
+            from = query.containsKey("from") ? LocalTime.parse(query.get("from")) : DAY_START;
+            to = query.containsKey("to") ? LocalTime.parse(query.get("to")) : DAY_END;
+            duration = query.containsKey("duration") ? Integer.parseInt(query.get("duration")) : DEFAULT_SLOT_MINUTES;
+        } catch (NumberFormatException | DateTimeParseException e) {
+            sendError(exchange, 400, "Invalid doctorId, date, time or duration");
+            return;
+        }
+        if (duration <= 0 || !from.isBefore(to)) {
+            sendError(exchange, 400, "duration must be positive and from must be before to");
+            return;
+        }
         
-        if (data.get("status") != null) {
-            appointment.setStatus(Appointment.AppointmentStatus.valueOf(((String) data.get("status")).toUpperCase()));
+        List<DoctorScheduleIndex.Slot> slots = appointmentService.getFreeSlots(doctorId, date, from, to, duration);
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("doctorId", doctorId);
+        response.put("date", date);
+        response.put("slots", slots);
+        sendJson(exchange, 200, response);
+    }
+    
+    // GET /api/appointments/stream?doctorId=&date= as server-sent events, one per appointment change:
+    //   id: <sequence>, event: created | updated | status | deleted, data: the appointment as JSON.
+    // A client that falls behind gets "event: dropped" and the stream ends; it should re-fetch and reconnect.
+    // A reconnect carrying Last-Event-ID first gets the matching events it missed, or "event: reset" when
+    // they are no longer all held; the stream then stays open, and the client should re-fetch.
+    // Each stream is written from its own thread so it does not hold a request worker for its lifetime
+    private void handleStream(HttpExchange exchange) throws IOException {
+        Map<String, String> query = queryParams(exchange);
+        Long doctorId;
+        LocalDate date;
+        try {
+            doctorId = query.containsKey("doctorId") ? Long.parseLong(query.get("doctorId")) : null;
+            date = query.containsKey("date") ? LocalDate.parse(query.get("date")) : null;
+        } catch (NumberFormatException | DateTimeParseException e) {
+            sendError(exchange, 400, "Invalid doctorId or date");
+            return;
+        }
+        AppointmentChangeBus.Subscription subscription = AppointmentChangeBus.getInstance()
+            .subscribe(doctorId, date, lastEventId(exchange));
+        if (subscription == null) {
+            sendOverloaded(exchange);
+            return;
         }
         
-        return appointment;
+        exchange.getResponseHeaders().add("Content-Type", "text/event-stream; charset=utf-8");
+        exchange.getResponseHeaders().add("Cache-Control", "no-cache");
+        try {
+            exchange.sendResponseHeaders(200, 0);
+            OutputStream os = exchange.getResponseBody();
+            os.write("retry: 3000\n\n".getBytes(StandardCharsets.UTF_8));
+            os.flush();
+        } catch (IOException e) {
+            subscription.close();
+            throw e;
+        }
+        Thread writer = new Thread(() -> writeStream(exchange, subscription),
+            "appointment-stream-" + STREAM_THREADS.incrementAndGet());
+        writer.setDaemon(true);
+        writer.start();
     }
     
-    private Long extractIdFromPath(String path) {
-        String[] parts = path.split("/");
-        return Long.parseLong(parts[parts.length - 1]);
+    private static void writeStream(HttpExchange exchange, AppointmentChangeBus.Subscription subscription) {
+        OutputStream os = exchange.getResponseBody();
+        try {
+            while (true) {
+                AppointmentChangeBus.Event event = subscription.poll(STREAM_HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+                if (event == null) {
+                    os.write(": keep-alive\n\n".getBytes(StandardCharsets.UTF_8));
+                    os.flush();
+                    continue;
+                }
+                // Whatever else is already buffered goes out with the same flush
+                do {
+                    if (event == AppointmentChangeBus.DROPPED) {
+                        os.write("event: dropped\ndata: {}\n\n".getBytes(StandardCharsets.UTF_8));
+                        os.close();
+                        return;
+                    }
+                    if (event == AppointmentChangeBus.RESET) {
+                        os.write("event: reset\ndata: {}\n\n".getBytes(StandardCharsets.UTF_8));
+                        continue;
+                    }
+                    writeEvent(os, event);
+                } while ((event = subscription.poll(0, TimeUnit.SECONDS)) != null);
+                os.flush();
+            }
+        } catch (IOException | InterruptedException e) {
+            // The client went away, or the server is stopping
+            exchange.close();
+        } finally {
+            subscription.close();
+        }
     }
     
-    private String readRequestBody(HttpExchange exchange) throws IOException {
-        InputStream inputStream = exchange.getRequestBody();
-        return new String(inputStream.readAllBytes());
+    // An id that does not parse cannot be resumed from, so it is treated like one that is too old
+    private static Long lastEventId(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Last-Event-ID");
+        if (header == null || header.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
     }
     
-    private void sendResponse(HttpExchange exchange, int statusCode, String response) throws IOException {
-        exchange.getResponseHeaders().add("Content-Type", "application/json");
-        exchange.sendResponseHeaders(statusCode, response.length());
-        OutputStream os = exchange.getResponseBody();
-        os.write(response.getBytes());
-        os.close();
+    private static void writeEvent(OutputStream os, AppointmentChangeBus.Event event) throws IOException {
+        os.write(("id: " + event.getSeq() + "\nevent: " + event.getType().name().toLowerCase(Locale.ROOT) + "\ndata: ")
+            .getBytes(StandardCharsets.UTF_8));
+        os.write(event.toJsonBytes());
+        os.write("\n\n".getBytes(StandardCharsets.UTF_8));
+    }
+    
+    // Every appointment write bumps its version, so ids and versions identify the page's content
+    private static String pageTag(Page<Appointment> page) {
+        StringBuilder validator = new StringBuilder(page.getItems().size() * 12 + 64).append("appointments:");
+        for (Appointment appointment : page.getItems()) {
+            validator.append(appointment.getId()).append('.').append(appointment.getVersion()).append(',');
+        }
+        return ResponsePipeline.etag(validator.append(page.getNextCursor()).toString());
+    }
+    
+    private void sendConflict(HttpExchange exchange, ScheduleConflictException e) throws IOException {
+        sendResponse(exchange, 409, "{\"error\":" + JsonUtil.toJson(e.getMessage())
+            + ",\"conflictingAppointmentId\":" + e.getConflictingAppointmentId() + "}");
+    }
+    
+    private void sendVersionConflict(HttpExchange exchange, VersionConflictException e) throws IOException {
+        sendResponse(exchange, 409, "{\"error\":" + JsonUtil.toJson(e.getMessage())
+            + ",\"currentVersion\":" + e.getCurrentVersion() + "}");
+    }
+    
+    private void handleDeleteAppointment(HttpExchange exchange, Long id) throws IOException {
+        boolean deleted = appointmentService.deleteAppointment(id);
+        if (deleted) {
+            sendResponse(exchange, 200, "{\"message\":\"Appointment deleted successfully\"}");
+        } else {
+            sendResponse(exchange, 404, "{\"error\":\"Appointment not found\"}");
+        }
     }
 }
\ No newline at end of file
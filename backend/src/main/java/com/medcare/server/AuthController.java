@@ -4,53 +4,36 @@ import com.medcare.model.User;
 import com.medcare.service.AuthService;
 import com.medcare.util.JsonUtil;
 import com.sun.net.httpserver.HttpExchange;
-import com.sun.net.httpserver.HttpHandler;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
+import java.util.Locale;
 import java.util.Map;
 
-public class AuthController implements HttpHandler {
+public class AuthController extends BaseController {
     private final AuthService authService;
     
     public AuthController() {
         this.authService = new AuthService();
-    }
-    
-    @Override
-    public void handle(HttpExchange exchange) throws IOException {
-        // Add CORS headers
-        exchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
-        exchange.getResponseHeaders().add("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
-        exchange.getResponseHeaders().add("Access-Control-Allow-Headers", "Content-Type, Authorization");
-        
-        if ("OPTIONS".equals(exchange.getRequestMethod())) {
-            exchange.sendResponseHeaders(200, -1);
-            return;
-        }
-        
-        String path = exchange.getRequestURI().getPath();
-        String method = exchange.getRequestMethod();
-        
-        try {
-            if (path.endsWith("/login") && "POST".equals(method)) {
-                handleLogin(exchange);
-            } else if (path.endsWith("/register") && "POST".equals(method)) {
-                handleRegister(exchange);
-            } else {
-                sendResponse(exchange, 404, "{\"error\":\"Not Found\"}");
-            }
-        } catch (Exception e) {
-            sendResponse(exchange, 500, "{\"error\":\"" + e.getMessage() + "\"}");
-        }
+
+        router.post("/api/auth/login", (exchange, params) -> handleLogin(exchange))
+            .post("/api/auth/register", (exchange, params) -> handleRegister(exchange))
+            .post("/api/auth/logout", (exchange, params) -> handleLogout(exchange))
+            .get("/api/auth/session", (exchange, params) -> handleSession(exchange))
+            .put("/api/auth/users/{id}/role", (exchange, params) -> handleChangeRole(exchange, params.getLong("id")));
     }
     
     private void handleLogin(HttpExchange exchange) throws IOException {
         String requestBody = readRequestBody(exchange);
         Map<String, Object> loginData = JsonUtil.fromJson(requestBody, Map.class);
         
-        String email = (String) loginData.get("email");
-        String password = (String) loginData.get("password");
+        String email;
+        String password;
+        try {
+            email = stringField(loginData, "email");
+            password = stringField(loginData, "password");
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+            return;
+        }
         
         User user = authService.authenticate(email, password);
         if (user != null) {
@@ -69,12 +52,19 @@ public class AuthController implements HttpHandler {
         String requestBody = readRequestBody(exchange);
         Map<String, Object> registerData = JsonUtil.fromJson(requestBody, Map.class);
         
-        String name = (String) registerData.get("name");
-        String email = (String) registerData.get("email");
-        String password = (String) registerData.get("password");
-        String roleStr = (String) registerData.get("role");
-        
-        User.Role role = User.Role.valueOf(roleStr.toUpperCase());
+        String name;
+        String email;
+        String password;
+        User.Role role;
+        try {
+            name = stringField(registerData, "name");
+            email = stringField(registerData, "email");
+            password = stringField(registerData, "password");
+            role = parseRole(stringField(registerData, "role"));
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+            return;
+        }
         
         try {
             User user = authService.register(name, email, password, role);
@@ -89,16 +79,70 @@ public class AuthController implements HttpHandler {
         }
     }
     
-    private String readRequestBody(HttpExchange exchange) throws IOException {
-        InputStream inputStream = exchange.getRequestBody();
-        return new String(inputStream.readAllBytes());
+    // Absent or null fields are null; anything other than a string is a client error
+    private static String stringField(Map<String, Object> body, String name) {
+        Object value = body.get(name);
+        if (value != null && !(value instanceof String)) {
+            throw new IllegalArgumentException(name + " must be a string");
+        }
+        return (String) value;
     }
     
-    private void sendResponse(HttpExchange exchange, int statusCode, String response) throws IOException {
-        exchange.getResponseHeaders().add("Content-Type", "application/json");
-        exchange.sendResponseHeaders(statusCode, response.length());
-        OutputStream os = exchange.getResponseBody();
-        os.write(response.getBytes());
-        os.close();
+    private static User.Role parseRole(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("role is required");
+        }
+        try {
+            return User.Role.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid role");
+        }
+    }
+    
+    private void handleLogout(HttpExchange exchange) throws IOException {
+        if (authService.logout(bearerToken(exchange))) {
+            sendResponse(exchange, 200, "{\"message\":\"Logged out\"}");
+        } else {
+            sendResponse(exchange, 401, "{\"error\":\"Invalid or expired token\"}");
+        }
+    }
+    
+    private void handleSession(HttpExchange exchange) throws IOException {
+        User user = authService.validateToken(bearerToken(exchange));
+        if (user == null) {
+            sendResponse(exchange, 401, "{\"error\":\"Invalid or expired token\"}");
+            return;
+        }
+        sendJson(exchange, 200, user);
+    }
+    
+    private void handleChangeRole(HttpExchange exchange, Long id) throws IOException {
+        User caller = authService.validateToken(bearerToken(exchange));
+        if (caller == null) {
+            sendResponse(exchange, 401, "{\"error\":\"Invalid or expired token\"}");
+            return;
+        }
+        if (caller.getRole() != User.Role.ADMIN) {
+            sendResponse(exchange, 403, "{\"error\":\"Only administrators can change roles\"}");
+            return;
+        }
+        
+        Map<String, Object> body = JsonUtil.fromJson(readRequestBody(exchange), Map.class);
+        Object roleValue = body.get("role");
+        User.Role role;
+        try {
+            role = User.Role.valueOf(String.valueOf(roleValue).toUpperCase());
+        } catch (IllegalArgumentException e) {
+            sendResponse(exchange, 400, "{\"error\":\"Invalid role\"}");
+            return;
+        }
+        
+        try {
+            User user = authService.changeRole(id, role);
+            user.setPassword(null);
+            sendJson(exchange, 200, user);
+        } catch (RuntimeException e) {
+            sendResponse(exchange, 404, "{\"error\":\"User not found\"}");
+        }
     }
-}
\ No newline at end of file
+}
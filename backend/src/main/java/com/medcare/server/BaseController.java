@@ -0,0 +1,242 @@
+package com.medcare.server;
+
+import com.medcare.config.DatabaseConfig;
+import com.medcare.metrics.RouteMetrics;
+import com.medcare.util.JsonArrayStreamer;
+import com.medcare.util.JsonParseException;
+import com.medcare.util.JsonUtil;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+public abstract class BaseController implements HttpHandler {
+    private static final String JSON = "application/json; charset=utf-8";
+    // A streamed listing holds a pooled connection until its last row is written, however slowly the
+    // client reads. Kept below the pool size so slow readers cannot starve every other request
+    private static final int MAX_LISTING_STREAMS = Math.max(1, Math.min(DatabaseConfig.getPoolMaxSize() - 1,
+        Integer.getInteger("medcare.http.maxListingStreams", DatabaseConfig.getPoolMaxSize() / 2)));
+    private static final Semaphore LISTING_STREAMS = new Semaphore(MAX_LISTING_STREAMS);
+    private static final LongAdder rejectedStreams = new LongAdder();
+
+    // Subclasses register their routes here from the constructor
+    protected final Router router = new Router();
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        // Add CORS headers
+        exchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
+        exchange.getResponseHeaders().add("Access-Control-Allow-Methods", "GET, POST, PUT, PATCH, DELETE, OPTIONS");
+        exchange.getResponseHeaders().add("Access-Control-Allow-Headers", "Content-Type, Authorization");
+
+        if ("OPTIONS".equals(exchange.getRequestMethod())) {
+            exchange.sendResponseHeaders(200, -1);
+            return;
+        }
+
+        if (ExecutorMode.isShedding()) {
+            sendOverloaded(exchange);
+            return;
+        }
+
+        String path = exchange.getRequestURI().getPath();
+        String method = exchange.getRequestMethod();
+
+        try {
+            route(exchange, path, method);
+        } catch (JsonParseException e) {
+            sendError(exchange, 400, "Invalid request body: " + e.getMessage());
+        } catch (Exception e) {
+            if (exchange.getResponseCode() == -1) {
+                sendError(exchange, 500, e.getMessage());
+            } else {
+                // Headers already went out with a streamed body; dropping the connection
+                // without the terminating chunk tells the client the response is incomplete
+                e.printStackTrace();
+                exchange.close();
+            }
+        }
+    }
+
+    static void sendOverloaded(HttpExchange exchange) throws IOException {
+        byte[] response = "{\"error\":\"Server busy, please retry\"}".getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+        exchange.getResponseHeaders().add("Retry-After", "1");
+        exchange.sendResponseHeaders(503, response.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(response);
+        }
+    }
+
+    protected void route(HttpExchange exchange, String path, String method) throws Exception {
+        if (!router.dispatch(exchange, path, method)) {
+            RouteMetrics.unmatched();
+            sendResponse(exchange, 404, "{\"error\":\"Not Found\"}");
+        }
+    }
+
+    // Token from an "Authorization: Bearer <token>" header, or null
+    protected String bearerToken(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header == null || !header.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            return null;
+        }
+        return header.substring(7).trim();
+    }
+
+    // Decoded query string parameters; the first value wins for repeated names
+    protected Map<String, String> queryParams(HttpExchange exchange) {
+        String query = exchange.getRequestURI().getRawQuery();
+        Map<String, String> params = new HashMap<>();
+        if (query == null || query.isEmpty()) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            if (pair.isEmpty()) continue;
+            int eq = pair.indexOf('=');
+            String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            params.putIfAbsent(name, value);
+        }
+        return params;
+    }
+
+    protected String readRequestBody(HttpExchange exchange) throws IOException {
+        InputStream inputStream = exchange.getRequestBody();
+        return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    protected void sendResponse(HttpExchange exchange, int statusCode, String response) throws IOException {
+        sendResponse(exchange, statusCode, response.getBytes(StandardCharsets.UTF_8));
+    }
+
+    protected void sendResponse(HttpExchange exchange, int statusCode, byte[] response) throws IOException {
+        sendResponse(exchange, statusCode, JSON, response);
+    }
+
+    protected void sendResponse(HttpExchange exchange, int statusCode, String contentType, byte[] response) throws IOException {
+        sendResponse(exchange, statusCode, contentType, response, null);
+    }
+
+    // Successful GETs carry an ETag, the content hash unless the caller derived one from entity
+    // versions, and are answered with 304 when it matches If-None-Match. Bodies from
+    // GZIP_MIN_BYTES up are gzipped for clients that accept it
+    private void sendResponse(HttpExchange exchange, int statusCode, String contentType, byte[] response, String etag)
+            throws IOException {
+        Headers headers = exchange.getResponseHeaders();
+        boolean compressible = response.length >= ResponsePipeline.GZIP_MIN_BYTES;
+        if (compressible) {
+            headers.add("Vary", "Accept-Encoding");
+        }
+        if (statusCode == 200 && response.length > 0 && "GET".equals(exchange.getRequestMethod())) {
+            if (etag == null) {
+                etag = ResponsePipeline.etag(response);
+            }
+            if (notModified(exchange, etag)) {
+                return;
+            }
+        }
+        if (compressible && ResponsePipeline.acceptsGzip(exchange)) {
+            response = ResponsePipeline.gzip(response);
+            headers.add("Content-Encoding", "gzip");
+            etag = etag == null ? null : ResponsePipeline.gzipTag(etag);
+        }
+        if (etag != null) {
+            headers.set("ETag", etag);
+        }
+        headers.add("Content-Type", contentType);
+        exchange.sendResponseHeaders(statusCode, response.length == 0 ? -1 : response.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(response);
+        }
+    }
+
+    // Answers 304 and returns true when the client already holds the representation tagged etag.
+    // Callers that can derive the tag from entity versions check this before serializing anything
+    protected boolean notModified(HttpExchange exchange, String etag) throws IOException {
+        if (!ResponsePipeline.matches(exchange, etag)) {
+            return false;
+        }
+        exchange.getResponseHeaders().set("ETag", etag);
+        exchange.sendResponseHeaders(304, -1);
+        exchange.close();
+        return true;
+    }
+
+    protected void sendJson(HttpExchange exchange, int statusCode, Object body) throws IOException {
+        sendResponse(exchange, statusCode, JsonUtil.toJsonBytes(body));
+    }
+
+    // etag is a validator computed without serializing, e.g. from entity versions
+    protected void sendJson(HttpExchange exchange, int statusCode, Object body, String etag) throws IOException {
+        sendResponse(exchange, statusCode, JSON, JsonUtil.toJsonBytes(body), etag);
+    }
+
+    protected void sendError(HttpExchange exchange, int statusCode, String message) throws IOException {
+        sendResponse(exchange, statusCode, "{\"error\":" + JsonUtil.toJson(String.valueOf(message)) + "}");
+    }
+
+    // Streams a JSON array with chunked transfer encoding, row by row as the source produces them.
+    // Full listings are large, so they are gzipped whenever the client accepts it
+    protected void streamJsonArray(HttpExchange exchange, ArraySource source) throws IOException, SQLException {
+        streamJsonArray(exchange, null, source);
+    }
+
+    // etag is derived before the first row is read, e.g. from ResponsePipeline.listingTag
+    protected void streamJsonArray(HttpExchange exchange, String etag, ArraySource source)
+            throws IOException, SQLException {
+        if (!LISTING_STREAMS.tryAcquire()) {
+            rejectedStreams.increment();
+            sendOverloaded(exchange);
+            return;
+        }
+        try {
+            writeJsonArray(exchange, etag, source);
+        } finally {
+            LISTING_STREAMS.release();
+        }
+    }
+
+    private static void writeJsonArray(HttpExchange exchange, String etag, ArraySource source)
+            throws IOException, SQLException {
+        Headers headers = exchange.getResponseHeaders();
+        headers.add("Content-Type", JSON);
+        headers.add("Vary", "Accept-Encoding");
+        boolean gzip = ResponsePipeline.acceptsGzip(exchange);
+        if (gzip) {
+            headers.add("Content-Encoding", "gzip");
+        }
+        if (etag != null) {
+            headers.set("ETag", gzip ? ResponsePipeline.gzipTag(etag) : etag);
+        }
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream os = gzip ? ResponsePipeline.gzipStream(exchange.getResponseBody()) : exchange.getResponseBody();
+        JsonArrayStreamer streamer = new JsonArrayStreamer(os);
+        source.writeTo(streamer);
+        streamer.finish();
+        os.close();
+    }
+
+    public static Map<String, Object> getStreamStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("maxListingStreams", MAX_LISTING_STREAMS);
+        stats.put("activeListingStreams", MAX_LISTING_STREAMS - LISTING_STREAMS.availablePermits());
+        stats.put("rejectedListingStreams", rejectedStreams.sum());
+        return stats;
+    }
+
+    @FunctionalInterface
+    protected interface ArraySource {
+        void writeTo(JsonArrayStreamer streamer) throws IOException, SQLException;
+    }
+}
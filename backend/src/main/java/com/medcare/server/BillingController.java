@@ -1,30 +1,75 @@
 package com.medcare.server;
 
+import com.medcare.model.Bill;
+import com.medcare.service.BillingService;
+import com.medcare.util.JsonUtil;
 import com.sun.net.httpserver.HttpExchange;
-import com.sun.net.httpserver.HttpHandler;
 import java.io.IOException;
-import java.io.OutputStream;
-
-public class BillingController implements HttpHandler {
-    
-    @Override
-    public void handle(HttpExchange exchange) throws IOException {
-        // Add CORS headers
-        exchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
-        exchange.getResponseHeaders().add("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
-        exchange.getResponseHeaders().add("Access-Control-Allow-Headers", "Content-Type, Authorization");
-        
-        if ("OPTIONS".equals(exchange.getRequestMethod())) {
-            exchange.sendResponseHeaders(200, -1);
+import java.sql.SQLException;
+
+public class BillingController extends BaseController {
+    private final BillingService billingService;
+
+    public BillingController() {
+        this.billingService = new BillingService();
+
+        router.post("/api/billing/bills", (exchange, params) -> handleCreateBill(exchange))
+            .get("/api/billing/bills/{id}", (exchange, params) -> handleGetBill(exchange, params.getLong("id")))
+            .patch("/api/billing/bills/{id}/status", (exchange, params) -> handleUpdateStatus(exchange, params.getLong("id")))
+            .get("/api/billing/patients/{id}/bills", (exchange, params) -> handlePatientBills(exchange, params.getLong("id")));
+    }
+
+    // {"patientId": 1, "items": [{"description": "Consultation Fee", "quantity": 1, "unitPrice": 150.00}]}
+    private void handleCreateBill(HttpExchange exchange) throws IOException, SQLException {
+        Bill bill = JsonUtil.fromJson(exchange.getRequestBody(), Bill.class);
+        Bill created;
+        try {
+            created = billingService.createBill(bill);
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
             return;
         }
-        
-        // Placeholder implementation
-        String response = "{\"message\":\"Billing endpoint - implementation pending\"}";
-        exchange.getResponseHeaders().add("Content-Type", "application/json");
-        exchange.sendResponseHeaders(200, response.length());
-        OutputStream os = exchange.getResponseBody();
-        os.write(response.getBytes());
-        os.close();
+        sendJson(exchange, 201, created);
+    }
+
+    private void handleGetBill(HttpExchange exchange, Long id) throws IOException {
+        Bill bill = billingService.getBillById(id);
+        if (bill != null) {
+            sendJson(exchange, 200, bill);
+        } else {
+            sendResponse(exchange, 404, "{\"error\":\"Bill not found\"}");
+        }
+    }
+
+    private void handlePatientBills(HttpExchange exchange, Long patientId) throws IOException {
+        if (!billingService.patientExists(patientId)) {
+            sendResponse(exchange, 404, "{\"error\":\"Patient not found\"}");
+            return;
+        }
+        sendJson(exchange, 200, billingService.getBillsByPatient(patientId));
+    }
+
+    // PATCH /api/billing/bills/{id}/status {"status": "paid"}
+    private void handleUpdateStatus(HttpExchange exchange, Long id) throws IOException, SQLException {
+        // An unknown status fails the bind and is answered 400 by handle()
+        StatusChange body = JsonUtil.fromJson(exchange.getRequestBody(), StatusChange.class);
+        if (body == null || body.getStatus() == null) {
+            sendError(exchange, 400, "Status must be pending, paid or overdue");
+            return;
+        }
+        Bill bill = billingService.updateBillStatus(id, body.getStatus());
+        if (bill == null) {
+            sendResponse(exchange, 404, "{\"error\":\"Bill not found\"}");
+            return;
+        }
+        sendJson(exchange, 200, bill);
+    }
+
+    // Body of a status change
+    public static final class StatusChange {
+        private Bill.BillStatus status;
+
+        public Bill.BillStatus getStatus() { return status; }
+        public void setStatus(Bill.BillStatus status) { this.status = status; }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,24 @@
+package com.medcare.server;
+
+import com.medcare.config.DatabaseConfig;
+import com.medcare.dao.AttachmentStore;
+import com.medcare.dao.EntityCache;
+import com.medcare.dao.IndexAdvisor;
+
+public class DiagnosticsController extends BaseController {
+    
+    public DiagnosticsController() {
+        // EXPLAIN for every registered DAO query, flagging full table scans
+        router.get("/api/diagnostics/explain", (exchange, params) -> sendJson(exchange, 200, IndexAdvisor.explainAll()))
+            .get("/api/diagnostics/migrations", (exchange, params) ->
+                sendJson(exchange, 200, DatabaseConfig.getSchemaHistory()))
+            .get("/api/diagnostics/storage", (exchange, params) -> sendJson(exchange, 200, DatabaseConfig.getStorageStats()))
+            .get("/api/diagnostics/attachments", (exchange, params) -> sendJson(exchange, 200, AttachmentStore.getStats()))
+            .get("/api/diagnostics/streams", (exchange, params) -> sendJson(exchange, 200, getStreamStats()))
+            // For rows changed behind the DAOs' back, e.g. from an SQL console on a file database
+            .delete("/api/diagnostics/caches", (exchange, params) -> {
+                EntityCache.invalidateAllCaches();
+                sendResponse(exchange, 200, "{\"message\":\"Entity caches cleared\"}");
+            });
+    }
+}
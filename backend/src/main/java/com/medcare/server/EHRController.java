@@ -1,30 +1,144 @@
 package com.medcare.server;
 
+import com.medcare.dao.Page;
+import com.medcare.model.Attachment;
+import com.medcare.model.EHRRecord;
+import com.medcare.service.EHRService;
+import com.medcare.util.JsonUtil;
+import com.sun.net.httpserver.Headers;
 import com.sun.net.httpserver.HttpExchange;
-import com.sun.net.httpserver.HttpHandler;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
-public class EHRController implements HttpHandler {
-    
-    @Override
-    public void handle(HttpExchange exchange) throws IOException {
-        // Add CORS headers
-        exchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
-        exchange.getResponseHeaders().add("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
-        exchange.getResponseHeaders().add("Access-Control-Allow-Headers", "Content-Type, Authorization");
-        
-        if ("OPTIONS".equals(exchange.getRequestMethod())) {
-            exchange.sendResponseHeaders(200, -1);
+public class EHRController extends BaseController {
+    private static final int COPY_CHUNK_BYTES = 64 * 1024;
+    // Uploaded types a browser may render in place. Anything else, HTML and SVG included, would run
+    // as script on the API origin, so it is served as an opaque download
+    private static final Set<String> INLINE_TYPES = Set.of(
+        "application/pdf", "image/png", "image/jpeg", "image/gif", "image/webp", "text/plain");
+
+    private final EHRService ehrService;
+
+    public EHRController() {
+        this.ehrService = new EHRService();
+
+        router.post("/api/ehr/records", (exchange, params) -> handleCreateRecord(exchange))
+            .get("/api/ehr/records/{id}", (exchange, params) -> handleGetRecord(exchange, params.getLong("id")))
+            .get("/api/ehr/patients/{id}/records", (exchange, params) -> handleTimeline(exchange, params.getLong("id")))
+            .post("/api/ehr/attachments", (exchange, params) -> handleUploadAttachment(exchange))
+            .get("/api/ehr/attachments/{hash:string}", (exchange, params) -> handleGetAttachment(exchange, params.getString("hash")));
+    }
+
+    private void handleCreateRecord(HttpExchange exchange) throws IOException, SQLException {
+        EHRRecord record = JsonUtil.fromJson(exchange.getRequestBody(), EHRRecord.class);
+        EHRRecord created;
+        try {
+            created = ehrService.createRecord(record);
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+            return;
+        }
+        sendJson(exchange, 201, created);
+    }
+
+    private void handleGetRecord(HttpExchange exchange, Long id) throws IOException {
+        EHRRecord record = ehrService.getRecordById(id);
+        if (record != null) {
+            sendJson(exchange, 200, record);
+        } else {
+            sendResponse(exchange, 404, "{\"error\":\"EHR record not found\"}");
+        }
+    }
+
+    // Newest first; paginated with limit / cursor, otherwise the whole history is streamed
+    private void handleTimeline(HttpExchange exchange, Long patientId) throws IOException, SQLException {
+        if (!ehrService.patientExists(patientId)) {
+            sendResponse(exchange, 404, "{\"error\":\"Patient not found\"}");
+            return;
+        }
+        Map<String, String> query = queryParams(exchange);
+        if (query.containsKey("limit") || query.containsKey("cursor")) {
+            Page<EHRRecord> page;
+            try {
+                page = ehrService.getTimelinePage(patientId, query.get("cursor"), Page.resolveLimit(query.get("limit")));
+            } catch (IllegalArgumentException e) {
+                sendError(exchange, 400, e.getMessage());
+                return;
+            }
+            sendJson(exchange, 200, page);
+            return;
+        }
+        streamJsonArray(exchange, streamer -> ehrService.streamTimeline(patientId, streamer::write));
+    }
+
+    // Raw body upload; the response carries the hash to list in a record's attachments
+    private void handleUploadAttachment(HttpExchange exchange) throws IOException, SQLException {
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        Attachment attachment;
+        try {
+            attachment = ehrService.storeAttachment(exchange.getRequestBody(),
+                contentType == null ? "application/octet-stream" : contentType, queryParams(exchange).get("fileName"));
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+            return;
+        }
+        sendJson(exchange, 201, attachment);
+    }
+
+    private void handleGetAttachment(HttpExchange exchange, String hash) throws IOException {
+        Attachment attachment = ehrService.getAttachment(hash);
+        ByteBuffer content = attachment == null ? null : ehrService.openAttachment(hash);
+        if (content == null) {
+            sendResponse(exchange, 404, "{\"error\":\"Attachment not found\"}");
             return;
         }
-        
-        // Placeholder implementation
-        String response = "{\"message\":\"EHR endpoint - implementation pending\"}";
-        exchange.getResponseHeaders().add("Content-Type", "application/json");
-        exchange.sendResponseHeaders(200, response.length());
-        OutputStream os = exchange.getResponseBody();
-        os.write(response.getBytes());
-        os.close();
+        // The hash is the content, so the response never changes
+        String etag = "\"" + hash + "\"";
+        exchange.getResponseHeaders().add("ETag", etag);
+        exchange.getResponseHeaders().add("Cache-Control", "private, max-age=31536000, immutable");
+        if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        Headers headers = exchange.getResponseHeaders();
+        headers.add("X-Content-Type-Options", "nosniff");
+        String mediaType = attachment.getContentType().split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+        if (INLINE_TYPES.contains(mediaType)) {
+            headers.add("Content-Type", attachment.getContentType());
+        } else {
+            headers.add("Content-Type", "application/octet-stream");
+            headers.add("Content-Disposition", contentDisposition(attachment.getFileName()));
+        }
+        exchange.sendResponseHeaders(200, content.remaining());
+        byte[] chunk = new byte[Math.min(COPY_CHUNK_BYTES, content.remaining())];
+        try (OutputStream os = exchange.getResponseBody()) {
+            while (content.hasRemaining()) {
+                int n = Math.min(chunk.length, content.remaining());
+                content.get(chunk, 0, n);
+                os.write(chunk, 0, n);
+            }
+        }
+    }
+
+    // attachment; filename="ascii fallback"; filename*=UTF-8''percent-encoded (RFC 6266)
+    private static String contentDisposition(String fileName) {
+        if (fileName == null || fileName.isBlank()) {
+            return "attachment";
+        }
+        StringBuilder ascii = new StringBuilder(fileName.length());
+        for (int i = 0; i < fileName.length(); i++) {
+            char c = fileName.charAt(i);
+            ascii.append(c >= 0x20 && c < 0x7f && c != '"' && c != '\\' ? c : '_');
+        }
+        String encoded = URLEncoder.encode(fileName, StandardCharsets.UTF_8).replace("+", "%20");
+        return "attachment; filename=\"" + ascii + "\"; filename*=UTF-8''" + encoded;
     }
-}
\ No newline at end of file
+}
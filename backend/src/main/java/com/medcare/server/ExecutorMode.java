@@ -0,0 +1,115 @@
+package com.medcare.server;
+
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// How the embedded server runs request handlers, selected with -Dmedcare.server.executor
+public enum ExecutorMode {
+    // The original behaviour: a fixed pool with an unbounded queue
+    FIXED,
+    // Platform threads with a bounded queue; overflow is shed with 503 responses
+    BOUNDED,
+    // One virtual thread per request (Java 21+), falls back to BOUNDED on older runtimes
+    VIRTUAL;
+
+    private static final int THREADS = Integer.getInteger("medcare.server.threads", 10);
+    private static final int MAX_THREADS = Integer.getInteger("medcare.server.maxThreads", 50);
+    private static final int QUEUE_CAPACITY = Integer.getInteger("medcare.server.queueCapacity", 200);
+    private static final int SHED_THREADS = Integer.getInteger("medcare.server.shedThreads", 2);
+    private static final int SHED_QUEUE_CAPACITY = Integer.getInteger("medcare.server.shedQueueCapacity", 1000);
+
+    // Set while a rejected exchange is run in shedding mode so handlers can answer 503 cheaply
+    private static final ThreadLocal<Boolean> SHEDDING = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    public static ExecutorMode fromSystemProperty() {
+        String value = System.getProperty("medcare.server.executor", "fixed");
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown executor mode '" + value + "', using FIXED");
+            return FIXED;
+        }
+    }
+
+    static boolean isShedding() {
+        return SHEDDING.get();
+    }
+
+    public ExecutorService create() {
+        switch (this) {
+            case VIRTUAL: {
+                ExecutorService virtual = newVirtualThreadExecutor();
+                if (virtual != null) {
+                    return virtual;
+                }
+                System.err.println("Virtual threads need Java 21+, falling back to BOUNDED executor");
+                return createBounded();
+            }
+            case BOUNDED:
+                return createBounded();
+            default:
+                return Executors.newFixedThreadPool(THREADS, namedThreads("http-worker"));
+        }
+    }
+
+    private static ExecutorService createBounded() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            THREADS, Math.max(THREADS, MAX_THREADS), 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(QUEUE_CAPACITY), namedThreads("http-worker"), new ShedPolicy());
+        executor.allowCoreThreadTimeOut(false);
+        return executor;
+    }
+
+    // Looked up reflectively so the server still compiles and runs on Java 17
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // The JDK server has no hook to refuse a connection, so a rejected exchange is run in shedding
+    // mode, where BaseController only writes a 503. That write can block on a peer that is not
+    // reading, so it goes to a small pool of its own rather than stalling the dispatcher thread,
+    // which accepts every connection. Only when that pool's queue is full too does the dispatcher
+    // write the 503 itself
+    private static final class ShedPolicy implements RejectedExecutionHandler {
+        private final ThreadPoolExecutor shedder = new ThreadPoolExecutor(
+            SHED_THREADS, SHED_THREADS, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(SHED_QUEUE_CAPACITY),
+            namedThreads("http-shed"), new ThreadPoolExecutor.CallerRunsPolicy());
+
+        @Override
+        public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                return;
+            }
+            shedder.execute(() -> shed(task));
+        }
+
+        private static void shed(Runnable task) {
+            SHEDDING.set(Boolean.TRUE);
+            try {
+                task.run();
+            } finally {
+                SHEDDING.set(Boolean.FALSE);
+            }
+        }
+    }
+}
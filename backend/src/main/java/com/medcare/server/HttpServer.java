@@ -5,40 +5,89 @@ import com.sun.net.httpserver.HttpHandler;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
-import java.util.concurrent.Executors;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 public class HttpServer {
     private com.sun.net.httpserver.HttpServer server;
     private final int port;
+    private final ExecutorMode executorMode;
+    private ExecutorService executor;
     
     public HttpServer(int port) {
+        this(port, ExecutorMode.fromSystemProperty());
+    }
+    
+    public HttpServer(int port, ExecutorMode executorMode) {
         this.port = port;
+        this.executorMode = executorMode;
     }
     
     public void start() throws IOException {
+        // Without TCP_NODELAY, keep-alive responses written in several pieces (headers, then
+        // body or chunks) stall ~40ms on Nagle + delayed ACK. Must be set before the first create().
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
         server = com.sun.net.httpserver.HttpServer.create(new InetSocketAddress(port), 0);
         
         // Set up routes
         server.createContext("/api/auth", new AuthController());
+        server.createContext("/api/users", new UserController());
         server.createContext("/api/patients", new PatientController());
         server.createContext("/api/appointments", new AppointmentController());
         server.createContext("/api/ehr", new EHRController());
         server.createContext("/api/inventory", new InventoryController());
         server.createContext("/api/billing", new BillingController());
+        MetricsController metrics = new MetricsController(this);
+        server.createContext("/api/metrics", metrics);
+        server.createContext("/metrics", metrics);
+        server.createContext("/api/diagnostics", new DiagnosticsController());
         
         // CORS handler
         server.createContext("/", new CorsHandler());
         
-        server.setExecutor(Executors.newFixedThreadPool(10));
+        executor = executorMode.create();
+        server.setExecutor(executor);
         server.start();
         
-        System.out.println("Server started on port " + port);
+        System.out.println("Server started on port " + getPort() + " (" + executorMode.name().toLowerCase() + " executor)");
     }
     
     public void stop() {
         if (server != null) {
             server.stop(0);
         }
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    // Actual bound port, useful when started with port 0
+    public int getPort() {
+        return server != null ? server.getAddress().getPort() : port;
+    }
+    
+    public Map<String, Object> getExecutorStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("mode", executorMode.name().toLowerCase());
+        if (executor instanceof ThreadPoolExecutor) {
+            ThreadPoolExecutor pool = (ThreadPoolExecutor) executor;
+            stats.put("poolSize", pool.getPoolSize());
+            stats.put("activeThreads", pool.getActiveCount());
+            stats.put("queueDepth", pool.getQueue().size());
+            stats.put("completedTasks", pool.getCompletedTaskCount());
+        }
+        return stats;
     }
     
     // CORS Handler
@@ -55,12 +104,17 @@ public class HttpServer {
                 return;
             }
             
+            if (ExecutorMode.isShedding()) {
+                BaseController.sendOverloaded(exchange);
+                return;
+            }
+            
             // Default 404 response
-            String response = "{\"error\":\"Not Found\"}";
-            exchange.getResponseHeaders().add("Content-Type", "application/json");
-            exchange.sendResponseHeaders(404, response.length());
+            byte[] response = "{\"error\":\"Not Found\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(404, response.length);
             OutputStream os = exchange.getResponseBody();
-            os.write(response.getBytes());
+            os.write(response);
             os.close();
         }
     }
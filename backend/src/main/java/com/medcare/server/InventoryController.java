@@ -1,30 +1,135 @@
 package com.medcare.server;
 
+import com.medcare.dao.Page;
+import com.medcare.model.InventoryItem;
+import com.medcare.service.InsufficientStockException;
+import com.medcare.service.InventoryService;
+import com.medcare.util.JsonUtil;
 import com.sun.net.httpserver.HttpExchange;
-import com.sun.net.httpserver.HttpHandler;
 import java.io.IOException;
-import java.io.OutputStream;
-
-public class InventoryController implements HttpHandler {
-    
-    @Override
-    public void handle(HttpExchange exchange) throws IOException {
-        // Add CORS headers
-        exchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
-        exchange.getResponseHeaders().add("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
-        exchange.getResponseHeaders().add("Access-Control-Allow-Headers", "Content-Type, Authorization");
-        
-        if ("OPTIONS".equals(exchange.getRequestMethod())) {
-            exchange.sendResponseHeaders(200, -1);
-            return;
-        }
-        
-        // Placeholder implementation
-        String response = "{\"message\":\"Inventory endpoint - implementation pending\"}";
-        exchange.getResponseHeaders().add("Content-Type", "application/json");
-        exchange.sendResponseHeaders(200, response.length());
-        OutputStream os = exchange.getResponseBody();
-        os.write(response.getBytes());
-        os.close();
-    }
-}
\ No newline at end of file
+import java.sql.SQLException;
+import java.util.Map;
+
+public class InventoryController extends BaseController {
+    private final InventoryService inventoryService;
+
+    public InventoryController() {
+        this.inventoryService = new InventoryService();
+
+        router.get("/api/inventory", (exchange, params) -> sendJson(exchange, 200, inventoryService.getAllItems()))
+            .post("/api/inventory", (exchange, params) -> handleCreateItem(exchange))
+            .get("/api/inventory/low-stock", (exchange, params) -> sendJson(exchange, 200, inventoryService.getLowStockItems()))
+            .get("/api/inventory/alerts", (exchange, params) -> sendJson(exchange, 200, inventoryService.getRecentAlerts()))
+            .get("/api/inventory/expiring", (exchange, params) -> handleGetExpiring(exchange))
+            .get("/api/inventory/{id}", (exchange, params) -> handleGetItem(exchange, params.getLong("id")))
+            .put("/api/inventory/{id}", (exchange, params) -> handleUpdateItem(exchange, params.getLong("id")))
+            .delete("/api/inventory/{id}", (exchange, params) -> handleDeleteItem(exchange, params.getLong("id")))
+            .post("/api/inventory/{id}/dispense", (exchange, params) -> handleStockChange(exchange, params.getLong("id"), true))
+            .post("/api/inventory/{id}/restock", (exchange, params) -> handleStockChange(exchange, params.getLong("id"), false));
+    }
+
+    private void handleGetItem(HttpExchange exchange, Long id) throws IOException {
+        InventoryItem item = inventoryService.getItemById(id);
+        if (item != null) {
+            sendJson(exchange, 200, item);
+        } else {
+            sendResponse(exchange, 404, "{\"error\":\"Inventory item not found\"}");
+        }
+    }
+
+    // GET /api/inventory/expiring?days=30&includeExpired=true&limit=50
+    private void handleGetExpiring(HttpExchange exchange) throws IOException, SQLException {
+        Map<String, String> query = queryParams(exchange);
+        Map<String, Object> expiring;
+        try {
+            int days = query.containsKey("days") ? Integer.parseInt(query.get("days").trim()) : 30;
+            expiring = inventoryService.getExpiringItems(days, "true".equals(query.get("includeExpired")),
+                Page.resolveLimit(query.get("limit")));
+        } catch (NumberFormatException e) {
+            sendError(exchange, 400, "Invalid days");
+            return;
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+            return;
+        }
+        sendJson(exchange, 200, expiring);
+    }
+
+    private void handleCreateItem(HttpExchange exchange) throws IOException {
+        InventoryItem item = JsonUtil.fromJson(exchange.getRequestBody(), InventoryItem.class);
+        InventoryItem created;
+        try {
+            created = inventoryService.createItem(item);
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+            return;
+        }
+        sendJson(exchange, 201, created);
+    }
+
+    // The quantity sent is a stock count and replaces the live level
+    private void handleUpdateItem(HttpExchange exchange, Long id) throws IOException {
+        InventoryItem item = JsonUtil.fromJson(exchange.getRequestBody(), InventoryItem.class);
+        InventoryItem updated;
+        try {
+            updated = inventoryService.updateItem(id, item);
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+            return;
+        }
+        if (updated == null) {
+            sendResponse(exchange, 404, "{\"error\":\"Inventory item not found\"}");
+            return;
+        }
+        sendJson(exchange, 200, updated);
+    }
+
+    private void handleDeleteItem(HttpExchange exchange, Long id) throws IOException {
+        if (inventoryService.deleteItem(id)) {
+            sendResponse(exchange, 200, "{\"message\":\"Inventory item deleted successfully\"}");
+        } else {
+            sendResponse(exchange, 404, "{\"error\":\"Inventory item not found\"}");
+        }
+    }
+
+    // POST /api/inventory/{id}/dispense or /restock with {"quantity": 2}
+    private void handleStockChange(HttpExchange exchange, Long id, boolean dispense) throws IOException {
+        // A fractional or out-of-range quantity fails the bind and is answered 400 by handle()
+        StockChange body = JsonUtil.fromJson(exchange.getRequestBody(), StockChange.class);
+        if (body == null || body.getQuantity() == null) {
+            sendError(exchange, 400, "A whole-number quantity is required");
+            return;
+        }
+        int quantity = body.getQuantity();
+        if (quantity <= 0) {
+            sendError(exchange, 400, "Quantity must be between 1 and " + Integer.MAX_VALUE);
+            return;
+        }
+        Integer level;
+        try {
+            level = dispense
+                ? inventoryService.dispense(id, quantity)
+                : inventoryService.restock(id, quantity);
+        } catch (InsufficientStockException e) {
+            sendResponse(exchange, 409, "{\"error\":" + JsonUtil.toJson(e.getMessage())
+                + ",\"available\":" + e.getAvailable() + "}");
+            return;
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+            return;
+        }
+        if (level == null) {
+            sendResponse(exchange, 404, "{\"error\":\"Inventory item not found\"}");
+            return;
+        }
+        sendResponse(exchange, 200, "{\"id\":" + id + ",\"quantity\":" + level + "}");
+    }
+
+    // Body of a dispense or restock
+    public static final class StockChange {
+        private Integer quantity;
+
+        public Integer getQuantity() { return quantity; }
+        public void setQuantity(Integer quantity) { this.quantity = quantity; }
+    }
+}
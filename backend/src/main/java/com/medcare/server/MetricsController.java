@@ -0,0 +1,67 @@
+package com.medcare.server;
+
+import com.medcare.config.ConnectionPool;
+import com.medcare.config.DatabaseConfig;
+import com.medcare.dao.EntityCache;
+import com.medcare.metrics.PrometheusWriter;
+import com.medcare.metrics.RouteMetrics;
+import com.medcare.metrics.SqlMetrics;
+import com.medcare.service.AppointmentChangeBus;
+import com.medcare.service.AuthService;
+import com.medcare.service.ExpirySweeper;
+import com.medcare.service.StockCounters;
+import java.util.Map;
+
+public class MetricsController extends BaseController {
+    private final HttpServer server;
+    
+    public MetricsController(HttpServer server) {
+        this.server = server;
+
+        router.get("/api/metrics/pool", (exchange, params) -> sendJson(exchange, 200, DatabaseConfig.getPoolStats()))
+            .get("/api/metrics/executor", (exchange, params) -> sendJson(exchange, 200, this.server.getExecutorStats()))
+            .get("/api/metrics/sessions", (exchange, params) -> sendJson(exchange, 200, AuthService.getSessionStats()))
+            .get("/api/metrics/caches", (exchange, params) -> sendJson(exchange, 200, EntityCache.getStats()))
+            .get("/api/metrics/inventory", (exchange, params) -> sendJson(exchange, 200, StockCounters.getInstance().getStats()))
+            .get("/api/metrics/expiry", (exchange, params) -> sendJson(exchange, 200, ExpirySweeper.getInstance().getStats()))
+            .get("/api/metrics/stream", (exchange, params) -> sendJson(exchange, 200, AppointmentChangeBus.getInstance().getStats()))
+            .get("/metrics", (exchange, params) -> sendResponse(exchange, 200, PrometheusWriter.CONTENT_TYPE, scrape()));
+    }
+
+    // Prometheus scrape: per-route and per-statement series plus executor, pool and stream gauges
+    private byte[] scrape() {
+        PrometheusWriter out = new PrometheusWriter();
+        RouteMetrics.writeTo(out);
+        SqlMetrics.writeTo(out);
+
+        Map<String, Object> executor = server.getExecutorStats();
+        if (executor.containsKey("queueDepth")) {
+            out.family("medcare_executor_queue_depth", "gauge", "Requests queued for a worker thread");
+            out.sample("medcare_executor_queue_depth", "", ((Number) executor.get("queueDepth")).longValue());
+            out.family("medcare_executor_active_threads", "gauge", "Worker threads running a request");
+            out.sample("medcare_executor_active_threads", "", ((Number) executor.get("activeThreads")).longValue());
+            out.family("medcare_executor_pool_size", "gauge", "Worker threads alive");
+            out.sample("medcare_executor_pool_size", "", ((Number) executor.get("poolSize")).longValue());
+        }
+
+        ConnectionPool pool = DatabaseConfig.getPool();
+        Map<String, Object> stats = pool.getStats();
+        out.family("medcare_db_pool_active_connections", "gauge", "Connections borrowed from the pool");
+        out.sample("medcare_db_pool_active_connections", "", ((Number) stats.get("active")).longValue());
+        out.family("medcare_db_pool_idle_connections", "gauge", "Connections idle in the pool");
+        out.sample("medcare_db_pool_idle_connections", "", ((Number) stats.get("idle")).longValue());
+        out.family("medcare_db_pool_waiting_threads", "gauge", "Threads waiting to borrow a connection");
+        out.sample("medcare_db_pool_waiting_threads", "", ((Number) stats.get("waitingThreads")).longValue());
+        out.family("medcare_db_pool_acquire_timeouts_total", "counter", "Borrows that timed out");
+        out.sample("medcare_db_pool_acquire_timeouts_total", "", ((Number) stats.get("acquireTimeouts")).longValue());
+        out.family("medcare_db_pool_wait_seconds", "histogram", "Time spent waiting to borrow a connection");
+        out.histogram("medcare_db_pool_wait_seconds", "", pool.getWaitTimes());
+
+        Map<String, Object> streams = AppointmentChangeBus.getInstance().getStats();
+        out.family("medcare_appointment_stream_subscribers", "gauge", "Open appointment change streams");
+        out.sample("medcare_appointment_stream_subscribers", "", ((Number) streams.get("subscribers")).longValue());
+        out.family("medcare_appointment_stream_dropped_total", "counter", "Streams dropped for falling behind");
+        out.sample("medcare_appointment_stream_dropped_total", "", ((Number) streams.get("droppedSubscribers")).longValue());
+        return out.toBytes();
+    }
+}
@@ -1,98 +1,124 @@
 package com.medcare.server;
 
+import com.medcare.dao.Page;
 import com.medcare.model.Patient;
+import com.medcare.service.BulkImportResult;
 import com.medcare.service.PatientService;
 import com.medcare.util.JsonUtil;
 import com.sun.net.httpserver.HttpExchange;
-import com.sun.net.httpserver.HttpHandler;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.time.LocalDate;
-import java.util.Arrays;
-import java.util.List;
+import java.sql.SQLException;
 import java.util.Map;
 
-public class PatientController implements HttpHandler {
+public class PatientController extends BaseController {
+    private static final int DEFAULT_SEARCH_RESULTS = 20;
+    private static final int MAX_SEARCH_RESULTS = 100;
+    
     private final PatientService patientService;
     
     public PatientController() {
         this.patientService = new PatientService();
+
+        router.get("/api/patients", (exchange, params) -> handleGetAllPatients(exchange))
+            .post("/api/patients", (exchange, params) -> handleCreatePatient(exchange))
+            .post("/api/patients/bulk", (exchange, params) -> handleBulkImport(exchange))
+            .get("/api/patients/search", (exchange, params) -> handleSearchPatients(exchange))
+            .get("/api/patients/{id}", (exchange, params) -> handleGetPatient(exchange, params.getLong("id")))
+            .put("/api/patients/{id}", (exchange, params) -> handleUpdatePatient(exchange, params.getLong("id")))
+            .delete("/api/patients/{id}", (exchange, params) -> handleDeletePatient(exchange, params.getLong("id")));
     }
     
-    @Override
-    public void handle(HttpExchange exchange) throws IOException {
-        // Add CORS headers
-        exchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
-        exchange.getResponseHeaders().add("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
-        exchange.getResponseHeaders().add("Access-Control-Allow-Headers", "Content-Type, Authorization");
-        
-        if ("OPTIONS".equals(exchange.getRequestMethod())) {
-            exchange.sendResponseHeaders(200, -1);
+    private void handleGetAllPatients(HttpExchange exchange) throws IOException, SQLException {
+        Map<String, String> query = queryParams(exchange);
+        if (query.containsKey("limit") || query.containsKey("cursor")) {
+            // Paginated form; without these parameters the full list is streamed as before
+            Page<Patient> page;
+            try {
+                page = patientService.getPatientsPage(query.get("cursor"), Page.resolveLimit(query.get("limit")));
+            } catch (IllegalArgumentException e) {
+                sendError(exchange, 400, e.getMessage());
+                return;
+            }
+            sendJson(exchange, 200, page);
             return;
         }
-        
-        String path = exchange.getRequestURI().getPath();
-        String method = exchange.getRequestMethod();
-        
+        String etag = ResponsePipeline.listingTag("patients", patientService.getPatientWriteCount());
+        if (!notModified(exchange, etag)) {
+            streamJsonArray(exchange, etag, streamer -> patientService.streamAllPatients(streamer::write));
+        }
+    }
+    
+    private void handleSearchPatients(HttpExchange exchange) throws IOException {
+        Map<String, String> query = queryParams(exchange);
+        String q = query.get("q");
+        if (q == null || q.isBlank()) {
+            sendResponse(exchange, 400, "{\"error\":\"Query parameter q is required\"}");
+            return;
+        }
+        int limit;
         try {
-            if (path.equals("/api/patients") && "GET".equals(method)) {
-                handleGetAllPatients(exchange);
-            } else if (path.equals("/api/patients") && "POST".equals(method)) {
-                handleCreatePatient(exchange);
-            } else if (path.matches("/api/patients/\\d+") && "GET".equals(method)) {
-                Long id = extractIdFromPath(path);
-                handleGetPatient(exchange, id);
-            } else if (path.matches("/api/patients/\\d+") && "PUT".equals(method)) {
-                Long id = extractIdFromPath(path);
-                handleUpdatePatient(exchange, id);
-            } else if (path.matches("/api/patients/\\d+") && "DELETE".equals(method)) {
-                Long id = extractIdFromPath(path);
-                handleDeletePatient(exchange, id);
-            } else {
-                sendResponse(exchange, 404, "{\"error\":\"Not Found\"}");
-            }
-        } catch (Exception e) {
-            sendResponse(exchange, 500, "{\"error\":\"" + e.getMessage() + "\"}");
+            limit = Math.max(1, Math.min(MAX_SEARCH_RESULTS,
+                Integer.parseInt(query.getOrDefault("limit", String.valueOf(DEFAULT_SEARCH_RESULTS)))));
+        } catch (NumberFormatException e) {
+            sendResponse(exchange, 400, "{\"error\":\"Invalid limit\"}");
+            return;
         }
+        sendJson(exchange, 200, patientService.quickSearch(q, limit));
     }
     
-    private void handleGetAllPatients(HttpExchange exchange) throws IOException {
-        List<Patient> patients = patientService.getAllPatients();
-        String response = JsonUtil.toJson(patients);
-        sendResponse(exchange, 200, response);
+    // POST /api/patients/bulk?format=ndjson|csv&chunkSize=; the format defaults from Content-Type
+    private void handleBulkImport(HttpExchange exchange) throws IOException, SQLException {
+        Map<String, String> query = queryParams(exchange);
+        String format = query.get("format");
+        if (format == null) {
+            String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+            format = contentType != null && contentType.toLowerCase().contains("csv") ? "csv" : "ndjson";
+        }
+        int chunkSize;
+        try {
+            chunkSize = Integer.parseInt(query.getOrDefault("chunkSize",
+                String.valueOf(PatientService.DEFAULT_IMPORT_CHUNK_SIZE)));
+        } catch (NumberFormatException e) {
+            chunkSize = -1;
+        }
+        if (chunkSize < 1 || chunkSize > PatientService.MAX_IMPORT_CHUNK_SIZE) {
+            sendError(exchange, 400, "chunkSize must be between 1 and " + PatientService.MAX_IMPORT_CHUNK_SIZE);
+            return;
+        }
+        
+        BulkImportResult result;
+        try {
+            result = patientService.importPatients(exchange.getRequestBody(), format, chunkSize);
+        } catch (IllegalArgumentException e) {
+            // Unsupported format or unknown CSV column, detected before any row is read
+            sendError(exchange, 400, e.getMessage());
+            return;
+        }
+        sendJson(exchange, 200, result);
     }
     
     private void handleGetPatient(HttpExchange exchange, Long id) throws IOException {
         Patient patient = patientService.getPatientById(id);
         if (patient != null) {
-            String response = JsonUtil.toJson(patient);
-            sendResponse(exchange, 200, response);
+            sendJson(exchange, 200, patient);
         } else {
             sendResponse(exchange, 404, "{\"error\":\"Patient not found\"}");
         }
     }
     
     private void handleCreatePatient(HttpExchange exchange) throws IOException {
-        String requestBody = readRequestBody(exchange);
-        Map<String, Object> patientData = JsonUtil.fromJson(requestBody, Map.class);
-        
-        Patient patient = mapToPatient(patientData);
+        Patient patient = JsonUtil.fromJson(exchange.getRequestBody(), Patient.class);
+        patient.setId(null);
         Patient createdPatient = patientService.createPatient(patient);
         
-        String response = JsonUtil.toJson(createdPatient);
-        sendResponse(exchange, 201, response);
+        sendJson(exchange, 201, createdPatient);
     }
     
     private void handleUpdatePatient(HttpExchange exchange, Long id) throws IOException {
-        String requestBody = readRequestBody(exchange);
-        Map<String, Object> patientData = JsonUtil.fromJson(requestBody, Map.class);
-        
-        Patient patient = mapToPatient(patientData);
+        Patient patient = JsonUtil.fromJson(exchange.getRequestBody(), Patient.class);
         Patient updatedPatient = patientService.updatePatient(id, patient);
         
-        String response = JsonUtil.toJson(updatedPatient);
-        sendResponse(exchange, 200, response);
+        sendJson(exchange, 200, updatedPatient);
     }
     
     private void handleDeletePatient(HttpExchange exchange, Long id) throws IOException {
@@ -103,44 +129,4 @@ public class PatientController implements HttpHandler {
             sendResponse(exchange, 404, "{\"error\":\"Patient not found\"}");
         }
     }
-    
-    private Patient mapToPatient(Map<String, Object> data) {
-        Patient patient = new Patient();
-        patient.setName((String) data.get("name"));
-        patient.setEmail((String) data.get("email"));
-        patient.setPhone((String) data.get("phone"));
-        patient.setDateOfBirth(LocalDate.parse((String) data.get("dateOfBirth")));
-        patient.setGender(Patient.Gender.valueOf(((String) data.get("gender")).toUpperCase()));
-        patient.setAddress((String) data.get("address"));
-        patient.setEmergencyContact((String) data.get("emergencyContact"));
-        patient.setBloodType((String) data.get("bloodType"));
-        
-        if (data.get("allergies") != null) {
-            patient.setAllergies(Arrays.asList(((String) data.get("allergies")).split(",")));
-        }
-        
-        if (data.get("medications") != null) {
-            patient.setMedications(Arrays.asList(((String) data.get("medications")).split(",")));
-        }
-        
-        return patient;
-    }
-    
-    private Long extractIdFromPath(String path) {
-        String[] parts = path.split("/");
-        return Long.parseLong(parts[parts.length - 1]);
-    }
-    
-    private String readRequestBody(HttpExchange exchange) throws IOException {
-        InputStream inputStream = exchange.getRequestBody();
-        return new String(inputStream.readAllBytes());
-    }
-    
-    private void sendResponse(HttpExchange exchange, int statusCode, String response) throws IOException {
-        exchange.getResponseHeaders().add("Content-Type", "application/json");
-        exchange.sendResponseHeaders(statusCode, response.length());
-        OutputStream os = exchange.getResponseBody();
-        os.write(response.getBytes());
-        os.close();
-    }
 }
\ No newline at end of file
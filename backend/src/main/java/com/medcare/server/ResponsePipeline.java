@@ -0,0 +1,136 @@
+package com.medcare.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+// Last stage before a body goes out: strong ETags, If-None-Match, and gzip for clients that
+// accept it. A gzipped body is a different representation, so its ETag carries a "-gz" suffix;
+// If-None-Match compares tags without it, so either form revalidates the same content.
+final class ResponsePipeline {
+    static final int GZIP_MIN_BYTES = Integer.getInteger("medcare.http.gzipMinBytes", 1024);
+    private static final String GZIP_SUFFIX = "-gz";
+    // Write counts restart with the process, so listing tags from a previous run must not match
+    private static final String BOOT = Long.toString(System.currentTimeMillis(), 36);
+
+    private ResponsePipeline() {}
+
+    // Strong tag from the SHA-256 of the bytes; 96 bits is plenty to tell versions of one resource apart
+    static String etag(byte[] content) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] hash = digest.digest(content);
+        return '"' + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, 12)) + '"';
+    }
+
+    static String etag(String validator) {
+        return etag(validator.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Validator for a streamed full listing, from the table's write count rather than its content
+    static String listingTag(String table, long writeCount) {
+        return etag(table + ":" + BOOT + ":" + writeCount);
+    }
+
+    // If-None-Match uses weak comparison, so W/ prefixes are ignored as well as the gzip suffix
+    static boolean matches(HttpExchange exchange, String etag) {
+        String header = exchange.getRequestHeaders().getFirst("If-None-Match");
+        if (header == null) {
+            return false;
+        }
+        String opaque = etag.substring(1, etag.length() - 1);
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.length() < 2 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+                continue;
+            }
+            tag = tag.substring(1, tag.length() - 1);
+            if (tag.endsWith(GZIP_SUFFIX)) {
+                tag = tag.substring(0, tag.length() - GZIP_SUFFIX.length());
+            }
+            if (tag.equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static String gzipTag(String etag) {
+        return etag.substring(0, etag.length() - 1) + GZIP_SUFFIX + '"';
+    }
+
+    // Honours q=0, which explicitly refuses a coding
+    static boolean acceptsGzip(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (header == null) {
+            return false;
+        }
+        for (String part : header.split(",")) {
+            String[] params = part.trim().split(";");
+            String coding = params[0].trim();
+            if (!coding.equalsIgnoreCase("gzip") && !coding.equals("*")) {
+                continue;
+            }
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.startsWith("q=") && isZero(param.substring(2).trim())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean isZero(String qvalue) {
+        try {
+            return Double.parseDouble(qvalue) == 0.0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    // Whole-body gzip for responses built in memory
+    static byte[] gzip(byte[] content) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 4 + 64);
+        try (OutputStream gzip = new FastGzipOutputStream(out)) {
+            gzip.write(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    // Streaming counterpart for chunked bodies; closing it finishes the gzip trailer and closes out
+    static OutputStream gzipStream(OutputStream out) throws IOException {
+        return new FastGzipOutputStream(out);
+    }
+
+    // BEST_SPEED, since on a single core the time to compress competes with serving. Flushes are
+    // sync flushes, so a streamed listing's first rows are not held back in the deflater
+    private static final class FastGzipOutputStream extends GZIPOutputStream {
+        FastGzipOutputStream(OutputStream out) throws IOException {
+            super(out, 8192, true);
+            def.setLevel(Deflater.BEST_SPEED);
+        }
+    }
+}
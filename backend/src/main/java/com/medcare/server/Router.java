@@ -0,0 +1,255 @@
+package com.medcare.server;
+
+import com.medcare.metrics.RouteMetrics;
+import com.medcare.util.JsonParseException;
+import com.sun.net.httpserver.HttpExchange;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Routes compiled once into a trie keyed on path segments, then on HTTP method.
+// Patterns use literal segments, {name} for a numeric parameter and {name:string}
+// for any single segment. Matching walks the path by index and never splits it;
+// parameter positions are only collected once a parameterized route has matched.
+public class Router {
+    private static final int MAX_PARAMS = 8;
+
+    @FunctionalInterface
+    public interface RouteHandler {
+        void handle(HttpExchange exchange, PathParams params) throws Exception;
+    }
+
+    private final Node root = new Node();
+
+    public Router get(String pattern, RouteHandler handler) {
+        return add("GET", pattern, handler);
+    }
+
+    public Router post(String pattern, RouteHandler handler) {
+        return add("POST", pattern, handler);
+    }
+
+    public Router put(String pattern, RouteHandler handler) {
+        return add("PUT", pattern, handler);
+    }
+
+    public Router patch(String pattern, RouteHandler handler) {
+        return add("PATCH", pattern, handler);
+    }
+
+    public Router delete(String pattern, RouteHandler handler) {
+        return add("DELETE", pattern, handler);
+    }
+
+    public Router add(String method, String pattern, RouteHandler handler) {
+        if (!pattern.startsWith("/")) {
+            throw new IllegalArgumentException("Route must start with '/': " + pattern);
+        }
+        Node node = root;
+        List<String> paramNames = new ArrayList<>();
+        List<Integer> paramSegments = new ArrayList<>();
+        String[] segments = pattern.substring(1).split("/", -1);
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (segment.startsWith("{") && segment.endsWith("}")) {
+                paramSegments.add(i);
+                String name = segment.substring(1, segment.length() - 1);
+                if (name.endsWith(":string")) {
+                    paramNames.add(name.substring(0, name.length() - ":string".length()));
+                    node = node.textChild != null ? node.textChild : (node.textChild = new Node());
+                } else {
+                    paramNames.add(name);
+                    node = node.numericChild != null ? node.numericChild : (node.numericChild = new Node());
+                }
+            } else {
+                node = node.literalChild(segment);
+            }
+        }
+        if (paramNames.size() > MAX_PARAMS) {
+            throw new IllegalArgumentException("Too many path parameters: " + pattern);
+        }
+        Route route = new Route(handler, paramNames.toArray(new String[0]),
+                paramSegments.stream().mapToInt(Integer::intValue).toArray(), RouteMetrics.forRoute(method, pattern));
+        if (node.handlers.put(method, route) != null) {
+            throw new IllegalArgumentException("Duplicate route " + method + " " + pattern);
+        }
+        return this;
+    }
+
+    // Returns false when no route matches the path and method
+    public boolean dispatch(HttpExchange exchange, String path, String method) throws Exception {
+        if (path.isEmpty() || path.charAt(0) != '/') {
+            return false;
+        }
+        Route route = match(root, path, 1, method);
+        if (route == null) {
+            return false;
+        }
+        PathParams params = route.paramNames.length == 0 ? PathParams.NONE : PathParams.of(path, route);
+
+        // Everything the handler writes goes through the counter, whichever send helper it uses
+        CountingOutputStream body = new CountingOutputStream(exchange.getResponseBody());
+        exchange.setStreams(null, body);
+        RouteMetrics.started();
+        long start = System.nanoTime();
+        int failedWith = 0;
+        try {
+            route.handler.handle(exchange, params);
+        } catch (JsonParseException e) {
+            failedWith = 400;
+            throw e;
+        } catch (Exception | Error e) {
+            failedWith = 500;
+            throw e;
+        } finally {
+            // BaseController answers an exception after this returns, unless headers already went out
+            int status = exchange.getResponseCode();
+            route.metrics.finished(System.nanoTime() - start, status == -1 ? failedWith : status,
+                body.count(), failedWith == 500);
+        }
+        return true;
+    }
+
+    // Literal segments take priority over parameters; backtracks if a literal branch dead-ends
+    // or has no handler for the method, so GET /a/new can still fall through to PUT /a/{id}
+    private static Route match(Node node, String path, int start, String method) {
+        int end = path.indexOf('/', start);
+        if (end < 0) end = path.length();
+        boolean last = end == path.length();
+
+        Node literal = node.findLiteral(path, start, end);
+        if (literal != null) {
+            Route found = last ? literal.handlers.get(method) : match(literal, path, end + 1, method);
+            if (found != null) return found;
+        }
+        if (node.numericChild != null && isNumeric(path, start, end)) {
+            Route found = last ? node.numericChild.handlers.get(method) : match(node.numericChild, path, end + 1, method);
+            if (found != null) return found;
+        }
+        if (node.textChild != null && end > start) {
+            Route found = last ? node.textChild.handlers.get(method) : match(node.textChild, path, end + 1, method);
+            if (found != null) return found;
+        }
+        return null;
+    }
+
+    // Up to 18 digits, so the value always fits in a long
+    private static boolean isNumeric(String path, int start, int end) {
+        if (end == start || end - start > 18) return false;
+        for (int i = start; i < end; i++) {
+            char c = path.charAt(i);
+            if (c < '0' || c > '9') return false;
+        }
+        return true;
+    }
+
+    private static final class Node {
+        private String[] literals = new String[0];
+        private Node[] literalNodes = new Node[0];
+        private Node numericChild;
+        private Node textChild;
+        private final Map<String, Route> handlers = new HashMap<>(4);
+
+        Node literalChild(String segment) {
+            for (int i = 0; i < literals.length; i++) {
+                if (literals[i].equals(segment)) return literalNodes[i];
+            }
+            Node child = new Node();
+            String[] newLiterals = new String[literals.length + 1];
+            Node[] newNodes = new Node[literals.length + 1];
+            System.arraycopy(literals, 0, newLiterals, 0, literals.length);
+            System.arraycopy(literalNodes, 0, newNodes, 0, literals.length);
+            newLiterals[literals.length] = segment;
+            newNodes[literals.length] = child;
+            literals = newLiterals;
+            literalNodes = newNodes;
+            return child;
+        }
+
+        Node findLiteral(String path, int start, int end) {
+            int length = end - start;
+            for (int i = 0; i < literals.length; i++) {
+                String literal = literals[i];
+                if (literal.length() == length && path.regionMatches(start, literal, 0, length)) {
+                    return literalNodes[i];
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class Route {
+        private final RouteHandler handler;
+        private final String[] paramNames;
+        private final int[] paramSegments;
+        private final RouteMetrics metrics;
+
+        Route(RouteHandler handler, String[] paramNames, int[] paramSegments, RouteMetrics metrics) {
+            this.handler = handler;
+            this.paramNames = paramNames;
+            this.paramSegments = paramSegments;
+            this.metrics = metrics;
+        }
+    }
+
+    // Parameter positions within the request path; values are decoded on demand
+    public static final class PathParams {
+        private static final PathParams NONE = new PathParams("", new String[0], new int[0], new int[0]);
+
+        private final String path;
+        private final String[] names;
+        private final int[] starts;
+        private final int[] ends;
+
+        private PathParams(String path, String[] names, int[] starts, int[] ends) {
+            this.path = path;
+            this.names = names;
+            this.starts = starts;
+            this.ends = ends;
+        }
+
+        // Walks the matched path again, picking out the segments the route declared as parameters
+        static PathParams of(String path, Route route) {
+            int[] segments = route.paramSegments;
+            int[] starts = new int[segments.length];
+            int[] ends = new int[segments.length];
+            int segment = 0;
+            int param = 0;
+            int start = 1;
+            while (param < segments.length) {
+                int end = path.indexOf('/', start);
+                if (end < 0) end = path.length();
+                if (segments[param] == segment) {
+                    starts[param] = start;
+                    ends[param] = end;
+                    param++;
+                }
+                segment++;
+                start = end + 1;
+            }
+            return new PathParams(path, route.paramNames, starts, ends);
+        }
+
+        public long getLong(String name) {
+            int index = indexOf(name);
+            long value = 0;
+            for (int i = starts[index]; i < ends[index]; i++) {
+                value = value * 10 + (path.charAt(i) - '0');
+            }
+            return value;
+        }
+
+        public String getString(String name) {
+            int index = indexOf(name);
+            return path.substring(starts[index], ends[index]);
+        }
+
+        private int indexOf(String name) {
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equals(name)) return i;
+            }
+            throw new IllegalArgumentException("No path parameter named " + name);
+        }
+    }
+}
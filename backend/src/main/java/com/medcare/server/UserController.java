@@ -0,0 +1,44 @@
+package com.medcare.server;
+
+import com.medcare.dao.Page;
+import com.medcare.model.User;
+import com.medcare.service.AuthService;
+import com.medcare.service.UserService;
+import com.sun.net.httpserver.HttpExchange;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Map;
+
+public class UserController extends BaseController {
+    private final UserService userService;
+    private final AuthService authService;
+    
+    public UserController() {
+        this.userService = new UserService();
+        this.authService = new AuthService();
+
+        router.get("/api/users", (exchange, params) -> handleListUsers(exchange));
+    }
+    
+    private void handleListUsers(HttpExchange exchange) throws IOException, SQLException {
+        User caller = authService.validateToken(bearerToken(exchange));
+        if (caller == null) {
+            sendResponse(exchange, 401, "{\"error\":\"Invalid or expired token\"}");
+            return;
+        }
+        if (caller.getRole() != User.Role.ADMIN) {
+            sendResponse(exchange, 403, "{\"error\":\"Only administrators can list users\"}");
+            return;
+        }
+        
+        Map<String, String> query = queryParams(exchange);
+        Page<User> page;
+        try {
+            page = userService.getUsersPage(query.get("cursor"), Page.resolveLimit(query.get("limit")));
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+            return;
+        }
+        sendJson(exchange, 200, page);
+    }
+}
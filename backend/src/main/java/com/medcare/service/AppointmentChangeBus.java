@@ -0,0 +1,216 @@
+package com.medcare.service;
+
+import com.medcare.model.Appointment;
+import com.medcare.util.JsonUtil;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Fans appointment writes out to stream subscribers. Publishing never blocks the writer: each
+// subscriber has a bounded buffer, and one that falls a full buffer behind is dropped rather than
+// slowing bookings down or growing without bound. A dropped subscriber is told so once it has
+// drained what it was sent, and is expected to re-fetch and subscribe again.
+// The most recent events are kept so a reconnecting subscriber can resume after the last one it saw.
+public final class AppointmentChangeBus {
+    private static final int BUFFER_SIZE = Integer.getInteger("medcare.appointments.streamBuffer", 256);
+    private static final int HISTORY_SIZE = Integer.getInteger("medcare.appointments.streamHistory", 1024);
+    private static final int MAX_SUBSCRIBERS = Integer.getInteger("medcare.appointments.streamMaxSubscribers", 256);
+    private static final AppointmentChangeBus INSTANCE = new AppointmentChangeBus();
+
+    public enum ChangeType { CREATED, UPDATED, STATUS, DELETED }
+
+    // Handed to a subscriber in place of an event once it has been dropped
+    public static final Event DROPPED = new Event(0, null, null, null, null);
+    // First event of a resumed subscription whose missed events are no longer all in the history
+    public static final Event RESET = new Event(0, null, null, null, null);
+
+    private final CopyOnWriteArrayList<Subscription> subscribers = new CopyOnWriteArrayList<>();
+    // Starts from the clock so ids from an earlier process sort before this one's and cannot be resumed from
+    private final AtomicLong sequence = new AtomicLong(System.currentTimeMillis() * 1000);
+    // Ring of the last HISTORY_SIZE events, oldest at historyNext once it has wrapped; guarded by this
+    private final Event[] history = new Event[HISTORY_SIZE];
+    private int historyNext;
+    private final LongAdder published = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder resets = new LongAdder();
+
+    private AppointmentChangeBus() {}
+
+    public static AppointmentChangeBus getInstance() {
+        return INSTANCE;
+    }
+
+    // previous is the appointment before an update, so subscribers filtered on the doctor or date
+    // it moved away from still see it go; null for the other change types
+    public void publish(ChangeType type, Appointment appointment, Appointment previous) {
+        // DAO writes go on to mutate cached instances, so subscribers get a copy as of now
+        Appointment copy = new Appointment(appointment);
+        Long previousDoctorId = previous == null ? null : previous.getDoctorId();
+        LocalDate previousDate = previous == null ? null : previous.getAppointmentDate();
+        // Numbering, recording and fan-out happen together so a resuming subscriber sees each event exactly once
+        synchronized (this) {
+            Event event = new Event(sequence.incrementAndGet(), type, copy, previousDoctorId, previousDate);
+            published.increment();
+            history[historyNext] = event;
+            historyNext = (historyNext + 1) % HISTORY_SIZE;
+            deliver(event);
+        }
+    }
+
+    private void deliver(Event event) {
+        for (Subscription subscription : subscribers) {
+            if (!subscription.accepts(event)) {
+                continue;
+            }
+            if (subscription.queue.offer(event)) {
+                delivered.increment();
+            } else {
+                drop(subscription);
+            }
+        }
+    }
+
+    // Null filters match everything; returns null when the subscriber limit is reached.
+    // lastEventId, when not null, is the sequence of the last event the subscriber saw: the matching
+    // events after it are queued first, or RESET if some of them are no longer in the history
+    public synchronized Subscription subscribe(Long doctorId, LocalDate date, Long lastEventId) {
+        if (subscribers.size() >= MAX_SUBSCRIBERS) {
+            return null;
+        }
+        Subscription subscription = new Subscription(doctorId, date);
+        if (lastEventId != null && !replay(subscription, lastEventId)) {
+            subscription.queue.clear();
+            subscription.queue.offer(RESET);
+            resets.increment();
+        }
+        subscribers.add(subscription);
+        return subscription;
+    }
+
+    // False when the history does not reach back to lastEventId, the id is from an earlier process,
+    // or the missed events would not fit in the subscriber's buffer
+    private boolean replay(Subscription subscription, long lastEventId) {
+        long current = sequence.get();
+        Event oldest = history[historyNext] != null ? history[historyNext] : history[0];
+        long oldestSeq = oldest != null ? oldest.seq : current + 1;
+        if (lastEventId > current || lastEventId < oldestSeq - 1) {
+            return false;
+        }
+        int count = 0;
+        for (int i = 0; i < HISTORY_SIZE; i++) {
+            Event event = history[(historyNext + i) % HISTORY_SIZE];
+            if (event == null || event.seq <= lastEventId || !subscription.accepts(event)) {
+                continue;
+            }
+            if (!subscription.queue.offer(event)) {
+                return false;
+            }
+            count++;
+        }
+        replayed.add(count);
+        return true;
+    }
+
+    public void unsubscribe(Subscription subscription) {
+        subscribers.remove(subscription);
+    }
+
+    private void drop(Subscription subscription) {
+        if (subscribers.remove(subscription)) {
+            subscription.dropped = true;
+            dropped.increment();
+            // Wakes the subscriber if it drained the buffer after the failed offer
+            subscription.queue.offer(DROPPED);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("subscribers", subscribers.size());
+        stats.put("maxSubscribers", MAX_SUBSCRIBERS);
+        stats.put("bufferSize", BUFFER_SIZE);
+        stats.put("published", published.sum());
+        stats.put("delivered", delivered.sum());
+        stats.put("droppedSubscribers", dropped.sum());
+        stats.put("historySize", HISTORY_SIZE);
+        stats.put("replayed", replayed.sum());
+        stats.put("resets", resets.sum());
+        return stats;
+    }
+
+    public static final class Event {
+        private final long seq;
+        private final ChangeType type;
+        private final Appointment appointment;
+        private final Long previousDoctorId;
+        private final LocalDate previousDate;
+        // Serialized on first delivery and shared by every subscriber
+        private volatile byte[] json;
+
+        private Event(long seq, ChangeType type, Appointment appointment, Long previousDoctorId, LocalDate previousDate) {
+            this.seq = seq;
+            this.type = type;
+            this.appointment = appointment;
+            this.previousDoctorId = previousDoctorId;
+            this.previousDate = previousDate;
+        }
+
+        public long getSeq() { return seq; }
+        public ChangeType getType() { return type; }
+        public Appointment getAppointment() { return appointment; }
+
+        public byte[] toJsonBytes() {
+            byte[] bytes = json;
+            if (bytes == null) {
+                bytes = JsonUtil.toJsonBytes(appointment);
+                json = bytes;
+            }
+            return bytes;
+        }
+    }
+
+    public final class Subscription {
+        private final Long doctorId;
+        private final LocalDate date;
+        private final BlockingQueue<Event> queue = new ArrayBlockingQueue<>(BUFFER_SIZE);
+        private volatile boolean dropped;
+
+        private Subscription(Long doctorId, LocalDate date) {
+            this.doctorId = doctorId;
+            this.date = date;
+        }
+
+        private boolean accepts(Event event) {
+            return matches(event.appointment.getDoctorId(), event.appointment.getAppointmentDate())
+                || event.previousDoctorId != null && matches(event.previousDoctorId, event.previousDate);
+        }
+
+        private boolean matches(Long eventDoctorId, LocalDate eventDate) {
+            return (doctorId == null || doctorId.equals(eventDoctorId)) && (date == null || date.equals(eventDate));
+        }
+
+        // Next event, DROPPED once the buffered events before a drop are consumed, or null on timeout
+        public Event poll(long timeout, TimeUnit unit) throws InterruptedException {
+            Event event = queue.poll();
+            if (event == null) {
+                if (dropped) {
+                    return DROPPED;
+                }
+                event = queue.poll(timeout, unit);
+            }
+            return event;
+        }
+
+        public void close() {
+            unsubscribe(this);
+        }
+    }
+}
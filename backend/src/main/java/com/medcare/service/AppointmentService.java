@@ -1,12 +1,26 @@
 package com.medcare.service;
 
 import com.medcare.dao.AppointmentDAO;
+import com.medcare.dao.Page;
+import com.medcare.dao.RowHandler;
+import com.medcare.index.DoctorScheduleIndex;
 import com.medcare.model.Appointment;
+import java.io.IOException;
+import java.sql.SQLException;
 import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class AppointmentService {
+    // Booking for a doctor is check-then-write; one monitor per doctor keeps two requests
+    // from both passing the conflict check for the same slot
+    private static final ConcurrentHashMap<Long, Object> DOCTOR_LOCKS = new ConcurrentHashMap<>();
+    public static final int MAX_BATCH_STATUS_IDS = 10_000;
+    
     private final AppointmentDAO appointmentDAO;
+    private final AppointmentChangeBus changes = AppointmentChangeBus.getInstance();
     
     public AppointmentService() {
         this.appointmentDAO = new AppointmentDAO();
@@ -16,6 +30,18 @@ public class AppointmentService {
         return appointmentDAO.findAll();
     }
     
+    public void streamAllAppointments(RowHandler<Appointment> handler) throws SQLException, IOException {
+        appointmentDAO.streamAll(handler);
+    }
+    
+    public long getAppointmentWriteCount() {
+        return appointmentDAO.writeCount();
+    }
+    
+    public Page<Appointment> getAppointmentsPage(String cursor, int limit) throws SQLException {
+        return appointmentDAO.findPage(cursor, limit);
+    }
+    
     public Appointment getAppointmentById(Long id) {
         return appointmentDAO.findById(id);
     }
@@ -28,30 +54,133 @@ public class AppointmentService {
         return appointmentDAO.findByDate(date);
     }
     
+    // Loads every appointment into the schedule index; DAO writes keep it current afterwards
+    public int buildScheduleIndex() throws SQLException, IOException {
+        List<Appointment> appointments = new ArrayList<>();
+        appointmentDAO.streamAll(appointments::add);
+        DoctorScheduleIndex.getInstance().rebuild(appointments);
+        return appointments.size();
+    }
+    
+    public List<DoctorScheduleIndex.Slot> getFreeSlots(Long doctorId, LocalDate date, LocalTime from, LocalTime to,
+                                                       int minDuration) {
+        return DoctorScheduleIndex.getInstance().freeSlots(doctorId, date, from, to, minDuration);
+    }
+    
     public Appointment createAppointment(Appointment appointment) {
         validateAppointment(appointment);
-        return appointmentDAO.save(appointment);
+        Appointment saved;
+        synchronized (doctorLock(appointment.getDoctorId())) {
+            checkSchedule(appointment);
+            saved = appointmentDAO.save(appointment);
+        }
+        // The DAO reports a failed insert only by leaving the id unset
+        if (saved.getId() != null) {
+            changes.publish(AppointmentChangeBus.ChangeType.CREATED, saved, null);
+        }
+        return saved;
     }
     
-    public Appointment updateAppointment(Long id, Appointment appointment) {
+    // Replaces the stored appointment. The write only applies to the version read here, so a change
+    // committed in between, such as a status PATCH, fails it with VersionConflictException
+    public Appointment updateAppointment(Long id, Appointment appointment) throws SQLException {
         Appointment existingAppointment = appointmentDAO.findById(id);
         if (existingAppointment == null) {
             throw new RuntimeException("Appointment not found");
         }
         
         appointment.setId(id);
+        appointment.setCreatedAt(existingAppointment.getCreatedAt());
+        appointment.setVersion(existingAppointment.getVersion());
         validateAppointment(appointment);
-        return appointmentDAO.save(appointment);
+        boolean updated;
+        synchronized (doctorLock(appointment.getDoctorId())) {
+            checkSchedule(appointment);
+            updated = appointmentDAO.update(appointment, existingAppointment.getVersion());
+        }
+        if (!updated) {
+            // The cached copy may have been behind the database; either way the client must re-read
+            Appointment current = appointmentDAO.reload(id);
+            if (current == null) {
+                throw new RuntimeException("Appointment not found");
+            }
+            throw new VersionConflictException("Appointment was modified, current version is "
+                + current.getVersion(), current.getVersion());
+        }
+        changes.publish(AppointmentChangeBus.ChangeType.UPDATED, appointment, existingAppointment);
+        return appointment;
     }
     
-    public Appointment updateAppointmentStatus(Long id, Appointment.AppointmentStatus status) {
+    // Changes only the status. With expectedVersion the stored row must still be at that version;
+    // without it the change applies to the current row. Returns null if the appointment does not exist.
+    public Appointment updateAppointmentStatus(Long id, Appointment.AppointmentStatus status, Integer expectedVersion)
+            throws SQLException {
         Appointment appointment = appointmentDAO.findById(id);
-        if (appointment == null) {
-            throw new RuntimeException("Appointment not found");
+        for (int attempt = 0; ; attempt++) {
+            if (appointment == null) {
+                return null;
+            }
+            int expected = expectedVersion != null ? expectedVersion : appointment.getVersion();
+            if (appointment.getVersion() == expected && applyStatus(appointment, status, expected)) {
+                changes.publish(AppointmentChangeBus.ChangeType.STATUS, appointment, null);
+                return appointment;
+            }
+            if (attempt > 0) {
+                throw new VersionConflictException("Appointment was modified, current version is "
+                    + appointment.getVersion(), appointment.getVersion());
+            }
+            // The cached copy may be behind the database; decide against the stored row
+            appointment = appointmentDAO.reload(id);
         }
-        
-        appointment.setStatus(status);
-        return appointmentDAO.save(appointment);
+    }
+    
+    private boolean applyStatus(Appointment appointment, Appointment.AppointmentStatus status, int expectedVersion)
+            throws SQLException {
+        if (DoctorScheduleIndex.occupiesSlot(appointment) || !DoctorScheduleIndex.occupiesSlot(status)) {
+            return appointmentDAO.updateStatus(appointment, status, expectedVersion);
+        }
+        // Reinstating a cancelled or no-show appointment needs its slot to still be free
+        synchronized (doctorLock(appointment.getDoctorId())) {
+            Appointment reinstated = new Appointment(appointment);
+            reinstated.setStatus(status);
+            checkSchedule(reinstated);
+            return appointmentDAO.updateStatus(appointment, status, expectedVersion);
+        }
+    }
+    
+    // Moves every listed appointment, or every appointment on the date (optionally for one doctor),
+    // that is currently in one of the from statuses, in a single statement. Returns the changed rows.
+    public List<Appointment> updateStatuses(List<Long> ids, LocalDate date, Long doctorId,
+                                            List<Appointment.AppointmentStatus> from,
+                                            Appointment.AppointmentStatus to) throws SQLException {
+        if (from.isEmpty()) {
+            throw new IllegalArgumentException("At least one from status is required");
+        }
+        if (DoctorScheduleIndex.occupiesSlot(to)) {
+            for (Appointment.AppointmentStatus status : from) {
+                if (!DoctorScheduleIndex.occupiesSlot(status)) {
+                    // Each reinstated slot needs its own conflict check
+                    throw new IllegalArgumentException("Cancelled and no-show appointments must be reinstated one at a time");
+                }
+            }
+        }
+        if (ids != null) {
+            if (ids.size() > MAX_BATCH_STATUS_IDS) {
+                throw new IllegalArgumentException("At most " + MAX_BATCH_STATUS_IDS + " ids per request");
+            }
+            return publishStatuses(ids.isEmpty() ? List.of() : appointmentDAO.updateStatuses(ids, from, to));
+        }
+        if (date == null) {
+            throw new IllegalArgumentException("Either ids or date is required");
+        }
+        return publishStatuses(appointmentDAO.updateStatusesOnDate(date, doctorId, from, to));
+    }
+    
+    private List<Appointment> publishStatuses(List<Appointment> changed) {
+        for (Appointment appointment : changed) {
+            changes.publish(AppointmentChangeBus.ChangeType.STATUS, appointment, null);
+        }
+        return changed;
     }
     
     public boolean deleteAppointment(Long id) {
@@ -59,7 +188,28 @@ public class AppointmentService {
         if (appointment == null) {
             throw new RuntimeException("Appointment not found");
         }
-        return appointmentDAO.delete(id);
+        if (!appointmentDAO.delete(id)) {
+            return false;
+        }
+        changes.publish(AppointmentChangeBus.ChangeType.DELETED, appointment, null);
+        return true;
+    }
+    
+    private static Object doctorLock(Long doctorId) {
+        return DOCTOR_LOCKS.computeIfAbsent(doctorId, id -> new Object());
+    }
+    
+    private void checkSchedule(Appointment appointment) {
+        if (!DoctorScheduleIndex.occupiesSlot(appointment)) {
+            return;
+        }
+        DoctorScheduleIndex.Booking conflict = DoctorScheduleIndex.getInstance().findConflict(
+            appointment.getDoctorId(), appointment.getAppointmentDate(), appointment.getAppointmentTime(),
+            appointment.getDuration(), appointment.getId());
+        if (conflict != null) {
+            throw new ScheduleConflictException("Doctor already has appointment " + conflict.getAppointmentId()
+                + " from " + conflict.getStart() + " to " + conflict.getEnd(), conflict.getAppointmentId());
+        }
     }
     
     private void validateAppointment(Appointment appointment) {
@@ -5,8 +5,12 @@ import com.medcare.model.User;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
+import java.util.Map;
 
 public class AuthService {
+    // Shared by every AuthService so revocations are seen by all controllers
+    private static final SessionManager SESSIONS = new SessionManager();
+
     private final UserDAO userDAO;
     
     public AuthService() {
@@ -49,24 +53,31 @@ public class AuthService {
     }
     
     public String generateToken(User user) {
-        // Simple token generation for demo
-        // In production, use JWT or similar
-        return Base64.getEncoder().encodeToString(
-            (user.getId() + ":" + user.getEmail() + ":" + System.currentTimeMillis()).getBytes()
-        );
+        return SESSIONS.issue(user);
     }
     
+    // Verified from the token signature alone; the users table is not consulted
     public User validateToken(String token) {
-        try {
-            String decoded = new String(Base64.getDecoder().decode(token));
-            String[] parts = decoded.split(":");
-            if (parts.length >= 2) {
-                Long userId = Long.parseLong(parts[0]);
-                return userDAO.findById(userId);
-            }
-        } catch (Exception e) {
-            // Invalid token
+        SessionManager.Session session = SESSIONS.verify(token);
+        return session != null ? session.toUser() : null;
+    }
+    
+    public boolean logout(String token) {
+        return SESSIONS.revoke(token);
+    }
+    
+    public User changeRole(Long userId, User.Role role) {
+        User user = userDAO.findById(userId);
+        if (user == null) {
+            throw new RuntimeException("User not found");
         }
-        return null;
+        user.setRole(role);
+        userDAO.save(user);
+        SESSIONS.revokeUser(userId);
+        return user;
+    }
+    
+    public static Map<String, Object> getSessionStats() {
+        return SESSIONS.getStats();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,65 @@
+package com.medcare.service;
+
+import com.medcare.model.Bill;
+import com.medcare.model.BillItem;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+// Prices a bill from its items. Amounts are summed as whole cents in long arithmetic, so a bill
+// with many lines allocates one BigDecimal per stored value rather than a chain of intermediate
+// results per line; overflow and sub-cent prices are rejected instead of silently rounded.
+final class BillCalculator {
+    static final BigDecimal TAX_RATE = new BigDecimal(System.getProperty("medcare.billing.taxRate", "0.10"));
+    // Largest value a DECIMAL(10,2) column holds
+    private static final long MAX_CENTS = 9_999_999_999L;
+
+    private BillCalculator() {}
+
+    // Sets each item's total and the bill's subtotal, tax and total; tax is rounded half up to the cent
+    static void price(Bill bill) {
+        List<BillItem> items = bill.getItems();
+        long subtotal = 0;
+        for (int i = 0; i < items.size(); i++) {
+            BillItem item = items.get(i);
+            long line;
+            try {
+                line = Math.multiplyExact(toCents(item.getUnitPrice(), i), item.getQuantity());
+            } catch (ArithmeticException e) {
+                line = Long.MAX_VALUE;
+            }
+            if (line > MAX_CENTS) {
+                throw tooLarge("Item " + (i + 1) + " total");
+            }
+            item.setTotal(BigDecimal.valueOf(line, 2));
+            // Both terms are within MAX_CENTS, so the sum cannot overflow
+            subtotal += line;
+            if (subtotal > MAX_CENTS) {
+                throw tooLarge("Bill subtotal");
+            }
+        }
+        long tax = BigDecimal.valueOf(subtotal, 2).multiply(TAX_RATE).setScale(2, RoundingMode.HALF_UP)
+            .movePointRight(2).longValueExact();
+        if (tax > MAX_CENTS || subtotal + tax > MAX_CENTS) {
+            throw tooLarge("Bill total");
+        }
+        bill.setSubtotal(BigDecimal.valueOf(subtotal, 2));
+        bill.setTax(BigDecimal.valueOf(tax, 2));
+        bill.setTotal(BigDecimal.valueOf(subtotal + tax, 2));
+    }
+
+    private static long toCents(BigDecimal amount, int index) {
+        if (amount == null || amount.signum() < 0) {
+            throw new IllegalArgumentException("Item " + (index + 1) + " needs a unit price of zero or more");
+        }
+        try {
+            return amount.movePointRight(2).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Item " + (index + 1) + " unit price must be a whole number of cents");
+        }
+    }
+
+    private static IllegalArgumentException tooLarge(String what) {
+        return new IllegalArgumentException(what + " exceeds " + BigDecimal.valueOf(MAX_CENTS, 2));
+    }
+}
@@ -0,0 +1,96 @@
+package com.medcare.service;
+
+import com.medcare.dao.BillDAO;
+import com.medcare.dao.PatientDAO;
+import com.medcare.model.Bill;
+import com.medcare.model.BillItem;
+import com.medcare.model.Patient;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+public class BillingService {
+    public static final int MAX_ITEMS = Integer.getInteger("medcare.billing.maxItems", 1000);
+    private static final int MAX_DESCRIPTION_LENGTH = 255;
+    private static final int DUE_DAYS = Integer.getInteger("medcare.billing.dueDays", 30);
+
+    private final BillDAO billDAO;
+    private final PatientDAO patientDAO;
+
+    public BillingService() {
+        this.billDAO = new BillDAO();
+        this.patientDAO = new PatientDAO();
+    }
+
+    public Bill getBillById(Long id) {
+        return billDAO.findById(id);
+    }
+
+    public List<Bill> getBillsByPatient(Long patientId) {
+        return billDAO.findByPatientId(patientId);
+    }
+
+    public boolean patientExists(Long patientId) {
+        return patientDAO.findById(patientId) != null;
+    }
+
+    // Amounts sent by the client are ignored: line totals, subtotal, tax and total are computed here
+    public Bill createBill(Bill bill) throws SQLException {
+        validateBill(bill);
+        Patient patient = patientDAO.findById(bill.getPatientId());
+        if (patient == null) {
+            throw new IllegalArgumentException("Patient not found");
+        }
+        bill.setId(null);
+        bill.setPatientName(patient.getName());
+        if (bill.getBillDate() == null) {
+            bill.setBillDate(LocalDate.now());
+        }
+        if (bill.getDueDate() == null) {
+            bill.setDueDate(bill.getBillDate().plusDays(DUE_DAYS));
+        }
+        bill.setStatus(Bill.BillStatus.PENDING);
+        BillCalculator.price(bill);
+        billDAO.insert(bill);
+        return billDAO.findById(bill.getId());
+    }
+
+    // Returns the updated bill, or null when there is none with this id
+    public Bill updateBillStatus(Long id, Bill.BillStatus status) throws SQLException {
+        if (!billDAO.updateStatus(id, status)) {
+            return null;
+        }
+        return billDAO.findById(id);
+    }
+
+    private void validateBill(Bill bill) {
+        if (bill.getPatientId() == null) {
+            throw new IllegalArgumentException("Patient ID is required");
+        }
+        List<BillItem> items = bill.getItems();
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("A bill needs at least one item");
+        }
+        if (items.size() > MAX_ITEMS) {
+            throw new IllegalArgumentException("At most " + MAX_ITEMS + " items per bill");
+        }
+        for (int i = 0; i < items.size(); i++) {
+            BillItem item = items.get(i);
+            if (item == null) {
+                throw new IllegalArgumentException("Item " + (i + 1) + " is empty");
+            }
+            if (item.getDescription() == null || item.getDescription().trim().isEmpty()) {
+                throw new IllegalArgumentException("Item " + (i + 1) + " description is required");
+            }
+            if (item.getDescription().length() > MAX_DESCRIPTION_LENGTH) {
+                throw new IllegalArgumentException("Item " + (i + 1) + " description exceeds " + MAX_DESCRIPTION_LENGTH + " characters");
+            }
+            if (item.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Item " + (i + 1) + " quantity must be positive");
+            }
+        }
+        if (bill.getDueDate() != null && bill.getBillDate() != null && bill.getDueDate().isBefore(bill.getBillDate())) {
+            throw new IllegalArgumentException("Due date is before the bill date");
+        }
+    }
+}
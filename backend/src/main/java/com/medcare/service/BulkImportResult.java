@@ -0,0 +1,59 @@
+package com.medcare.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Outcome of a bulk import: counts, throughput and the first MAX_REPORTED_ERRORS row errors
+public class BulkImportResult {
+    private static final int MAX_REPORTED_ERRORS = Integer.getInteger("medcare.import.maxReportedErrors", 1000);
+
+    private long received;
+    private long imported;
+    private long failed;
+    private long elapsedMs;
+    private long rowsPerSecond;
+    private final List<RowError> errors = new ArrayList<>();
+    private boolean errorsTruncated;
+
+    void recordImported(int count) {
+        received += count;
+        imported += count;
+    }
+
+    void recordFailure(long row, String message) {
+        received++;
+        failed++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new RowError(row, message));
+        } else {
+            errorsTruncated = true;
+        }
+    }
+
+    void finish(long elapsedNanos) {
+        elapsedMs = elapsedNanos / 1_000_000;
+        rowsPerSecond = elapsedNanos == 0 ? 0 : received * 1_000_000_000L / elapsedNanos;
+    }
+
+    public long getReceived() { return received; }
+    public long getImported() { return imported; }
+    public long getFailed() { return failed; }
+    public long getElapsedMs() { return elapsedMs; }
+    public long getRowsPerSecond() { return rowsPerSecond; }
+    public List<RowError> getErrors() { return errors; }
+    public boolean isErrorsTruncated() { return errorsTruncated; }
+
+    public static final class RowError {
+        // 1-based line (NDJSON) or record (CSV, header included) number in the upload
+        private final long row;
+        private final String error;
+
+        RowError(long row, String error) {
+            this.row = row;
+            this.error = error;
+        }
+
+        public long getRow() { return row; }
+        public String getError() { return error; }
+    }
+}
@@ -0,0 +1,108 @@
+package com.medcare.service;
+
+import com.medcare.dao.AttachmentStore;
+import com.medcare.dao.EHRRecordDAO;
+import com.medcare.dao.Page;
+import com.medcare.dao.PatientDAO;
+import com.medcare.dao.RowHandler;
+import com.medcare.model.Attachment;
+import com.medcare.model.EHRRecord;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+public class EHRService {
+    private final EHRRecordDAO recordDAO;
+    private final AttachmentStore attachmentStore;
+    private final PatientDAO patientDAO;
+
+    public EHRService() {
+        this.recordDAO = new EHRRecordDAO();
+        this.attachmentStore = new AttachmentStore();
+        this.patientDAO = new PatientDAO();
+    }
+
+    public EHRRecord getRecordById(Long id) {
+        return recordDAO.findById(id);
+    }
+
+    public boolean patientExists(Long patientId) {
+        return patientDAO.findById(patientId) != null;
+    }
+
+    public void streamTimeline(Long patientId, RowHandler<EHRRecord> handler) throws SQLException, IOException {
+        recordDAO.streamTimeline(patientId, handler);
+    }
+
+    public Page<EHRRecord> getTimelinePage(Long patientId, String cursor, int limit) throws SQLException {
+        return recordDAO.findTimelinePage(patientId, cursor, limit);
+    }
+
+    // Appends a record; attachments are referenced by the hashes the attachment upload returned
+    public EHRRecord createRecord(EHRRecord record) throws SQLException {
+        validateRecord(record);
+        if (!patientExists(record.getPatientId())) {
+            throw new IllegalArgumentException("Patient not found");
+        }
+        if (record.getRecordDate() == null) {
+            record.setRecordDate(LocalDate.now());
+        }
+        List<String> attachments = new ArrayList<>();
+        if (record.getAttachments() != null) {
+            for (String hash : record.getAttachments()) {
+                if (!AttachmentStore.isHash(hash)) {
+                    throw new IllegalArgumentException("Invalid attachment hash: " + hash);
+                }
+                if (!attachments.contains(hash)) {
+                    attachments.add(hash);
+                }
+            }
+            List<String> missing = attachments.isEmpty() ? List.of() : attachmentStore.findMissing(attachments);
+            if (!missing.isEmpty()) {
+                throw new IllegalArgumentException("Unknown attachment: " + missing.get(0));
+            }
+        }
+        record.setAttachments(attachments.isEmpty() ? null : attachments);
+        record.setId(null);
+        recordDAO.insert(record);
+        // Read back for created_at, which the database assigns
+        return recordDAO.findById(record.getId());
+    }
+
+    public Attachment storeAttachment(InputStream body, String contentType, String fileName) throws IOException, SQLException {
+        return attachmentStore.store(body, contentType, fileName);
+    }
+
+    public Attachment getAttachment(String hash) {
+        return AttachmentStore.isHash(hash) ? attachmentStore.findByHash(hash) : null;
+    }
+
+    public ByteBuffer openAttachment(String hash) throws IOException {
+        return attachmentStore.open(hash);
+    }
+
+    private void validateRecord(EHRRecord record) {
+        if (record.getPatientId() == null) {
+            throw new IllegalArgumentException("Patient ID is required");
+        }
+        if (record.getType() == null) {
+            throw new IllegalArgumentException("Record type is required");
+        }
+        if (record.getTitle() == null || record.getTitle().trim().isEmpty()) {
+            throw new IllegalArgumentException("Record title is required");
+        }
+        if (record.getDescription() == null || record.getDescription().trim().isEmpty()) {
+            throw new IllegalArgumentException("Record description is required");
+        }
+        if (record.getDoctorId() == null) {
+            throw new IllegalArgumentException("Doctor ID is required");
+        }
+        if (record.getDoctorName() == null || record.getDoctorName().trim().isEmpty()) {
+            throw new IllegalArgumentException("Doctor name is required");
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.medcare.service;
+
+import com.medcare.dao.InventoryDAO;
+import com.medcare.index.ExpiryIndex;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Flags inventory lots whose expiry date has passed. Writes flag a lot that is already past its
+// date when it is saved, so the sweep only has to catch dates passing over time: it runs once at
+// start and then on an interval, and skips the database when the index holds nothing newly past
+// its date. Each sweep is one UPDATE that seeks to unflagged lots, however much stock has expired.
+public final class ExpirySweeper {
+    private static final long SWEEP_INTERVAL_MINUTES = Long.getLong("medcare.inventory.expirySweepMinutes", 60L);
+    private static final ExpirySweeper INSTANCE = new ExpirySweeper(new InventoryDAO());
+
+    private final InventoryDAO inventoryDAO;
+    private final ScheduledExecutorService sweeper;
+
+    private final LongAdder sweeps = new LongAdder();
+    private final LongAdder lotsFlagged = new LongAdder();
+    // Every lot dated before this day is flagged already
+    private volatile LocalDate sweptBefore;
+    private volatile long lastSweepMs;
+    private volatile String lastSweepError;
+
+    private ExpirySweeper(InventoryDAO inventoryDAO) {
+        this.inventoryDAO = inventoryDAO;
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "inventory-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static ExpirySweeper getInstance() {
+        return INSTANCE;
+    }
+
+    public void start() {
+        sweeper.scheduleWithFixedDelay(this::sweepQuietly, 0, SWEEP_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    public void close() {
+        sweeper.shutdownNow();
+    }
+
+    // Flags every lot dated before today; returns the number newly flagged
+    public synchronized int sweep() throws SQLException {
+        LocalDate today = LocalDate.now();
+        if (today.equals(sweptBefore)) {
+            return 0;
+        }
+        // Only lots dated from the last swept day up to yesterday can have crossed since
+        LocalDate from = sweptBefore;
+        if (from != null && ExpiryIndex.getInstance().countBetween(from, today.minusDays(1)) == 0) {
+            sweptBefore = today;
+            return 0;
+        }
+        long start = System.nanoTime();
+        int flagged = inventoryDAO.markExpiredBefore(today);
+        sweptBefore = today;
+        sweeps.increment();
+        lotsFlagged.add(flagged);
+        lastSweepMs = (System.nanoTime() - start) / 1_000_000;
+        if (flagged > 0) {
+            System.out.println("Expiry sweep flagged " + flagged + " inventory lots in " + lastSweepMs + " ms");
+        }
+        return flagged;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("indexedLots", ExpiryIndex.getInstance().size());
+        stats.put("sweeps", sweeps.sum());
+        stats.put("lotsFlagged", lotsFlagged.sum());
+        stats.put("sweptBefore", sweptBefore);
+        stats.put("lastSweepMs", lastSweepMs);
+        stats.put("sweepIntervalMinutes", SWEEP_INTERVAL_MINUTES);
+        if (lastSweepError != null) {
+            stats.put("lastSweepError", lastSweepError);
+        }
+        return stats;
+    }
+
+    private void sweepQuietly() {
+        try {
+            sweep();
+            lastSweepError = null;
+        } catch (SQLException | RuntimeException e) {
+            lastSweepError = e.getMessage();
+            System.err.println("Inventory expiry sweep failed: " + e.getMessage());
+        }
+    }
+}
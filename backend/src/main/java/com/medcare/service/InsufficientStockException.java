@@ -0,0 +1,17 @@
+package com.medcare.service;
+
+// A dispense asked for more than is on hand; nothing was taken. Controllers answer it with 409
+public class InsufficientStockException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final int available;
+
+    public InsufficientStockException(String message, int available) {
+        super(message);
+        this.available = available;
+    }
+
+    public int getAvailable() {
+        return available;
+    }
+}
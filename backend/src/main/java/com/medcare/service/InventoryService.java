@@ -0,0 +1,148 @@
+package com.medcare.service;
+
+import com.medcare.dao.InventoryDAO;
+import com.medcare.index.ExpiryIndex;
+import com.medcare.model.InventoryItem;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class InventoryService {
+    private static final int MAX_EXPIRY_DAYS = 3650;
+
+    private final InventoryDAO inventoryDAO;
+    private final StockCounters stock;
+
+    public InventoryService() {
+        this.inventoryDAO = new InventoryDAO();
+        this.stock = StockCounters.getInstance();
+    }
+
+    public List<InventoryItem> getAllItems() {
+        List<InventoryItem> items = inventoryDAO.findAll();
+        items.forEach(stock::overlay);
+        return items;
+    }
+
+    public InventoryItem getItemById(Long id) {
+        InventoryItem item = inventoryDAO.findById(id);
+        return item == null ? null : stock.overlay(item);
+    }
+
+    // Items whose live quantity is below their minimum
+    public List<InventoryItem> getLowStockItems() {
+        List<InventoryItem> low = new ArrayList<>();
+        for (InventoryItem item : getAllItems()) {
+            if (item.getQuantity() < item.getMinStock()) {
+                low.add(item);
+            }
+        }
+        return low;
+    }
+
+    // Loads every dated lot into the expiry index; DAO writes keep it current afterwards
+    public int buildExpiryIndex() throws SQLException, IOException {
+        ExpiryIndex index = ExpiryIndex.getInstance();
+        index.clear();
+        inventoryDAO.streamExpiries(item -> index.put(item.getId(), item.getExpiryDate()));
+        return index.size();
+    }
+
+    // Lots expiring from today through days ahead, soonest first; with includeExpired, lots already
+    // past their date come first. The count covers the whole window, the items at most limit of it
+    public Map<String, Object> getExpiringItems(int days, boolean includeExpired, int limit) throws SQLException {
+        if (days < 0 || days > MAX_EXPIRY_DAYS) {
+            throw new IllegalArgumentException("Days must be between 0 and " + MAX_EXPIRY_DAYS);
+        }
+        LocalDate from = includeExpired ? null : LocalDate.now();
+        LocalDate to = LocalDate.now().plusDays(days);
+        ExpiryIndex index = ExpiryIndex.getInstance();
+        List<Long> ids = index.expiringBetween(from, to, limit);
+        List<InventoryItem> items = ids.isEmpty() ? new ArrayList<>() : inventoryDAO.findByIds(ids);
+        items.forEach(stock::overlay);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("through", to);
+        result.put("count", index.countBetween(from, to));
+        result.put("items", items);
+        return result;
+    }
+
+    public List<StockCounters.LowStockAlert> getRecentAlerts() {
+        return stock.getRecentAlerts();
+    }
+
+    public InventoryItem createItem(InventoryItem item) {
+        validateItem(item);
+        item.setId(null);
+        if (inventoryDAO.save(item).getId() == null) {
+            throw new RuntimeException("Failed to create inventory item");
+        }
+        return inventoryDAO.findById(item.getId());
+    }
+
+    // Returns null when there is no such item
+    public InventoryItem updateItem(Long id, InventoryItem item) {
+        InventoryItem existing = inventoryDAO.findById(id);
+        if (existing == null) {
+            return null;
+        }
+        validateItem(item);
+        item.setId(id);
+        item.setCreatedAt(existing.getCreatedAt());
+        InventoryItem updated = inventoryDAO.save(item);
+        stock.reset(updated);
+        return updated;
+    }
+
+    public boolean deleteItem(Long id) {
+        if (!inventoryDAO.delete(id)) {
+            return false;
+        }
+        stock.forget(id);
+        return true;
+    }
+
+    // Returns the level left, or null when there is no such item; throws InsufficientStockException,
+    // taking nothing, when less than quantity is on hand. Only touches the database on first use of the item
+    public Integer dispense(Long id, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        return stock.dispense(id, quantity);
+    }
+
+    public Integer restock(Long id, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        return stock.restock(id, quantity);
+    }
+
+    private void validateItem(InventoryItem item) {
+        if (item.getName() == null || item.getName().trim().isEmpty()) {
+            throw new IllegalArgumentException("Item name is required");
+        }
+        if (item.getCategory() == null) {
+            throw new IllegalArgumentException("Item category is required");
+        }
+        if (item.getUnit() == null || item.getUnit().trim().isEmpty()) {
+            throw new IllegalArgumentException("Item unit is required");
+        }
+        if (item.getSupplier() == null || item.getSupplier().trim().isEmpty()) {
+            throw new IllegalArgumentException("Item supplier is required");
+        }
+        if (item.getLocation() == null || item.getLocation().trim().isEmpty()) {
+            throw new IllegalArgumentException("Item location is required");
+        }
+        if (item.getCost() == null || item.getCost().signum() < 0) {
+            throw new IllegalArgumentException("Item cost of zero or more is required");
+        }
+        if (item.getQuantity() < 0 || item.getMinStock() < 0) {
+            throw new IllegalArgumentException("Quantity and minimum stock cannot be negative");
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.medcare.service;
+
+import com.medcare.dao.PatientDAO;
+import com.medcare.model.Patient;
+import com.medcare.util.CsvReader;
+import com.medcare.util.JsonParseException;
+import com.medcare.util.JsonUtil;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+// Reads patients from an NDJSON or CSV upload one row at a time and inserts them in chunks,
+// so memory stays bounded by the chunk size however large the upload is. Rows failing
+// validation or rejected by the database are reported and skipped; the rest are imported.
+class PatientImporter {
+    enum Format { NDJSON, CSV }
+
+    private static final String[] CSV_COLUMNS = {
+        "name", "email", "phone", "dateofbirth", "gender", "address",
+        "emergencycontact", "bloodtype", "allergies", "medications"
+    };
+
+    private final PatientDAO patientDAO;
+    private final Consumer<Patient> validator;
+    private final int chunkSize;
+    private final BulkImportResult result = new BulkImportResult();
+    private final List<Patient> chunk = new ArrayList<>();
+    private final List<Long> chunkRows = new ArrayList<>();
+
+    PatientImporter(PatientDAO patientDAO, Consumer<Patient> validator, int chunkSize) {
+        this.patientDAO = patientDAO;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+    }
+
+    BulkImportResult run(InputStream body, Format format) throws IOException, SQLException {
+        long start = System.nanoTime();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), 64 * 1024);
+        if (format == Format.CSV) {
+            readCsv(new CsvReader(reader));
+        } else {
+            readNdjson(reader);
+        }
+        flush();
+        result.finish(System.nanoTime() - start);
+        return result;
+    }
+
+    private void readNdjson(BufferedReader reader) throws IOException, SQLException {
+        long row = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            row++;
+            if (line.isBlank()) {
+                continue;
+            }
+            Patient patient;
+            try {
+                patient = JsonUtil.fromJson(line, Patient.class);
+            } catch (JsonParseException e) {
+                result.recordFailure(row, "Invalid JSON: " + e.getMessage());
+                continue;
+            }
+            // A line that is literally null binds to no patient at all
+            if (patient == null) {
+                result.recordFailure(row, "Invalid JSON: expected a JSON object");
+                continue;
+            }
+            patient.setId(null);
+            add(row, patient);
+        }
+    }
+
+    private void readCsv(CsvReader reader) throws IOException, SQLException {
+        String[] header = reader.next();
+        if (header == null) {
+            return;
+        }
+        // Column position -> index into CSV_COLUMNS; names match case-insensitively, with or without '_'
+        int[] columns = new int[header.length];
+        for (int i = 0; i < header.length; i++) {
+            String name = header[i].trim().toLowerCase(Locale.ROOT).replace("_", "").replace(" ", "");
+            columns[i] = Arrays.asList(CSV_COLUMNS).indexOf(name);
+            if (columns[i] < 0) {
+                throw new IllegalArgumentException("Unknown CSV column: " + header[i]);
+            }
+        }
+
+        long row = 1;
+        String[] record;
+        while ((record = nextRecord(reader, row + 1)) != null) {
+            row++;
+            if (record.length == 0) {
+                continue;
+            }
+            if (record.length != columns.length) {
+                result.recordFailure(row, "Expected " + columns.length + " fields, found " + record.length);
+                continue;
+            }
+            Patient patient = new Patient();
+            try {
+                for (int i = 0; i < record.length; i++) {
+                    setColumn(patient, columns[i], record[i].trim());
+                }
+            } catch (DateTimeParseException e) {
+                result.recordFailure(row, "Invalid date of birth, expected yyyy-mm-dd");
+                continue;
+            } catch (IllegalArgumentException e) {
+                result.recordFailure(row, e.getMessage());
+                continue;
+            }
+            add(row, patient);
+        }
+    }
+
+    private String[] nextRecord(CsvReader reader, long row) throws IOException {
+        try {
+            return reader.next();
+        } catch (IllegalArgumentException e) {
+            // An unterminated quote swallows the rest of the upload, nothing after it is readable
+            result.recordFailure(row, e.getMessage());
+            return null;
+        }
+    }
+
+    private static void setColumn(Patient patient, int column, String value) {
+        if (value.isEmpty()) {
+            return;
+        }
+        switch (column) {
+            case 0 -> patient.setName(value);
+            case 1 -> patient.setEmail(value);
+            case 2 -> patient.setPhone(value);
+            case 3 -> patient.setDateOfBirth(LocalDate.parse(value));
+            case 4 -> patient.setGender(parseGender(value));
+            case 5 -> patient.setAddress(value);
+            case 6 -> patient.setEmergencyContact(value);
+            case 7 -> patient.setBloodType(value);
+            // Lists are ';'-separated inside their column
+            case 8 -> patient.setAllergies(Arrays.asList(value.split("\\s*;\\s*")));
+            case 9 -> patient.setMedications(Arrays.asList(value.split("\\s*;\\s*")));
+            default -> throw new IllegalStateException("Unmapped column " + column);
+        }
+    }
+
+    private static Patient.Gender parseGender(String value) {
+        try {
+            return Patient.Gender.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid gender \"" + value + "\"");
+        }
+    }
+
+    private void add(long row, Patient patient) throws SQLException {
+        try {
+            validator.accept(patient);
+        } catch (RuntimeException e) {
+            result.recordFailure(row, e.getMessage());
+            return;
+        }
+        chunk.add(patient);
+        chunkRows.add(row);
+        if (chunk.size() >= chunkSize) {
+            flush();
+        }
+    }
+
+    private void flush() throws SQLException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        String[] errors = patientDAO.insertBatch(chunk);
+        int inserted = 0;
+        for (int i = 0; i < errors.length; i++) {
+            if (errors[i] == null) {
+                inserted++;
+            } else {
+                result.recordFailure(chunkRows.get(i), errors[i]);
+            }
+        }
+        result.recordImported(inserted);
+        chunk.clear();
+        chunkRows.clear();
+    }
+}
@@ -1,10 +1,21 @@
 package com.medcare.service;
 
 import com.medcare.dao.PatientDAO;
+import com.medcare.dao.Page;
+import com.medcare.dao.RowHandler;
+import com.medcare.index.PatientSearchIndex;
 import com.medcare.model.Patient;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 public class PatientService {
+    public static final int DEFAULT_IMPORT_CHUNK_SIZE = Integer.getInteger("medcare.import.chunkSize", 1000);
+    public static final int MAX_IMPORT_CHUNK_SIZE = 10_000;
+    
     private final PatientDAO patientDAO;
     
     public PatientService() {
@@ -15,6 +26,18 @@ public class PatientService {
         return patientDAO.findAll();
     }
     
+    public void streamAllPatients(RowHandler<Patient> handler) throws SQLException, IOException {
+        patientDAO.streamAll(handler);
+    }
+    
+    public long getPatientWriteCount() {
+        return patientDAO.writeCount();
+    }
+    
+    public Page<Patient> getPatientsPage(String cursor, int limit) throws SQLException {
+        return patientDAO.findPage(cursor, limit);
+    }
+    
     public Patient getPatientById(Long id) {
         return patientDAO.findById(id);
     }
@@ -23,11 +46,41 @@ public class PatientService {
         return patientDAO.searchByName(name);
     }
     
+    // Ranked matches on name, email, phone and address from the in-memory index
+    public List<PatientSearchIndex.Hit> quickSearch(String query, int limit) {
+        return PatientSearchIndex.getInstance().search(query, limit);
+    }
+    
+    // Loads every patient into the search index; DAO writes keep it current afterwards
+    public int buildSearchIndex() throws SQLException, IOException {
+        List<Patient> patients = new ArrayList<>();
+        patientDAO.streamAll(patients::add);
+        PatientSearchIndex.getInstance().rebuild(patients);
+        return patients.size();
+    }
+    
     public Patient createPatient(Patient patient) {
         validatePatient(patient);
         return patientDAO.save(patient);
     }
     
+    // Streams "ndjson" or "csv" rows from the body into the database, chunkSize rows per batch and transaction
+    public BulkImportResult importPatients(InputStream body, String format, int chunkSize) throws IOException, SQLException {
+        PatientImporter.Format parsed;
+        try {
+            parsed = PatientImporter.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported format: " + format);
+        }
+        return new PatientImporter(patientDAO, patient -> {
+            validatePatient(patient);
+            // Single creates leave this to the database; a batch binds every row up front
+            if (patient.getGender() == null) {
+                throw new RuntimeException("Patient gender is required");
+            }
+        }, chunkSize).run(body, parsed);
+    }
+    
     public Patient updatePatient(Long id, Patient patient) {
         Patient existingPatient = patientDAO.findById(id);
         if (existingPatient == null) {
@@ -35,6 +88,7 @@ public class PatientService {
         }
         
         patient.setId(id);
+        patient.setCreatedAt(existingPatient.getCreatedAt());
         validatePatient(patient);
         return patientDAO.save(patient);
     }
@@ -0,0 +1,17 @@
+package com.medcare.service;
+
+// The doctor already has an overlapping booking; controllers answer it with 409
+public class ScheduleConflictException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final Long conflictingAppointmentId;
+
+    public ScheduleConflictException(String message, Long conflictingAppointmentId) {
+        super(message);
+        this.conflictingAppointmentId = conflictingAppointmentId;
+    }
+
+    public Long getConflictingAppointmentId() {
+        return conflictingAppointmentId;
+    }
+}
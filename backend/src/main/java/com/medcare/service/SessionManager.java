@@ -0,0 +1,200 @@
+package com.medcare.service;
+
+import com.medcare.dao.SessionRevocationDAO;
+import com.medcare.model.User;
+import com.medcare.util.TtlCache;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+// Issues and verifies self-contained session tokens: base64url(claims) "." base64url(HMAC-SHA256).
+// Verification needs no database access; verified sessions are kept in a bounded TTL cache,
+// and logout / role changes are enforced through in-memory revocation lists. The lists are written
+// through to the database and reloaded on start, so they outlive the process as signed tokens can.
+public class SessionManager {
+    private static final long TOKEN_TTL_MS = Long.getLong("medcare.auth.tokenTtlMinutes", 480L) * 60_000L;
+    private static final int CACHE_SIZE = Integer.getInteger("medcare.auth.sessionCacheSize", 10_000);
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecureRandom random = new SecureRandom();
+    private final ThreadLocal<Mac> macs;
+    private final TtlCache<String, Session> verified = new TtlCache<>(CACHE_SIZE, TOKEN_TTL_MS);
+    private final SessionRevocationDAO revocations = new SessionRevocationDAO();
+    // Session id -> expiry of the revoked token, kept only until the token would have expired anyway
+    private final Map<String, Long> revokedSessions = new ConcurrentHashMap<>();
+    // User id -> tokens issued at or before this instant are no longer accepted
+    private final Map<Long, Long> userNotBefore = new ConcurrentHashMap<>();
+
+    public SessionManager() {
+        revokedSessions.putAll(revocations.findRevokedSessions(System.currentTimeMillis()));
+        userNotBefore.putAll(revocations.findUserCutoffs());
+        byte[] key = loadSecret();
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance("HmacSHA256");
+                mac.init(new SecretKeySpec(key, "HmacSHA256"));
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 unavailable", e);
+            }
+        });
+    }
+
+    private byte[] loadSecret() {
+        String configured = System.getProperty("medcare.auth.secret");
+        if (configured != null && !configured.isEmpty()) {
+            return configured.getBytes(StandardCharsets.UTF_8);
+        }
+        System.out.println("No medcare.auth.secret configured, generated a random signing key; "
+            + "issued tokens will not survive a restart");
+        byte[] key = new byte[32];
+        random.nextBytes(key);
+        return key;
+    }
+
+    public String issue(User user) {
+        byte[] nonce = new byte[12];
+        random.nextBytes(nonce);
+        long issuedAt = System.currentTimeMillis();
+        Session session = new Session(ENCODER.encodeToString(nonce), user.getId(), user.getRole(),
+            user.getName(), user.getEmail(), issuedAt, issuedAt + TOKEN_TTL_MS);
+
+        String claims = session.sessionId + ":" + session.userId + ":" + session.role.name() + ":"
+            + session.issuedAt + ":" + session.expiresAt;
+        String payload = ENCODER.encodeToString(claims.getBytes(StandardCharsets.UTF_8));
+        String token = payload + "." + ENCODER.encodeToString(sign(payload));
+        verified.put(token, session, session.expiresAt);
+        return token;
+    }
+
+    // Returns the session for a valid, unexpired and unrevoked token, otherwise null
+    public Session verify(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        Session session = verified.get(token);
+        if (session == null) {
+            session = decode(token);
+            if (session == null) {
+                return null;
+            }
+            verified.put(token, session, session.expiresAt);
+        }
+        return isActive(session) ? session : null;
+    }
+
+    public boolean revoke(String token) {
+        Session session = verify(token);
+        if (session == null) {
+            return false;
+        }
+        purgeExpiredRevocations();
+        revokedSessions.put(session.sessionId, session.expiresAt);
+        revocations.revokeSession(session.sessionId, session.expiresAt);
+        verified.remove(token);
+        return true;
+    }
+
+    // Invalidates every token issued to the user so far, e.g. after a role change
+    public void revokeUser(Long userId) {
+        // A token issued in the same millisecond, before or after, is refused too: issuedAt cannot tell them apart
+        long notBefore = userNotBefore.merge(userId, System.currentTimeMillis(), Math::max);
+        revocations.revokeUser(userId, notBefore);
+        verified.removeIf(session -> session.userId.equals(userId));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = verified.getStats();
+        stats.put("revokedSessions", revokedSessions.size());
+        return stats;
+    }
+
+    private boolean isActive(Session session) {
+        if (session.expiresAt <= System.currentTimeMillis() || revokedSessions.containsKey(session.sessionId)) {
+            return false;
+        }
+        Long notBefore = userNotBefore.get(session.userId);
+        return notBefore == null || session.issuedAt > notBefore;
+    }
+
+    private Session decode(String token) {
+        int dot = token.lastIndexOf('.');
+        if (dot <= 0) {
+            return null;
+        }
+        String payload = token.substring(0, dot);
+        try {
+            byte[] signature = DECODER.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(signature, sign(payload))) {
+                return null;
+            }
+            String[] claims = new String(DECODER.decode(payload), StandardCharsets.UTF_8).split(":");
+            if (claims.length != 5) {
+                return null;
+            }
+            return new Session(claims[0], Long.parseLong(claims[1]), User.Role.valueOf(claims[2]),
+                null, null, Long.parseLong(claims[3]), Long.parseLong(claims[4]));
+        } catch (IllegalArgumentException e) {
+            // Malformed base64, number or role
+            return null;
+        }
+    }
+
+    private byte[] sign(String payload) {
+        return macs.get().doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private void purgeExpiredRevocations() {
+        long now = System.currentTimeMillis();
+        Iterator<Long> it = revokedSessions.values().iterator();
+        while (it.hasNext()) {
+            if (it.next() <= now) {
+                it.remove();
+            }
+        }
+        revocations.purgeExpiredSessions(now);
+    }
+
+    public static final class Session {
+        private final String sessionId;
+        private final Long userId;
+        private final User.Role role;
+        private final String name;
+        private final String email;
+        private final long issuedAt;
+        private final long expiresAt;
+
+        Session(String sessionId, Long userId, User.Role role, String name, String email,
+                long issuedAt, long expiresAt) {
+            this.sessionId = sessionId;
+            this.userId = userId;
+            this.role = role;
+            this.name = name;
+            this.email = email;
+            this.issuedAt = issuedAt;
+            this.expiresAt = expiresAt;
+        }
+
+        public Long getUserId() { return userId; }
+        public User.Role getRole() { return role; }
+        public long getExpiresAt() { return expiresAt; }
+
+        // Name and email are only known for sessions issued by this process
+        public User toUser() {
+            User user = new User();
+            user.setId(userId);
+            user.setRole(role);
+            user.setName(name);
+            user.setEmail(email);
+            return user;
+        }
+    }
+}
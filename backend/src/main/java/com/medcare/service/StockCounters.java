@@ -0,0 +1,281 @@
+package com.medcare.service;
+
+import com.medcare.dao.InventoryDAO;
+import com.medcare.model.InventoryItem;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Live stock levels. Each item has its own atomic counter, loaded from the inventory table on
+// first use; dispensing is a compare-and-set loop that never takes more than is on hand, so
+// stock cannot go negative and concurrent dispenses of different items never contend. Changed
+// counters are marked dirty and written back by a background flusher as one batch per interval,
+// however many dispenses happened in between. Until a flush the table lags the counters, which
+// is why reads overlay the live value; a crash loses at most one interval of stock movements.
+public final class StockCounters {
+    private static final long FLUSH_INTERVAL_MS = Long.getLong("medcare.inventory.flushIntervalMs", 500L);
+    private static final int FLUSH_BATCH_SIZE = 1000;
+    private static final int MAX_ALERTS = Integer.getInteger("medcare.inventory.maxAlerts", 100);
+    private static final StockCounters INSTANCE = new StockCounters(new InventoryDAO());
+
+    private final InventoryDAO inventoryDAO;
+    private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+    private final Deque<LowStockAlert> alerts = new ArrayDeque<>();
+
+    private final LongAdder dispenses = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    // Alerts ever raised; the list above only keeps the latest MAX_ALERTS
+    private final LongAdder lowStockAlerts = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder rowsFlushed = new LongAdder();
+    private volatile long lastFlushMs;
+    private volatile String lastFlushError;
+
+    private StockCounters(InventoryDAO inventoryDAO) {
+        this.inventoryDAO = inventoryDAO;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "inventory-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public static StockCounters getInstance() {
+        return INSTANCE;
+    }
+
+    // Takes amount from the item's stock and returns what is left, or null when there is no such item
+    public Integer dispense(Long itemId, int amount) {
+        Counter counter = counter(itemId);
+        if (counter == null) {
+            return null;
+        }
+        while (true) {
+            int current = counter.quantity.get();
+            if (current < amount) {
+                rejected.increment();
+                throw new InsufficientStockException("Only " + current + " " + counter.name + " on hand", current);
+            }
+            int next = current - amount;
+            if (counter.quantity.compareAndSet(current, next)) {
+                counter.dirty.set(true);
+                dispenses.increment();
+                // Exactly one dispense sees the crossing, so each drop below minimum alerts once
+                if (current >= counter.minStock && next < counter.minStock) {
+                    lowStock(counter, next);
+                }
+                return next;
+            }
+        }
+    }
+
+    // Adds amount to the item's stock and returns the new level, or null when there is no such item
+    public Integer restock(Long itemId, int amount) {
+        Counter counter = counter(itemId);
+        if (counter == null) {
+            return null;
+        }
+        while (true) {
+            int current = counter.quantity.get();
+            if (amount > Integer.MAX_VALUE - current) {
+                throw new IllegalArgumentException("Stock level would exceed " + Integer.MAX_VALUE);
+            }
+            if (counter.quantity.compareAndSet(current, current + amount)) {
+                counter.dirty.set(true);
+                return current + amount;
+            }
+        }
+    }
+
+    // After the item row was written directly: its quantity is a stock count that replaces the live level
+    public void reset(InventoryItem item) {
+        Counter counter = counters.get(item.getId());
+        if (counter == null) {
+            return;
+        }
+        counter.name = item.getName();
+        counter.minStock = item.getMinStock();
+        counter.quantity.set(item.getQuantity());
+        // A flush that read the old level may land after the row was written; flushing again repairs it
+        counter.dirty.set(true);
+    }
+
+    public void forget(Long itemId) {
+        counters.remove(itemId);
+    }
+
+    // Replaces the stored quantity with the live one where a counter exists
+    public InventoryItem overlay(InventoryItem item) {
+        Counter counter = counters.get(item.getId());
+        if (counter != null) {
+            item.setQuantity(counter.quantity.get());
+        }
+        return item;
+    }
+
+    public List<LowStockAlert> getRecentAlerts() {
+        synchronized (alerts) {
+            return new ArrayList<>(alerts);
+        }
+    }
+
+    // Writes every dirty counter back in batches; returns the number of rows written
+    public synchronized int flush() throws SQLException {
+        long start = System.nanoTime();
+        long[] ids = new long[FLUSH_BATCH_SIZE];
+        int[] quantities = new int[FLUSH_BATCH_SIZE];
+        Counter[] batch = new Counter[FLUSH_BATCH_SIZE];
+        int count = 0;
+        int written = 0;
+        for (Counter counter : counters.values()) {
+            // Clear before reading: a dispense landing after the read marks it dirty again
+            if (!counter.dirty.compareAndSet(true, false)) {
+                continue;
+            }
+            ids[count] = counter.itemId;
+            quantities[count] = counter.quantity.get();
+            batch[count++] = counter;
+            if (count == FLUSH_BATCH_SIZE) {
+                written += writeBatch(ids, quantities, batch, count);
+                count = 0;
+            }
+        }
+        if (count > 0) {
+            written += writeBatch(ids, quantities, batch, count);
+        }
+        if (written > 0) {
+            flushes.increment();
+            rowsFlushed.add(written);
+            lastFlushMs = (System.nanoTime() - start) / 1_000_000;
+        }
+        return written;
+    }
+
+    // Stops the schedule and writes what is still pending before the pool closes
+    public void close() {
+        flusher.shutdownNow();
+        flushQuietly();
+    }
+
+    public Map<String, Object> getStats() {
+        int dirty = 0;
+        for (Counter counter : counters.values()) {
+            if (counter.dirty.get()) {
+                dirty++;
+            }
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("counters", counters.size());
+        stats.put("pendingFlush", dirty);
+        stats.put("dispenses", dispenses.sum());
+        stats.put("rejectedDispenses", rejected.sum());
+        stats.put("lowStockAlerts", lowStockAlerts.sum());
+        stats.put("flushes", flushes.sum());
+        stats.put("rowsFlushed", rowsFlushed.sum());
+        stats.put("lastFlushMs", lastFlushMs);
+        stats.put("flushIntervalMs", FLUSH_INTERVAL_MS);
+        if (lastFlushError != null) {
+            stats.put("lastFlushError", lastFlushError);
+        }
+        return stats;
+    }
+
+    private int writeBatch(long[] ids, int[] quantities, Counter[] batch, int count) throws SQLException {
+        try {
+            inventoryDAO.updateQuantities(ids, quantities, count);
+            return count;
+        } catch (SQLException e) {
+            for (int i = 0; i < count; i++) {
+                batch[i].dirty.set(true);
+            }
+            throw e;
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+            lastFlushError = null;
+        } catch (SQLException | RuntimeException e) {
+            lastFlushError = e.getMessage();
+            System.err.println("Inventory flush failed: " + e.getMessage());
+        }
+    }
+
+    // Loaded outside the map so a slow query does not block other items; a fresh counter is
+    // identical whichever concurrent load wins, since nothing has changed it yet
+    private Counter counter(Long itemId) {
+        Counter counter = counters.get(itemId);
+        if (counter != null) {
+            return counter;
+        }
+        InventoryItem item = inventoryDAO.findById(itemId);
+        if (item == null) {
+            return null;
+        }
+        Counter loaded = new Counter(itemId, item);
+        Counter raced = counters.putIfAbsent(itemId, loaded);
+        return raced != null ? raced : loaded;
+    }
+
+    private void lowStock(Counter counter, int quantity) {
+        LowStockAlert alert = new LowStockAlert(counter.itemId, counter.name, quantity, counter.minStock);
+        lowStockAlerts.increment();
+        synchronized (alerts) {
+            alerts.addFirst(alert);
+            if (alerts.size() > MAX_ALERTS) {
+                alerts.removeLast();
+            }
+        }
+    }
+
+    private static final class Counter {
+        private final Long itemId;
+        private final AtomicInteger quantity;
+        private final AtomicBoolean dirty = new AtomicBoolean();
+        private volatile String name;
+        private volatile int minStock;
+
+        Counter(Long itemId, InventoryItem item) {
+            this.itemId = itemId;
+            this.quantity = new AtomicInteger(item.getQuantity());
+            this.name = item.getName();
+            this.minStock = item.getMinStock();
+        }
+    }
+
+    public static final class LowStockAlert {
+        private final Long itemId;
+        private final String name;
+        private final int quantity;
+        private final int minStock;
+        private final LocalDateTime at = LocalDateTime.now();
+
+        LowStockAlert(Long itemId, String name, int quantity, int minStock) {
+            this.itemId = itemId;
+            this.name = name;
+            this.quantity = quantity;
+            this.minStock = minStock;
+        }
+
+        public Long getItemId() { return itemId; }
+        public String getName() { return name; }
+        public int getQuantity() { return quantity; }
+        public int getMinStock() { return minStock; }
+        public LocalDateTime getAt() { return at; }
+    }
+}
@@ -0,0 +1,23 @@
+package com.medcare.service;
+
+import com.medcare.dao.Page;
+import com.medcare.dao.UserDAO;
+import com.medcare.model.User;
+import java.sql.SQLException;
+
+public class UserService {
+    private final UserDAO userDAO;
+    
+    public UserService() {
+        this.userDAO = new UserDAO();
+    }
+    
+    public Page<User> getUsersPage(String cursor, int limit) throws SQLException {
+        Page<User> page = userDAO.findPage(cursor, limit);
+        // Never expose stored passwords through the listing
+        for (User user : page.getItems()) {
+            user.setPassword(null);
+        }
+        return page;
+    }
+}
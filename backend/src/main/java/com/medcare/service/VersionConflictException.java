@@ -0,0 +1,17 @@
+package com.medcare.service;
+
+// The row changed since the version the client based its update on; controllers answer it with 409
+public class VersionConflictException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final int currentVersion;
+
+    public VersionConflictException(String message, int currentVersion) {
+        super(message);
+        this.currentVersion = currentVersion;
+    }
+
+    public int getCurrentVersion() {
+        return currentVersion;
+    }
+}
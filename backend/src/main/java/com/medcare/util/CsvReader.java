@@ -0,0 +1,89 @@
+package com.medcare.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+// Streaming RFC 4180 reader: comma separated, fields optionally double-quoted, "" escapes a
+// quote inside a quoted field, and quoted fields may span lines. Records end at LF or CRLF.
+public class CsvReader {
+    private final Reader in;
+    private final char[] buffer = new char[8192];
+    private int pos;
+    private int limit;
+    private final StringBuilder field = new StringBuilder(64);
+
+    public CsvReader(Reader in) {
+        this.in = in;
+    }
+
+    // Fields of the next record, or null at end of input. Blank lines yield an empty array
+    public String[] next() throws IOException {
+        int c = read();
+        if (c < 0) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        if (c == '\n' || (c == '\r' && skipLineFeed())) {
+            return new String[0];
+        }
+        while (true) {
+            field.setLength(0);
+            if (c == '"') {
+                c = readQuoted();
+            }
+            // Unquoted text, or anything stray after a closing quote, runs to the delimiter
+            while (c >= 0 && c != ',' && c != '\n' && c != '\r') {
+                field.append((char) c);
+                c = read();
+            }
+            fields.add(field.toString());
+            if (c == ',') {
+                c = read();
+                continue;
+            }
+            if (c == '\r') {
+                skipLineFeed();
+            }
+            return fields.toArray(new String[0]);
+        }
+    }
+
+    // Reads up to the closing quote and returns the character after it
+    private int readQuoted() throws IOException {
+        while (true) {
+            int c = read();
+            if (c < 0) {
+                throw new IllegalArgumentException("Unterminated quoted field");
+            }
+            if (c == '"') {
+                c = read();
+                if (c != '"') {
+                    return c;
+                }
+            }
+            field.append((char) c);
+        }
+    }
+
+    private boolean skipLineFeed() throws IOException {
+        int c = read();
+        if (c != '\n' && c >= 0) {
+            pos--;
+        }
+        return true;
+    }
+
+    private int read() throws IOException {
+        if (pos == limit) {
+            limit = in.read(buffer, 0, buffer.length);
+            pos = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[pos++];
+    }
+}
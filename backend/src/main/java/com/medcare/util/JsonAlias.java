@@ -0,0 +1,13 @@
+package com.medcare.util;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Extra JSON property names accepted when binding request bodies into a model field
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface JsonAlias {
+    String[] value();
+}
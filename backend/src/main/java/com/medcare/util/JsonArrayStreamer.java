@@ -0,0 +1,45 @@
+package com.medcare.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+// Writes a JSON array element by element to an OutputStream, flushing the
+// underlying buffer in fixed-size pieces so memory use stays constant.
+public class JsonArrayStreamer {
+    private static final int FLUSH_THRESHOLD = 16 * 1024;
+    
+    private final OutputStream out;
+    private final JsonWriter writer = new JsonWriter(FLUSH_THRESHOLD * 2);
+    private boolean first = true;
+    
+    public JsonArrayStreamer(OutputStream out) {
+        this.out = out;
+        writer.writeByte('[');
+    }
+    
+    public void write(Object element) throws IOException {
+        if (first) {
+            // Push the first row out straight away so the client sees bytes immediately
+            JsonSerializer.write(element, writer);
+            flush();
+            out.flush();
+            first = false;
+            return;
+        }
+        writer.writeByte(',');
+        JsonSerializer.write(element, writer);
+        if (writer.size() >= FLUSH_THRESHOLD) {
+            flush();
+        }
+    }
+    
+    public void finish() throws IOException {
+        writer.writeByte(']');
+        flush();
+    }
+    
+    private void flush() throws IOException {
+        writer.writeTo(out);
+        writer.reset();
+    }
+}
@@ -0,0 +1,262 @@
+package com.medcare.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Binds JSON objects straight from a JsonReader into model classes through their
+// public setters, without an intermediate Map. A bind plan is built once per class.
+public final class JsonBinder {
+    private static final ClassValue<BindPlan> PLANS = new ClassValue<>() {
+        @Override
+        protected BindPlan computeValue(Class<?> type) {
+            return BindPlan.build(type);
+        }
+    };
+
+    private JsonBinder() {}
+
+    public static <T> T bind(JsonReader reader, Class<T> type) {
+        if (reader.peek() == JsonReader.Token.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return type.cast(PLANS.get(type).read(reader));
+    }
+
+    @FunctionalInterface
+    private interface ValueReader {
+        Object read(JsonReader reader, String property);
+    }
+
+    private static final class BindPlan {
+        private final MethodHandle constructor;
+        private final Map<String, Property> properties;
+
+        private BindPlan(MethodHandle constructor, Map<String, Property> properties) {
+            this.constructor = constructor;
+            this.properties = properties;
+        }
+
+        Object read(JsonReader reader) {
+            Object target;
+            try {
+                target = constructor.invoke();
+            } catch (Throwable t) {
+                throw new IllegalStateException("Cannot instantiate bind target", t);
+            }
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                Property property = properties.get(name);
+                if (property == null) {
+                    reader.skipValue();
+                } else {
+                    property.read(reader, target);
+                }
+            }
+            reader.endObject();
+            return target;
+        }
+
+        static BindPlan build(Class<?> type) {
+            MethodHandle constructor;
+            try {
+                Constructor<?> noArgs = type.getConstructor();
+                constructor = MethodHandles.publicLookup().unreflectConstructor(noArgs);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalArgumentException(type.getName() + " has no public no-arg constructor", e);
+            }
+
+            Map<String, Property> properties = new HashMap<>();
+            for (Method method : type.getMethods()) {
+                if (!method.getName().startsWith("set") || method.getName().length() == 3
+                        || method.getParameterCount() != 1 || Modifier.isStatic(method.getModifiers())) {
+                    continue;
+                }
+                String name = Character.toLowerCase(method.getName().charAt(3)) + method.getName().substring(4);
+                Property property;
+                try {
+                    MethodHandle setter = MethodHandles.publicLookup().unreflect(method)
+                        .asType(MethodType.methodType(void.class, Object.class, Object.class));
+                    Type parameterType = method.getGenericParameterTypes()[0];
+                    property = new Property(name, setter, readerFor(parameterType),
+                        method.getParameterTypes()[0].isPrimitive());
+                } catch (IllegalAccessException | IllegalArgumentException e) {
+                    continue;
+                }
+                properties.put(name, property);
+                for (String alias : aliasesOf(type, name)) {
+                    properties.put(alias, property);
+                }
+            }
+            return new BindPlan(constructor, properties);
+        }
+
+        private static String[] aliasesOf(Class<?> type, String name) {
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                try {
+                    Field field = c.getDeclaredField(name);
+                    JsonAlias alias = field.getAnnotation(JsonAlias.class);
+                    return alias != null ? alias.value() : new String[0];
+                } catch (NoSuchFieldException e) {
+                    // Keep looking in the superclass
+                }
+            }
+            return new String[0];
+        }
+    }
+
+    private static final class Property {
+        private final String name;
+        private final MethodHandle setter;
+        private final ValueReader valueReader;
+        private final boolean primitive;
+
+        Property(String name, MethodHandle setter, ValueReader valueReader, boolean primitive) {
+            this.name = name;
+            this.setter = setter;
+            this.valueReader = valueReader;
+            this.primitive = primitive;
+        }
+
+        void read(JsonReader reader, Object target) {
+            Object value;
+            if (reader.peek() == JsonReader.Token.NULL) {
+                reader.nextNull();
+                if (primitive) return;
+                value = null;
+            } else {
+                value = valueReader.read(reader, name);
+            }
+            try {
+                setter.invokeExact(target, value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException("Failed to set property " + name, t);
+            }
+        }
+    }
+
+    private static ValueReader readerFor(Type type) {
+        if (type instanceof ParameterizedType) {
+            ParameterizedType parameterized = (ParameterizedType) type;
+            if (parameterized.getRawType() == List.class) {
+                return listReader(parameterized.getActualTypeArguments()[0]);
+            }
+            throw new IllegalArgumentException("Unsupported property type " + type);
+        }
+        if (!(type instanceof Class)) {
+            throw new IllegalArgumentException("Unsupported property type " + type);
+        }
+
+        Class<?> raw = (Class<?>) type;
+        if (raw == String.class) {
+            return (reader, property) -> reader.nextString();
+        }
+        if (raw == Long.class || raw == long.class) {
+            return (reader, property) -> reader.nextLong();
+        }
+        if (raw == Integer.class || raw == int.class) {
+            return (reader, property) -> {
+                long value = reader.nextLong();
+                if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+                    throw new JsonParseException("Value out of range for " + property);
+                }
+                return (int) value;
+            };
+        }
+        if (raw == BigDecimal.class) {
+            return (reader, property) -> reader.nextDecimal();
+        }
+        if (raw == Boolean.class || raw == boolean.class) {
+            return (reader, property) -> reader.nextBoolean();
+        }
+        if (raw == LocalDate.class) {
+            return (reader, property) -> parseTemporal(reader, property, LocalDate::parse);
+        }
+        if (raw == LocalTime.class) {
+            return (reader, property) -> parseTemporal(reader, property, LocalTime::parse);
+        }
+        if (raw == LocalDateTime.class) {
+            return (reader, property) -> parseTemporal(reader, property, LocalDateTime::parse);
+        }
+        if (raw.isEnum()) {
+            return enumReader(raw);
+        }
+        if (raw == Object.class || raw == Map.class) {
+            return (reader, property) -> reader.readValue();
+        }
+        return (reader, property) -> PLANS.get(raw).read(reader);
+    }
+
+    private static ValueReader listReader(Type elementType) {
+        ValueReader elementReader = readerFor(elementType);
+        boolean stringElements = elementType == String.class;
+        return (reader, property) -> {
+            // The frontend historically sends string lists as one comma-separated value
+            if (stringElements && reader.peek() == JsonReader.Token.STRING) {
+                return new ArrayList<>(Arrays.asList(reader.nextString().split(",")));
+            }
+            List<Object> list = new ArrayList<>();
+            reader.beginArray();
+            while (reader.hasNext()) {
+                if (reader.peek() == JsonReader.Token.NULL) {
+                    reader.nextNull();
+                    list.add(null);
+                } else {
+                    list.add(elementReader.read(reader, property));
+                }
+            }
+            reader.endArray();
+            return list;
+        };
+    }
+
+    private static ValueReader enumReader(Class<?> type) {
+        Map<String, Object> constants = new HashMap<>();
+        for (Object constant : type.getEnumConstants()) {
+            constants.put(((Enum<?>) constant).name(), constant);
+        }
+        return (reader, property) -> {
+            String text = reader.nextString();
+            Object constant = constants.get(text.toUpperCase(Locale.ROOT).replace('-', '_'));
+            if (constant == null) {
+                throw new JsonParseException("Invalid value \"" + text + "\" for " + property);
+            }
+            return constant;
+        };
+    }
+
+    private interface TemporalParser {
+        Object parse(String text);
+    }
+
+    private static Object parseTemporal(JsonReader reader, String property, TemporalParser parser) {
+        String text = reader.nextString();
+        try {
+            return parser.parse(text);
+        } catch (DateTimeParseException e) {
+            throw new JsonParseException("Invalid value \"" + text + "\" for " + property);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.medcare.util;
+
+// Malformed or unbindable JSON in a request body; controllers answer it with 400
+public class JsonParseException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public JsonParseException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,520 @@
+package com.medcare.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Single-pass pull parser over a character stream. The reader keeps its own buffer and a
+// scope stack, and no intermediate Strings are created for structure; only string and number
+// values are materialized. Pulling tokens never recurses, but readValue() (and the binder) recurse
+// once per nested array or object, so nesting is capped at MAX_DEPTH to bound the Java stack.
+public class JsonReader {
+    public enum Token {
+        BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+    }
+
+    private static final int MAX_DEPTH = 256;
+    // Decimals are kept exact; a larger exponent would let "1e999999999" cost gigabytes once converted
+    private static final int MAX_DECIMAL_SCALE = 1024;
+
+    // Scope stack states
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_ARRAY = 2;
+    private static final int NONEMPTY_ARRAY = 3;
+    private static final int EMPTY_OBJECT = 4;
+    private static final int DANGLING_NAME = 5;
+    private static final int NONEMPTY_OBJECT = 6;
+
+    private final Reader in;
+    private final char[] buffer = new char[2048];
+    private int pos;
+    private int limit;
+    private long offset;
+
+    private final int[] stack = new int[MAX_DEPTH + 1];
+    private int stackSize = 1;
+
+    private Token peeked;
+    private boolean peekedBoolean;
+    private final StringBuilder text = new StringBuilder(64);
+    private char[] number = new char[32];
+    private int numberLength;
+    private boolean numberIsIntegral;
+
+    public JsonReader(Reader in) {
+        this.in = in;
+        stack[0] = EMPTY_DOCUMENT;
+    }
+
+    public JsonReader(String json) {
+        this(new StringReader(json));
+    }
+
+    public Token peek() {
+        if (peeked == null) {
+            peeked = doPeek();
+        }
+        return peeked;
+    }
+
+    public void beginObject() {
+        expect(Token.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    public void endObject() {
+        expect(Token.END_OBJECT);
+        stackSize--;
+    }
+
+    public void beginArray() {
+        expect(Token.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    public void endArray() {
+        expect(Token.END_ARRAY);
+        stackSize--;
+    }
+
+    public boolean hasNext() {
+        Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+
+    public String nextName() {
+        expect(Token.NAME);
+        return readString();
+    }
+
+    // Strings are returned as-is; numbers and booleans as their literal text
+    public String nextString() {
+        Token token = peek();
+        peeked = null;
+        switch (token) {
+            case STRING: return readString();
+            case NUMBER: return new String(number, 0, numberLength);
+            case BOOLEAN: return Boolean.toString(peekedBoolean);
+            default: throw error("Expected a string but was " + token);
+        }
+    }
+
+    public long nextLong() {
+        Token token = peek();
+        if (token == Token.STRING) {
+            peeked = null;
+            return parseLong(readString());
+        }
+        expect(Token.NUMBER);
+        if (isShortInteger()) {
+            long value = 0;
+            int i = number[0] == '-' ? 1 : 0;
+            for (; i < numberLength; i++) {
+                value = value * 10 + (number[i] - '0');
+            }
+            return number[0] == '-' ? -value : value;
+        }
+        try {
+            return toDecimal().longValueExact();
+        } catch (ArithmeticException e) {
+            throw error("Expected an integer but was " + new String(number, 0, numberLength));
+        }
+    }
+
+    public BigDecimal nextDecimal() {
+        Token token = peek();
+        if (token == Token.STRING) {
+            peeked = null;
+            String value = readString().trim();
+            BigDecimal decimal;
+            try {
+                decimal = new BigDecimal(value);
+            } catch (NumberFormatException e) {
+                throw error("Expected a number");
+            }
+            return checkScale(decimal, value);
+        }
+        expect(Token.NUMBER);
+        return toDecimal();
+    }
+
+    public boolean nextBoolean() {
+        Token token = peek();
+        if (token == Token.STRING) {
+            peeked = null;
+            return Boolean.parseBoolean(readString());
+        }
+        expect(Token.BOOLEAN);
+        return peekedBoolean;
+    }
+
+    public void nextNull() {
+        expect(Token.NULL);
+    }
+
+    public void skipValue() {
+        int depth = 0;
+        do {
+            Token token = peek();
+            switch (token) {
+                case BEGIN_OBJECT: beginObject(); depth++; break;
+                case BEGIN_ARRAY: beginArray(); depth++; break;
+                case END_OBJECT: endObject(); depth--; break;
+                case END_ARRAY: endArray(); depth--; break;
+                case NAME: case STRING: peeked = null; skipString(); break;
+                case END_DOCUMENT: throw error("Unexpected end of document");
+                default: peeked = null; break;
+            }
+        } while (depth > 0);
+    }
+
+    // Reads any value into plain Java types: Map, List, String, Long, BigDecimal, Boolean or null
+    public Object readValue() {
+        switch (peek()) {
+            case BEGIN_OBJECT: {
+                Map<String, Object> map = new LinkedHashMap<>();
+                beginObject();
+                while (hasNext()) {
+                    String name = nextName();
+                    map.put(name, readValue());
+                }
+                endObject();
+                return map;
+            }
+            case BEGIN_ARRAY: {
+                List<Object> list = new ArrayList<>();
+                beginArray();
+                while (hasNext()) {
+                    list.add(readValue());
+                }
+                endArray();
+                return list;
+            }
+            case STRING:
+                return nextString();
+            case NUMBER:
+                if (isShortInteger()) {
+                    return nextLong();
+                }
+                return nextDecimal();
+            case BOOLEAN:
+                return nextBoolean();
+            case NULL:
+                nextNull();
+                return null;
+            default:
+                throw error("Unexpected " + peek());
+        }
+    }
+
+    // Fails if anything other than whitespace follows the top-level value
+    public void finish() {
+        if (peek() != Token.END_DOCUMENT) {
+            throw error("Unexpected trailing content");
+        }
+    }
+
+    private void expect(Token expected) {
+        Token token = peek();
+        if (token != expected) {
+            throw error("Expected " + expected + " but was " + token);
+        }
+        peeked = null;
+    }
+
+    private void push(int scope) {
+        if (stackSize > MAX_DEPTH) {
+            throw error("Nesting too deep");
+        }
+        stack[stackSize++] = scope;
+    }
+
+    private Token doPeek() {
+        int scope = stack[stackSize - 1];
+        switch (scope) {
+            case EMPTY_ARRAY:
+                stack[stackSize - 1] = NONEMPTY_ARRAY;
+                break;
+            case NONEMPTY_ARRAY: {
+                int c = nextNonWhitespace();
+                if (c == ']') return Token.END_ARRAY;
+                if (c != ',') throw error("Expected ',' or ']'");
+                break;
+            }
+            case EMPTY_OBJECT:
+            case NONEMPTY_OBJECT: {
+                stack[stackSize - 1] = DANGLING_NAME;
+                if (scope == NONEMPTY_OBJECT) {
+                    int c = nextNonWhitespace();
+                    if (c == '}') return Token.END_OBJECT;
+                    if (c != ',') throw error("Expected ',' or '}'");
+                }
+                int c = nextNonWhitespace();
+                if (c == '"') return Token.NAME;
+                if (c == '}' && scope == EMPTY_OBJECT) return Token.END_OBJECT;
+                throw error("Expected a property name");
+            }
+            case DANGLING_NAME: {
+                stack[stackSize - 1] = NONEMPTY_OBJECT;
+                if (nextNonWhitespace() != ':') throw error("Expected ':'");
+                break;
+            }
+            case EMPTY_DOCUMENT:
+                stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+                break;
+            default: {
+                int c = nextNonWhitespace();
+                if (c == -1) return Token.END_DOCUMENT;
+                throw error("Unexpected trailing content");
+            }
+        }
+
+        int c = nextNonWhitespace();
+        switch (c) {
+            case '{': return Token.BEGIN_OBJECT;
+            case '[': return Token.BEGIN_ARRAY;
+            case '"': return Token.STRING;
+            case ']':
+                if (scope == EMPTY_ARRAY) return Token.END_ARRAY;
+                throw error("Unexpected ']'");
+            case 't':
+                readLiteral("rue");
+                peekedBoolean = true;
+                return Token.BOOLEAN;
+            case 'f':
+                readLiteral("alse");
+                peekedBoolean = false;
+                return Token.BOOLEAN;
+            case 'n':
+                readLiteral("ull");
+                return Token.NULL;
+            case -1:
+                throw error("Unexpected end of document");
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    readNumber((char) c);
+                    return Token.NUMBER;
+                }
+                throw error("Unexpected character '" + (char) c + "'");
+        }
+    }
+
+    private void readLiteral(String rest) {
+        for (int i = 0; i < rest.length(); i++) {
+            if (read() != rest.charAt(i)) {
+                throw error("Invalid literal");
+            }
+        }
+    }
+
+    // Validates the JSON number grammar while copying the digits into a reusable buffer
+    private void readNumber(char first) {
+        numberLength = 0;
+        numberIsIntegral = true;
+        appendNumber(first);
+        int c = first;
+        if (c == '-') {
+            c = read();
+            if (c < '0' || c > '9') throw error("Invalid number");
+            appendNumber((char) c);
+        }
+        if (c != '0') {
+            while (isDigit(peekChar())) appendNumber((char) read());
+        }
+        if (peekChar() == '.') {
+            numberIsIntegral = false;
+            appendNumber((char) read());
+            if (!isDigit(peekChar())) throw error("Invalid number");
+            while (isDigit(peekChar())) appendNumber((char) read());
+        }
+        int e = peekChar();
+        if (e == 'e' || e == 'E') {
+            numberIsIntegral = false;
+            appendNumber((char) read());
+            int sign = peekChar();
+            if (sign == '+' || sign == '-') appendNumber((char) read());
+            if (!isDigit(peekChar())) throw error("Invalid number");
+            while (isDigit(peekChar())) appendNumber((char) read());
+        }
+        int next = peekChar();
+        if (next != -1 && next != ',' && next != '}' && next != ']' && !isWhitespace(next)) {
+            throw error("Invalid number");
+        }
+    }
+
+    // At most 18 digits, besides the sign, always fits in a long
+    private boolean isShortInteger() {
+        return numberIsIntegral && numberLength - (number[0] == '-' ? 1 : 0) <= 18;
+    }
+
+    private BigDecimal toDecimal() {
+        String literal = new String(number, 0, numberLength);
+        try {
+            return checkScale(new BigDecimal(number, 0, numberLength), literal);
+        } catch (NumberFormatException e) {
+            // Exponent beyond the int range
+            throw error("Number out of range: " + literal);
+        }
+    }
+
+    private BigDecimal checkScale(BigDecimal value, String literal) {
+        if (value.scale() > MAX_DECIMAL_SCALE || value.scale() < -MAX_DECIMAL_SCALE) {
+            throw error("Number out of range: " + literal);
+        }
+        return value;
+    }
+
+    private void appendNumber(char c) {
+        if (numberLength == number.length) {
+            if (numberLength >= 1024) throw error("Number too long");
+            number = Arrays.copyOf(number, numberLength * 2);
+        }
+        number[numberLength++] = c;
+    }
+
+    private String readString() {
+        text.setLength(0);
+        while (true) {
+            // Copy runs of plain characters straight from the buffer
+            int start = pos;
+            while (pos < limit) {
+                char c = buffer[pos];
+                if (c == '"') {
+                    text.append(buffer, start, pos - start);
+                    pos++;
+                    return text.toString();
+                }
+                if (c == '\\') {
+                    break;
+                }
+                if (c < 0x20) {
+                    throw error("Unescaped control character in string");
+                }
+                pos++;
+            }
+            text.append(buffer, start, pos - start);
+            if (pos < limit) {
+                pos++;
+                text.appendCodePoint(readEscape());
+            } else if (!fill()) {
+                throw error("Unterminated string");
+            }
+        }
+    }
+
+    private void skipString() {
+        while (true) {
+            int c = read();
+            if (c == '"') return;
+            if (c == '\\') readEscape();
+            else if (c == -1) throw error("Unterminated string");
+        }
+    }
+
+    // Returns a code point; an escaped surrogate must be a high surrogate followed by an escaped low one
+    private int readEscape() {
+        int c = read();
+        switch (c) {
+            case '"': return '"';
+            case '\\': return '\\';
+            case '/': return '/';
+            case 'b': return '\b';
+            case 'f': return '\f';
+            case 'n': return '\n';
+            case 'r': return '\r';
+            case 't': return '\t';
+            case 'u': {
+                char value = readHex4();
+                if (Character.isLowSurrogate(value)) {
+                    throw error("Unpaired surrogate in unicode escape");
+                }
+                if (Character.isHighSurrogate(value)) {
+                    if (read() != '\\' || read() != 'u') {
+                        throw error("Unpaired surrogate in unicode escape");
+                    }
+                    char low = readHex4();
+                    if (!Character.isLowSurrogate(low)) {
+                        throw error("Unpaired surrogate in unicode escape");
+                    }
+                    return Character.toCodePoint(value, low);
+                }
+                return value;
+            }
+            default:
+                throw error("Invalid escape sequence");
+        }
+    }
+
+    private char readHex4() {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            int c = read();
+            // Character.digit would also accept non-ASCII digits such as fullwidth ones
+            int digit = c >= '0' && c <= '9' ? c - '0'
+                : c >= 'a' && c <= 'f' ? c - 'a' + 10
+                : c >= 'A' && c <= 'F' ? c - 'A' + 10 : -1;
+            if (digit < 0) throw error("Invalid unicode escape");
+            value = (value << 4) | digit;
+        }
+        return (char) value;
+    }
+
+    private int nextNonWhitespace() {
+        while (true) {
+            int c = read();
+            if (!isWhitespace(c)) return c;
+        }
+    }
+
+    private int read() {
+        if (pos == limit && !fill()) return -1;
+        return buffer[pos++];
+    }
+
+    private int peekChar() {
+        if (pos == limit && !fill()) return -1;
+        return buffer[pos];
+    }
+
+    private boolean fill() {
+        offset += limit;
+        pos = 0;
+        limit = 0;
+        try {
+            int n = in.read(buffer, 0, buffer.length);
+            if (n <= 0) return false;
+            limit = n;
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+    }
+
+    private static boolean isDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private long parseLong(String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw error("Expected an integer but was \"" + value + "\"");
+        }
+    }
+
+    private JsonParseException error(String message) {
+        return new JsonParseException(message + " at offset " + (offset + pos));
+    }
+}
@@ -0,0 +1,188 @@
+package com.medcare.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Writes objects as JSON into a JsonWriter. For model classes a write plan (property
+// name bytes plus a getter MethodHandle per field) is built once per class and reused,
+// so no reflection happens per object.
+public final class JsonSerializer {
+    private static final ClassValue<ObjectPlan> PLANS = new ClassValue<>() {
+        @Override
+        protected ObjectPlan computeValue(Class<?> type) {
+            return ObjectPlan.build(type);
+        }
+    };
+
+    // Enum constants are written as quoted lower-case names, precomputed per enum type
+    private static final ClassValue<byte[][]> ENUM_NAMES = new ClassValue<>() {
+        @Override
+        protected byte[][] computeValue(Class<?> type) {
+            Object[] constants = type.getEnumConstants();
+            byte[][] names = new byte[constants.length][];
+            for (int i = 0; i < constants.length; i++) {
+                String name = ((Enum<?>) constants[i]).name().toLowerCase(Locale.ROOT);
+                names[i] = ("\"" + name + "\"").getBytes(StandardCharsets.UTF_8);
+            }
+            return names;
+        }
+    };
+
+    private JsonSerializer() {}
+
+    public static void write(Object value, JsonWriter out) {
+        if (value == null) {
+            out.writeNull();
+        } else if (value instanceof String) {
+            out.writeString((String) value);
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            out.writeLong(((Number) value).longValue());
+        } else if (value instanceof Number) {
+            out.writeAscii(value.toString());
+        } else if (value instanceof Boolean) {
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof LocalDate) {
+            out.writeDate((LocalDate) value);
+        } else if (value instanceof LocalTime) {
+            out.writeTime((LocalTime) value);
+        } else if (value instanceof LocalDateTime) {
+            out.writeDateTime((LocalDateTime) value);
+        } else if (value instanceof Enum) {
+            Enum<?> constant = (Enum<?>) value;
+            out.writeRaw(ENUM_NAMES.get(constant.getDeclaringClass())[constant.ordinal()]);
+        } else if (value instanceof List) {
+            writeList((List<?>) value, out);
+        } else if (value instanceof Map) {
+            writeMap((Map<?, ?>) value, out);
+        } else {
+            PLANS.get(value.getClass()).write(value, out);
+        }
+    }
+
+    private static void writeList(List<?> list, JsonWriter out) {
+        out.writeByte('[');
+        for (int i = 0, size = list.size(); i < size; i++) {
+            if (i > 0) out.writeByte(',');
+            write(list.get(i), out);
+        }
+        out.writeByte(']');
+    }
+
+    private static void writeMap(Map<?, ?> map, JsonWriter out) {
+        out.writeByte('{');
+        boolean first = true;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (!first) out.writeByte(',');
+            out.writeString(String.valueOf(entry.getKey()));
+            out.writeByte(':');
+            write(entry.getValue(), out);
+            first = false;
+        }
+        out.writeByte('}');
+    }
+
+    private static final class ObjectPlan {
+        private final Property[] properties;
+
+        private ObjectPlan(Property[] properties) {
+            this.properties = properties;
+        }
+
+        void write(Object obj, JsonWriter out) {
+            out.writeByte('{');
+            boolean first = true;
+            for (Property property : properties) {
+                first = property.write(obj, out, first);
+            }
+            out.writeByte('}');
+        }
+
+        // Same field selection and order as the old reflection-based serializer:
+        // declared instance fields, null values omitted
+        static ObjectPlan build(Class<?> type) {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            List<Property> properties = new ArrayList<>();
+            for (Field field : type.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) {
+                    continue;
+                }
+                try {
+                    properties.add(new Property(field.getName(), accessor(lookup, type, field)));
+                } catch (ReflectiveOperationException | RuntimeException e) {
+                    // Field is neither readable through a getter nor accessible, skip it
+                }
+            }
+            return new ObjectPlan(properties.toArray(new Property[0]));
+        }
+
+        private static MethodHandle accessor(MethodHandles.Lookup lookup, Class<?> type, Field field)
+                throws ReflectiveOperationException {
+            MethodHandle handle;
+            Method getter = findGetter(type, field);
+            if (getter != null) {
+                handle = lookup.unreflect(getter);
+            } else {
+                field.setAccessible(true);
+                handle = MethodHandles.lookup().unreflectGetter(field);
+            }
+            return handle.asType(MethodType.methodType(Object.class, Object.class));
+        }
+
+        private static Method findGetter(Class<?> type, Field field) {
+            String suffix = Character.toUpperCase(field.getName().charAt(0)) + field.getName().substring(1);
+            for (String prefix : new String[] { "get", "is" }) {
+                try {
+                    Method method = type.getMethod(prefix + suffix);
+                    if (method.getReturnType() == field.getType()
+                            && Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+                        return method;
+                    }
+                } catch (NoSuchMethodException e) {
+                    // Try the next naming convention
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class Property {
+        private final byte[] firstName;
+        private final byte[] nextName;
+        private final MethodHandle getter;
+
+        Property(String name, MethodHandle getter) {
+            this.firstName = ("\"" + name + "\":").getBytes(StandardCharsets.UTF_8);
+            this.nextName = (",\"" + name + "\":").getBytes(StandardCharsets.UTF_8);
+            this.getter = getter;
+        }
+
+        boolean write(Object obj, JsonWriter out, boolean first) {
+            Object value;
+            try {
+                value = (Object) getter.invokeExact(obj);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException("Failed to read JSON property", t);
+            }
+            if (value == null) {
+                return first;
+            }
+            out.writeRaw(first ? firstName : nextName);
+            JsonSerializer.write(value, out);
+            return false;
+        }
+    }
+}
@@ -1,128 +1,58 @@
 package com.medcare.util;
 
-import com.medcare.model.*;
-import java.lang.reflect.Field;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
-import java.util.*;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
 
 public class JsonUtil {
     
+    // Buffers above this size are dropped after use instead of being kept per thread
+    private static final int MAX_RETAINED_BUFFER = 256 * 1024;
+    
+    private static final ThreadLocal<JsonWriter> WRITERS = ThreadLocal.withInitial(() -> new JsonWriter(8192));
+    
     public static String toJson(Object obj) {
-        if (obj == null) return "null";
-        
-        if (obj instanceof String) {
-            return "\"" + escapeString((String) obj) + "\"";
-        }
-        
-        if (obj instanceof Number || obj instanceof Boolean) {
-            return obj.toString();
-        }
-        
-        if (obj instanceof LocalDate) {
-            return "\"" + ((LocalDate) obj).format(DateTimeFormatter.ISO_LOCAL_DATE) + "\"";
-        }
-        
-        if (obj instanceof LocalTime) {
-            return "\"" + ((LocalTime) obj).format(DateTimeFormatter.ISO_LOCAL_TIME) + "\"";
-        }
-        
-        if (obj instanceof LocalDateTime) {
-            return "\"" + ((LocalDateTime) obj).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) + "\"";
-        }
-        
-        if (obj instanceof Enum) {
-            return "\"" + ((Enum<?>) obj).name().toLowerCase() + "\"";
-        }
-        
-        if (obj instanceof List) {
-            List<?> list = (List<?>) obj;
-            StringBuilder sb = new StringBuilder("[");
-            for (int i = 0; i < list.size(); i++) {
-                if (i > 0) sb.append(",");
-                sb.append(toJson(list.get(i)));
-            }
-            sb.append("]");
-            return sb.toString();
+        JsonWriter writer = WRITERS.get();
+        try {
+            JsonSerializer.write(obj, writer);
+            return writer.toString();
+        } finally {
+            writer.trim(MAX_RETAINED_BUFFER);
         }
-        
-        // Handle objects using reflection
-        return objectToJson(obj);
     }
     
-    private static String objectToJson(Object obj) {
-        StringBuilder sb = new StringBuilder("{");
-        Class<?> clazz = obj.getClass();
-        Field[] fields = clazz.getDeclaredFields();
-        boolean first = true;
-        
-        for (Field field : fields) {
-            field.setAccessible(true);
-            try {
-                Object value = field.get(obj);
-                if (value != null) {
-                    if (!first) sb.append(",");
-                    sb.append("\"").append(field.getName()).append("\":");
-                    sb.append(toJson(value));
-                    first = false;
-                }
-            } catch (IllegalAccessException e) {
-                // Skip this field
-            }
+    public static byte[] toJsonBytes(Object obj) {
+        JsonWriter writer = WRITERS.get();
+        try {
+            JsonSerializer.write(obj, writer);
+            return writer.toByteArray();
+        } finally {
+            writer.trim(MAX_RETAINED_BUFFER);
         }
-        
-        sb.append("}");
-        return sb.toString();
     }
     
-    private static String escapeString(String str) {
-        return str.replace("\\", "\\\\")
-                  .replace("\"", "\\\"")
-                  .replace("\n", "\\n")
-                  .replace("\r", "\\r")
-                  .replace("\t", "\\t");
+    // Map.class yields nested Maps/Lists with typed values; any other class is bound through its setters
+    public static <T> T fromJson(String json, Class<T> clazz) {
+        return read(new JsonReader(json), clazz);
     }
     
-    @SuppressWarnings("unchecked")
-    public static <T> T fromJson(String json, Class<T> clazz) {
-        // Simple JSON parsing - in production, use a proper JSON library
-        if (clazz == Map.class) {
-            return (T) parseJsonObject(json);
-        }
-        
-        // For now, return a basic map for all objects
-        return (T) parseJsonObject(json);
+    public static <T> T fromJson(InputStream json, Class<T> clazz) {
+        return read(new JsonReader(new InputStreamReader(json, StandardCharsets.UTF_8)), clazz);
     }
     
-    private static Map<String, Object> parseJsonObject(String json) {
-        Map<String, Object> result = new HashMap<>();
-        
-        // Remove outer braces
-        json = json.trim();
-        if (json.startsWith("{") && json.endsWith("}")) {
-            json = json.substring(1, json.length() - 1);
-        }
-        
-        // Simple parsing - split by commas (this is very basic)
-        String[] pairs = json.split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)");
-        
-        for (String pair : pairs) {
-            String[] keyValue = pair.split(":", 2);
-            if (keyValue.length == 2) {
-                String key = keyValue[0].trim().replaceAll("\"", "");
-                String value = keyValue[1].trim();
-                
-                // Remove quotes from string values
-                if (value.startsWith("\"") && value.endsWith("\"")) {
-                    value = value.substring(1, value.length() - 1);
-                }
-                
-                result.put(key, value);
+    @SuppressWarnings("unchecked")
+    private static <T> T read(JsonReader reader, Class<T> clazz) {
+        T result;
+        if (clazz == Map.class) {
+            if (reader.peek() != JsonReader.Token.BEGIN_OBJECT) {
+                throw new JsonParseException("Expected a JSON object");
             }
+            result = (T) reader.readValue();
+        } else {
+            result = JsonBinder.bind(reader, clazz);
         }
-        
+        reader.finish();
         return result;
     }
-}
\ No newline at end of file
+}
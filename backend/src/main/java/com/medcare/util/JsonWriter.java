@@ -0,0 +1,251 @@
+package com.medcare.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+
+// Growable UTF-8 byte buffer that JSON is written into directly, without
+// building intermediate Strings. Instances are reused, so they are not thread-safe.
+public class JsonWriter {
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TRUE = "true".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FALSE = "false".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] MIN_LONG = Long.toString(Long.MIN_VALUE).getBytes(StandardCharsets.US_ASCII);
+
+    private final int initialCapacity;
+    private byte[] buffer;
+    private int count;
+
+    public JsonWriter() {
+        this(1024);
+    }
+
+    public JsonWriter(int initialCapacity) {
+        this.initialCapacity = initialCapacity;
+        this.buffer = new byte[initialCapacity];
+    }
+
+    public void reset() {
+        count = 0;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, count);
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buffer, 0, count);
+    }
+
+    @Override
+    public String toString() {
+        return new String(buffer, 0, count, StandardCharsets.UTF_8);
+    }
+
+    // Shrinks an oversized buffer back so one huge response does not pin memory forever
+    void trim(int maxRetained) {
+        if (buffer.length > maxRetained) {
+            buffer = new byte[initialCapacity];
+        }
+        count = 0;
+    }
+
+    private void ensureCapacity(int extra) {
+        int required = count + extra;
+        if (required > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(required, buffer.length << 1));
+        }
+    }
+
+    public void writeByte(char c) {
+        ensureCapacity(1);
+        buffer[count++] = (byte) c;
+    }
+
+    public void writeRaw(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, count, bytes.length);
+        count += bytes.length;
+    }
+
+    // Only for text known to be ASCII, such as numbers produced by toString()
+    public void writeAscii(String text) {
+        int length = text.length();
+        ensureCapacity(length);
+        for (int i = 0; i < length; i++) {
+            buffer[count++] = (byte) text.charAt(i);
+        }
+    }
+
+    public void writeNull() {
+        writeRaw(NULL);
+    }
+
+    public void writeBoolean(boolean value) {
+        writeRaw(value ? TRUE : FALSE);
+    }
+
+    public void writeLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            writeRaw(MIN_LONG);
+            return;
+        }
+        ensureCapacity(20);
+        if (value < 0) {
+            buffer[count++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        int pos = count + digits;
+        count = pos;
+        do {
+            buffer[--pos] = (byte) ('0' + (value % 10));
+            value /= 10;
+        } while (value != 0);
+    }
+
+    public void writeString(String value) {
+        int length = value.length();
+        // Reserve for the all-ASCII case; escapes and multi-byte chars grow the buffer as they go
+        ensureCapacity(length + 2);
+        buffer[count++] = '"';
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c < 0x80 && c != '"' && c != '\\') {
+                buffer[count++] = (byte) c;
+            } else {
+                writeSpecialChar(value, i, c);
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    i++;
+                }
+                ensureCapacity(length - i + 1);
+            }
+        }
+        ensureCapacity(1);
+        buffer[count++] = '"';
+    }
+
+    private void writeSpecialChar(String value, int index, char c) {
+        ensureCapacity(12);
+        switch (c) {
+            case '"': buffer[count++] = '\\'; buffer[count++] = '"'; return;
+            case '\\': buffer[count++] = '\\'; buffer[count++] = '\\'; return;
+            case '\n': buffer[count++] = '\\'; buffer[count++] = 'n'; return;
+            case '\r': buffer[count++] = '\\'; buffer[count++] = 'r'; return;
+            case '\t': buffer[count++] = '\\'; buffer[count++] = 't'; return;
+            default: break;
+        }
+        if (c < 0x20) {
+            buffer[count++] = '\\';
+            buffer[count++] = 'u';
+            buffer[count++] = '0';
+            buffer[count++] = '0';
+            buffer[count++] = HEX[c >> 4];
+            buffer[count++] = HEX[c & 0xF];
+        } else if (c < 0x800) {
+            buffer[count++] = (byte) (0xC0 | (c >> 6));
+            buffer[count++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c) && index + 1 < value.length()
+                && Character.isLowSurrogate(value.charAt(index + 1))) {
+            int codePoint = Character.toCodePoint(c, value.charAt(index + 1));
+            buffer[count++] = (byte) (0xF0 | (codePoint >> 18));
+            buffer[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+            buffer[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            buffer[count++] = (byte) (0x80 | (codePoint & 0x3F));
+        } else if (Character.isSurrogate(c)) {
+            // Unpaired surrogate, same replacement String.getBytes(UTF_8) would use
+            buffer[count++] = '?';
+        } else {
+            buffer[count++] = (byte) (0xE0 | (c >> 12));
+            buffer[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            buffer[count++] = (byte) (0x80 | (c & 0x3F));
+        }
+    }
+
+    // Same output as DateTimeFormatter.ISO_LOCAL_DATE for four-digit years
+    public void writeDate(LocalDate date) {
+        int year = date.getYear();
+        if (year < 0 || year > 9999) {
+            writeString(date.toString());
+            return;
+        }
+        ensureCapacity(12);
+        buffer[count++] = '"';
+        writeDateDigits(date);
+        buffer[count++] = '"';
+    }
+
+    // Same output as DateTimeFormatter.ISO_LOCAL_TIME
+    public void writeTime(LocalTime time) {
+        ensureCapacity(20);
+        buffer[count++] = '"';
+        writeTimeDigits(time);
+        buffer[count++] = '"';
+    }
+
+    // Same output as DateTimeFormatter.ISO_LOCAL_DATE_TIME for four-digit years
+    public void writeDateTime(LocalDateTime dateTime) {
+        int year = dateTime.getYear();
+        if (year < 0 || year > 9999) {
+            writeString(dateTime.toString());
+            return;
+        }
+        ensureCapacity(32);
+        buffer[count++] = '"';
+        writeDateDigits(dateTime.toLocalDate());
+        buffer[count++] = 'T';
+        writeTimeDigits(dateTime.toLocalTime());
+        buffer[count++] = '"';
+    }
+
+    private void writeDateDigits(LocalDate date) {
+        int year = date.getYear();
+        buffer[count++] = (byte) ('0' + year / 1000);
+        buffer[count++] = (byte) ('0' + (year / 100) % 10);
+        buffer[count++] = (byte) ('0' + (year / 10) % 10);
+        buffer[count++] = (byte) ('0' + year % 10);
+        buffer[count++] = '-';
+        writeTwoDigits(date.getMonthValue());
+        buffer[count++] = '-';
+        writeTwoDigits(date.getDayOfMonth());
+    }
+
+    private void writeTimeDigits(LocalTime time) {
+        writeTwoDigits(time.getHour());
+        buffer[count++] = ':';
+        writeTwoDigits(time.getMinute());
+        buffer[count++] = ':';
+        writeTwoDigits(time.getSecond());
+        int nano = time.getNano();
+        if (nano != 0) {
+            buffer[count++] = '.';
+            int digits = 9;
+            while (nano % 10 == 0) {
+                nano /= 10;
+                digits--;
+            }
+            for (int i = digits - 1; i >= 0; i--) {
+                buffer[count + i] = (byte) ('0' + nano % 10);
+                nano /= 10;
+            }
+            count += digits;
+        }
+    }
+
+    private void writeTwoDigits(int value) {
+        buffer[count++] = (byte) ('0' + value / 10);
+        buffer[count++] = (byte) ('0' + value % 10);
+    }
+}
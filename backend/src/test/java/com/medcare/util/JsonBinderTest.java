@@ -0,0 +1,101 @@
+package com.medcare.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.medcare.model.Appointment;
+import com.medcare.model.Patient;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class JsonBinderTest {
+    // Text that needs escaping or multi-byte UTF-8: quotes, backslashes, controls, accents, CJK and emoji
+    private static final String[] FRAGMENTS = {
+        "a", "Z", " ", "\"", "\\", "/", "\n", "\t", "\u0000", "\u001f", "\u007f", "é", "Ñ", "中", "😀", "👩‍⚕️", "<", "&"
+    };
+
+    @Test
+    void generatedPatientsRoundTrip() {
+        Random random = new Random(42);
+        for (int i = 0; i < 2_000; i++) {
+            Patient patient = new Patient(text(random), text(random), text(random),
+                LocalDate.of(1900 + random.nextInt(125), 1 + random.nextInt(12), 1 + random.nextInt(28)),
+                Patient.Gender.values()[random.nextInt(Patient.Gender.values().length)], text(random), text(random));
+            patient.setId(random.nextBoolean() ? null : random.nextLong() & Long.MAX_VALUE);
+            patient.setBloodType(random.nextBoolean() ? null : text(random));
+            patient.setAllergies(random.nextBoolean() ? null : list(random));
+            patient.setMedications(list(random));
+            patient.setCreatedAt(LocalDateTime.of(2024, 1, 1, 0, 0).plusSeconds(random.nextInt(1 << 30)).plusNanos(random.nextInt(1_000_000) * 1000L));
+
+            String json = JsonUtil.toJson(patient);
+            assertEquals(json, JsonUtil.toJson(JsonUtil.fromJson(json, Patient.class)));
+        }
+    }
+
+    @Test
+    void generatedAppointmentsRoundTrip() {
+        Random random = new Random(43);
+        for (int i = 0; i < 2_000; i++) {
+            Appointment appointment = new Appointment();
+            appointment.setId(random.nextLong() & Long.MAX_VALUE);
+            appointment.setPatientId((long) random.nextInt(Integer.MAX_VALUE));
+            appointment.setPatientName(text(random));
+            appointment.setDoctorId((long) random.nextInt(1000));
+            appointment.setDoctorName(text(random));
+            appointment.setAppointmentDate(LocalDate.ofEpochDay(random.nextInt(40_000)));
+            appointment.setAppointmentTime(LocalTime.of(random.nextInt(24), random.nextInt(60)));
+            appointment.setDuration(random.nextInt(Integer.MAX_VALUE));
+            appointment.setType(Appointment.AppointmentType.values()[random.nextInt(Appointment.AppointmentType.values().length)]);
+            appointment.setStatus(Appointment.AppointmentStatus.values()[random.nextInt(Appointment.AppointmentStatus.values().length)]);
+            appointment.setNotes(random.nextBoolean() ? null : text(random));
+            appointment.setVersion(random.nextInt(Integer.MAX_VALUE));
+
+            String json = JsonUtil.toJson(appointment);
+            assertEquals(json, JsonUtil.toJson(JsonUtil.fromJson(json, Appointment.class)));
+        }
+    }
+
+    @Test
+    void nullDocumentBindsToNull() {
+        assertNull(JsonUtil.fromJson("null", Patient.class));
+        assertNull(JsonUtil.fromJson(" null ", Appointment.class));
+    }
+
+    @Test
+    void valuesOfTheWrongShapeAreParseErrors() {
+        for (String json : new String[] {
+                "{\"duration\":\"abc\"}", "{\"duration\":1.5}", "{\"duration\":true}", "{\"patientId\":{}}",
+                "{\"patientId\":[1]}", "{\"appointmentDate\":\"2024-13-01\"}", "{\"appointmentDate\":20240101}",
+                "{\"appointmentTime\":\"25:00\"}", "{\"status\":\"bogus\"}", "{\"status\":1}", "{\"notes\":{}}",
+                "{\"notes\":[]}", "[]", "\"appointment\"", "{\"duration\":30} trailing" }) {
+            assertThrows(JsonParseException.class, () -> JsonUtil.fromJson(json, Appointment.class), json);
+        }
+        for (String json : new String[] {
+                "{\"allergies\":{}}", "{\"allergies\":[{}]}", "{\"allergies\":[[\"a\"]]}", "{\"gender\":\"x\"}",
+                "{\"dateOfBirth\":\"yesterday\"}" }) {
+            assertThrows(JsonParseException.class, () -> JsonUtil.fromJson(json, Patient.class), json);
+        }
+    }
+
+    private static String text(Random random) {
+        StringBuilder text = new StringBuilder();
+        for (int i = random.nextInt(12); i > 0; i--) {
+            text.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+        }
+        return text.toString();
+    }
+
+    private static List<String> list(Random random) {
+        List<String> list = new ArrayList<>();
+        for (int i = random.nextInt(4); i > 0; i--) {
+            list.add(text(random));
+        }
+        return list;
+    }
+}
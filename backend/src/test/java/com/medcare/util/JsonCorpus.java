@@ -0,0 +1,48 @@
+package com.medcare.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+// Documents under src/test/resources/json-corpus, by file name
+final class JsonCorpus {
+    private JsonCorpus() {}
+
+    static Map<String, String> valid() {
+        return load("json-corpus/valid");
+    }
+
+    static Map<String, String> invalid() {
+        return load("json-corpus/invalid");
+    }
+
+    private static Map<String, String> load(String directory) {
+        Map<String, String> documents = new TreeMap<>();
+        try (Stream<Path> files = Files.list(Paths.get(JsonCorpus.class.getClassLoader().getResource(directory).toURI()))) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                documents.put(file.getFileName().toString(), Files.readString(file, StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+        return new LinkedHashMap<>(documents);
+    }
+
+    // Any value, and nothing after it
+    static Object parse(String json) {
+        JsonReader reader = new JsonReader(json);
+        Object value = reader.readValue();
+        reader.finish();
+        return value;
+    }
+}
@@ -0,0 +1,160 @@
+package com.medcare.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import com.medcare.model.Appointment;
+import com.medcare.model.Patient;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class JsonReaderTest {
+    // Characters a mutation inserts: structure, literal starts, escapes and a few non-ASCII ones
+    private static final String MUTATION_CHARS = "{}[]:,\"\\ \t\n0123456789-+.eEtfnu/xé😀\u0000\u001f";
+
+    @Test
+    void validCorpusRoundTrips() {
+        Map<String, String> corpus = JsonCorpus.valid();
+        assertTrue(corpus.size() >= 10, "valid corpus is missing");
+        corpus.forEach((name, json) -> {
+            Object parsed = JsonCorpus.parse(json);
+            assertEquals(parsed, JsonCorpus.parse(JsonUtil.toJson(parsed)), name);
+        });
+    }
+
+    @Test
+    void invalidCorpusIsRejected() {
+        Map<String, String> corpus = JsonCorpus.invalid();
+        assertTrue(corpus.size() >= 40, "invalid corpus is missing");
+        corpus.forEach((name, json) -> assertThrows(JsonParseException.class, () -> JsonCorpus.parse(json), name));
+    }
+
+    // Every valid document is an object or array, so every proper prefix of it is incomplete
+    @Test
+    void truncatedDocumentsAreRejected() {
+        JsonCorpus.valid().forEach((name, json) -> {
+            String trimmed = json.strip();
+            for (int length = 0; length < trimmed.length(); length++) {
+                String prefix = trimmed.substring(0, length);
+                assertThrows(JsonParseException.class, () -> JsonCorpus.parse(prefix), name + " cut at " + length);
+            }
+        });
+    }
+
+    @Test
+    void nestingIsLimitedTo256Levels() {
+        assertEquals(1, ((List<?>) JsonCorpus.parse("[".repeat(256) + "1" + "]".repeat(256))).size());
+        assertThrows(JsonParseException.class, () -> JsonCorpus.parse("[".repeat(257) + "1" + "]".repeat(257)));
+        assertThrows(JsonParseException.class, () -> JsonCorpus.parse("{\"a\":".repeat(257) + "1" + "}".repeat(257)));
+        // Unknown properties are skipped without recursion, and still hit the limit
+        assertThrows(JsonParseException.class,
+            () -> JsonUtil.fromJson("{\"unknown\":" + "[".repeat(100_000), Patient.class));
+        assertThrows(JsonParseException.class,
+            () -> JsonUtil.fromJson("{\"a\":" + "[".repeat(100_000), Map.class));
+    }
+
+    @Test
+    void surrogatePairsDecodeAndUnpairedOnesAreRejected() {
+        assertEquals(List.of("😀"), JsonCorpus.parse("[\"\\ud83d\\ude00\"]"));
+        assertEquals(List.of("😀"), JsonCorpus.parse("[\"\\uD83D\\uDE00\"]"));
+        assertEquals(List.of("a\u0000b"), JsonCorpus.parse("[\"a\\u0000b\"]"));
+        for (String json : new String[] {
+                "[\"\\ud83d\"]", "[\"\\ude00\"]", "[\"\\ud83d\\n\"]", "[\"\\ud83d\\ud83d\"]",
+                "[\"\\ud83d\\u0041\"]", "[\"\\ud83d", "[\"\\ud83d\\u", "[\"\\u", "[\"\\q\"]",
+                "[\"\\u-123\"]", "[\"\\u00G0\"]" }) {
+            assertThrows(JsonParseException.class, () -> JsonCorpus.parse(json), json);
+            // Skipped values are decoded the same way
+            assertThrows(JsonParseException.class,
+                () -> JsonUtil.fromJson("{\"unknown\":" + json.substring(1), Patient.class), json);
+        }
+    }
+
+    @Test
+    void hugeNumbersAreRejectedOrKeptExact() {
+        assertEquals(new BigDecimal("99999999999999999999"), JsonCorpus.parse("99999999999999999999"));
+        // Up to 18 digits read as a Long; beyond that as an exact BigDecimal
+        assertEquals(-999_999_999_999_999_999L, JsonCorpus.parse("-999999999999999999"));
+        assertEquals(new BigDecimal(Long.MIN_VALUE), JsonCorpus.parse("-9223372036854775808"));
+        assertEquals(new BigDecimal("1e1024"), JsonCorpus.parse("1e1024"));
+        for (String json : new String[] { "1e1025", "1e-1025", "1e999999999", "1e2147483647", "1e2147483648",
+                "1e-2147483649", "1" + "0".repeat(1024) }) {
+            assertThrows(JsonParseException.class, () -> JsonCorpus.parse(json), json);
+        }
+        // Out of range for the bound type rather than for the parser
+        assertThrows(JsonParseException.class,
+            () -> JsonUtil.fromJson("{\"duration\":2147483648}", Appointment.class));
+        assertThrows(JsonParseException.class,
+            () -> JsonUtil.fromJson("{\"patientId\":9223372036854775808}", Appointment.class));
+        assertThrows(JsonParseException.class,
+            () -> JsonUtil.fromJson("{\"patientId\":1e999999999}", Appointment.class));
+        assertThrows(JsonParseException.class,
+            () -> JsonUtil.fromJson("{\"patientId\":\"1e999999999\"}", Appointment.class));
+    }
+
+    // Random edits of the valid corpus must either parse or fail with JsonParseException,
+    // whichever way the document is read; anything else would reach a client as a 500
+    @Test
+    void mutatedDocumentsOnlyFailWithParseErrors() {
+        List<String> seeds = new ArrayList<>(JsonCorpus.valid().values());
+        seeds.addAll(JsonCorpus.invalid().values());
+        Random random = new Random(20261018L);
+        int rejected = 0;
+        for (int i = 0; i < 20_000; i++) {
+            String json = mutate(seeds.get(random.nextInt(seeds.size())), random);
+            rejected += readAllWays(json);
+        }
+        // The mutations are meant to break documents; if none were rejected they are not exercising anything
+        assertTrue(rejected > 10_000, "only " + rejected + " mutations were rejected");
+    }
+
+    private static String mutate(String json, Random random) {
+        StringBuilder out = new StringBuilder(json);
+        for (int edits = 1 + random.nextInt(3); edits > 0; edits--) {
+            int at = out.length() == 0 ? 0 : random.nextInt(out.length());
+            switch (random.nextInt(5)) {
+                case 0:
+                    if (out.length() > 0) out.deleteCharAt(at);
+                    break;
+                case 1:
+                    out.insert(at, MUTATION_CHARS.charAt(random.nextInt(MUTATION_CHARS.length())));
+                    break;
+                case 2:
+                    if (out.length() > 0) out.setCharAt(at, MUTATION_CHARS.charAt(random.nextInt(MUTATION_CHARS.length())));
+                    break;
+                case 3:
+                    out.setLength(at);
+                    break;
+                default: {
+                    int end = Math.min(out.length(), at + 1 + random.nextInt(16));
+                    out.insert(at, out.substring(at, end));
+                }
+            }
+        }
+        return out.toString();
+    }
+
+    // Returns how many of the readers rejected the document
+    private static int readAllWays(String json) {
+        int rejected = 0;
+        for (Class<?> type : new Class<?>[] { Object.class, Map.class, Patient.class, Appointment.class }) {
+            try {
+                if (type == Object.class) {
+                    JsonCorpus.parse(json);
+                } else {
+                    JsonUtil.fromJson(json, type);
+                }
+            } catch (JsonParseException e) {
+                rejected++;
+            } catch (RuntimeException | StackOverflowError e) {
+                fail("Reading " + json + " as " + type.getSimpleName() + " threw " + e, e);
+            }
+        }
+        return rejected;
+    }
+}